@@ -0,0 +1,105 @@
+package com.mhoms.mhomsservices.repository;
+
+import com.mhoms.mhomsservices.MhoMsApplication;
+import com.mhoms.mhomsservices.model.Patient;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time to persist a block of patients in one transaction: JDBC-batched inserts with
+ * pooled sequence ids versus one statement per row (batch size 1, which is what the
+ * IDENTITY ids used to force). Needs a reachable PostgreSQL (DATABASE_URL etc.);
+ * inserted rows are removed in teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkInsertBenchmark {
+
+    @Param({"100", "1000"})
+    public int rows;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private PatientRepository patientRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private String runTag;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MhoMsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        patientRepository = context.getBean(PatientRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        runTag = UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.getBean(JdbcTemplate.class)
+                .update("DELETE FROM patients WHERE email LIKE ?", "bulk-" + runTag + "-%");
+        context.close();
+    }
+
+    /**
+     * saveAll with the configured hibernate.jdbc.batch_size
+     */
+    @Benchmark
+    public int batched() {
+        return insert(null);
+    }
+
+    /**
+     * saveAll with batching turned off for the session - one round trip per row
+     */
+    @Benchmark
+    public int rowByRow() {
+        return insert(1);
+    }
+
+    private int insert(Integer batchSize) {
+        List<Patient> patients = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long n = sequence.incrementAndGet();
+            Patient patient = new Patient();
+            patient.setName("Bulk Patient " + n);
+            patient.setAge(30);
+            patient.setGender("M");
+            patient.setPhone(String.format("8%09d", n % 1_000_000_000L));
+            patient.setEmail("bulk-" + runTag + "-" + n + "@example.com");
+            patients.add(patient);
+        }
+        return transactionTemplate.execute(status -> {
+            if (batchSize != null) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            }
+            return patientRepository.saveAll(patients).size();
+        });
+    }
+}
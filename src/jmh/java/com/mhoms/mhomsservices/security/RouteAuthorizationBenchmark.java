@@ -0,0 +1,101 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.config.SecurityConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.security.web.access.intercept.RequestMatcherDelegatingAuthorizationManager;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-request authorization cost: the previous in-order Ant matcher chain
+ * versus the compiled per-method tries, over the same SecurityConfig rule table
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteAuthorizationBenchmark {
+
+    @Param({"GET /appointments/42", "PUT /appointments/42/cancel", "DELETE /doctors/7", "GET /unmapped/path"})
+    public String route;
+
+    private AuthorizationManager<HttpServletRequest> matcherChain;
+    private RouteAuthorizationManager compiled;
+    private HttpServletRequest request;
+    private Supplier<Authentication> authentication;
+
+    @Setup
+    public void setUp() {
+        compiled = SecurityConfig.routeAuthorization();
+        matcherChain = matcherChain(compiled);
+
+        String[] parts = route.split(" ");
+        MockHttpServletRequest mock = new MockHttpServletRequest(parts[0], parts[1]);
+        mock.setServletPath(parts[1]);
+        request = mock;
+
+        Authentication user = UsernamePasswordAuthenticationToken.authenticated(
+                "patient", null, List.of(new SimpleGrantedAuthority("ROLE_PATIENT")));
+        authentication = () -> user;
+    }
+
+    @Benchmark
+    public AuthorizationDecision antMatcherChain() {
+        return matcherChain.check(authentication, request);
+    }
+
+    @Benchmark
+    public AuthorizationDecision compiledTrie() {
+        return compiled.decide(authentication, request);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Rebuild what authorizeHttpRequests().requestMatchers(...) produced before the trie
+     */
+    private static AuthorizationManager<HttpServletRequest> matcherChain(RouteAuthorizationManager compiled) {
+        RequestMatcherDelegatingAuthorizationManager.Builder builder =
+                RequestMatcherDelegatingAuthorizationManager.builder();
+        for (RouteAuthorizationManager.Rule rule : compiled.getRules()) {
+            AntPathRequestMatcher matcher = rule.method() == null
+                    ? new AntPathRequestMatcher(rule.pattern())
+                    : new AntPathRequestMatcher(rule.pattern(), rule.method().name());
+            builder.add(matcher, toManager(rule.access()));
+        }
+        builder.add(AnyRequestMatcher.INSTANCE, toManager(compiled.getDefaultAccess()));
+        return builder.build();
+    }
+
+    private static AuthorizationManager<RequestAuthorizationContext> toManager(RouteAuthorizationManager.Access access) {
+        return switch (access.kind()) {
+            case PERMIT_ALL -> (a, c) -> new AuthorizationDecision(true);
+            case DENY_ALL -> (a, c) -> new AuthorizationDecision(false);
+            case AUTHENTICATED -> AuthenticatedAuthorizationManager.authenticated();
+            case HAS_ANY_AUTHORITY -> AuthorityAuthorizationManager.hasAnyAuthority(
+                    access.authorities().toArray(String[]::new));
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.MhoMsApplication;
+import com.mhoms.mhomsservices.model.Appointment;
+import com.mhoms.mhomsservices.model.Doctor;
+import com.mhoms.mhomsservices.model.Patient;
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import com.mhoms.mhomsservices.repository.PatientRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bookings per second: the previous four-statement entity path versus the
+ * single conflict-aware insert. Needs a reachable PostgreSQL (DATABASE_URL etc.);
+ * fixture rows are created in setup and removed in teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class BookingBenchmark {
+
+    // Far in the future so fixture bookings never collide with real data
+    private static final LocalDateTime BASE = LocalDateTime.of(2199, 1, 1, 0, 0);
+
+    // Back-to-back default-length slots, so no booking overlaps another or crosses midnight
+    private static final int SLOTS_PER_DAY = 24 * 60 / Appointment.DEFAULT_DURATION_MINUTES;
+
+    private final AtomicLong slot = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private AppointmentService appointmentService;
+    private AppointmentRepository appointmentRepository;
+    private PatientRepository patientRepository;
+    private DoctorRepository doctorRepository;
+    private TransactionTemplate transactionTemplate;
+    private Long patientId;
+    private Long doctorId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MhoMsApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        appointmentService = context.getBean(AppointmentService.class);
+        appointmentRepository = context.getBean(AppointmentRepository.class);
+        patientRepository = context.getBean(PatientRepository.class);
+        doctorRepository = context.getBean(DoctorRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Patient patient = new Patient();
+        patient.setName("Benchmark Patient " + suffix);
+        patient.setAge(40);
+        patient.setGender("F");
+        patient.setPhone("9000000000");
+        patient.setEmail("bench-" + suffix + "@example.com");
+        patientId = patientRepository.save(patient).getId();
+
+        Doctor doctor = new Doctor();
+        doctor.setName("Dr. Benchmark " + suffix);
+        doctor.setSpecialization("Benchmarking");
+        doctorId = doctorRepository.save(doctor).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("DELETE FROM appointments WHERE doctor_id = ?", doctorId);
+        doctorRepository.deleteById(doctorId);
+        patientRepository.deleteById(patientId);
+        context.close();
+    }
+
+    /**
+     * findById(patient), findById(doctor), exists probe, insert with a pooled sequence id
+     */
+    @Benchmark
+    public Long entityPath() {
+        LocalDateTime slot = nextSlot();
+        return transactionTemplate.execute(status -> {
+            Patient patient = patientRepository.findById(patientId).orElseThrow();
+            Doctor doctor = doctorRepository.findById(doctorId).orElseThrow();
+            if (!doctor.getActive() || appointmentRepository.existsByDoctorAndAppointmentDate(doctor, slot)) {
+                throw new IllegalStateException("Slot taken");
+            }
+            Appointment appointment = new Appointment();
+            appointment.setPatient(patient);
+            appointment.setDoctor(doctor);
+            appointment.setAppointmentDate(slot);
+            appointment.setStatus("BOOKED");
+            return appointmentRepository.save(appointment).getId();
+        });
+    }
+
+    /**
+     * One CTE statement validating patient and doctor and inserting with ON CONFLICT
+     */
+    @Benchmark
+    public Long singleStatement() {
+        return appointmentService.book(patientId, doctorId, nextSlot());
+    }
+
+    private LocalDateTime nextSlot() {
+        long n = slot.getAndIncrement();
+        return BASE.plusDays(n / SLOTS_PER_DAY)
+                .plusMinutes((n % SLOTS_PER_DAY) * Appointment.DEFAULT_DURATION_MINUTES);
+    }
+}
@@ -0,0 +1,21 @@
+package com.mhoms.mhomsservices.cache;
+
+/**
+ * Point-in-time statistics for an in-memory cache
+ * Exposed through the admin dashboard metrics endpoints
+ */
+public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        int size,
+        int maxEntries,
+        double hitRate
+) {
+
+    public static CacheStats of(long hits, long misses, long evictions, int size, int maxEntries) {
+        long lookups = hits + misses;
+        double hitRate = lookups == 0 ? 0.0 : (double) hits / lookups;
+        return new CacheStats(hits, misses, evictions, size, maxEntries, hitRate);
+    }
+}
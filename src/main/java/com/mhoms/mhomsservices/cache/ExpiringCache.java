@@ -0,0 +1,138 @@
+package com.mhoms.mhomsservices.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, thread-safe in-memory cache where every entry carries its own expiry time
+ * Expired entries are never returned; when the cache is full, expired entries are
+ * swept first and then an arbitrary slice of live entries is dropped to make room.
+ */
+public class ExpiringCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final LongSupplier clock;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private volatile int maxEntries;
+
+    public ExpiringCache(int maxEntries) {
+        this(maxEntries, System::currentTimeMillis);
+    }
+
+    public ExpiringCache(int maxEntries, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Get a live entry, or null when absent or expired
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Store an entry that stays valid until the given epoch-millis instant
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        if (maxEntries <= 0 || expiresAtMillis <= clock.getAsLong()) {
+            return;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            makeRoom();
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    /**
+     * Store an entry that stays valid for the given time-to-live
+     */
+    public void putWithTtl(K key, V value, long ttlMillis) {
+        put(key, value, clock.getAsLong() + ttlMillis);
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<K> keyPredicate) {
+        entries.keySet().removeIf(keyPredicate);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public CacheStats stats() {
+        return CacheStats.of(hits.sum(), misses.sum(), evictions.sum(), entries.size(), maxEntries);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void makeRoom() {
+        // Only one thread sweeps at a time; the others may overshoot the bound briefly
+        if (!sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = clock.getAsLong();
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().getValue().expiresAt <= now) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+
+            if (entries.size() < maxEntries) {
+                return;
+            }
+
+            // Still full: drop roughly an eighth of the live entries
+            int excess = entries.size() - maxEntries + Math.max(1, maxEntries / 8);
+            it = entries.entrySet().iterator();
+            while (excess > 0 && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+                excess--;
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.mhoms.mhomsservices.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds the exclusion constraints that keep live appointments from overlapping
+ * One per doctor and one per patient, over [appointment_date, + duration_minutes)
+ * for every status but CANCELLED - the guarantee that holds across nodes, where the
+ * in-memory index and the pre-insert checks only see what this node knows. JPA cannot
+ * declare them, so they are created here once the schema update has run; existing
+ * constraints are left alone, so restarts are no-ops.
+ * Creating one fails while overlapping rows from before durations exist; that is
+ * logged and the application-level checks keep rejecting new overlaps meanwhile.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class AppointmentOverlapConstraints {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentOverlapConstraints.class);
+
+    private static final String SPAN = "tsrange(appointment_date, appointment_date + duration_minutes * interval '1 minute')";
+
+    // constraint name -> column that must not have overlapping appointments
+    private static final Map<String, String> CONSTRAINTS = Map.of(
+            "appointments_doctor_no_overlap", "doctor_id",
+            "appointments_patient_no_overlap", "patient_id"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public AppointmentOverlapConstraints(JdbcTemplate jdbcTemplate,
+                                         @Value("${database.overlap-constraints.create-on-startup:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void create() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // btree_gist provides the = operator on bigint inside a GiST index
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+        } catch (DataAccessException e) {
+            log.warn("Cannot create extension btree_gist, overlap constraints not added: {}", e.getMessage());
+            return;
+        }
+        CONSTRAINTS.forEach(this::create);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void create(String name, String column) {
+        List<String> existing = jdbcTemplate.queryForList(
+                "SELECT conname FROM pg_constraint WHERE conname = ? AND conrelid = 'appointments'::regclass",
+                String.class, name);
+        if (!existing.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute("ALTER TABLE appointments ADD CONSTRAINT " + name +
+                    " EXCLUDE USING gist (" + column + " WITH =, " + SPAN + " WITH &&) WHERE (status <> 'CANCELLED')");
+            log.info("Added exclusion constraint {}", name);
+        } catch (DataAccessException e) {
+            log.warn("Could not add exclusion constraint {} - resolve overlapping appointments and restart: {}",
+                    name, e.getMessage());
+        }
+    }
+}
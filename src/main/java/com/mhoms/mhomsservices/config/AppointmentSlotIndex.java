@@ -0,0 +1,49 @@
+package com.mhoms.mhomsservices.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps one live appointment per (doctor_id, appointment_date) with a partial unique index
+ * Cancelled appointments are left out, so a freed slot can be booked again while the
+ * cancelled row stays as the record of the cancellation. JPA cannot declare a partial
+ * index, so it is created here once the schema update has run, and the unique constraint
+ * over every row that older schemas carry is dropped afterwards, so the slot is never
+ * unguarded. This is the database-level slot guarantee the booking paths rely on: it has
+ * no switch, and startup fails when it cannot be put in place. Restarts are no-ops.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class AppointmentSlotIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentSlotIndex.class);
+
+    public static final String INDEX_NAME = "appointments_doctor_slot_live";
+
+    // Unique constraints of appointments over exactly (doctor_id, appointment_date), whatever Hibernate named them
+    private static final String FULL_SLOT_CONSTRAINTS_SQL =
+            "SELECT c.conname FROM pg_constraint c WHERE c.conrelid = 'appointments'::regclass AND c.contype = 'u' " +
+            "AND (SELECT array_agg(CAST(a.attname AS text) ORDER BY a.attname) FROM pg_attribute a " +
+            "WHERE a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)) = ARRAY['appointment_date', 'doctor_id']";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AppointmentSlotIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void create() {
+        // Cannot fail on existing data: the constraint it replaces already kept every row unique
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + INDEX_NAME +
+                " ON appointments (doctor_id, appointment_date) WHERE (status <> 'CANCELLED')");
+        for (String name : jdbcTemplate.queryForList(FULL_SLOT_CONSTRAINTS_SQL, String.class)) {
+            jdbcTemplate.execute("ALTER TABLE appointments DROP CONSTRAINT \"" + name + "\"");
+            log.info("Replaced unique constraint {} with partial index {}", name, INDEX_NAME);
+        }
+    }
+}
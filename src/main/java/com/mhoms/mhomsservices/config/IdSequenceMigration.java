@@ -0,0 +1,89 @@
+package com.mhoms.mhomsservices.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves tables created with IDENTITY ids onto their pooled id sequences
+ * Runs once the schema update has created the sequences: drops the identity, makes
+ * the sequence the column default for raw SQL inserts, and advances the sequence past
+ * existing rows. Every step is skipped when already done, so restarts are no-ops.
+ * Must run before the first insert; with a pooled optimizer (allocation 50) a
+ * sequence value v hands out ids v-49..v, so the sequence is set to MAX(id).
+ * Raw SQL inserts use nextval as the id itself: that value's block is never handed
+ * to Hibernate, so the two cannot collide.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceMigration.class);
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    // table -> sequence, matching the @SequenceGenerator of each entity
+    private static final List<String[]> TABLES = List.of(
+            new String[]{"patients", "patients_seq"},
+            new String[]{"doctors", "doctors_seq"},
+            new String[]{"appointments", "appointments_seq"},
+            new String[]{"users", "users_seq"}
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public IdSequenceMigration(JdbcTemplate jdbcTemplate,
+                               @Value("${database.id-sequences.migrate-on-startup:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    void migrate() {
+        if (!enabled) {
+            return;
+        }
+        for (String[] table : TABLES) {
+            migrate(table[0], table[1]);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void migrate(String table, String sequence) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " INCREMENT BY " + ALLOCATION_SIZE);
+
+        List<Map<String, Object>> column = jdbcTemplate.queryForList(
+                "SELECT is_identity, column_default FROM information_schema.columns " +
+                "WHERE table_schema = current_schema() AND table_name = ? AND column_name = 'id'", table);
+        if (column.isEmpty()) {
+            return;
+        }
+        if ("YES".equals(column.get(0).get("is_identity"))) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id DROP IDENTITY IF EXISTS");
+            log.info("Dropped IDENTITY from {}.id", table);
+        }
+        Object columnDefault = column.get(0).get("column_default");
+        if (columnDefault == null || !columnDefault.toString().contains(sequence)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id SET DEFAULT nextval('" + sequence + "')");
+        }
+
+        // Only ever moves the sequence forward
+        List<Long> advancedTo = jdbcTemplate.queryForList(
+                "SELECT setval('" + sequence + "', m) FROM (SELECT MAX(id) AS m FROM " + table + ") x " +
+                "WHERE m >= (SELECT last_value FROM " + sequence + ")", Long.class);
+        if (!advancedTo.isEmpty()) {
+            log.info("Advanced {} past existing {} rows to {}", sequence, table, advancedTo.get(0));
+        }
+    }
+}
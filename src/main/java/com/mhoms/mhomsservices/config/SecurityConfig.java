@@ -1,8 +1,16 @@
 package com.mhoms.mhomsservices.config;
 
+import com.mhoms.mhomsservices.security.ApiKeyAuthenticationFilter;
 import com.mhoms.mhomsservices.security.CustomAccessDeniedHandler;
+import com.mhoms.mhomsservices.security.AuthRateLimitFilter;
+import com.mhoms.mhomsservices.security.BoundedPasswordEncoder;
 import com.mhoms.mhomsservices.security.CustomAuthenticationEntryPoint;
+import com.mhoms.mhomsservices.security.CustomUserDetailsService;
+import com.mhoms.mhomsservices.security.IdempotencyFilter;
 import com.mhoms.mhomsservices.security.JwtAuthenticationFilter;
+import com.mhoms.mhomsservices.security.PasswordHashingExecutor;
+import com.mhoms.mhomsservices.security.RouteAuthorizationManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,12 +22,11 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 /**
  * Security configuration with JWT authentication
@@ -30,19 +37,44 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    // Served without authentication and kept out of the security filter chain
+    public static final String[] PUBLIC_UNSECURED_PATHS = {
+            "/health",
+            "/v3/api-docs/**",    // Swagger API docs
+            "/swagger-ui/**",     // Swagger UI
+            "/swagger-ui.html",   // Swagger UI HTML
+            "/swagger-resources/**",
+            "/webjars/**"
+    };
+
     private final JwtAuthenticationFilter jwtAuthFilter;
-    private final UserDetailsService userDetailsService;
+    private final ApiKeyAuthenticationFilter apiKeyAuthFilter;
+    private final AuthRateLimitFilter authRateLimitFilter;
+    private final IdempotencyFilter idempotencyFilter;
+    private final CustomUserDetailsService userDetailsService;
     private final CustomAccessDeniedHandler accessDeniedHandler;
     private final CustomAuthenticationEntryPoint authenticationEntryPoint;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final int bcryptStrength;
 
     public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter,
-                          UserDetailsService userDetailsService,
+                          ApiKeyAuthenticationFilter apiKeyAuthFilter,
+                          AuthRateLimitFilter authRateLimitFilter,
+                          IdempotencyFilter idempotencyFilter,
+                          CustomUserDetailsService userDetailsService,
                           CustomAccessDeniedHandler accessDeniedHandler,
-                          CustomAuthenticationEntryPoint authenticationEntryPoint) {
+                          CustomAuthenticationEntryPoint authenticationEntryPoint,
+                          PasswordHashingExecutor passwordHashingExecutor,
+                          @Value("${security.password-hashing.bcrypt-strength:10}") int bcryptStrength) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.apiKeyAuthFilter = apiKeyAuthFilter;
+        this.authRateLimitFilter = authRateLimitFilter;
+        this.idempotencyFilter = idempotencyFilter;
         this.userDetailsService = userDetailsService;
         this.accessDeniedHandler = accessDeniedHandler;
         this.authenticationEntryPoint = authenticationEntryPoint;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.bcryptStrength = bcryptStrength;
     }
 
     @Bean
@@ -50,72 +82,9 @@ public class SecurityConfig {
         http
                 .cors(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
+                // Every rule below is compiled once into per-method path tries
                 .authorizeHttpRequests(auth -> auth
-                        // ═══════════════════════════════════════════════════════
-                        // PUBLIC ENDPOINTS - No authentication required
-                        // ═══════════════════════════════════════════════════════
-                        .requestMatchers(
-                                "/health",
-                                "/auth/**",           // Authentication endpoints
-                                "/v3/api-docs/**",    // Swagger API docs
-                                "/swagger-ui/**",     // Swagger UI
-                                "/swagger-ui.html",   // Swagger UI HTML
-                                "/swagger-resources/**",
-                                "/webjars/**"
-                        ).permitAll()
-
-                        // ═══════════════════════════════════════════════════════
-                        // PATIENT ENDPOINTS
-                        // ═══════════════════════════════════════════════════════
-                        // Create patient - ADMIN only
-                        .requestMatchers(HttpMethod.POST, "/patients/**").hasRole("ADMIN")
-                        // Update patient - ADMIN only
-                        .requestMatchers(HttpMethod.PUT, "/patients/**").hasRole("ADMIN")
-                        // Delete patient - ADMIN only
-                        .requestMatchers(HttpMethod.DELETE, "/patients/**").hasRole("ADMIN")
-                        // View patients - ADMIN and DOCTOR
-                        .requestMatchers(HttpMethod.GET, "/patients/**").hasAnyRole("ADMIN", "DOCTOR")
-
-                        // ═══════════════════════════════════════════════════════
-                        // DOCTOR ENDPOINTS
-                        // ═══════════════════════════════════════════════════════
-                        // Create doctor - ADMIN only
-                        .requestMatchers(HttpMethod.POST, "/doctors/**").hasRole("ADMIN")
-                        // Update doctor - ADMIN only
-                        .requestMatchers(HttpMethod.PUT, "/doctors/**").hasRole("ADMIN")
-                        // Toggle status - ADMIN only
-                        .requestMatchers(HttpMethod.PATCH, "/doctors/**").hasRole("ADMIN")
-                        // Delete doctor - ADMIN only
-                        .requestMatchers(HttpMethod.DELETE, "/doctors/**").hasRole("ADMIN")
-                        // View doctors - ALL authenticated users
-                        .requestMatchers(HttpMethod.GET, "/doctors/**").hasAnyRole("ADMIN", "DOCTOR", "PATIENT")
-
-                        // ═══════════════════════════════════════════════════════
-                        // APPOINTMENT ENDPOINTS
-                        // ═══════════════════════════════════════════════════════
-                        // Book appointment - ADMIN and PATIENT
-                        .requestMatchers(HttpMethod.POST, "/appointments/**").hasAnyRole("ADMIN", "PATIENT")
-                        // Update status - ADMIN and DOCTOR
-                        .requestMatchers(HttpMethod.PUT, "/appointments/*/status").hasAnyRole("ADMIN", "DOCTOR")
-                        // Reschedule - ADMIN and DOCTOR
-                        .requestMatchers(HttpMethod.PUT, "/appointments/*/reschedule").hasAnyRole("ADMIN", "DOCTOR")
-                        // Cancel - ADMIN, DOCTOR, and PATIENT
-                        .requestMatchers(HttpMethod.PUT, "/appointments/*/cancel").hasAnyRole("ADMIN", "DOCTOR", "PATIENT")
-                        // Delete - ADMIN only
-                        .requestMatchers(HttpMethod.DELETE, "/appointments/**").hasRole("ADMIN")
-                        // View appointments - ALL authenticated users
-                        .requestMatchers(HttpMethod.GET, "/appointments/**").authenticated()
-
-                        // ═══════════════════════════════════════════════════════
-                        // DASHBOARD ENDPOINTS
-                        // ═══════════════════════════════════════════════════════
-                        // Dashboard - ADMIN only
-                        .requestMatchers("/dashboard/**").hasRole("ADMIN")
-
-                        // ═══════════════════════════════════════════════════════
-                        // ALL OTHER ENDPOINTS
-                        // ═══════════════════════════════════════════════════════
-                        .anyRequest().authenticated()
+                        .anyRequest().access(routeAuthorization())
                 )
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
@@ -125,14 +94,120 @@ public class SecurityConfig {
                         .authenticationEntryPoint(authenticationEntryPoint)
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Machine clients authenticate by X-API-Key without a token round trip
+                .addFilterBefore(apiKeyAuthFilter, JwtAuthenticationFilter.class)
+                // Throttle public auth endpoints before any token or password work
+                .addFilterBefore(authRateLimitFilter, JwtAuthenticationFilter.class)
+                // Only authorized requests reach the replay store, keyed by the caller
+                .addFilterAfter(idempotencyFilter, AuthorizationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * Health checks and API docs bypass the security filter chain entirely
+     */
+    @Bean
+    public WebSecurityCustomizer webSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers(PUBLIC_UNSECURED_PATHS);
+    }
+
+    /**
+     * Route authorization table, evaluated first-match-wins in declaration order
+     */
+    public static RouteAuthorizationManager routeAuthorization() {
+        return RouteAuthorizationManager.builder()
+                // ═══════════════════════════════════════════════════════
+                // PUBLIC ENDPOINTS - No authentication required
+                // ═══════════════════════════════════════════════════════
+                .route(PUBLIC_UNSECURED_PATHS).permitAll()
+                .route("/auth/**").permitAll()           // Authentication endpoints
+
+                // ═══════════════════════════════════════════════════════
+                // PATIENT ENDPOINTS
+                // ═══════════════════════════════════════════════════════
+                // Create patient - ADMIN only
+                .route(HttpMethod.POST, "/patients/**").hasRole("ADMIN")
+                // Update patient - ADMIN only
+                .route(HttpMethod.PUT, "/patients/**").hasRole("ADMIN")
+                // Delete patient - ADMIN only
+                .route(HttpMethod.DELETE, "/patients/**").hasRole("ADMIN")
+                // View patients - ADMIN and DOCTOR
+                .route(HttpMethod.GET, "/patients/**").hasAnyRole("ADMIN", "DOCTOR")
+
+                // ═══════════════════════════════════════════════════════
+                // DOCTOR ENDPOINTS
+                // ═══════════════════════════════════════════════════════
+                // Create doctor - ADMIN only
+                .route(HttpMethod.POST, "/doctors/**").hasRole("ADMIN")
+                // Update doctor - ADMIN only
+                .route(HttpMethod.PUT, "/doctors/**").hasRole("ADMIN")
+                // Toggle status - ADMIN only
+                .route(HttpMethod.PATCH, "/doctors/**").hasRole("ADMIN")
+                // Delete doctor - ADMIN only
+                .route(HttpMethod.DELETE, "/doctors/**").hasRole("ADMIN")
+                // View doctors - ALL authenticated users
+                .route(HttpMethod.GET, "/doctors/**").hasAnyRole("ADMIN", "DOCTOR", "PATIENT")
+                // Earliest openings across doctors - ALL authenticated users
+                .route(HttpMethod.GET, "/availability/**").hasAnyRole("ADMIN", "DOCTOR", "PATIENT")
+
+                // ═══════════════════════════════════════════════════════
+                // APPOINTMENT ENDPOINTS
+                // ═══════════════════════════════════════════════════════
+                // Batch booking - ADMIN only (front desk and integrations)
+                .route(HttpMethod.POST, "/appointments/batch").hasRole("ADMIN")
+                // Recurring series: preview and book - ADMIN and DOCTOR
+                .route(HttpMethod.POST, "/appointments/series/**").hasAnyRole("ADMIN", "DOCTOR")
+                // Book appointment - ADMIN and PATIENT
+                .route(HttpMethod.POST, "/appointments/**").hasAnyRole("ADMIN", "PATIENT")
+                // Bulk status transition - ADMIN only
+                .route(HttpMethod.PUT, "/appointments/status").hasRole("ADMIN")
+                // Cancel or move the rest of a series - ADMIN and DOCTOR
+                .route(HttpMethod.PUT, "/appointments/series/**").hasAnyRole("ADMIN", "DOCTOR")
+                // Update status - ADMIN and DOCTOR
+                .route(HttpMethod.PUT, "/appointments/*/status").hasAnyRole("ADMIN", "DOCTOR")
+                // Reschedule - ADMIN and DOCTOR
+                .route(HttpMethod.PUT, "/appointments/*/reschedule").hasAnyRole("ADMIN", "DOCTOR")
+                // Cancel - ADMIN, DOCTOR, and PATIENT
+                .route(HttpMethod.PUT, "/appointments/*/cancel").hasAnyRole("ADMIN", "DOCTOR", "PATIENT")
+                // Delete - ADMIN only
+                .route(HttpMethod.DELETE, "/appointments/**").hasRole("ADMIN")
+                // View appointments - ALL authenticated users
+                .route(HttpMethod.GET, "/appointments/**").authenticated()
+
+                // ═══════════════════════════════════════════════════════
+                // WAITLIST ENDPOINTS
+                // ═══════════════════════════════════════════════════════
+                // Join, accept a held slot, leave - ADMIN and PATIENT
+                .route(HttpMethod.POST, "/waitlist/**").hasAnyRole("ADMIN", "PATIENT")
+                .route(HttpMethod.DELETE, "/waitlist/**").hasAnyRole("ADMIN", "PATIENT")
+                // View entries - ALL authenticated users
+                .route(HttpMethod.GET, "/waitlist/**").authenticated()
+
+                // ═══════════════════════════════════════════════════════
+                // DASHBOARD ENDPOINTS
+                // ═══════════════════════════════════════════════════════
+                // Dashboard - ADMIN only
+                .route("/dashboard/**").hasRole("ADMIN")
+
+                // ═══════════════════════════════════════════════════════
+                // ADMIN ENDPOINTS
+                // ═══════════════════════════════════════════════════════
+                // User and session administration - ADMIN only
+                .route("/admin/**").hasRole("ADMIN")
+
+                // ═══════════════════════════════════════════════════════
+                // ALL OTHER ENDPOINTS
+                // ═══════════════════════════════════════════════════════
+                .anyRequestAuthenticated();
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        // BCrypt runs on the bounded hashing pool; saturation surfaces as 429
+        return new BoundedPasswordEncoder(
+                BoundedPasswordEncoder.bcryptDelegate(bcryptStrength), passwordHashingExecutor);
     }
 
     @Bean
@@ -140,6 +215,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Re-hash legacy or lower-cost hashes after a successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
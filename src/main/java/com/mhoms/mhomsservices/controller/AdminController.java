@@ -0,0 +1,122 @@
+package com.mhoms.mhomsservices.controller;
+
+import com.mhoms.mhomsservices.dto.ApiKeyRequest;
+import com.mhoms.mhomsservices.dto.ApiKeyResponse;
+import com.mhoms.mhomsservices.dto.BulkProvisioningResponse;
+import com.mhoms.mhomsservices.dto.RegisterRequest;
+import com.mhoms.mhomsservices.service.ApiKeyService;
+import com.mhoms.mhomsservices.service.AuthService;
+import com.mhoms.mhomsservices.service.UserProvisioningService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Controller for user and session administration
+ */
+@RestController
+@RequestMapping("/admin")
+@Tag(name = "Administration", description = "APIs for user and session administration")
+public class AdminController {
+
+    private final AuthService authService;
+    private final UserProvisioningService userProvisioningService;
+    private final ApiKeyService apiKeyService;
+
+    public AdminController(AuthService authService,
+                           UserProvisioningService userProvisioningService,
+                           ApiKeyService apiKeyService) {
+        this.authService = authService;
+        this.userProvisioningService = userProvisioningService;
+        this.apiKeyService = apiKeyService;
+    }
+
+    @Operation(
+            summary = "Bulk-provision users (JSON)",
+            description = "Creates users from an array of registration requests. Existing usernames/emails are skipped; the response reports the outcome of every row."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed - see per-row results"),
+            @ApiResponse(responseCode = "400", description = "Batch exceeds the row limit")
+    })
+    @PostMapping(value = "/users/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkProvisioningResponse provisionUsers(@RequestBody List<RegisterRequest> requests) {
+        return userProvisioningService.provision(requests);
+    }
+
+    @Operation(
+            summary = "Bulk-provision users (CSV)",
+            description = "Streams a CSV with header username,email,password,fullName,role. Rows are processed in chunks; the response reports the outcome of every row."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "CSV processed - see per-row results"),
+            @ApiResponse(responseCode = "400", description = "Missing header column or row limit exceeded")
+    })
+    @PostMapping(value = "/users/bulk", consumes = "text/csv")
+    public BulkProvisioningResponse provisionUsersCsv(HttpServletRequest request) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            return userProvisioningService.provisionCsv(reader);
+        }
+    }
+
+    @Operation(
+            summary = "Revoke all sessions of a user",
+            description = "Revokes every refresh token of the user. Access tokens already issued stay valid until they expire."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sessions revoked"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @DeleteMapping("/users/{username}/sessions")
+    public SessionRevocation revokeSessions(@PathVariable String username) {
+        return new SessionRevocation(username, authService.revokeAllSessions(username));
+    }
+
+    @Operation(
+            summary = "Create an API key",
+            description = "Creates a service-account key bound to the user and their role. Send it in the X-API-Key header. The raw key is only returned in this response."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "API key created"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or disabled user"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    @PostMapping("/api-keys")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ApiKeyResponse createApiKey(@Valid @RequestBody ApiKeyRequest request) {
+        return apiKeyService.create(request);
+    }
+
+    @Operation(summary = "List API keys", description = "Lists every API key, newest first, without secrets")
+    @GetMapping("/api-keys")
+    public List<ApiKeyResponse> listApiKeys() {
+        return apiKeyService.list();
+    }
+
+    @Operation(summary = "Revoke an API key", description = "Revokes the key; it stops authenticating immediately on this node")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "API key revoked"),
+            @ApiResponse(responseCode = "404", description = "API key not found")
+    })
+    @DeleteMapping("/api-keys/{id}")
+    public ApiKeyResponse revokeApiKey(@PathVariable Long id) {
+        return apiKeyService.revoke(id);
+    }
+
+    // Record classes for response
+    public record SessionRevocation(String username, int revokedTokens) {
+    }
+}
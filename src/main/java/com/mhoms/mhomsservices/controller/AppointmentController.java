@@ -1,9 +1,20 @@
 package com.mhoms.mhomsservices.controller;
 
 import com.mhoms.mhomsservices.dto.AppointmentStatusRequest;
+import com.mhoms.mhomsservices.dto.BatchBookingResponse;
+import com.mhoms.mhomsservices.dto.BookingRequest;
+import com.mhoms.mhomsservices.dto.BulkStatusRequest;
+import com.mhoms.mhomsservices.dto.BulkStatusResponse;
 import com.mhoms.mhomsservices.dto.PageResponse;
+import com.mhoms.mhomsservices.dto.SeriesChangeResponse;
+import com.mhoms.mhomsservices.dto.SeriesRequest;
+import com.mhoms.mhomsservices.dto.SeriesResponse;
+import com.mhoms.mhomsservices.exception.PreconditionFailedException;
 import com.mhoms.mhomsservices.model.Appointment;
+import com.mhoms.mhomsservices.service.AppointmentSeriesService;
 import com.mhoms.mhomsservices.service.AppointmentService;
+import com.mhoms.mhomsservices.service.BatchBookingService;
+import com.mhoms.mhomsservices.service.BulkStatusService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,10 +25,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -28,10 +43,19 @@ import java.util.List;
 )
 public class AppointmentController {
 
+    private static final String RETURN_MINIMAL = "return=minimal";
+
     private final AppointmentService appointmentService;
+    private final BatchBookingService batchBookingService;
+    private final BulkStatusService bulkStatusService;
+    private final AppointmentSeriesService seriesService;
 
-    public AppointmentController(AppointmentService appointmentService) {
+    public AppointmentController(AppointmentService appointmentService, BatchBookingService batchBookingService,
+                                 BulkStatusService bulkStatusService, AppointmentSeriesService seriesService) {
         this.appointmentService = appointmentService;
+        this.batchBookingService = batchBookingService;
+        this.bulkStatusService = bulkStatusService;
+        this.seriesService = seriesService;
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -40,16 +64,19 @@ public class AppointmentController {
 
     @Operation(
             summary = "Book a new appointment",
-            description = "Schedules a new appointment between a patient and a doctor"
+            description = "Schedules a new appointment between a patient and a doctor. It must not overlap " +
+                    "another live appointment of either, and must end by midnight. " +
+                    "Send 'Prefer: return=minimal' to receive only the new id and Location header, " +
+                    "which books in a single database round trip."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Appointment booked successfully"),
-            @ApiResponse(responseCode = "404", description = "Patient or Doctor not found"),
-            @ApiResponse(responseCode = "409", description = "Doctor already has an appointment at this time")
+            @ApiResponse(responseCode = "400", description = "Invalid duration, or the appointment extends past midnight"),
+            @ApiResponse(responseCode = "404", description = "Patient or Doctor not found (code PATIENT_NOT_FOUND / DOCTOR_NOT_FOUND)"),
+            @ApiResponse(responseCode = "409", description = "Doctor inactive, or the doctor or patient already has an overlapping appointment (code DOCTOR_INACTIVE / SLOT_TAKEN / PATIENT_BUSY)")
     })
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Appointment bookAppointment(
+    public ResponseEntity<Object> bookAppointment(
             @Parameter(description = "Patient ID", required = true, example = "1")
             @RequestParam Long patientId,
 
@@ -58,9 +85,77 @@ public class AppointmentController {
 
             @Parameter(description = "Appointment date/time", required = true, example = "2025-12-27T10:00:00")
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
-            LocalDateTime appointmentDate
+            LocalDateTime appointmentDate,
+
+            @Parameter(description = "Length in minutes (defaults to 30, at most 480)", example = "30")
+            @RequestParam(required = false) Integer durationMinutes,
+
+            @Parameter(description = "return=minimal to skip loading the booked appointment", example = "return=minimal")
+            @RequestHeader(value = "Prefer", required = false) String prefer
+    ) {
+        if (prefer != null && prefer.contains(RETURN_MINIMAL)) {
+            Long id = appointmentService.book(patientId, doctorId, appointmentDate, durationMinutes);
+            return ResponseEntity.created(URI.create("/appointments/" + id))
+                    .header("Preference-Applied", RETURN_MINIMAL)
+                    .body(new BookingCreated(id, "BOOKED"));
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(appointmentService.bookAppointment(patientId, doctorId, appointmentDate, durationMinutes));
+    }
+
+    @Operation(
+            summary = "Book appointments in a batch",
+            description = "Books a list of appointments with set-wise checks and batched inserts. " +
+                    "Items succeed or fail independently unless allOrNothing is set, in which case " +
+                    "nothing is booked when any item fails; the response reports the outcome of every item."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed - see per-item results"),
+            @ApiResponse(responseCode = "400", description = "Batch exceeds the item limit")
+    })
+    @PostMapping("/batch")
+    public BatchBookingResponse bookAppointments(
+            @RequestBody List<BookingRequest> requests,
+
+            @Parameter(description = "Roll back the whole batch when any item fails", example = "false")
+            @RequestParam(defaultValue = "false") boolean allOrNothing
+    ) {
+        return batchBookingService.bookAll(requests, allOrNothing);
+    }
+
+    @Operation(
+            summary = "Preview a recurring appointment series",
+            description = "Expands a WEEKLY, BIWEEKLY or CUSTOM (every intervalDays) series ending after count " +
+                    "occurrences or on until, and reports which occurrences are free. Nothing is booked."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Occurrences with FREE / SLOT_TAKEN status"),
+            @ApiResponse(responseCode = "400", description = "Invalid recurrence rule")
+    })
+    @PostMapping("/series/preview")
+    public SeriesResponse previewSeries(@RequestBody SeriesRequest request) {
+        return seriesService.preview(request);
+    }
+
+    @Operation(
+            summary = "Book a recurring appointment series",
+            description = "Books every occurrence of the series in one transaction. Fails when any occurrence " +
+                    "is taken unless skipConflicts is set, in which case only the free ones are booked."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Series booked"),
+            @ApiResponse(responseCode = "400", description = "Invalid recurrence rule"),
+            @ApiResponse(responseCode = "404", description = "Patient or Doctor not found"),
+            @ApiResponse(responseCode = "409", description = "Doctor inactive or occurrences already taken")
+    })
+    @PostMapping("/series")
+    public ResponseEntity<SeriesResponse> bookSeries(
+            @RequestBody SeriesRequest request,
+
+            @Parameter(description = "Book the free occurrences and skip the taken ones", example = "false")
+            @RequestParam(defaultValue = "false") boolean skipConflicts
     ) {
-        return appointmentService.bookAppointment(patientId, doctorId, appointmentDate);
+        return ResponseEntity.status(HttpStatus.CREATED).body(seriesService.book(request, skipConflicts));
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -85,8 +180,8 @@ public class AppointmentController {
             @ApiResponse(responseCode = "404", description = "Appointment not found")
     })
     @GetMapping("/{id}")
-    public Appointment getAppointmentById(@PathVariable Long id) {
-        return appointmentService.getAppointmentById(id);
+    public ResponseEntity<Appointment> getAppointmentById(@PathVariable Long id) {
+        return withETag(appointmentService.getAppointmentById(id));
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -137,7 +232,7 @@ public class AppointmentController {
             @Parameter(description = "Filter by doctor ID")
             @RequestParam(required = false) Long doctorId,
 
-            @Parameter(description = "Filter by status (BOOKED/COMPLETED/CANCELLED)")
+            @Parameter(description = "Filter by status (BOOKED/COMPLETED/CANCELLED/NO_SHOW)")
             @RequestParam(required = false) String status,
 
             @Parameter(description = "Start date for date range filter")
@@ -236,39 +331,61 @@ public class AppointmentController {
 
     @Operation(
             summary = "Update appointment status",
-            description = "Updates the status of an existing appointment (BOOKED/COMPLETED/CANCELLED)"
+            description = "Updates the status of an existing appointment (BOOKED/COMPLETED/CANCELLED/NO_SHOW). " +
+                    "Send the ETag from a previous read as If-Match to update only an unchanged appointment."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Status updated successfully"),
             @ApiResponse(responseCode = "404", description = "Appointment not found"),
-            @ApiResponse(responseCode = "400", description = "Invalid status value")
+            @ApiResponse(responseCode = "400", description = "Invalid status value"),
+            @ApiResponse(responseCode = "412", description = "Appointment changed since the If-Match version")
     })
     @PutMapping("/{id}/status")
-    public Appointment updateAppointmentStatus(
+    public ResponseEntity<Appointment> updateAppointmentStatus(
             @PathVariable Long id,
-            @RequestBody AppointmentStatusRequest request
+            @RequestBody AppointmentStatusRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return appointmentService.updateAppointmentStatus(id, request.getStatus());
+        return withETag(appointmentService.updateAppointmentStatus(id, request.getStatus(), expectedVersion(ifMatch)));
+    }
+
+    @Operation(
+            summary = "Update the status of many appointments",
+            description = "Moves every appointment selected by ids and/or doctorId, startDate..endDate and " +
+                    "currentStatus to targetStatus in one statement. Either ids or a date range is required; " +
+                    "appointments already in the target status or unable to make the transition are skipped."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transition applied - see matched/updated/skipped counts"),
+            @ApiResponse(responseCode = "400", description = "Invalid status, transition or selection")
+    })
+    @PutMapping("/status")
+    public BulkStatusResponse updateAppointmentStatuses(@RequestBody BulkStatusRequest request) {
+        return bulkStatusService.transition(request);
     }
 
     @Operation(
             summary = "Reschedule appointment",
-            description = "Changes the date/time of an existing appointment"
+            description = "Changes the date/time of an existing appointment, keeping its duration"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Appointment rescheduled successfully"),
+            @ApiResponse(responseCode = "400", description = "The appointment would extend past midnight"),
             @ApiResponse(responseCode = "404", description = "Appointment not found"),
-            @ApiResponse(responseCode = "409", description = "Doctor not available at new time")
+            @ApiResponse(responseCode = "409", description = "Doctor or patient not available at new time"),
+            @ApiResponse(responseCode = "412", description = "Appointment changed since the If-Match version")
     })
     @PutMapping("/{id}/reschedule")
-    public Appointment rescheduleAppointment(
+    public ResponseEntity<Appointment> rescheduleAppointment(
             @PathVariable Long id,
 
             @Parameter(description = "New appointment date/time", required = true)
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
-            LocalDateTime newDate
+            LocalDateTime newDate,
+
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return appointmentService.rescheduleAppointment(id, newDate);
+        return withETag(appointmentService.rescheduleAppointment(id, newDate, expectedVersion(ifMatch)));
     }
 
     @Operation(
@@ -276,8 +393,55 @@ public class AppointmentController {
             description = "Cancels an existing appointment (soft delete)"
     )
     @PutMapping("/{id}/cancel")
-    public Appointment cancelAppointment(@PathVariable Long id) {
-        return appointmentService.cancelAppointment(id);
+    public ResponseEntity<Appointment> cancelAppointment(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return withETag(appointmentService.cancelAppointment(id, expectedVersion(ifMatch)));
+    }
+
+    @Operation(
+            summary = "Cancel the rest of a series",
+            description = "Cancels every still-booked occurrence of the series from the given time on (default now)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Occurrences cancelled"),
+            @ApiResponse(responseCode = "404", description = "Series not found")
+    })
+    @PutMapping("/series/{seriesId}/cancel")
+    public SeriesChangeResponse cancelSeries(
+            @PathVariable Long seriesId,
+
+            @Parameter(description = "First occurrence time to cancel", example = "2025-12-27T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from
+    ) {
+        return seriesService.cancelRemaining(seriesId, from);
+    }
+
+    @Operation(
+            summary = "Move the rest of a series to a new time",
+            description = "Moves every still-booked occurrence from the given time on (default now) to newTime " +
+                    "on the same day. Nothing is moved when any new slot is taken."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Occurrences moved"),
+            @ApiResponse(responseCode = "404", description = "Series not found"),
+            @ApiResponse(responseCode = "409", description = "Doctor not available at the new time")
+    })
+    @PutMapping("/series/{seriesId}/reschedule")
+    public SeriesChangeResponse rescheduleSeries(
+            @PathVariable Long seriesId,
+
+            @Parameter(description = "First occurrence time to move", example = "2025-12-27T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from,
+
+            @Parameter(description = "New time of day", required = true, example = "14:30")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.TIME)
+            LocalTime newTime
+    ) {
+        return seriesService.moveRemaining(seriesId, from, newTime);
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -309,16 +473,58 @@ public class AppointmentController {
                 appointmentService.countByStatus("BOOKED"),
                 appointmentService.countByStatus("COMPLETED"),
                 appointmentService.countByStatus("CANCELLED"),
+                appointmentService.countByStatus("NO_SHOW"),
                 appointmentService.countTodaysAppointments()
         );
     }
 
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * The appointment version is its ETag, so a client can send it back as If-Match
+     */
+    private static ResponseEntity<Appointment> withETag(Appointment appointment) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (appointment != null && appointment.getVersion() != null) {
+            response.eTag("\"" + appointment.getVersion() + "\"");
+        }
+        return response.body(appointment);
+    }
+
+    /**
+     * Version named by If-Match, or null when absent or "*" (any current version)
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            // Not one of our tags, so it cannot match the current version
+            throw new PreconditionFailedException("If-Match does not name an appointment version: " + ifMatch, null);
+        }
+    }
+
     // Inner class for stats response
     public record AppointmentStats(
             long totalAppointments,
             long bookedAppointments,
             long completedAppointments,
             long cancelledAppointments,
+            long noShowAppointments,
             long todaysAppointments
     ) {}
+
+    // Minimal booking response (Prefer: return=minimal)
+    public record BookingCreated(Long id, String status) {}
 }
\ No newline at end of file
@@ -124,7 +124,7 @@ public class AuthController {
 
     @Operation(
             summary = "Refresh access token",
-            description = "Generates a new access token using a valid refresh token. Use this when the access token expires to avoid re-login."
+            description = "Generates a new access token and a rotated refresh token. The presented refresh token is revoked; presenting it again revokes every session of the user."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -139,6 +139,11 @@ public class AuthController {
                     responseCode = "401",
                     description = "Invalid or expired refresh token",
                     content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Refresh token already used - all sessions revoked",
+                    content = @Content(mediaType = "application/json")
             )
     })
     @PostMapping("/refresh")
@@ -0,0 +1,57 @@
+package com.mhoms.mhomsservices.controller;
+
+import com.mhoms.mhomsservices.dto.EarliestAvailabilityResponse;
+import com.mhoms.mhomsservices.service.DoctorAvailabilityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/availability")
+@Tag(
+        name = "Availability",
+        description = "APIs for finding free appointment slots across doctors"
+)
+public class AvailabilityController {
+
+    private final DoctorAvailabilityService doctorAvailabilityService;
+
+    public AvailabilityController(DoctorAvailabilityService doctorAvailabilityService) {
+        this.doctorAvailabilityService = doctorAvailabilityService;
+    }
+
+    @Operation(
+            summary = "Earliest free slots in a specialization",
+            description = "The first free slots from 'from' on across all active doctors of the specialization, "
+                    + "in start order, searching up to the configured availability range"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Openings returned (possibly fewer than limit)"),
+            @ApiResponse(responseCode = "400", description = "Missing specialization, invalid limit or slot length")
+    })
+    @GetMapping("/earliest")
+    public EarliestAvailabilityResponse getEarliest(
+            @Parameter(description = "Specialization (exact, case-insensitive)", required = true, example = "Cardiology")
+            @RequestParam String specialization,
+
+            @Parameter(description = "Earliest start (defaults to now)", example = "2025-12-29T08:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Number of openings (defaults to 10, at most 100)", example = "10")
+            @RequestParam(required = false) Integer limit,
+
+            @Parameter(description = "Slot length in minutes (defaults to the configured length)", example = "30")
+            @RequestParam(required = false) Integer slot
+    ) {
+        return doctorAvailabilityService.findEarliest(specialization, from, limit, slot);
+    }
+}
@@ -1,10 +1,25 @@
 package com.mhoms.mhomsservices.controller;
 
+import com.mhoms.mhomsservices.cache.CacheStats;
 import com.mhoms.mhomsservices.model.Role;
 import com.mhoms.mhomsservices.repository.UserRepository;
+import com.mhoms.mhomsservices.security.AccountVersionRegistry;
+import com.mhoms.mhomsservices.security.ApiKeyRegistry;
+import com.mhoms.mhomsservices.security.AuthRateLimitFilter;
+import com.mhoms.mhomsservices.security.BearerTokenGuard;
+import com.mhoms.mhomsservices.security.CustomUserDetailsService;
+import com.mhoms.mhomsservices.security.IdempotencyFilter;
+import com.mhoms.mhomsservices.security.JwtUtil;
+import com.mhoms.mhomsservices.security.PasswordHashingExecutor;
+import com.mhoms.mhomsservices.security.RefreshTokenStore;
+import com.mhoms.mhomsservices.service.AppointmentAutoCompletionJob;
 import com.mhoms.mhomsservices.service.AppointmentService;
+import com.mhoms.mhomsservices.service.DoctorAvailabilityService;
 import com.mhoms.mhomsservices.service.DoctorService;
+import com.mhoms.mhomsservices.service.GroupCommitBookingPipeline;
 import com.mhoms.mhomsservices.service.PatientService;
+import com.mhoms.mhomsservices.service.SlotOccupancyIndex;
+import com.mhoms.mhomsservices.service.WaitlistService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,13 +36,54 @@ public class DashboardController {
     private final DoctorService doctorService;
     private final AppointmentService appointmentService;
     private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+    private final CustomUserDetailsService userDetailsService;
+    private final AccountVersionRegistry accountVersionRegistry;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RefreshTokenStore refreshTokenStore;
+    private final BearerTokenGuard bearerTokenGuard;
+    private final AuthRateLimitFilter authRateLimitFilter;
+    private final ApiKeyRegistry apiKeyRegistry;
+    private final SlotOccupancyIndex slotOccupancyIndex;
+    private final DoctorAvailabilityService doctorAvailabilityService;
+    private final IdempotencyFilter idempotencyFilter;
+    private final AppointmentAutoCompletionJob autoCompletionJob;
+    private final WaitlistService waitlistService;
+    private final GroupCommitBookingPipeline bookingPipeline;
 
     public DashboardController(PatientService patientService, DoctorService doctorService,
-                               AppointmentService appointmentService, UserRepository userRepository) {
+                               AppointmentService appointmentService, UserRepository userRepository,
+                               JwtUtil jwtUtil, CustomUserDetailsService userDetailsService,
+                               AccountVersionRegistry accountVersionRegistry,
+                               PasswordHashingExecutor passwordHashingExecutor,
+                               RefreshTokenStore refreshTokenStore,
+                               BearerTokenGuard bearerTokenGuard,
+                               AuthRateLimitFilter authRateLimitFilter,
+                               ApiKeyRegistry apiKeyRegistry,
+                               SlotOccupancyIndex slotOccupancyIndex,
+                               DoctorAvailabilityService doctorAvailabilityService,
+                               IdempotencyFilter idempotencyFilter,
+                               AppointmentAutoCompletionJob autoCompletionJob,
+                               WaitlistService waitlistService,
+                               GroupCommitBookingPipeline bookingPipeline) {
         this.patientService = patientService;
         this.doctorService = doctorService;
         this.appointmentService = appointmentService;
         this.userRepository = userRepository;
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.accountVersionRegistry = accountVersionRegistry;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.refreshTokenStore = refreshTokenStore;
+        this.bearerTokenGuard = bearerTokenGuard;
+        this.authRateLimitFilter = authRateLimitFilter;
+        this.apiKeyRegistry = apiKeyRegistry;
+        this.slotOccupancyIndex = slotOccupancyIndex;
+        this.doctorAvailabilityService = doctorAvailabilityService;
+        this.idempotencyFilter = idempotencyFilter;
+        this.autoCompletionJob = autoCompletionJob;
+        this.waitlistService = waitlistService;
+        this.bookingPipeline = bookingPipeline;
     }
 
     @Operation(summary = "Get complete dashboard statistics")
@@ -49,6 +105,7 @@ public class DashboardController {
                 appointmentService.countByStatus("BOOKED"),
                 appointmentService.countByStatus("COMPLETED"),
                 appointmentService.countByStatus("CANCELLED"),
+                appointmentService.countByStatus("NO_SHOW"),
                 appointmentService.countTodaysAppointments(),
                 // User stats
                 userRepository.count(),
@@ -71,6 +128,96 @@ public class DashboardController {
         );
     }
 
+    @Operation(summary = "Get verified-token cache statistics")
+    @GetMapping("/metrics/token-cache")
+    public CacheStats getTokenCacheStats() {
+        return jwtUtil.getTokenCacheStats();
+    }
+
+    @Operation(summary = "Get authenticated-principal cache statistics")
+    @GetMapping("/metrics/user-cache")
+    public CacheStats getUserCacheStats() {
+        return userDetailsService.getCacheStats();
+    }
+
+    @Operation(summary = "Get account-version registry statistics for stateless tokens")
+    @GetMapping("/metrics/account-versions")
+    public AccountVersionRegistry.RegistryStats getAccountVersionStats() {
+        return accountVersionRegistry.getStats();
+    }
+
+    @Operation(summary = "Get password-hashing pool queue-wait and hash-time statistics")
+    @GetMapping("/metrics/password-hashing")
+    public PasswordHashingExecutor.HashingStats getPasswordHashingStats() {
+        return passwordHashingExecutor.getStats();
+    }
+
+    @Operation(summary = "Get refresh-token rotation and revocation-filter statistics")
+    @GetMapping("/metrics/refresh-tokens")
+    public RefreshTokenStore.RefreshStoreStats getRefreshTokenStats() {
+        return refreshTokenStore.getStats();
+    }
+
+    @Operation(summary = "Get rejected bearer-token counts by reason")
+    @GetMapping("/metrics/token-rejections")
+    public BearerTokenGuard.RejectionStats getTokenRejectionStats() {
+        return bearerTokenGuard.getStats();
+    }
+
+    @Operation(summary = "Get /auth rate-limiter statistics")
+    @GetMapping("/metrics/rate-limit")
+    public AuthRateLimitFilter.RateLimitStats getRateLimitStats() {
+        return authRateLimitFilter.getStats();
+    }
+
+    @Operation(summary = "Get API key table statistics")
+    @GetMapping("/metrics/api-keys")
+    public ApiKeyRegistry.RegistryStats getApiKeyStats() {
+        return apiKeyRegistry.getStats();
+    }
+
+    @Operation(summary = "Get appointment slot occupancy index statistics")
+    @GetMapping("/metrics/slot-occupancy")
+    public SlotOccupancyIndex.OccupancyStats getSlotOccupancyStats() {
+        return slotOccupancyIndex.getStats();
+    }
+
+    @Operation(summary = "Get doctor availability schedule cache statistics")
+    @GetMapping("/metrics/availability")
+    public CacheStats getAvailabilityCacheStats() {
+        return doctorAvailabilityService.getCacheStats();
+    }
+
+    @Operation(summary = "Get optimistic-lock contention statistics for appointment updates")
+    @GetMapping("/metrics/appointment-contention")
+    public AppointmentService.ContentionStats getAppointmentContentionStats() {
+        return appointmentService.getContentionStats();
+    }
+
+    @Operation(summary = "Get past-appointment auto-completion job statistics")
+    @GetMapping("/metrics/auto-completion")
+    public AppointmentAutoCompletionJob.JobStats getAutoCompletionStats() {
+        return autoCompletionJob.getStats();
+    }
+
+    @Operation(summary = "Get Idempotency-Key replay statistics")
+    @GetMapping("/metrics/idempotency")
+    public IdempotencyFilter.IdempotencyStats getIdempotencyStats() {
+        return idempotencyFilter.getStats();
+    }
+
+    @Operation(summary = "Get waitlist matching and hold statistics")
+    @GetMapping("/metrics/waitlist")
+    public WaitlistService.WaitlistStats getWaitlistStats() {
+        return waitlistService.getStats();
+    }
+
+    @Operation(summary = "Get group-commit booking pipeline batch-size and latency histograms")
+    @GetMapping("/metrics/booking-pipeline")
+    public GroupCommitBookingPipeline.PipelineStats getBookingPipelineStats() {
+        return bookingPipeline.getStats();
+    }
+
     // Record classes for response (NO builder needed - use constructor)
     public record DashboardStats(
             long totalPatients,
@@ -84,6 +231,7 @@ public class DashboardController {
             long bookedAppointments,
             long completedAppointments,
             long cancelledAppointments,
+            long noShowAppointments,
             long todaysAppointments,
             long totalUsers,
             long adminUsers,
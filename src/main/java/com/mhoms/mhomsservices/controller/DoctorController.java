@@ -1,8 +1,12 @@
 package com.mhoms.mhomsservices.controller;
 
+import com.mhoms.mhomsservices.dto.DoctorAvailabilityResponse;
+import com.mhoms.mhomsservices.dto.DoctorTimelineResponse;
 import com.mhoms.mhomsservices.dto.PageResponse;
 import com.mhoms.mhomsservices.model.Doctor;
+import com.mhoms.mhomsservices.service.DoctorAvailabilityService;
 import com.mhoms.mhomsservices.service.DoctorService;
+import com.mhoms.mhomsservices.service.DoctorTimelineService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,9 +16,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -26,9 +34,14 @@ import java.util.List;
 public class DoctorController {
 
     private final DoctorService doctorService;
+    private final DoctorAvailabilityService doctorAvailabilityService;
+    private final DoctorTimelineService doctorTimelineService;
 
-    public DoctorController(DoctorService doctorService) {
+    public DoctorController(DoctorService doctorService, DoctorAvailabilityService doctorAvailabilityService,
+                            DoctorTimelineService doctorTimelineService) {
         this.doctorService = doctorService;
+        this.doctorAvailabilityService = doctorAvailabilityService;
+        this.doctorTimelineService = doctorTimelineService;
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -76,6 +89,67 @@ public class DoctorController {
         return doctorService.getDoctorById(id);
     }
 
+    // ═══════════════════════════════════════════════════════════════
+    // AVAILABILITY ENDPOINTS (NEW)
+    // ═══════════════════════════════════════════════════════════════
+
+    @Operation(
+            summary = "Get doctor availability",
+            description = "Free slots per working day within the configured working hours. "
+                    + "Slot i of a day starts at start + i * slotMinutes and is free when bit i of the "
+                    + "hex mask is set (least significant bit in the last digit)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Availability returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid range or slot length"),
+            @ApiResponse(responseCode = "404", description = "Doctor not found")
+    })
+    @GetMapping("/{id}/availability")
+    public DoctorAvailabilityResponse getAvailability(
+            @PathVariable Long id,
+
+            @Parameter(description = "First day (defaults to today)", example = "2025-12-29")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+
+            @Parameter(description = "Last day, inclusive (defaults to from + 6 days)", example = "2026-01-02")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+
+            @Parameter(description = "Slot length in minutes (defaults to the configured length)", example = "30")
+            @RequestParam(required = false) Integer slot
+    ) {
+        return doctorAvailabilityService.getAvailability(id, from, to, slot);
+    }
+
+    @Operation(
+            summary = "Get doctor timeline",
+            description = "Appointments per day for calendar views. Each entry is "
+                    + "[minute of day, duration in minutes, status code, appointment id], where the status code "
+                    + "indexes the statuses list. Send the ETag back as If-None-Match to get 304 when nothing changed"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Timeline returned"),
+            @ApiResponse(responseCode = "304", description = "Timeline unchanged since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid range"),
+            @ApiResponse(responseCode = "404", description = "Doctor not found")
+    })
+    @GetMapping("/{id}/timeline")
+    public ResponseEntity<DoctorTimelineResponse> getTimeline(
+            @PathVariable Long id,
+
+            @Parameter(description = "First day (defaults to today)", example = "2025-12-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+
+            @Parameter(description = "Last day, inclusive (defaults to from + 6 days)", example = "2025-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        DoctorTimelineResponse timeline = doctorTimelineService.getTimeline(id, from, to);
+        // A matching If-None-Match turns this into a bodiless 304
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag("\"" + DoctorTimelineService.fingerprint(timeline) + "\"")
+                .body(timeline);
+    }
+
     // ═══════════════════════════════════════════════════════════════
     // PAGINATION ENDPOINTS (NEW)
     // ═══════════════════════════════════════════════════════════════
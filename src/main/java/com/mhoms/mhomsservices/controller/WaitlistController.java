@@ -0,0 +1,81 @@
+package com.mhoms.mhomsservices.controller;
+
+import com.mhoms.mhomsservices.dto.WaitlistRequest;
+import com.mhoms.mhomsservices.model.WaitlistEntry;
+import com.mhoms.mhomsservices.service.WaitlistService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/waitlist")
+@Tag(
+        name = "Waitlist",
+        description = "APIs for waiting on freed appointment slots"
+)
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    public WaitlistController(WaitlistService waitlistService) {
+        this.waitlistService = waitlistService;
+    }
+
+    @Operation(
+            summary = "Join the waitlist",
+            description = "Registers criteria - a doctorId or a specialization, a date window and an optional " +
+                    "time-of-day range. When a matching slot is freed by a cancellation or reschedule it is held " +
+                    "for the longest-waiting entry, which is notified and can accept it until the hold expires."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Entry registered"),
+            @ApiResponse(responseCode = "400", description = "Invalid criteria"),
+            @ApiResponse(responseCode = "404", description = "Patient or Doctor not found"),
+            @ApiResponse(responseCode = "409", description = "Patient has too many active entries")
+    })
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public WaitlistEntry register(@RequestBody WaitlistRequest request) {
+        return waitlistService.register(request);
+    }
+
+    @Operation(summary = "Get a patient's waitlist entries", description = "Newest first, in every status")
+    @GetMapping("/patient/{patientId}")
+    public List<WaitlistEntry> getEntriesByPatient(@PathVariable Long patientId) {
+        return waitlistService.getEntriesByPatient(patientId);
+    }
+
+    @Operation(
+            summary = "Accept a held slot",
+            description = "Books the slot held for the entry, provided the hold has not expired"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Appointment booked"),
+            @ApiResponse(responseCode = "404", description = "Entry not found"),
+            @ApiResponse(responseCode = "409", description = "No live hold, or the slot was taken meanwhile")
+    })
+    @PostMapping("/{id}/accept")
+    public WaitlistService.Acceptance accept(@PathVariable Long id) {
+        return waitlistService.accept(id);
+    }
+
+    @Operation(
+            summary = "Leave the waitlist",
+            description = "Withdraws the entry; a slot held for it is offered to the next match"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Entry withdrawn"),
+            @ApiResponse(responseCode = "404", description = "Entry not found"),
+            @ApiResponse(responseCode = "409", description = "Entry is no longer active")
+    })
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void withdraw(@PathVariable Long id) {
+        waitlistService.withdraw(id);
+    }
+}
@@ -0,0 +1,47 @@
+package com.mhoms.mhomsservices.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+/**
+ * DTO for creating a service-account API key
+ */
+public class ApiKeyRequest {
+
+    @NotBlank(message = "Username is required")
+    private String username;
+
+    @NotBlank(message = "Key name is required")
+    @Size(max = 100, message = "Key name must be at most 100 characters")
+    private String name;
+
+    // Optional; keys without an expiry stay valid until revoked
+    @Positive(message = "Expiry must be a positive number of days")
+    private Integer expiresInDays;
+
+    // Getters and Setters
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Integer getExpiresInDays() {
+        return expiresInDays;
+    }
+
+    public void setExpiresInDays(Integer expiresInDays) {
+        this.expiresInDays = expiresInDays;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mhoms.mhomsservices.dto;
+
+import com.mhoms.mhomsservices.model.ApiKey;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for API key details
+ * The raw key is only present in the response to the create request
+ */
+public record ApiKeyResponse(
+        Long id,
+        String name,
+        String keyPrefix,
+        String username,
+        LocalDateTime createdAt,
+        LocalDateTime expiresAt,
+        boolean revoked,
+        LocalDateTime revokedAt,
+        String apiKey
+) {
+
+    public static ApiKeyResponse from(ApiKey key) {
+        return from(key, null);
+    }
+
+    public static ApiKeyResponse from(ApiKey key, String rawKey) {
+        return new ApiKeyResponse(
+                key.getId(),
+                key.getName(),
+                key.getKeyPrefix(),
+                key.getUsername(),
+                key.getCreatedAt(),
+                key.getExpiresAt(),
+                key.isRevoked(),
+                key.getRevokedAt(),
+                rawKey
+        );
+    }
+}
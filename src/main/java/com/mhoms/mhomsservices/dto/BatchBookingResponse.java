@@ -0,0 +1,33 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.util.List;
+
+/**
+ * DTO for batch booking results
+ * One entry per submitted item, in submission order (item numbers are 1-based).
+ * In all-or-nothing mode committed is false when any item failed; the items that
+ * would have been booked are then reported as ROLLED_BACK.
+ */
+public record BatchBookingResponse(
+        int total,
+        int booked,
+        int rejected,
+        boolean allOrNothing,
+        boolean committed,
+        List<ItemResult> results
+) {
+
+    public enum ItemStatus {
+        BOOKED,
+        INVALID,
+        DUPLICATE_IN_BATCH,
+        PATIENT_NOT_FOUND,
+        DOCTOR_NOT_FOUND,
+        DOCTOR_INACTIVE,
+        SLOT_TAKEN,
+        ROLLED_BACK
+    }
+
+    public record ItemResult(int item, Long appointmentId, ItemStatus status, String message) {
+    }
+}
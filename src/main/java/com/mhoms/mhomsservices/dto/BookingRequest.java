@@ -0,0 +1,13 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one appointment in a batch booking request
+ */
+public record BookingRequest(
+        Long patientId,
+        Long doctorId,
+        LocalDateTime appointmentDate
+) {
+}
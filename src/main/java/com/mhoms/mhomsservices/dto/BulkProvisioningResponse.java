@@ -0,0 +1,25 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.util.List;
+
+/**
+ * DTO for bulk user provisioning results
+ * One entry per submitted row, in submission order (row numbers are 1-based)
+ */
+public record BulkProvisioningResponse(
+        int total,
+        int created,
+        int skipped,
+        int invalid,
+        List<RowResult> results
+) {
+
+    public enum RowStatus {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    public record RowResult(int row, String username, RowStatus status, String message) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for a bulk status transition
+ * Selects appointments by id list and/or by filters; either ids or a full
+ * startDate..endDate range (inclusive, like /appointments/search) is required.
+ */
+public record BulkStatusRequest(
+        List<Long> ids,
+        Long doctorId,
+        LocalDateTime startDate,
+        LocalDateTime endDate,
+        String currentStatus,
+        String targetStatus
+) {
+}
@@ -0,0 +1,18 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.util.Map;
+
+/**
+ * DTO for bulk status transition results
+ * matched counts every selected appointment; skipped ones were already in the
+ * target status or in a status that cannot move to it. updatedFrom breaks the
+ * updated count down by previous status.
+ */
+public record BulkStatusResponse(
+        String targetStatus,
+        int matched,
+        int updated,
+        int skipped,
+        Map<String, Integer> updatedFrom
+) {
+}
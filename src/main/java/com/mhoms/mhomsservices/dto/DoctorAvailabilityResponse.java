@@ -0,0 +1,29 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * DTO for a doctor's free slots over a date range
+ * Only working days are listed; slot i of a day starts at start + i * slotMinutes
+ * and is free when bit i of mask (hex, least significant bit last) is set.
+ */
+public record DoctorAvailabilityResponse(
+        Long doctorId,
+        boolean active,
+        LocalDate from,
+        LocalDate to,
+        int slotMinutes,
+        List<Day> days
+) {
+
+    public record Day(
+            LocalDate date,
+            LocalTime start,
+            int slots,
+            int freeSlots,
+            String mask
+    ) {
+    }
+}
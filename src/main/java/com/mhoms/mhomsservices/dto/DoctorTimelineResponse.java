@@ -0,0 +1,25 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO for a doctor's appointments over a date range, encoded for calendar views
+ * Only days with appointments are listed. Each entry is [minute of day, duration in
+ * minutes, status code, appointment id], in time order; a status code is an index
+ * into statuses.
+ */
+public record DoctorTimelineResponse(
+        Long doctorId,
+        LocalDate from,
+        LocalDate to,
+        List<String> statuses,
+        List<Day> days
+) {
+
+    public record Day(
+            LocalDate date,
+            List<long[]> entries
+    ) {
+    }
+}
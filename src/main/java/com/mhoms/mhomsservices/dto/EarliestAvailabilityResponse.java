@@ -0,0 +1,26 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for the earliest free slots across the active doctors of a specialization
+ * Openings are in start order, ties broken by doctor id; fewer than limit are
+ * returned when the search horizon runs out first.
+ */
+public record EarliestAvailabilityResponse(
+        String specialization,
+        LocalDateTime from,
+        LocalDateTime searchedUntil,
+        int slotMinutes,
+        int doctors,
+        List<Opening> openings
+) {
+
+    public record Opening(
+            LocalDateTime start,
+            Long doctorId,
+            String doctorName
+    ) {
+    }
+}
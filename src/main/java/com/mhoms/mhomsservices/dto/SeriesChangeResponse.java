@@ -0,0 +1,13 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.util.List;
+
+/**
+ * DTO for a change applied to the remaining occurrences of a series
+ */
+public record SeriesChangeResponse(
+        Long seriesId,
+        int updated,
+        List<Long> appointmentIds
+) {
+}
@@ -0,0 +1,20 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a recurring appointment series
+ * frequency is WEEKLY, BIWEEKLY or CUSTOM (every intervalDays days); the series
+ * ends after count occurrences or on the until date, whichever is given.
+ */
+public record SeriesRequest(
+        Long patientId,
+        Long doctorId,
+        LocalDateTime firstDate,
+        String frequency,
+        Integer intervalDays,
+        Integer count,
+        LocalDate until
+) {
+}
@@ -0,0 +1,29 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO for a series preview or booking
+ * A preview has no seriesId and reports each occurrence as FREE or SLOT_TAKEN;
+ * a booking reports BOOKED occurrences with their ids and skipped SLOT_TAKEN ones.
+ */
+public record SeriesResponse(
+        Long seriesId,
+        Long patientId,
+        Long doctorId,
+        int total,
+        int free,
+        int booked,
+        List<Occurrence> occurrences
+) {
+
+    public enum OccurrenceStatus {
+        FREE,
+        SLOT_TAKEN,
+        BOOKED
+    }
+
+    public record Occurrence(LocalDateTime appointmentDate, OccurrenceStatus status, Long appointmentId) {
+    }
+}
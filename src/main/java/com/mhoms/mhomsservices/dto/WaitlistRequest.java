@@ -0,0 +1,20 @@
+package com.mhoms.mhomsservices.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * DTO for registering a waitlist entry
+ * Give a doctorId or a specialization; earliestTime/latestTime narrow the time of day
+ * (inclusive) and may be omitted for the whole working day.
+ */
+public record WaitlistRequest(
+        Long patientId,
+        Long doctorId,
+        String specialization,
+        LocalDate fromDate,
+        LocalDate toDate,
+        LocalTime earliestTime,
+        LocalTime latestTime
+) {
+}
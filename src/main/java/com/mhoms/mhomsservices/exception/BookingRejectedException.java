@@ -0,0 +1,27 @@
+package com.mhoms.mhomsservices.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A booking was rejected by the database; the code tells clients why
+ * (PATIENT_NOT_FOUND, DOCTOR_NOT_FOUND, DOCTOR_INACTIVE, PATIENT_BUSY or SLOT_TAKEN)
+ */
+public class BookingRejectedException extends RuntimeException {
+
+    private final String code;
+    private final HttpStatus status;
+
+    public BookingRejectedException(String code, HttpStatus status, String message) {
+        super(message);
+        this.code = code;
+        this.status = status;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
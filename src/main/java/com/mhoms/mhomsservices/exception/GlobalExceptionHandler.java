@@ -1,6 +1,7 @@
 package com.mhoms.mhomsservices.exception;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -84,11 +85,17 @@ public class GlobalExceptionHandler {
     /**
      * Handle 401 - Generic Authentication Exception
      * Catches any other authentication-related errors
+     * A saturated hashing pool during login (including the provider's timing-attack dummy
+     * hash) arrives wrapped in InternalAuthenticationServiceException and stays a 429.
      */
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<Map<String, Object>> handleAuthenticationException(
             AuthenticationException ex) {
 
+        if (ex.getCause() instanceof TooManyRequestsException busy) {
+            return handleTooManyRequests(busy);
+        }
+
         Map<String, Object> error = new HashMap<>();
         error.put("timestamp", LocalDateTime.now());
         error.put("status", 401);
@@ -127,6 +134,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handle 400 - Invalid Argument
+     * Triggered when a request value is rejected by business validation (e.g., oversized batch)
+     * Only InvalidRequestException, whose messages are written for clients; any other
+     * IllegalArgumentException stays an unexpected error.
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRequest(
+            InvalidRequestException ex) {
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", 400);
+        error.put("error", "Bad Request");
+        error.put("message", ex.getMessage());
+        error.put("details", "Please check the request values and try again.");
+
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     // ═══════════════════════════════════════════════════════
     // BUSINESS LOGIC EXCEPTIONS
     // ═══════════════════════════════════════════════════════
@@ -149,6 +176,48 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handle 404/409 - Booking Rejected
+     * Triggered by the single-statement booking path; carries a machine-readable code
+     */
+    @ExceptionHandler(BookingRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleBookingRejected(
+            BookingRejectedException ex) {
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", ex.getStatus().value());
+        error.put("error", ex.getStatus().getReasonPhrase());
+        error.put("code", ex.getCode());
+        error.put("message", ex.getMessage());
+        error.put("details", "The appointment was not booked.");
+
+        return new ResponseEntity<>(error, ex.getStatus());
+    }
+
+    /**
+     * Handle 412 - Precondition Failed
+     * Triggered when If-Match names a version that is no longer current
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handlePreconditionFailed(
+            PreconditionFailedException ex) {
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", 412);
+        error.put("error", "Precondition Failed");
+        error.put("message", ex.getMessage());
+        error.put("details", "Fetch the current version and retry the update.");
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+        if (ex.getCurrentVersion() != null) {
+            error.put("currentVersion", ex.getCurrentVersion());
+            response.eTag("\"" + ex.getCurrentVersion() + "\"");
+        }
+        return response.body(error);
+    }
+
     /**
      * Handle 409 - Conflict (Duplicate or Business Rule Violation)
      * Triggered when business rules are violated (e.g., duplicate booking)
@@ -198,6 +267,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
 
+    /**
+     * Handle 429 - Too Many Requests
+     * Triggered when a bounded resource (e.g. the password-hashing pool) is saturated
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Map<String, Object>> handleTooManyRequests(
+            TooManyRequestsException ex) {
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", 429);
+        error.put("error", "Too Many Requests");
+        error.put("message", ex.getMessage());
+        error.put("details", "Please wait a moment and try again.");
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     // ═══════════════════════════════════════════════════════
     // GENERIC EXCEPTION HANDLER
     // ═══════════════════════════════════════════════════════
@@ -0,0 +1,13 @@
+package com.mhoms.mhomsservices.exception;
+
+/**
+ * A request value was rejected by business validation (e.g., oversized batch, inverted date range)
+ * Handled as a 400 Bad Request with the message shown to the client, so messages must be
+ * written for API callers. Other IllegalArgumentExceptions are not client errors.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
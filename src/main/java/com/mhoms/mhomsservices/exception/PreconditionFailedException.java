@@ -0,0 +1,19 @@
+package com.mhoms.mhomsservices.exception;
+
+/**
+ * The If-Match version sent by the client is no longer the current one
+ * Handled as a 412 Precondition Failed; clients should re-read and retry
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public PreconditionFailedException(String message, Long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
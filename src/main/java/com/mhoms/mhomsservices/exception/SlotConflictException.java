@@ -0,0 +1,12 @@
+package com.mhoms.mhomsservices.exception;
+
+/**
+ * The doctor already has an appointment at the requested time
+ * Handled as a 409 Conflict like any other IllegalStateException
+ */
+public class SlotConflictException extends IllegalStateException {
+
+    public SlotConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.mhoms.mhomsservices.exception;
+
+/**
+ * Thrown when a bounded resource is saturated and the client should retry later
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -5,13 +5,26 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments", uniqueConstraints = {
-        @UniqueConstraint(columnNames = {"doctor_id", "appointment_date"})
+@Table(name = "appointments", indexes = {
+        // Serves the past-BOOKED sweep as well as status counts and the upcoming queries
+        @Index(name = "idx_appointments_status_date", columnList = "status, appointment_date"),
+        @Index(name = "idx_appointments_series_id", columnList = "series_id"),
+        // Patient overlap checks scan a patient's appointments around the new start
+        @Index(name = "idx_appointments_patient_date", columnList = "patient_id, appointment_date"),
+        // Doctor calendars of every status; one live appointment per (doctor_id, appointment_date) is
+        // a partial unique index, which JPA cannot declare - see AppointmentSlotIndex
+        @Index(name = "idx_appointments_doctor_date", columnList = "doctor_id, appointment_date")
 })
 public class Appointment {
 
+    public static final int DEFAULT_DURATION_MINUTES = 30;
+
+    // Upper bound on a duration, which also bounds how far back overlap checks have to look
+    public static final int MAX_DURATION_MINUTES = 480;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointment_seq")
+    @SequenceGenerator(name = "appointment_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
 
     // CHANGED: Added EAGER fetch and JsonIgnoreProperties
@@ -27,7 +40,27 @@ public class Appointment {
     private Doctor doctor;
 
     private LocalDateTime appointmentDate;
-    private String status; // BOOKED, CANCELLED, COMPLETED
+    private String status; // BOOKED, CANCELLED, COMPLETED, NO_SHOW
+
+    // The appointment covers [appointmentDate, appointmentDate + durationMinutes)
+    @Column(name = "duration_minutes", nullable = false, columnDefinition = "integer default " + DEFAULT_DURATION_MINUTES)
+    private Integer durationMinutes = DEFAULT_DURATION_MINUTES;
+
+    // Set for occurrences of a recurring series
+    @Column(name = "series_id")
+    private Long seriesId;
+
+    // Optimistic lock; the default covers rows inserted by raw SQL and rows that predate the column
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    /**
+     * Whether an appointment of the given length starting at start ends by midnight of its day
+     */
+    public static boolean endsSameDay(LocalDateTime start, int durationMinutes) {
+        return !start.plusMinutes(durationMinutes).isAfter(start.toLocalDate().plusDays(1).atStartOfDay());
+    }
 
     /* Getters & Setters */
     public Long getId() {
@@ -62,6 +95,18 @@ public class Appointment {
         this.appointmentDate = appointmentDate;
     }
 
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public LocalDateTime getEndDate() {
+        return appointmentDate == null ? null : appointmentDate.plusMinutes(durationMinutes);
+    }
+
     public String getStatus() {
         return status;
     }
@@ -69,4 +114,20 @@ public class Appointment {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public Long getSeriesId() {
+        return seriesId;
+    }
+
+    public void setSeriesId(Long seriesId) {
+        this.seriesId = seriesId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
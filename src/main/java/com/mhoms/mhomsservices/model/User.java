@@ -1,5 +1,6 @@
 package com.mhoms.mhomsservices.model;
 
+import com.mhoms.mhomsservices.security.UserEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -17,6 +18,7 @@ import java.util.List;
  * Implements UserDetails for Spring Security integration
  */
 @Entity
+@EntityListeners(UserEntityListener.class)
 @Table(name = "users", uniqueConstraints = {
         @UniqueConstraint(columnNames = "username"),
         @UniqueConstraint(columnNames = "email")
@@ -24,7 +26,8 @@ import java.util.List;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Username is required")
@@ -59,6 +62,28 @@ public class User implements UserDetails {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Bumped whenever role or account status changes; stamped into access tokens
+    // so stateless tokens issued before the change are rejected
+    @Column(name = "account_version", nullable = false, columnDefinition = "bigint default 0")
+    private long accountVersion = 0;
+
+    // Username as last read from or written to the database, so a rename can evict the old name
+    @Transient
+    private String persistedUsername;
+
+    @PreUpdate
+    void touchUpdatedAt() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Runs after UserEntityListener, which still sees the name from before the write
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void rememberPersistedUsername() {
+        this.persistedUsername = username;
+    }
+
     // UserDetails implementation methods
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -133,25 +158,55 @@ public class User implements UserDetails {
     }
 
     public void setRole(Role role) {
+        if (this.role != null && this.role != role) {
+            bumpAccountVersion();
+        }
         this.role = role;
     }
 
     public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) {
+            bumpAccountVersion();
+        }
         this.enabled = enabled;
     }
 
     public void setAccountNonExpired(boolean accountNonExpired) {
+        if (this.accountNonExpired != accountNonExpired) {
+            bumpAccountVersion();
+        }
         this.accountNonExpired = accountNonExpired;
     }
 
     public void setAccountNonLocked(boolean accountNonLocked) {
+        if (this.accountNonLocked != accountNonLocked) {
+            bumpAccountVersion();
+        }
         this.accountNonLocked = accountNonLocked;
     }
 
     public void setCredentialsNonExpired(boolean credentialsNonExpired) {
+        if (this.credentialsNonExpired != credentialsNonExpired) {
+            bumpAccountVersion();
+        }
         this.credentialsNonExpired = credentialsNonExpired;
     }
 
+    public String getPersistedUsername() {
+        return persistedUsername;
+    }
+
+    public long getAccountVersion() {
+        return accountVersion;
+    }
+
+    /**
+     * Invalidate every access token issued to this user so far
+     */
+    public void bumpAccountVersion() {
+        this.accountVersion++;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,179 @@
+package com.mhoms.mhomsservices.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A patient's standing request for a slot with a doctor or any doctor of a specialization
+ * OPEN entries are matched against freed slots; the best match moves to HELD with a
+ * slot reserved until hold_expires_at, and to BOOKED once the patient accepts.
+ */
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+        @Index(name = "idx_waitlist_entries_status", columnList = "status, hold_expires_at"),
+        @Index(name = "idx_waitlist_entries_patient_id", columnList = "patient_id")
+})
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "waitlist_entry_seq")
+    @SequenceGenerator(name = "waitlist_entry_seq", sequenceName = "waitlist_entries_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    // Either a doctor or a specialization is set
+    @Column(name = "doctor_id")
+    private Long doctorId;
+
+    @Column(length = 100)
+    private String specialization;
+
+    @Column(name = "from_date", nullable = false)
+    private LocalDate fromDate;
+
+    @Column(name = "to_date", nullable = false)
+    private LocalDate toDate;
+
+    // Time-of-day range, null for the whole working day
+    @Column(name = "earliest_time")
+    private LocalTime earliestTime;
+
+    @Column(name = "latest_time")
+    private LocalTime latestTime;
+
+    @Column(nullable = false, length = 16)
+    private String status; // OPEN, HELD, BOOKED, WITHDRAWN, EXPIRED
+
+    // The slot currently held for this entry
+    @Column(name = "held_doctor_id")
+    private Long heldDoctorId;
+
+    @Column(name = "held_slot")
+    private LocalDateTime heldSlot;
+
+    @Column(name = "hold_expires_at")
+    private LocalDateTime holdExpiresAt;
+
+    @Column(name = "appointment_id")
+    private Long appointmentId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /* Getters & Setters */
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getSpecialization() {
+        return specialization;
+    }
+
+    public void setSpecialization(String specialization) {
+        this.specialization = specialization;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public void setToDate(LocalDate toDate) {
+        this.toDate = toDate;
+    }
+
+    public LocalTime getEarliestTime() {
+        return earliestTime;
+    }
+
+    public void setEarliestTime(LocalTime earliestTime) {
+        this.earliestTime = earliestTime;
+    }
+
+    public LocalTime getLatestTime() {
+        return latestTime;
+    }
+
+    public void setLatestTime(LocalTime latestTime) {
+        this.latestTime = latestTime;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getHeldDoctorId() {
+        return heldDoctorId;
+    }
+
+    public void setHeldDoctorId(Long heldDoctorId) {
+        this.heldDoctorId = heldDoctorId;
+    }
+
+    public LocalDateTime getHeldSlot() {
+        return heldSlot;
+    }
+
+    public void setHeldSlot(LocalDateTime heldSlot) {
+        this.heldSlot = heldSlot;
+    }
+
+    public LocalDateTime getHoldExpiresAt() {
+        return holdExpiresAt;
+    }
+
+    public void setHoldExpiresAt(LocalDateTime holdExpiresAt) {
+        this.holdExpiresAt = holdExpiresAt;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
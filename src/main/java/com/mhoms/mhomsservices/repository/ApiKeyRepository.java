@@ -0,0 +1,46 @@
+package com.mhoms.mhomsservices.repository;
+
+import com.mhoms.mhomsservices.model.ApiKey;
+import com.mhoms.mhomsservices.model.Role;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
+
+    List<ApiKey> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Every usable key with the owner's current role, used to load the in-memory key table
+     */
+    @Query("SELECT k.keyDigest AS keyDigest, u.id AS userId, u.username AS username, u.role AS role, " +
+            "k.expiresAt AS expiresAt FROM ApiKey k JOIN User u ON u.id = k.userId " +
+            "WHERE k.revoked = false AND u.enabled = true AND (k.expiresAt IS NULL OR k.expiresAt > :now)")
+    List<ActiveKeyView> findActiveKeys(@Param("now") LocalDateTime now);
+
+    /**
+     * Usable keys of a single user, reloaded after that user changes
+     */
+    @Query("SELECT k.keyDigest AS keyDigest, u.id AS userId, u.username AS username, u.role AS role, " +
+            "k.expiresAt AS expiresAt FROM ApiKey k JOIN User u ON u.id = k.userId " +
+            "WHERE u.id = :userId AND k.revoked = false AND u.enabled = true " +
+            "AND (k.expiresAt IS NULL OR k.expiresAt > :now)")
+    List<ActiveKeyView> findActiveKeysByUserId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    interface ActiveKeyView {
+        String getKeyDigest();
+
+        Long getUserId();
+
+        String getUsername();
+
+        Role getRole();
+
+        LocalDateTime getExpiresAt();
+    }
+}
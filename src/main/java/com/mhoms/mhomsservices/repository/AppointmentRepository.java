@@ -11,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -40,6 +41,198 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
      */
     boolean existsByDoctorIdAndAppointmentDate(Long doctorId, LocalDateTime appointmentDate);
 
+    /**
+     * Start and length of a doctor's live appointments starting in [start, end), used to build the occupancy index
+     * Cancelled appointments hold no slot, so they are left out.
+     */
+    @Query("SELECT a.appointmentDate AS appointmentDate, a.durationMinutes AS durationMinutes FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId AND a.status <> 'CANCELLED' " +
+            "AND a.appointmentDate >= :start AND a.appointmentDate < :end")
+    List<SpanView> findAppointmentSpansByDoctorBetween(
+            @Param("doctorId") Long doctorId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    interface SpanView {
+        LocalDateTime getAppointmentDate();
+
+        Integer getDurationMinutes();
+    }
+
+    /**
+     * Start and length of several doctors' live appointments in [start, end) - one query to warm the occupancy index
+     */
+    @Query("SELECT a.doctor.id AS doctorId, a.appointmentDate AS appointmentDate, " +
+            "a.durationMinutes AS durationMinutes FROM Appointment a " +
+            "WHERE a.doctor.id IN :doctorIds AND a.status <> 'CANCELLED' " +
+            "AND a.appointmentDate >= :start AND a.appointmentDate < :end")
+    List<DoctorDateView> findAppointmentDatesByDoctorsBetween(
+            @Param("doctorIds") Collection<Long> doctorIds,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    interface DoctorDateView {
+        Long getDoctorId();
+
+        LocalDateTime getAppointmentDate();
+
+        Integer getDurationMinutes();
+    }
+
+    /**
+     * A doctor's appointments starting in [start, end) in time order, scalar columns only - backs the calendar timeline
+     */
+    @Query("SELECT a.id AS id, a.appointmentDate AS appointmentDate, a.durationMinutes AS durationMinutes, " +
+            "a.status AS status FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId AND a.appointmentDate >= :start AND a.appointmentDate < :end " +
+            "ORDER BY a.appointmentDate, a.id")
+    List<TimelineView> findTimelineByDoctorBetween(
+            @Param("doctorId") Long doctorId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    interface TimelineView {
+        Long getId();
+
+        LocalDateTime getAppointmentDate();
+
+        Integer getDurationMinutes();
+
+        String getStatus();
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // OVERLAP CHECKS
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Spans in [start, end) that block new appointments of the doctor and patient: the live
+     * appointments of either
+     */
+    @Query("SELECT a.appointmentDate AS appointmentDate, a.durationMinutes AS durationMinutes " +
+            "FROM Appointment a WHERE (a.doctor.id = :doctorId OR a.patient.id = :patientId) " +
+            "AND a.status <> 'CANCELLED' AND a.appointmentDate >= :start AND a.appointmentDate < :end")
+    List<SpanView> findBlockingSpansBetween(
+            @Param("doctorId") Long doctorId,
+            @Param("patientId") Long patientId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    /**
+     * Whether another live appointment of the doctor overlaps [start, end)
+     * Only appointments starting up to the maximum duration before start can reach into the range.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM appointments a WHERE a.doctor_id = :doctorId AND a.id <> :excludeId " +
+            "AND a.status <> 'CANCELLED' " +
+            "AND a.appointment_date > CAST(:start AS timestamp(6)) - interval '" + Appointment.MAX_DURATION_MINUTES + " minutes' " +
+            "AND a.appointment_date < CAST(:end AS timestamp(6)) " +
+            "AND a.appointment_date + a.duration_minutes * interval '1 minute' > CAST(:start AS timestamp(6)))",
+            nativeQuery = true)
+    boolean existsDoctorOverlap(
+            @Param("doctorId") Long doctorId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("excludeId") Long excludeId
+    );
+
+    /**
+     * Whether another live appointment of the patient overlaps [start, end)
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM appointments a WHERE a.patient_id = :patientId AND a.id <> :excludeId " +
+            "AND a.status <> 'CANCELLED' " +
+            "AND a.appointment_date > CAST(:start AS timestamp(6)) - interval '" + Appointment.MAX_DURATION_MINUTES + " minutes' " +
+            "AND a.appointment_date < CAST(:end AS timestamp(6)) " +
+            "AND a.appointment_date + a.duration_minutes * interval '1 minute' > CAST(:start AS timestamp(6)))",
+            nativeQuery = true)
+    boolean existsPatientOverlap(
+            @Param("patientId") Long patientId,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            @Param("excludeId") Long excludeId
+    );
+
+    // ═══════════════════════════════════════════════════════════════
+    // SINGLE-STATEMENT BOOKING
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Validate patient and active doctor and insert the appointment in one round trip
+     * The insert only runs when both exist, the doctor is active and neither has a live
+     * appointment overlapping [appointmentDate, appointmentDate + durationMinutes). A row
+     * that still collides (a concurrent booking caught by the unique or overlap exclusion
+     * constraints) is skipped by ON CONFLICT, so the caller can tell every outcome apart
+     * from the flags.
+     */
+    @Query(value = "WITH p AS (SELECT id FROM patients WHERE id = :patientId), " +
+            "d AS (SELECT id, active FROM doctors WHERE id = :doctorId), " +
+            "t AS (SELECT CAST(:appointmentDate AS timestamp(6)) AS start_at, " +
+            "  CAST(:appointmentDate AS timestamp(6)) + :durationMinutes * interval '1 minute' AS end_at), " +
+            "busy AS (SELECT " +
+            "  EXISTS (SELECT 1 FROM appointments a, t WHERE a.doctor_id = :doctorId AND a.status <> 'CANCELLED' " +
+            "    AND a.appointment_date > t.start_at - interval '" + Appointment.MAX_DURATION_MINUTES + " minutes' " +
+            "    AND a.appointment_date < t.end_at " +
+            "    AND a.appointment_date + a.duration_minutes * interval '1 minute' > t.start_at) AS doctor, " +
+            "  EXISTS (SELECT 1 FROM appointments a, t WHERE a.patient_id = :patientId AND a.status <> 'CANCELLED' " +
+            "    AND a.appointment_date > t.start_at - interval '" + Appointment.MAX_DURATION_MINUTES + " minutes' " +
+            "    AND a.appointment_date < t.end_at " +
+            "    AND a.appointment_date + a.duration_minutes * interval '1 minute' > t.start_at) AS patient), " +
+            "ins AS (" +
+            "  INSERT INTO appointments (id, patient_id, doctor_id, appointment_date, duration_minutes, status) " +
+            "  SELECT nextval('appointments_seq'), p.id, d.id, t.start_at, :durationMinutes, 'BOOKED' " +
+            "  FROM p, d, t, busy WHERE d.active AND NOT busy.doctor AND NOT busy.patient " +
+            "  ON CONFLICT DO NOTHING " +
+            "  RETURNING id) " +
+            "SELECT EXISTS (SELECT 1 FROM p) AS \"patientFound\", " +
+            "EXISTS (SELECT 1 FROM d) AS \"doctorFound\", " +
+            "COALESCE((SELECT active FROM d), false) AS \"doctorActive\", " +
+            "(SELECT patient FROM busy) AS \"patientBusy\", " +
+            "(SELECT id FROM ins) AS \"appointmentId\"",
+            nativeQuery = true)
+    BookingResultView insertIfBookable(
+            @Param("patientId") Long patientId,
+            @Param("doctorId") Long doctorId,
+            @Param("appointmentDate") LocalDateTime appointmentDate,
+            @Param("durationMinutes") int durationMinutes
+    );
+
+    interface BookingResultView {
+        boolean getPatientFound();
+
+        boolean getDoctorFound();
+
+        boolean getDoctorActive();
+
+        boolean getPatientBusy();
+
+        Long getAppointmentId();
+    }
+
+    /**
+     * Live appointments of any of the doctors at any of the times - a superset of the wanted
+     * (doctor, time) pairs, narrowed by the caller; used for set-wise batch conflict checks
+     */
+    @Query("SELECT a.id AS id, a.patient.id AS patientId, a.doctor.id AS doctorId, " +
+            "a.appointmentDate AS appointmentDate FROM Appointment a " +
+            "WHERE a.doctor.id IN :doctorIds AND a.appointmentDate IN :dates AND a.status <> 'CANCELLED'")
+    List<SlotView> findSlotsByDoctorsAndDates(
+            @Param("doctorIds") Collection<Long> doctorIds,
+            @Param("dates") Collection<LocalDateTime> dates
+    );
+
+    interface SlotView {
+        Long getId();
+
+        Long getPatientId();
+
+        Long getDoctorId();
+
+        LocalDateTime getAppointmentDate();
+    }
+
     // ═══════════════════════════════════════════════════════════════
     // SEARCH BY STATUS
     // ═══════════════════════════════════════════════════════════════
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -70,6 +71,31 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
      */
     List<Doctor> findByActiveTrue();
 
+    /**
+     * Active flags of the given doctors - one query for a whole batch
+     */
+    @Query("SELECT d.id AS id, d.active AS active FROM Doctor d WHERE d.id IN :ids")
+    List<DoctorStatusView> findStatusByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface DoctorStatusView {
+        Long getId();
+
+        Boolean getActive();
+    }
+
+    /**
+     * Ids and names of the active doctors of a specialization (exact match, case-insensitive)
+     */
+    @Query("SELECT d.id AS id, d.name AS name FROM Doctor d " +
+            "WHERE d.active = true AND LOWER(d.specialization) = LOWER(:specialization) ORDER BY d.id")
+    List<DoctorNameView> findActiveBySpecialization(@Param("specialization") String specialization);
+
+    interface DoctorNameView {
+        Long getId();
+
+        String getName();
+    }
+
     // ═══════════════════════════════════════════════════════════════
     // DUPLICATE PREVENTION
     // ═══════════════════════════════════════════════════════════════
@@ -0,0 +1,50 @@
+package com.mhoms.mhomsservices.repository;
+
+import com.mhoms.mhomsservices.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Stored response for a key, unless it has expired
+     */
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt > :now")
+    Optional<IdempotencyRecord> findLive(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    /**
+     * Insert a stored response; the first writer wins when two nodes finish the same key
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_records " +
+            "(id, fingerprint, status_code, content_type, location, body, created_at, expires_at) " +
+            "VALUES (:id, :fingerprint, :statusCode, :contentType, :location, :body, :createdAt, :expiresAt) " +
+            "ON CONFLICT (id) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(
+            @Param("id") String id,
+            @Param("fingerprint") String fingerprint,
+            @Param("statusCode") int statusCode,
+            @Param("contentType") String contentType,
+            @Param("location") String location,
+            @Param("body") byte[] body,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("expiresAt") LocalDateTime expiresAt
+    );
+
+    /**
+     * Purge responses that can no longer be replayed
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
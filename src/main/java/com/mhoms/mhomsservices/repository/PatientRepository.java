@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +25,12 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
      */
     Page<Patient> findAll(Pageable pageable);
 
+    /**
+     * Which of the given ids exist - one query for a whole batch
+     */
+    @Query("SELECT p.id FROM Patient p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
     // ═══════════════════════════════════════════════════════════════
     // SEARCH METHODS
     // ═══════════════════════════════════════════════════════════════
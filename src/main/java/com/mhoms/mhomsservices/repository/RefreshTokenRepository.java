@@ -0,0 +1,54 @@
+package com.mhoms.mhomsservices.repository;
+
+import com.mhoms.mhomsservices.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * Ids of revoked tokens that have not expired yet, used to warm the in-memory filter
+     */
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.revoked = true AND t.expiresAt > :now")
+    List<String> findRevokedUnexpiredIds(@Param("now") LocalDateTime now);
+
+    /**
+     * Ids of tokens revoked after the given instant, including revocations made on other nodes
+     */
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.revoked = true AND t.revokedAt > :since")
+    List<String> findIdsRevokedAfter(@Param("since") LocalDateTime since);
+
+    /**
+     * Ids of a user's live tokens
+     */
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.username = :username AND t.revoked = false AND t.expiresAt > :now")
+    List<String> findActiveIdsByUsername(@Param("username") String username, @Param("now") LocalDateTime now);
+
+    /**
+     * Mark a single live token revoked and link its successor; returns 0 if it was already revoked
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true, t.revokedAt = :now, t.replacedBy = :replacedBy WHERE t.id = :id AND t.revoked = false")
+    int revoke(@Param("id") String id, @Param("replacedBy") String replacedBy, @Param("now") LocalDateTime now);
+
+    /**
+     * Revoke every live token of a user
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true, t.revokedAt = :now WHERE t.username = :username AND t.revoked = false")
+    int revokeAllByUsername(@Param("username") String username, @Param("now") LocalDateTime now);
+
+    /**
+     * Purge tokens that can no longer be presented
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -3,8 +3,13 @@ package com.mhoms.mhomsservices.repository;
 import com.mhoms.mhomsservices.model.Role;
 import com.mhoms.mhomsservices.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -34,4 +39,42 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Count users by role
      */
     long countByRole(Role role);
-}
\ No newline at end of file
+
+    /**
+     * Usernames and emails already taken, in one set-based query
+     */
+    @Query("SELECT u.username AS username, u.email AS email FROM User u " +
+            "WHERE u.username IN :usernames OR u.email IN :emails")
+    List<UsernameEmailView> findTakenUsernamesOrEmails(@Param("usernames") Collection<String> usernames,
+                                                       @Param("emails") Collection<String> emails);
+
+    /**
+     * Account-version stamps of every user
+     */
+    @Query("SELECT u.id AS id, u.accountVersion AS accountVersion FROM User u")
+    List<AccountVersionView> findAllAccountVersions();
+
+    /**
+     * Account-version stamps of users modified after the given instant
+     */
+    @Query("SELECT u.id AS id, u.accountVersion AS accountVersion FROM User u WHERE u.updatedAt > :since")
+    List<AccountVersionView> findAccountVersionsUpdatedAfter(@Param("since") LocalDateTime since);
+
+    /**
+     * Projection of a user's username and email
+     */
+    interface UsernameEmailView {
+        String getUsername();
+
+        String getEmail();
+    }
+
+    /**
+     * Projection of a user's id and account version
+     */
+    interface AccountVersionView {
+        Long getId();
+
+        long getAccountVersion();
+    }
+}
@@ -0,0 +1,21 @@
+package com.mhoms.mhomsservices.repository;
+
+import com.mhoms.mhomsservices.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    /**
+     * Entries in a status, e.g. all OPEN ones to rebuild the matching index
+     */
+    List<WaitlistEntry> findByStatus(String status);
+
+    List<WaitlistEntry> findByPatientIdOrderByIdDesc(Long patientId);
+
+    long countByPatientIdAndStatusIn(Long patientId, Collection<String> statuses);
+}
@@ -0,0 +1,153 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory table of user id -> current account version
+ * Lets the JWT filter reject stale stateless tokens without touching the users table.
+ * Local writes are recorded through UserChangedEvent once they commit; writes made on other
+ * nodes are picked up by a periodic incremental resync plus an occasional full reload.
+ */
+@Component
+public class AccountVersionRegistry {
+
+    // Overlap between incremental resyncs to tolerate clock skew between nodes
+    private static final long RESYNC_SKEW_SECONDS = 30;
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final ConcurrentHashMap<Long, Long> versions = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleRejections = new LongAdder();
+    private final LongAdder unknown = new LongAdder();
+
+    private volatile LocalDateTime lastResync;
+
+    public AccountVersionRegistry(UserRepository userRepository,
+                                  @Value("${jwt.stateless-claims.enabled:false}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Outcome of comparing a token's version stamp with the registry
+     */
+    public enum Check {
+        /** Stamp matches the known current version */
+        CURRENT,
+        /** Stamp is older than the known current version */
+        STALE,
+        /** No entry, or the token is newer than this node has seen */
+        UNKNOWN
+    }
+
+    public Check check(Long userId, long tokenVersion) {
+        Long known = versions.get(userId);
+        if (known == null || tokenVersion > known) {
+            unknown.increment();
+            return Check.UNKNOWN;
+        }
+        if (tokenVersion < known) {
+            staleRejections.increment();
+            return Check.STALE;
+        }
+        hits.increment();
+        return Check.CURRENT;
+    }
+
+    /**
+     * Record a version seen in the database; never moves a user backwards
+     */
+    public void record(Long userId, long version) {
+        if (userId != null) {
+            versions.merge(userId, version, Math::max);
+        }
+    }
+
+    public void forget(Long userId) {
+        if (userId != null) {
+            versions.remove(userId);
+        }
+    }
+
+    /**
+     * Apply a local user write after it commits; a rolled-back bump must not make valid tokens stale
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.deleted()) {
+            forget(event.userId());
+        } else {
+            record(event.userId(), event.accountVersion());
+        }
+    }
+
+    /**
+     * Pull versions of users changed since the last resync, including changes made on other nodes
+     */
+    @Scheduled(fixedDelayString = "${jwt.stateless-claims.resync-interval-ms:5000}")
+    public void resyncRecent() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime since = lastResync;
+        if (since == null) {
+            reloadAll();
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        apply(userRepository.findAccountVersionsUpdatedAfter(since.minusSeconds(RESYNC_SKEW_SECONDS)));
+        lastResync = startedAt;
+    }
+
+    /**
+     * Periodic full reload so deletions made on other nodes are eventually dropped
+     * Versions are replaced with the database's, which also undoes any that ran ahead of it;
+     * a change committed while the reload ran is re-applied by the next incremental resync.
+     */
+    @Scheduled(fixedDelayString = "${jwt.stateless-claims.full-reload-interval-ms:600000}",
+            initialDelayString = "${jwt.stateless-claims.full-reload-interval-ms:600000}")
+    public void reloadAll() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<UserRepository.AccountVersionView> all = userRepository.findAllAccountVersions();
+
+        ConcurrentHashMap<Long, Long> fresh = new ConcurrentHashMap<>(all.size() * 2);
+        for (UserRepository.AccountVersionView view : all) {
+            fresh.put(view.getId(), view.getAccountVersion());
+        }
+        versions.keySet().retainAll(fresh.keySet());
+        versions.putAll(fresh);
+        lastResync = startedAt;
+    }
+
+    public RegistryStats getStats() {
+        return new RegistryStats(versions.size(), hits.sum(), staleRejections.sum(), unknown.sum());
+    }
+
+    public record RegistryStats(int trackedUsers, long currentHits, long staleRejections, long unknownLookups) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void apply(List<UserRepository.AccountVersionView> changed) {
+        for (UserRepository.AccountVersionView view : changed) {
+            record(view.getId(), view.getAccountVersion());
+        }
+    }
+}
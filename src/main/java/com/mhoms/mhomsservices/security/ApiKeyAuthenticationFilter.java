@@ -0,0 +1,60 @@
+package com.mhoms.mhomsservices.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * API Key Authentication Filter
+ * Authenticates machine clients from the X-API-Key header against the in-memory key table
+ */
+@Component
+public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-API-Key";
+
+    private final ApiKeyRegistry apiKeyRegistry;
+
+    public ApiKeyAuthenticationFilter(ApiKeyRegistry apiKeyRegistry) {
+        this.apiKeyRegistry = apiKeyRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        final String apiKey = request.getHeader(HEADER);
+
+        // Cheap shape check first so arbitrary header values are never hashed
+        if (apiKey != null && apiKey.startsWith(ApiKeyRegistry.KEY_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+
+            ClaimsPrincipal principal = apiKeyRegistry.authenticate(apiKey);
+            if (principal != null) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        principal,
+                        null,
+                        List.of(new SimpleGrantedAuthority("ROLE_" + principal.role()))
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+            // Unknown or revoked keys continue unauthenticated and get the usual 401
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
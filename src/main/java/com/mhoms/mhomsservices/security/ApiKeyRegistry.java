@@ -0,0 +1,233 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.repository.ApiKeyRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory table of API key digest -> principal
+ * Every usable key is loaded at startup, so authenticating a machine client is one
+ * SHA-256 and one map lookup with no database access. Local key and user changes are
+ * applied after commit; changes made on other nodes arrive with the periodic reload.
+ * A local change that lands while a full reload is querying wins over that reload's
+ * older snapshot, so a key revoked mid-reload is not brought back.
+ */
+@Component
+public class ApiKeyRegistry {
+
+    public static final String KEY_PREFIX = "mhk_";
+
+    private static final int KEY_BYTES = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Entry> keys = new ConcurrentHashMap<>();
+
+    // Guards local changes against the merge step of a full reload
+    private final Object changesLock = new Object();
+    // Digests changed locally since the running full reload started; null when none is running
+    private Set<String> changedDuringReload;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    public ApiKeyRegistry(ApiKeyRepository apiKeyRepository) {
+        this(apiKeyRepository, System::currentTimeMillis);
+    }
+
+    ApiKeyRegistry(ApiKeyRepository apiKeyRepository, LongSupplier clock) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Generate a new raw key; callers store only its digest
+     */
+    public static String generateKey() {
+        byte[] bytes = new byte[KEY_BYTES];
+        RANDOM.nextBytes(bytes);
+        return KEY_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * SHA-256 digest of a raw key, as stored in api_keys.key_digest
+     */
+    public static String digest(String rawKey) {
+        return JwtUtil.digest(rawKey);
+    }
+
+    /**
+     * Principal for a raw key, or null when the key is unknown, revoked or expired
+     */
+    public ClaimsPrincipal authenticate(String rawKey) {
+        String digest = digest(rawKey);
+        Entry entry = keys.get(digest);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            keys.remove(digest, entry);
+            expired.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.principal;
+    }
+
+    /**
+     * Make a key usable once the surrounding transaction commits
+     */
+    public void register(String digest, Long userId, String username, String role, LocalDateTime expiresAt) {
+        Entry entry = new Entry(new ClaimsPrincipal(userId, username, role), toMillis(expiresAt));
+        afterCommit(() -> applyLocal(digest, entry));
+    }
+
+    /**
+     * Drop a key once the surrounding transaction commits
+     */
+    public void unregister(String digest) {
+        afterCommit(() -> applyLocal(digest, null));
+    }
+
+    /**
+     * Role changes, disabling and deletion take effect on the user's keys right after commit
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        afterCommit(() -> reloadUser(event.userId()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reloadAll();
+    }
+
+    /**
+     * Full reload, picking up keys created or revoked on other nodes
+     */
+    @Scheduled(fixedDelayString = "${security.api-keys.reload-interval-ms:30000}",
+            initialDelayString = "${security.api-keys.reload-interval-ms:30000}")
+    public synchronized void reloadAll() {
+        Set<String> before;
+        synchronized (changesLock) {
+            changedDuringReload = new HashSet<>();
+            before = Set.copyOf(keys.keySet());
+        }
+        try {
+            Map<String, Entry> fresh = load(apiKeyRepository.findActiveKeys(LocalDateTime.now()));
+
+            // Drop only keys known before the query, and leave keys changed locally
+            // meanwhile as they are: their after-commit state is newer than the snapshot
+            synchronized (changesLock) {
+                fresh.forEach((digest, entry) -> {
+                    if (!changedDuringReload.contains(digest)) {
+                        keys.put(digest, entry);
+                    }
+                });
+                for (String digest : before) {
+                    if (!fresh.containsKey(digest) && !changedDuringReload.contains(digest)) {
+                        keys.remove(digest);
+                    }
+                }
+            }
+        } finally {
+            synchronized (changesLock) {
+                changedDuringReload = null;
+            }
+        }
+    }
+
+    public RegistryStats getStats() {
+        return new RegistryStats(keys.size(), hits.sum(), misses.sum(), expired.sum());
+    }
+
+    public record RegistryStats(int activeKeys, long hits, long misses, long expired) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void reloadUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        Map<String, Entry> fresh = load(apiKeyRepository.findActiveKeysByUserId(userId, LocalDateTime.now()));
+        synchronized (changesLock) {
+            List<String> dropped = keys.entrySet().stream()
+                    .filter(e -> userId.equals(e.getValue().principal.userId()) && !fresh.containsKey(e.getKey()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            dropped.forEach(digest -> applyLocal(digest, null));
+            fresh.forEach(this::applyLocal);
+        }
+    }
+
+    /**
+     * Put (or, with a null entry, remove) a key after a local commit
+     */
+    private void applyLocal(String digest, Entry entry) {
+        synchronized (changesLock) {
+            if (changedDuringReload != null) {
+                changedDuringReload.add(digest);
+            }
+            if (entry == null) {
+                keys.remove(digest);
+            } else {
+                keys.put(digest, entry);
+            }
+        }
+    }
+
+    private Map<String, Entry> load(List<ApiKeyRepository.ActiveKeyView> views) {
+        Map<String, Entry> loaded = new HashMap<>(views.size() * 2);
+        for (ApiKeyRepository.ActiveKeyView view : views) {
+            ClaimsPrincipal principal = new ClaimsPrincipal(
+                    view.getUserId(), view.getUsername(), view.getRole().name());
+            loaded.put(view.getKeyDigest(), new Entry(principal, toMillis(view.getExpiresAt())));
+        }
+        return loaded;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long toMillis(LocalDateTime expiresAt) {
+        return expiresAt == null
+                ? Long.MAX_VALUE
+                : expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Entry(ClaimsPrincipal principal, long expiresAt) {
+    }
+}
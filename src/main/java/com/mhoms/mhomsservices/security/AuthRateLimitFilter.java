@@ -0,0 +1,183 @@
+package com.mhoms.mhomsservices.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Token-bucket rate limiting in front of the public /auth endpoints
+ * Every POST /auth/** is charged to the client IP; logins are also charged to the
+ * username in the body, so one account cannot be stuffed from many addresses.
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String AUTH_PREFIX = "/auth/";
+    private static final String LOGIN_PATH = "/auth/login";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private final boolean enabled;
+    private final boolean trustForwardedFor;
+    private final int maxBodyBytes;
+    private final TokenBucketLimiter ipLimiter;
+    private final TokenBucketLimiter usernameLimiter;
+
+    public AuthRateLimitFilter(@Value("${security.rate-limit.enabled:true}") boolean enabled,
+                               @Value("${security.rate-limit.trust-forwarded-for:false}") boolean trustForwardedFor,
+                               @Value("${security.rate-limit.max-body-bytes:16384}") int maxBodyBytes,
+                               @Value("${security.rate-limit.max-keys:100000}") int maxKeys,
+                               @Value("${security.rate-limit.stripes:64}") int stripes,
+                               @Value("${security.rate-limit.per-ip.capacity:20}") int ipCapacity,
+                               @Value("${security.rate-limit.per-ip.refill-per-minute:20}") int ipRefill,
+                               @Value("${security.rate-limit.per-username.capacity:5}") int usernameCapacity,
+                               @Value("${security.rate-limit.per-username.refill-per-minute:5}") int usernameRefill) {
+        this.enabled = enabled;
+        this.trustForwardedFor = trustForwardedFor;
+        this.maxBodyBytes = maxBodyBytes;
+        this.ipLimiter = new TokenBucketLimiter(new RateLimitPolicy(ipCapacity, ipRefill), maxKeys, stripes);
+        this.usernameLimiter = new TokenBucketLimiter(new RateLimitPolicy(usernameCapacity, usernameRefill), maxKeys, stripes);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || !request.getServletPath().startsWith(AUTH_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        // Per-IP bucket first: it is the cheapest check and needs no body
+        long waitMillis = ipLimiter.tryAcquire(clientIp(request));
+        if (waitMillis > 0) {
+            reject(request, response, waitMillis);
+            return;
+        }
+
+        HttpServletRequest forwarded = request;
+        if (LOGIN_PATH.equals(request.getServletPath())) {
+            CachedBodyHttpServletRequest cached = cacheBody(request);
+            if (cached == null) {
+                response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+            forwarded = cached;
+
+            String username = extractUsername(cached.getBody());
+            if (username != null) {
+                waitMillis = usernameLimiter.tryAcquire(username.toLowerCase(Locale.ROOT));
+                if (waitMillis > 0) {
+                    reject(request, response, waitMillis);
+                    return;
+                }
+            }
+        }
+
+        filterChain.doFilter(forwarded, response);
+    }
+
+    public RateLimitStats getStats() {
+        return new RateLimitStats(enabled, ipLimiter.stats(), usernameLimiter.stats());
+    }
+
+    public record RateLimitStats(boolean enabled,
+                                 TokenBucketLimiter.LimiterStats perIp,
+                                 TokenBucketLimiter.LimiterStats perUsername) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    /**
+     * Read the body once, up to the size limit; null when it is larger
+     */
+    private CachedBodyHttpServletRequest cacheBody(HttpServletRequest request) throws IOException {
+        InputStream in = request.getInputStream();
+        byte[] body = in.readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            return null;
+        }
+        return new CachedBodyHttpServletRequest(request, body);
+    }
+
+    /**
+     * Pull the top-level "username" string with the streaming parser, without binding the DTO
+     */
+    private String extractUsername(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("username".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            // Malformed JSON is left for the controller to reject
+            return null;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitMillis)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitMillis + 999) / 1000);
+
+        response.setStatus(HttpServletResponse.SC_TOO_MANY_REQUESTS);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now().toString());
+        errorDetails.put("status", 429);
+        errorDetails.put("error", "Too Many Requests");
+        errorDetails.put("message", "Too many authentication attempts - please retry later");
+        errorDetails.put("path", request.getRequestURI());
+        errorDetails.put("details", "Retry after " + retryAfterSeconds + " seconds.");
+
+        response.getWriter().write(objectMapper.writeValueAsString(errorDetails));
+    }
+}
@@ -0,0 +1,181 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.cache.CacheStats;
+import com.mhoms.mhomsservices.cache.ExpiringCache;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.DecodingException;
+import io.jsonwebtoken.security.SecurityException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cheap gatekeeping for bearer tokens before and after signature verification
+ * - structural pre-check (size, segment count, base64url alphabet) before any crypto
+ * - short-lived negative cache of rejected token digests
+ * - per-reason counters and rate-limited, stack-trace-free security logging
+ */
+@Component
+public class BearerTokenGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(BearerTokenGuard.class);
+
+    // Every JWS header is a JSON object, and base64url of '{"' always starts with "eyJ"
+    private static final String JSON_OBJECT_PREFIX = "eyJ";
+
+    private final int maxTokenLength;
+    private final long negativeTtlMillis;
+    private final ExpiringCache<String, TokenRejection> recentlyRejected;
+    private final Map<TokenRejection, LongAdder> rejections = new EnumMap<>(TokenRejection.class);
+
+    // Log budget: at most logsPerWindow lines per window, the rest are counted and summarised
+    private final int logsPerWindow;
+    private final long logWindowMillis;
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger loggedInWindow = new AtomicInteger();
+    private final AtomicLong suppressedLogs = new AtomicLong();
+
+    public BearerTokenGuard(@Value("${security.bearer.max-token-length:8192}") int maxTokenLength,
+                            @Value("${security.bearer.negative-cache.ttl-seconds:60}") long negativeTtlSeconds,
+                            @Value("${security.bearer.negative-cache.max-entries:10000}") int negativeMaxEntries,
+                            @Value("${security.bearer.log.max-per-window:20}") int logsPerWindow,
+                            @Value("${security.bearer.log.window-seconds:60}") long logWindowSeconds) {
+        this.maxTokenLength = maxTokenLength;
+        this.negativeTtlMillis = negativeTtlSeconds * 1000;
+        this.recentlyRejected = new ExpiringCache<>(negativeMaxEntries);
+        this.logsPerWindow = logsPerWindow;
+        this.logWindowMillis = logWindowSeconds * 1000;
+        for (TokenRejection reason : TokenRejection.values()) {
+            rejections.put(reason, new LongAdder());
+        }
+    }
+
+    /**
+     * Structural check that needs no allocation or crypto; returns null when the token looks like a JWS
+     */
+    public TokenRejection precheck(String token) {
+        int length = token.length();
+        if (length > maxTokenLength) {
+            return TokenRejection.OVERSIZED;
+        }
+        if (!token.startsWith(JSON_OBJECT_PREFIX)) {
+            return TokenRejection.MALFORMED;
+        }
+
+        int dots = 0;
+        int segmentLength = 0;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0) {
+                    return TokenRejection.MALFORMED;
+                }
+                dots++;
+                segmentLength = 0;
+            } else if (isBase64Url(c)) {
+                segmentLength++;
+            } else {
+                return TokenRejection.BAD_ENCODING;
+            }
+        }
+        // header.payload.signature - unsigned or JWE tokens are never accepted
+        if (dots != 2 || segmentLength == 0) {
+            return TokenRejection.MALFORMED;
+        }
+        return null;
+    }
+
+    /**
+     * Whether this exact token was rejected recently
+     */
+    public boolean isRecentlyRejected(String digest) {
+        return recentlyRejected.get(digest) != null;
+    }
+
+    /**
+     * Classify a failure raised while verifying or resolving a token
+     */
+    public TokenRejection classify(Exception e) {
+        if (e instanceof ExpiredJwtException) {
+            return TokenRejection.EXPIRED;
+        }
+        if (e instanceof SecurityException) {
+            return TokenRejection.BAD_SIGNATURE;
+        }
+        if (e instanceof MalformedJwtException || e instanceof DecodingException) {
+            return TokenRejection.MALFORMED;
+        }
+        if (e instanceof UnsupportedJwtException) {
+            return TokenRejection.UNSUPPORTED;
+        }
+        if (e instanceof UsernameNotFoundException) {
+            return TokenRejection.USER_NOT_FOUND;
+        }
+        return TokenRejection.OTHER;
+    }
+
+    /**
+     * Count a rejection, remember deterministic ones, and log within the budget
+     */
+    public void reject(String digest, TokenRejection reason, Exception cause) {
+        rejections.get(reason).increment();
+        if (digest != null && reason.isDeterministic()) {
+            recentlyRejected.putWithTtl(digest, reason, negativeTtlMillis);
+        }
+        if (reason == TokenRejection.RECENTLY_REJECTED || !tryAcquireLogSlot()) {
+            return;
+        }
+
+        long suppressed = suppressedLogs.getAndSet(0);
+        if (reason == TokenRejection.OTHER && cause != null) {
+            // Unexpected failures keep their stack trace, but still within the budget
+            log.warn("Bearer token rejected: reason={} ({} similar lines suppressed)", reason, suppressed, cause);
+        } else {
+            log.info("Bearer token rejected: reason={} cause={} ({} similar lines suppressed)",
+                    reason, cause == null ? "-" : cause.getClass().getSimpleName(), suppressed);
+        }
+    }
+
+    public RejectionStats getStats() {
+        Map<String, Long> byReason = new LinkedHashMap<>();
+        rejections.forEach((reason, count) -> byReason.put(reason.name(), count.sum()));
+        return new RejectionStats(byReason, recentlyRejected.stats(), suppressedLogs.get());
+    }
+
+    public record RejectionStats(Map<String, Long> rejectionsByReason,
+                                 CacheStats negativeCache,
+                                 long pendingSuppressedLogs) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private boolean tryAcquireLogSlot() {
+        long now = System.currentTimeMillis();
+        long start = windowStart.get();
+        if (now - start >= logWindowMillis && windowStart.compareAndSet(start, now)) {
+            loggedInWindow.set(0);
+        }
+        if (loggedInWindow.incrementAndGet() <= logsPerWindow) {
+            return true;
+        }
+        suppressedLogs.incrementAndGet();
+        return false;
+    }
+
+    private static boolean isBase64Url(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+}
@@ -0,0 +1,14 @@
+package com.mhoms.mhomsservices.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Principal built straight from token claims, without loading the User entity
+ */
+public record ClaimsPrincipal(Long userId, String username, String role) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -1,22 +1,41 @@
 package com.mhoms.mhomsservices.security;
 
+import com.mhoms.mhomsservices.cache.CacheStats;
+import com.mhoms.mhomsservices.cache.ExpiringCache;
+import com.mhoms.mhomsservices.model.User;
 import com.mhoms.mhomsservices.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Custom UserDetailsService implementation for loading user-specific data
  * Used by Spring Security for authentication
+ * Keeps a bounded TTL cache of principals so authenticated requests skip the users table
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final boolean cacheEnabled;
+    private final long cacheTtlMillis;
+    private final ExpiringCache<String, UserDetails> userCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${security.user-cache.enabled:true}") boolean cacheEnabled,
+                                    @Value("${security.user-cache.ttl-seconds:300}") long cacheTtlSeconds,
+                                    @Value("${security.user-cache.max-entries:10000}") int cacheMaxEntries) {
         this.userRepository = userRepository;
+        this.cacheEnabled = cacheEnabled;
+        this.cacheTtlMillis = cacheTtlSeconds * 1000;
+        this.userCache = new ExpiringCache<>(cacheMaxEntries);
     }
 
     /**
@@ -24,8 +43,76 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        if (cacheEnabled) {
+            UserDetails cached = userCache.get(username);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        UserDetails user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException(
                         "User not found with username: " + username));
+
+        if (cacheEnabled) {
+            userCache.putWithTtl(username, user, cacheTtlMillis);
+        }
+        return user;
+    }
+
+    /**
+     * Persist a re-hashed password after login when the stored hash needs upgrading
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "User not found with username: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        User saved = userRepository.save(user);
+        evict(saved.getUsername());
+        return saved;
+    }
+
+    /**
+     * Drop a cached principal, e.g. after the user is disabled or changes role
+     */
+    public void evict(String username) {
+        if (username != null) {
+            userCache.invalidate(username);
+        }
+    }
+
+    /**
+     * Evict on every User write, and again after commit so a concurrent
+     * request cannot re-cache the pre-commit row. A rename evicts the old name too.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        evictNames(event);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNames(event);
+                }
+            });
+        }
+    }
+
+    /**
+     * Principal cache statistics
+     */
+    public CacheStats getCacheStats() {
+        return userCache.stats();
+    }
+
+    private void evictNames(UserChangedEvent event) {
+        evict(event.username());
+        if (event.previousUsername() != null && !event.previousUsername().equals(event.username())) {
+            evict(event.previousUsername());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,245 @@
+package com.mhoms.mhomsservices.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mhoms.mhomsservices.security.IdempotencyStore.Claim;
+import com.mhoms.mhomsservices.security.IdempotencyStore.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Idempotency-Key support for create endpoints
+ * The first request with a key executes and its response is stored; retries with
+ * the same key and the same request get that response replayed, and a duplicate
+ * arriving on the same node while the first is still running waits for its result
+ * (see IdempotencyStore for duplicates on other nodes). Keys are scoped
+ * to the authenticated caller. 5xx, 408 and 429 responses are not stored, so they can be retried.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final IdempotencyStore store;
+    private final boolean enabled;
+    private final Set<String> paths;
+    private final int maxBodyBytes;
+    private final long waitTimeoutMillis;
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             @Value("${idempotency.enabled:true}") boolean enabled,
+                             @Value("${idempotency.paths:/patients,/appointments,/appointments/batch}") Set<String> paths,
+                             @Value("${idempotency.max-body-bytes:1048576}") int maxBodyBytes,
+                             @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        this.store = store;
+        this.enabled = enabled;
+        this.paths = Set.copyOf(paths);
+        this.maxBodyBytes = maxBodyBytes;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled
+                || !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !paths.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            reject(request, response, HttpServletResponse.SC_BAD_REQUEST, "Bad Request",
+                    HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        CachedBodyHttpServletRequest cached = new CachedBodyHttpServletRequest(request, body);
+
+        String key = sha256Hex(caller() + '\n' + request.getServletPath() + '\n' + idempotencyKey);
+        String fingerprint = fingerprint(request, body);
+
+        // A waiter whose owner gave up (5xx or exception) claims the key again
+        while (true) {
+            Claim claim = store.claim(key);
+            StoredResponse stored = claim.replay();
+
+            if (claim.running() != null) {
+                waits.increment();
+                try {
+                    stored = claim.running().get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    reject(request, response, HttpServletResponse.SC_CONFLICT, "Conflict",
+                            "A request with this " + HEADER + " is still being processed - retry later");
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ServletException("Interrupted while waiting for the original request", e);
+                } catch (ExecutionException e) {
+                    stored = null;
+                }
+                if (stored == null) {
+                    continue;
+                }
+            }
+
+            if (stored != null) {
+                replay(request, response, stored, fingerprint);
+                return;
+            }
+
+            execute(cached, response, filterChain, key, fingerprint);
+            return;
+        }
+    }
+
+    public IdempotencyStats getStats() {
+        return new IdempotencyStats(enabled, store.cachedResponses(), store.inFlight(),
+                executions.sum(), replays.sum(), waits.sum(), mismatches.sum());
+    }
+
+    public record IdempotencyStats(boolean enabled, int cachedResponses, int inFlight,
+                                   long executions, long replays, long waits, long mismatches) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void execute(CachedBodyHttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain, String key, String fingerprint)
+            throws ServletException, IOException {
+        executions.increment();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } catch (ServletException | IOException | RuntimeException e) {
+            store.abandon(key);
+            throw e;
+        }
+
+        if (isFinal(wrapper.getStatus())) {
+            store.complete(key, new StoredResponse(fingerprint, wrapper.getStatus(), wrapper.getContentType(),
+                    wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray()));
+        } else {
+            store.abandon(key);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private void replay(HttpServletRequest request, HttpServletResponse response,
+                        StoredResponse stored, String fingerprint) throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            mismatches.increment();
+            reject(request, response, 422, "Unprocessable Entity",
+                    HEADER + " was already used for a different request");
+            return;
+        }
+        replays.increment();
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    /**
+     * Whether a response settles the request; 5xx, 408 and 429 ask the client to try again
+     */
+    private static boolean isFinal(int status) {
+        return status < 500 && status != HttpServletResponse.SC_REQUEST_TIMEOUT && status != 429;
+    }
+
+    private static String caller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    /**
+     * Digest of everything that makes two requests the same request
+     */
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        MessageDigest sha256 = sha256();
+        String head = request.getMethod() + ' ' + request.getServletPath() + '?' + request.getQueryString()
+                + '\n' + request.getHeader(HttpHeaders.PREFER) + '\n';
+        sha256.update(head.getBytes(StandardCharsets.UTF_8));
+        sha256.update(body);
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    private static String sha256Hex(String value) {
+        return HexFormat.of().formatHex(sha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response,
+                        int status, String error, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now().toString());
+        errorDetails.put("status", status);
+        errorDetails.put("error", error);
+        errorDetails.put("message", message);
+        errorDetails.put("path", request.getRequestURI());
+
+        response.getWriter().write(objectMapper.writeValueAsString(errorDetails));
+    }
+}
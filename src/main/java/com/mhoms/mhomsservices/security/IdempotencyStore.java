@@ -0,0 +1,157 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.cache.ExpiringCache;
+import com.mhoms.mhomsservices.model.IdempotencyRecord;
+import com.mhoms.mhomsservices.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responses of requests sent with an Idempotency-Key, kept for a TTL
+ * Completed responses live in a bounded in-memory cache backed by the
+ * idempotency_records table, so replays survive restarts and reach other nodes.
+ * A key that is still executing on this node is tracked as a future that
+ * concurrent duplicates wait on instead of executing again. That wait is per
+ * node only: a duplicate that reaches another node while the first is still
+ * running executes too, and only the database unique constraints keep it from
+ * creating a second row. Which response is stored is then first-writer-wins.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final long ttlMillis;
+    private final ExpiringCache<String, StoredResponse> completed;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository recordRepository,
+                            @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${idempotency.max-entries:10000}") int maxEntries) {
+        this.recordRepository = recordRepository;
+        this.ttlMillis = ttlHours * 3_600_000;
+        this.completed = new ExpiringCache<>(maxEntries);
+    }
+
+    /**
+     * Claim a key: a stored response to replay, a running execution to wait on, or
+     * ownership, in which case the caller must finish with complete() or abandon()
+     */
+    public Claim claim(String key) {
+        StoredResponse stored = completed.get(key);
+        if (stored != null) {
+            return new Claim(stored, null);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return new Claim(null, running);
+        }
+
+        // Owned here; another node or an earlier run may already have finished it
+        stored = completed.get(key);
+        if (stored == null) {
+            try {
+                stored = recordRepository.findLive(key, LocalDateTime.now()).map(StoredResponse::from).orElse(null);
+            } catch (DataAccessException e) {
+                // Executing once more beats failing the request; the unique constraints still apply
+                log.warn("Could not look up idempotent response: {}", e.getMessage());
+            }
+        }
+        if (stored != null) {
+            completed.putWithTtl(key, stored, ttlMillis);
+            inFlight.remove(key, mine);
+            mine.complete(stored);
+            return new Claim(stored, null);
+        }
+        return new Claim(null, null);
+    }
+
+    /**
+     * Store the owner's response and release everyone waiting on it
+     */
+    public void complete(String key, StoredResponse response) {
+        completed.putWithTtl(key, response, ttlMillis);
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            recordRepository.insertIfAbsent(key, response.fingerprint(), response.status(),
+                    nullToEmpty(response.contentType()), nullToEmpty(response.location()), response.body(),
+                    now, now.plus(Duration.ofMillis(ttlMillis)));
+        } catch (DataAccessException e) {
+            // The in-memory copy still serves retries that reach this node
+            log.warn("Could not persist idempotent response: {}", e.getMessage());
+        }
+        release(key, response);
+    }
+
+    /**
+     * Give up ownership without storing anything; waiters then claim the key again
+     */
+    public void abandon(String key) {
+        release(key, null);
+    }
+
+    @Scheduled(cron = "${idempotency.purge-cron:0 45 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        recordRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    public int cachedResponses() {
+        return completed.size();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Exactly one of replay and running is set, or neither when the caller owns the key
+     */
+    public record Claim(StoredResponse replay, CompletableFuture<StoredResponse> running) {
+
+        public boolean isOwner() {
+            return replay == null && running == null;
+        }
+    }
+
+    public record StoredResponse(String fingerprint, int status, String contentType, String location, byte[] body) {
+
+        static StoredResponse from(IdempotencyRecord record) {
+            return new StoredResponse(record.getFingerprint(), record.getStatusCode(),
+                    emptyToNull(record.getContentType()), emptyToNull(record.getLocation()), record.getBody());
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void release(String key, StoredResponse response) {
+        CompletableFuture<StoredResponse> future = inFlight.remove(key);
+        if (future != null) {
+            future.complete(response);
+        }
+    }
+
+    // Native inserts cannot bind untyped nulls reliably, so absent headers are stored as ""
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
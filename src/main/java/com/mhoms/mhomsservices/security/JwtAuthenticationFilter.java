@@ -4,8 +4,10 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.mhoms.mhomsservices.model.User;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * JWT Authentication Filter
@@ -23,10 +26,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final AccountVersionRegistry accountVersions;
+    private final BearerTokenGuard tokenGuard;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   CustomUserDetailsService userDetailsService,
+                                   AccountVersionRegistry accountVersions,
+                                   BearerTokenGuard tokenGuard) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.accountVersions = accountVersions;
+        this.tokenGuard = tokenGuard;
     }
 
     @Override
@@ -49,27 +59,50 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Extract JWT token (remove "Bearer " prefix)
         jwt = authHeader.substring(7);
 
-        try {
-            // Extract username from token
-            username = jwtUtil.extractUsername(jwt);
-
-            // If username is valid and no authentication exists in context
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-                // Load user details
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        // Structural pre-check: garbage never reaches the digest or the signature check
+        TokenRejection structural = tokenGuard.precheck(jwt);
+        if (structural != null) {
+            tokenGuard.reject(null, structural, null);
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-                // Validate token
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+        // Tokens rejected moments ago are turned away without re-verifying
+        final String digest = JwtUtil.digest(jwt);
+        if (tokenGuard.isRecentlyRejected(digest)) {
+            tokenGuard.reject(digest, TokenRejection.RECENTLY_REJECTED, null);
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-                    // Create authentication token
-                    UsernamePasswordAuthenticationToken authToken =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails,
-                                    null,
-                                    userDetails.getAuthorities()
-                            );
+        try {
+            // Verify the token once; repeat tokens are served from the verified-token cache
+            ParsedToken token = jwtUtil.parseToken(jwt, digest);
+            username = token.subject();
+
+            if (token.isRefreshToken()) {
+                // Refresh tokens are only accepted by /auth/refresh, never as bearer credentials
+                tokenGuard.reject(digest, TokenRejection.REFRESH_AS_ACCESS, null);
+
+            } else if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Username is valid and no authentication exists in context
+
+                UsernamePasswordAuthenticationToken authToken = null;
+
+                if (jwtUtil.isStatelessClaimsEnabled() && token.hasAuthorityClaims() && !token.isExpired()) {
+                    // Stateless mode: trust the claims when the version stamp is current
+                    AccountVersionRegistry.Check check =
+                            accountVersions.check(token.userId(), token.accountVersion());
+                    if (check == AccountVersionRegistry.Check.CURRENT) {
+                        authToken = fromClaims(token);
+                    } else if (check == AccountVersionRegistry.Check.UNKNOWN) {
+                        authToken = fromDatabase(token, true);
+                    }
+                } else {
+                    authToken = fromDatabase(token, false);
+                }
 
+                if (authToken != null) {
                     // Set authentication details
                     authToken.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request)
@@ -80,10 +113,57 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
             }
         } catch (Exception e) {
-            // Log error and continue filter chain
-            logger.error("Cannot set user authentication: {}", e);
+            // Count and sample-log the rejection, then continue unauthenticated
+            tokenGuard.reject(digest, tokenGuard.classify(e), e);
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Build the authentication from token claims alone, with no user lookup
+     */
+    private UsernamePasswordAuthenticationToken fromClaims(ParsedToken token) {
+        ClaimsPrincipal principal = new ClaimsPrincipal(token.userId(), token.subject(), token.role());
+        return new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_" + token.role()))
+        );
+    }
+
+    /**
+     * Load the user and validate the token against it
+     * In stateless mode also checks the version stamp and seeds the registry
+     */
+    private UsernamePasswordAuthenticationToken fromDatabase(ParsedToken token, boolean checkVersion) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(token.subject());
+
+        if (checkVersion && userDetails instanceof User user) {
+            long tokenVersion = token.accountVersion();
+            if (tokenVersion > user.getAccountVersion()) {
+                // Token was issued after the cached principal was loaded; re-read it once
+                userDetailsService.evict(user.getUsername());
+                userDetails = userDetailsService.loadUserByUsername(token.subject());
+                user = (User) userDetails;
+            }
+            accountVersions.record(user.getId(), user.getAccountVersion());
+            if (tokenVersion != user.getAccountVersion()) {
+                return null;
+            }
+        }
+
+        if (!jwtUtil.isTokenValid(token, userDetails)) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+    }
+}
@@ -1,17 +1,26 @@
 package com.mhoms.mhomsservices.security;
 
+import com.mhoms.mhomsservices.cache.CacheStats;
+import com.mhoms.mhomsservices.cache.ExpiringCache;
+import com.mhoms.mhomsservices.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
@@ -21,6 +30,25 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
+    // Claims embedded in access tokens when stateless authority claims are enabled
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ACCOUNT_VERSION = "ver";
+
+    // Refresh tokens carry a jti and this type marker so they cannot be used as access tokens
+    public static final String CLAIM_TYPE = "typ";
+    public static final String TYPE_REFRESH = "refresh";
+
+    private static final int DEFAULT_TOKEN_CACHE_SIZE = 10000;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
     @Value("${jwt.secret:mhoms-super-secret-key-for-jwt-token-generation-minimum-256-bits-required-for-hs256-algorithm}")
     private String SECRET_KEY;
 
@@ -30,51 +58,89 @@ public class JwtUtil {
     @Value("${jwt.refresh.expiration:604800000}") // 7 days in milliseconds
     private Long refreshExpiration;
 
+    @Value("${jwt.token-cache.max-entries:" + DEFAULT_TOKEN_CACHE_SIZE + "}")
+    private int tokenCacheMaxEntries = DEFAULT_TOKEN_CACHE_SIZE;
+
+    @Value("${jwt.stateless-claims.enabled:false}")
+    private boolean statelessClaimsEnabled;
+
+    // Already-verified tokens keyed by SHA-256 digest, kept until the token itself expires
+    private final ExpiringCache<String, ParsedToken> verifiedTokens =
+            new ExpiringCache<>(DEFAULT_TOKEN_CACHE_SIZE);
+
+    // Built lazily from SECRET_KEY and reused for every sign/verify
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
+
+    @PostConstruct
+    void initTokenCache() {
+        verifiedTokens.setMaxEntries(tokenCacheMaxEntries);
+    }
+
+    /**
+     * Verify token signature and expiry once and return its subject, expiry and claims
+     * Repeat calls for the same token are served from the verified-token cache
+     */
+    public ParsedToken parseToken(String token) {
+        return parseToken(token, digest(token));
+    }
+
+    /**
+     * Same as parseToken(String) for callers that already hold the token digest
+     */
+    ParsedToken parseToken(String token, String digest) {
+        ParsedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        ParsedToken parsed = ParsedToken.from(extractAllClaims(token));
+        if (parsed.expiration() != null) {
+            verifiedTokens.put(digest, parsed, parsed.expiration().getTime());
+        }
+        return parsed;
+    }
+
     /**
      * Extract username from token
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).subject();
     }
 
     /**
      * Extract expiration date from token
      */
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return parseToken(token).expiration();
     }
 
     /**
      * Extract specific claim from token
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(parseToken(token).claims());
     }
 
     /**
      * Extract all claims from token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return getParser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    /**
-     * Check if token is expired
-     */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     /**
      * Generate access token for user
      */
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (statelessClaimsEnabled && userDetails instanceof User user && user.getRole() != null) {
+            claims.put(CLAIM_ROLE, user.getRole().name());
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_ACCOUNT_VERSION, user.getAccountVersion());
+        }
         return createToken(claims, userDetails.getUsername(), jwtExpiration);
     }
 
@@ -83,6 +149,8 @@ public class JwtUtil {
      */
     public String generateRefreshToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(Claims.ID, UUID.randomUUID().toString());
+        claims.put(CLAIM_TYPE, TYPE_REFRESH);
         return createToken(claims, userDetails.getUsername(), refreshExpiration);
     }
 
@@ -103,15 +171,65 @@ public class JwtUtil {
      * Validate token against user details
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(parseToken(token), userDetails);
+    }
+
+    /**
+     * Validate an already-parsed token against user details
+     */
+    public boolean isTokenValid(ParsedToken token, UserDetails userDetails) {
+        return token.subject() != null
+                && token.subject().equals(userDetails.getUsername())
+                && !token.isExpired();
+    }
+
+    /**
+     * Whether access tokens carry role, user id and account version
+     */
+    public boolean isStatelessClaimsEnabled() {
+        return statelessClaimsEnabled;
+    }
+
+    /**
+     * Verified-token cache hit/miss statistics
+     */
+    public CacheStats getTokenCacheStats() {
+        return verifiedTokens.stats();
     }
 
     /**
      * Get signing key for JWT
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = SECRET_KEY.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey key = signingKey;
+        if (key == null) {
+            byte[] keyBytes = SECRET_KEY.getBytes(StandardCharsets.UTF_8);
+            key = Keys.hmacShaKeyFor(keyBytes);
+            signingKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Get the shared, thread-safe JWT parser
+     */
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build();
+            jwtParser = parser;
+        }
+        return parser;
+    }
+
+    /**
+     * SHA-256 digest of the raw token, used as the cache key
+     */
+    static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package com.mhoms.mhomsservices.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Result of a single signature verification of a JWT
+ * Carries subject, expiry and the full claims so callers never parse the same token twice
+ */
+public record ParsedToken(String subject, Date expiration, Claims claims) {
+
+    public static ParsedToken from(Claims claims) {
+        return new ParsedToken(claims.getSubject(), claims.getExpiration(), claims);
+    }
+
+    /**
+     * Unique token id (jti), present on refresh tokens
+     */
+    public String tokenId() {
+        return claims.getId();
+    }
+
+    /**
+     * Whether this is a refresh token rather than an access token
+     */
+    public boolean isRefreshToken() {
+        return JwtUtil.TYPE_REFRESH.equals(claims.get(JwtUtil.CLAIM_TYPE));
+    }
+
+    /**
+     * Role embedded in stateless-mode access tokens, or null
+     */
+    public String role() {
+        Object role = claims.get(JwtUtil.CLAIM_ROLE);
+        return role == null ? null : role.toString();
+    }
+
+    /**
+     * User id embedded in stateless-mode access tokens, or null
+     */
+    public Long userId() {
+        return longClaim(JwtUtil.CLAIM_USER_ID);
+    }
+
+    /**
+     * Account-version stamp embedded in stateless-mode access tokens, or null
+     */
+    public Long accountVersion() {
+        return longClaim(JwtUtil.CLAIM_ACCOUNT_VERSION);
+    }
+
+    /**
+     * Whether the token carries everything needed to authenticate without a user lookup
+     */
+    public boolean hasAuthorityClaims() {
+        return role() != null && userId() != null && accountVersion() != null;
+    }
+
+    /**
+     * Check if token is expired
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+
+    private Long longClaim(String name) {
+        Object value = claims.get(name);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.mhoms.mhomsservices.security;
+
+/**
+ * Token-bucket policy: burst capacity and steady refill rate
+ */
+public record RateLimitPolicy(int capacity, int refillPerMinute) {
+
+    public RateLimitPolicy {
+        if (capacity <= 0 || capacity > TokenBucketLimiter.MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be between 1 and " + TokenBucketLimiter.MAX_CAPACITY);
+        }
+        if (refillPerMinute <= 0) {
+            throw new IllegalArgumentException("refillPerMinute must be positive");
+        }
+    }
+
+    /**
+     * Milliseconds after which an untouched bucket is full again and can be forgotten
+     */
+    public long millisToFull() {
+        return (long) Math.ceil(capacity * 60_000.0 / refillPerMinute);
+    }
+}
@@ -0,0 +1,13 @@
+package com.mhoms.mhomsservices.security;
+
+/**
+ * Thrown when an already-rotated refresh token is presented again
+ * All of the user's sessions have been revoked by the time this is raised,
+ * so callers must not roll that revocation back.
+ */
+public class RefreshTokenReuseException extends IllegalStateException {
+
+    public RefreshTokenReuseException(String message) {
+        super(message);
+    }
+}
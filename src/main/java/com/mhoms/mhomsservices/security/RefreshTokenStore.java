@@ -0,0 +1,223 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.cache.BloomFilter;
+import com.mhoms.mhomsservices.model.RefreshToken;
+import com.mhoms.mhomsservices.model.User;
+import com.mhoms.mhomsservices.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent refresh-token store with in-memory revocation checks
+ * Revoked jtis live in a Bloom filter backed by an exact set; a Bloom miss proves the
+ * token is not revoked, so the common refresh path never queries for revocation state.
+ */
+@Component
+public class RefreshTokenStore {
+
+    // Overlap between incremental resyncs to tolerate clock skew between nodes
+    private static final long RESYNC_SKEW_SECONDS = 30;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtUtil jwtUtil;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+
+    private final Set<String> revokedIds = ConcurrentHashMap.newKeySet();
+    private volatile BloomFilter revokedFilter;
+    private volatile LocalDateTime lastResync;
+
+    private final LongAdder filterNegatives = new LongAdder();
+    private final LongAdder filterPositives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder reuseDetections = new LongAdder();
+
+    public RefreshTokenStore(RefreshTokenRepository refreshTokenRepository,
+                             JwtUtil jwtUtil,
+                             @Value("${jwt.refresh-store.expected-revocations:100000}") long expectedRevocations,
+                             @Value("${jwt.refresh-store.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtUtil = jwtUtil;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.revokedFilter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Persist a freshly issued refresh token
+     */
+    @Transactional
+    public void record(String refreshToken, User user) {
+        ParsedToken parsed = jwtUtil.parseToken(refreshToken);
+
+        RefreshToken entity = new RefreshToken();
+        entity.setId(parsed.tokenId());
+        entity.setUserId(user.getId());
+        entity.setUsername(user.getUsername());
+        entity.setIssuedAt(LocalDateTime.now());
+        entity.setExpiresAt(toLocalDateTime(parsed.expiration()));
+        refreshTokenRepository.save(entity);
+    }
+
+    /**
+     * Revoke the presented token and record its replacement
+     *
+     * @throws RefreshTokenReuseException when the presented token was already rotated or revoked;
+     *                                    every session of the user is revoked before throwing
+     */
+    @Transactional(noRollbackFor = RefreshTokenReuseException.class)
+    public void rotate(ParsedToken presented, String replacement, User user) {
+        String jti = presented.tokenId();
+        if (isRevoked(jti)) {
+            throw reuseDetected(presented.subject());
+        }
+
+        record(replacement, user);
+        String replacementId = jwtUtil.parseToken(replacement).tokenId();
+
+        // Conditional update: a concurrent rotation of the same token, here or on another node, loses
+        if (refreshTokenRepository.revoke(jti, replacementId, LocalDateTime.now()) == 0) {
+            refreshTokenRepository.deleteById(replacementId);
+            throw reuseDetected(presented.subject());
+        }
+        markRevoked(jti);
+        rotations.increment();
+    }
+
+    /**
+     * O(1) revocation check; only Bloom-filter hits consult the exact set
+     */
+    public boolean isRevoked(String jti) {
+        if (!revokedFilter.mightContain(jti)) {
+            filterNegatives.increment();
+            return false;
+        }
+        filterPositives.increment();
+        if (revokedIds.contains(jti)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Revoke every live refresh token of a user ("sign out everywhere")
+     */
+    @Transactional
+    public int revokeAllForUser(String username) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> active = refreshTokenRepository.findActiveIdsByUsername(username, now);
+        refreshTokenRepository.revokeAllByUsername(username, now);
+        active.forEach(this::markRevoked);
+        return active.size();
+    }
+
+    /**
+     * Pull revocations made on other nodes since the last resync
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-store.resync-interval-ms:10000}")
+    public void resyncRecent() {
+        LocalDateTime since = lastResync;
+        if (since == null) {
+            reload();
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        refreshTokenRepository.findIdsRevokedAfter(since.minusSeconds(RESYNC_SKEW_SECONDS))
+                .forEach(this::markRevoked);
+        lastResync = startedAt;
+    }
+
+    /**
+     * Purge expired rows and rebuild the filter so it only holds revocations that still matter
+     */
+    @Scheduled(cron = "${jwt.refresh-store.purge-cron:0 15 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        reload();
+    }
+
+    public RefreshStoreStats getStats() {
+        return new RefreshStoreStats(
+                revokedIds.size(),
+                revokedFilter.bitSize(),
+                revokedFilter.hashCount(),
+                filterNegatives.sum(),
+                filterPositives.sum(),
+                falsePositives.sum(),
+                rotations.sum(),
+                reuseDetections.sum()
+        );
+    }
+
+    public record RefreshStoreStats(
+            int revokedTracked,
+            long filterBits,
+            int filterHashes,
+            long filterNegatives,
+            long filterPositives,
+            long falsePositives,
+            long rotations,
+            long reuseDetections
+    ) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void reload() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Set<String> before = Set.copyOf(revokedIds);
+        Set<String> revoked = Set.copyOf(refreshTokenRepository.findRevokedUnexpiredIds(startedAt));
+
+        // Drop only ids that were known before the query; anything marked meanwhile stays
+        revokedIds.addAll(revoked);
+        for (String id : before) {
+            if (!revoked.contains(id)) {
+                revokedIds.remove(id);
+            }
+        }
+
+        BloomFilter filter = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2L), falsePositiveRate);
+        revokedIds.forEach(filter::put);
+        revokedFilter = filter;
+        // Catch ids marked into the old filter while the new one was being built
+        revokedIds.forEach(filter::put);
+        lastResync = startedAt;
+    }
+
+    private void markRevoked(String jti) {
+        revokedIds.add(jti);
+        revokedFilter.put(jti);
+    }
+
+    private RefreshTokenReuseException reuseDetected(String username) {
+        reuseDetections.increment();
+        revokeAllForUser(username);
+        return new RefreshTokenReuseException("Refresh token reuse detected - all sessions have been revoked");
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
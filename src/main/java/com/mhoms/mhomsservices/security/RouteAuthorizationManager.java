@@ -0,0 +1,313 @@
+package com.mhoms.mhomsservices.security;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.web.util.UrlPathHelper;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Route authorization compiled at startup into one path trie per HTTP method
+ * Replaces in-order evaluation of Ant-style requestMatchers: a request walks the
+ * trie once and the lowest-numbered matching rule wins, so declaration order keeps
+ * the same meaning as the old matcher chain. Each rule's access check is
+ * precomputed into an authority set.
+ *
+ * Patterns are '/'-separated; '*' matches exactly one segment and a trailing '**'
+ * matches zero or more segments.
+ */
+public class RouteAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    private static final AuthenticationTrustResolver TRUST_RESOLVER = new AuthenticationTrustResolverImpl();
+
+    private static final int NO_RULE = Integer.MAX_VALUE;
+    private static final List<String> METHODS =
+            List.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE");
+
+    private final List<Rule> rules;
+    private final Access defaultAccess;
+    private final Map<String, Node> tries;
+    private final Node anyMethodTrie;
+
+    private RouteAuthorizationManager(List<Rule> rules, Access defaultAccess) {
+        this.rules = List.copyOf(rules);
+        this.defaultAccess = defaultAccess;
+        this.tries = new HashMap<>();
+        for (String method : METHODS) {
+            tries.put(method, new Node());
+        }
+        this.anyMethodTrie = new Node();
+
+        for (int i = 0; i < this.rules.size(); i++) {
+            Rule rule = this.rules.get(i);
+            if (rule.method() == null) {
+                for (Node root : tries.values()) {
+                    root.insert(rule.segments(), 0, i);
+                }
+                anyMethodTrie.insert(rule.segments(), 0, i);
+            } else {
+                tries.get(rule.method().name()).insert(rule.segments(), 0, i);
+            }
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return decide(authentication, context.getRequest());
+    }
+
+    /**
+     * Authorize a request; the Authentication is only resolved when the matched rule needs it
+     */
+    public AuthorizationDecision decide(Supplier<Authentication> authentication, HttpServletRequest request) {
+        return resolve(request.getMethod(), pathWithinApplication(request)).decide(authentication);
+    }
+
+    /**
+     * Access rule that applies to the method and path
+     */
+    public Access resolve(String method, String path) {
+        Node root = tries.getOrDefault(method, anyMethodTrie);
+        int match = root.match(path, path.isEmpty() || path.charAt(0) != '/' ? 0 : 1);
+        return match == NO_RULE ? defaultAccess : rules.get(match).access();
+    }
+
+    /**
+     * Compiled rules in declaration order, for diagnostics and benchmarks
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public Access getDefaultAccess() {
+        return defaultAccess;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // RULES
+    // ═══════════════════════════════════════════════════════════════
+
+    public record Rule(HttpMethod method, String pattern, List<String> segments, Access access) {
+    }
+
+    /**
+     * Precomputed access check
+     */
+    public record Access(Kind kind, Set<String> authorities) {
+
+        public enum Kind {
+            PERMIT_ALL,
+            AUTHENTICATED,
+            HAS_ANY_AUTHORITY,
+            DENY_ALL
+        }
+
+        static Access of(Kind kind) {
+            return new Access(kind, Set.of());
+        }
+
+        static Access anyRole(String... roles) {
+            Set<String> authorities = new HashSet<>();
+            for (String role : roles) {
+                authorities.add("ROLE_" + role);
+            }
+            return new Access(Kind.HAS_ANY_AUTHORITY, Set.copyOf(authorities));
+        }
+
+        public AuthorizationDecision decide(Supplier<Authentication> supplier) {
+            switch (kind) {
+                case PERMIT_ALL:
+                    return GRANTED;
+                case DENY_ALL:
+                    return DENIED;
+                default:
+                    break;
+            }
+            Authentication authentication = supplier.get();
+            if (authentication == null || !authentication.isAuthenticated()
+                    || TRUST_RESOLVER.isAnonymous(authentication)) {
+                return DENIED;
+            }
+            if (kind == Kind.AUTHENTICATED) {
+                return GRANTED;
+            }
+            for (GrantedAuthority authority : authentication.getAuthorities()) {
+                if (authorities.contains(authority.getAuthority())) {
+                    return GRANTED;
+                }
+            }
+            return DENIED;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // BUILDER
+    // ═══════════════════════════════════════════════════════════════
+
+    public static class Builder {
+
+        private final List<Rule> rules = new ArrayList<>();
+
+        public RouteBuilder route(String... patterns) {
+            return new RouteBuilder(this, null, patterns);
+        }
+
+        public RouteBuilder route(HttpMethod method, String... patterns) {
+            return new RouteBuilder(this, method, patterns);
+        }
+
+        /**
+         * Access for requests no rule matches, then compile
+         */
+        public RouteAuthorizationManager anyRequestAuthenticated() {
+            return new RouteAuthorizationManager(rules, Access.of(Access.Kind.AUTHENTICATED));
+        }
+
+        private Builder add(HttpMethod method, String[] patterns, Access access) {
+            for (String pattern : patterns) {
+                rules.add(new Rule(method, pattern, compile(pattern), access));
+            }
+            return this;
+        }
+
+        private static List<String> compile(String pattern) {
+            List<String> segments = new ArrayList<>();
+            for (String segment : pattern.split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            for (int i = 0; i < segments.size() - 1; i++) {
+                if ("**".equals(segments.get(i))) {
+                    throw new IllegalArgumentException("'**' is only supported as the last segment: " + pattern);
+                }
+            }
+            return Collections.unmodifiableList(segments);
+        }
+    }
+
+    public static class RouteBuilder {
+
+        private final Builder builder;
+        private final HttpMethod method;
+        private final String[] patterns;
+
+        RouteBuilder(Builder builder, HttpMethod method, String[] patterns) {
+            this.builder = builder;
+            this.method = method;
+            this.patterns = patterns;
+        }
+
+        public Builder permitAll() {
+            return builder.add(method, patterns, Access.of(Access.Kind.PERMIT_ALL));
+        }
+
+        public Builder authenticated() {
+            return builder.add(method, patterns, Access.of(Access.Kind.AUTHENTICATED));
+        }
+
+        public Builder denyAll() {
+            return builder.add(method, patterns, Access.of(Access.Kind.DENY_ALL));
+        }
+
+        public Builder hasRole(String role) {
+            return builder.add(method, patterns, Access.anyRole(role));
+        }
+
+        public Builder hasAnyRole(String... roles) {
+            return builder.add(method, patterns, Access.anyRole(roles));
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Decoded path without the context path and ';' parameters - the path the dispatcher routes on,
+     * so a percent-encoded segment cannot slip past the rule written for its plain form
+     */
+    private static String pathWithinApplication(HttpServletRequest request) {
+        return UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+    }
+
+    /**
+     * Trie node; remembers the lowest rule index ending here and ending in '**' here
+     */
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<>();
+        private Node single;
+        private int terminalRule = NO_RULE;
+        private int restRule = NO_RULE;
+
+        void insert(List<String> segments, int index, int rule) {
+            if (index == segments.size()) {
+                terminalRule = Math.min(terminalRule, rule);
+                return;
+            }
+            String segment = segments.get(index);
+            if ("**".equals(segment)) {
+                restRule = Math.min(restRule, rule);
+            } else if ("*".equals(segment)) {
+                if (single == null) {
+                    single = new Node();
+                }
+                single.insert(segments, index + 1, rule);
+            } else {
+                literals.computeIfAbsent(segment, s -> new Node()).insert(segments, index + 1, rule);
+            }
+        }
+
+        /**
+         * Lowest matching rule index for the path from offset on, walking segments in place
+         */
+        int match(String path, int offset) {
+            int best = restRule;
+
+            // Skip empty segments ("//" and trailing "/")
+            int length = path.length();
+            while (offset < length && path.charAt(offset) == '/') {
+                offset++;
+            }
+            if (offset >= length) {
+                return Math.min(best, terminalRule);
+            }
+
+            int end = path.indexOf('/', offset);
+            if (end < 0) {
+                end = length;
+            }
+            if (!literals.isEmpty()) {
+                Node child = literals.get(path.substring(offset, end));
+                if (child != null) {
+                    best = Math.min(best, child.match(path, end));
+                }
+            }
+            if (single != null) {
+                best = Math.min(best, single.match(path, end));
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.mhoms.mhomsservices.security;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Striped, bounded map of token buckets keyed by string
+ * Each bucket is a single AtomicLong packing (milli-tokens, last-refill time), so
+ * acquiring is a CAS loop with no locks and no allocation once the key exists.
+ * Stripes cap memory: when one fills up, buckets idle long enough to be full again
+ * are dropped first (they are indistinguishable from new ones), then the least
+ * recently used.
+ */
+public class TokenBucketLimiter {
+
+    public static final int MAX_CAPACITY = (1 << 24) / 1000 - 1;
+
+    private static final long MILLI = 1000;
+    private static final int TIME_BITS = 40;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    private final RateLimitPolicy policy;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int maxKeysPerStripe;
+    private final LongSupplier clock;
+    private final long epoch;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TokenBucketLimiter(RateLimitPolicy policy, int maxKeys, int stripeCount) {
+        this(policy, maxKeys, stripeCount, System::currentTimeMillis);
+    }
+
+    public TokenBucketLimiter(RateLimitPolicy policy, int maxKeys, int stripeCount, LongSupplier clock) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.policy = policy;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = count - 1;
+        this.maxKeysPerStripe = Math.max(1, maxKeys / count);
+        this.clock = clock;
+        this.epoch = clock.getAsLong();
+    }
+
+    /**
+     * Take one token for the key
+     *
+     * @return 0 when allowed, otherwise milliseconds until a token becomes available
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong() - epoch;
+        Stripe stripe = stripes[spread(key.hashCode()) & stripeMask];
+
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket == null) {
+            if (stripe.buckets.size() >= maxKeysPerStripe) {
+                stripe.makeRoom(now);
+            }
+            bucket = stripe.buckets.computeIfAbsent(key, k -> new AtomicLong(pack(policy.capacity() * MILLI, now)));
+        }
+
+        long capacity = policy.capacity() * MILLI;
+        long millisToFull = policy.millisToFull();
+        while (true) {
+            long state = bucket.get();
+            long last = state & TIME_MASK;
+            long elapsed = Math.min(Math.max(0, now - last), millisToFull);
+            long tokens = Math.min(capacity, (state >>> TIME_BITS) + elapsed * policy.refillPerMinute() * MILLI / 60_000);
+
+            if (tokens >= MILLI) {
+                if (bucket.compareAndSet(state, pack(tokens - MILLI, now))) {
+                    allowed.increment();
+                    return 0;
+                }
+            } else {
+                // Keep the stored time so fractional refill is not lost; only report the wait
+                rejected.increment();
+                long missing = MILLI - tokens;
+                return Math.max(1, (long) Math.ceil(missing * 60_000.0 / (policy.refillPerMinute() * MILLI)));
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.buckets.size();
+        }
+        return size;
+    }
+
+    public LimiterStats stats() {
+        return new LimiterStats(policy.capacity(), policy.refillPerMinute(), size(),
+                allowed.sum(), rejected.sum(), evictions.sum());
+    }
+
+    public record LimiterStats(int capacity, int refillPerMinute, int trackedKeys,
+                               long allowed, long rejected, long evictions) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static long pack(long milliTokens, long time) {
+        return (milliTokens << TIME_BITS) | (time & TIME_MASK);
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private final class Stripe {
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final ReentrantLock sweepLock = new ReentrantLock();
+
+        void makeRoom(long now) {
+            // One sweeper per stripe; concurrent inserters may overshoot the bound briefly
+            if (!sweepLock.tryLock()) {
+                return;
+            }
+            try {
+                long idleCutoff = now - policy.millisToFull();
+                Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+                while (it.hasNext()) {
+                    if ((it.next().getValue().get() & TIME_MASK) <= idleCutoff) {
+                        it.remove();
+                        evictions.increment();
+                    }
+                }
+                if (buckets.size() < maxKeysPerStripe) {
+                    return;
+                }
+
+                // Still full: drop the least recently used eighth of the stripe
+                long[] times = buckets.values().stream().mapToLong(b -> b.get() & TIME_MASK).toArray();
+                Arrays.sort(times);
+                long lruCutoff = times[Math.min(times.length - 1, Math.max(1, times.length / 8) - 1)];
+                it = buckets.entrySet().iterator();
+                while (it.hasNext()) {
+                    if ((it.next().getValue().get() & TIME_MASK) <= lruCutoff) {
+                        it.remove();
+                        evictions.increment();
+                    }
+                }
+            } finally {
+                sweepLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.mhoms.mhomsservices.security;
+
+/**
+ * Why a bearer token was not accepted
+ */
+public enum TokenRejection {
+    OVERSIZED,
+    MALFORMED,
+    BAD_ENCODING,
+    EXPIRED,
+    BAD_SIGNATURE,
+    UNSUPPORTED,
+    RECENTLY_REJECTED,
+    REFRESH_AS_ACCESS,
+    USER_NOT_FOUND,
+    OTHER;
+
+    /**
+     * Rejections that will repeat for the same token bytes and are safe to cache by digest
+     */
+    public boolean isDeterministic() {
+        return switch (this) {
+            case OVERSIZED, MALFORMED, BAD_ENCODING, EXPIRED, BAD_SIGNATURE, UNSUPPORTED, REFRESH_AS_ACCESS -> true;
+            default -> false;
+        };
+    }
+}
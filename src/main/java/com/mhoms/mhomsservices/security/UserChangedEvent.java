@@ -0,0 +1,18 @@
+package com.mhoms.mhomsservices.security;
+
+/**
+ * Published whenever a User row is updated or deleted
+ * Lets in-memory security caches drop state derived from that user
+ * previousUsername is the name the row had before the write; it differs from
+ * username only when the user was renamed.
+ */
+public record UserChangedEvent(Long userId, String username, long accountVersion, boolean deleted,
+                               String previousUsername) {
+
+    /**
+     * Change of a user whose username stayed the same
+     */
+    public UserChangedEvent(Long userId, String username, long accountVersion, boolean deleted) {
+        this(userId, username, accountVersion, deleted, username);
+    }
+}
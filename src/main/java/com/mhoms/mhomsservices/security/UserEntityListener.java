@@ -0,0 +1,37 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns User writes into UserChangedEvents
+ * Instantiated by Hibernate through Spring, so collaborators are injected normally
+ */
+@Component
+public class UserEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostUpdate
+    public void onUserUpdated(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(
+                user.getId(), user.getUsername(), user.getAccountVersion(), false, previousUsername(user)));
+    }
+
+    @PostRemove
+    public void onUserRemoved(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(
+                user.getId(), user.getUsername(), user.getAccountVersion(), true, previousUsername(user)));
+    }
+
+    private static String previousUsername(User user) {
+        return user.getPersistedUsername() != null ? user.getPersistedUsername() : user.getUsername();
+    }
+}
@@ -0,0 +1,91 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.ApiKeyRequest;
+import com.mhoms.mhomsservices.dto.ApiKeyResponse;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
+import com.mhoms.mhomsservices.model.ApiKey;
+import com.mhoms.mhomsservices.model.User;
+import com.mhoms.mhomsservices.repository.ApiKeyRepository;
+import com.mhoms.mhomsservices.repository.UserRepository;
+import com.mhoms.mhomsservices.security.ApiKeyRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service for creating, listing and revoking service-account API keys
+ */
+@Service
+@Transactional
+public class ApiKeyService {
+
+    private static final int DISPLAY_PREFIX_LENGTH = 12;
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final UserRepository userRepository;
+    private final ApiKeyRegistry apiKeyRegistry;
+
+    public ApiKeyService(ApiKeyRepository apiKeyRepository,
+                         UserRepository userRepository,
+                         ApiKeyRegistry apiKeyRegistry) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.userRepository = userRepository;
+        this.apiKeyRegistry = apiKeyRegistry;
+    }
+
+    /**
+     * Create a key for the user; the raw key is returned once and never stored
+     */
+    public ApiKeyResponse create(ApiKeyRequest request) {
+        User user = userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + request.getUsername()));
+        if (!user.isEnabled()) {
+            throw new InvalidRequestException("User is disabled: " + user.getUsername());
+        }
+
+        String rawKey = ApiKeyRegistry.generateKey();
+
+        ApiKey key = new ApiKey();
+        key.setName(request.getName());
+        key.setKeyPrefix(rawKey.substring(0, DISPLAY_PREFIX_LENGTH));
+        key.setKeyDigest(ApiKeyRegistry.digest(rawKey));
+        key.setUserId(user.getId());
+        key.setUsername(user.getUsername());
+        if (request.getExpiresInDays() != null) {
+            key.setExpiresAt(LocalDateTime.now().plusDays(request.getExpiresInDays()));
+        }
+        ApiKey saved = apiKeyRepository.save(key);
+
+        apiKeyRegistry.register(saved.getKeyDigest(), user.getId(), user.getUsername(),
+                user.getRole().name(), saved.getExpiresAt());
+        return ApiKeyResponse.from(saved, rawKey);
+    }
+
+    /**
+     * All keys, newest first, without secrets
+     */
+    @Transactional(readOnly = true)
+    public List<ApiKeyResponse> list() {
+        return apiKeyRepository.findAllByOrderByCreatedAtDesc().stream()
+                .map(ApiKeyResponse::from)
+                .toList();
+    }
+
+    /**
+     * Revoke a key; revoking an already revoked key is a no-op
+     */
+    public ApiKeyResponse revoke(Long id) {
+        ApiKey key = apiKeyRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("API key not found with id: " + id));
+        if (!key.isRevoked()) {
+            key.setRevoked(true);
+            key.setRevokedAt(LocalDateTime.now());
+            key = apiKeyRepository.save(key);
+        }
+        apiKeyRegistry.unregister(key.getKeyDigest());
+        return ApiKeyResponse.from(key);
+    }
+}
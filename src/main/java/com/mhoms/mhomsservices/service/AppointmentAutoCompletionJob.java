@@ -0,0 +1,159 @@
+package com.mhoms.mhomsservices.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves appointments that are still BOOKED well after their end time to COMPLETED or NO_SHOW
+ * Works in short chunk transactions that claim rows with FOR UPDATE SKIP LOCKED, so
+ * it never waits on a row a user is editing, and several nodes running the job at
+ * once simply split the backlog between them. A row skipped as locked is picked up
+ * by the next run.
+ */
+@Component
+public class AppointmentAutoCompletionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentAutoCompletionJob.class);
+
+    private static final Set<String> TARGET_STATUSES = Set.of("COMPLETED", "NO_SHOW");
+
+    private static final String SWEEP_SQL =
+            "WITH c AS (SELECT id FROM appointments " +
+            // The start bound is implied by the end bound and lets the date index narrow the scan
+            "WHERE status = 'BOOKED' AND appointment_date < ? " +
+            "AND appointment_date + duration_minutes * interval '1 minute' < ? " +
+            "ORDER BY appointment_date LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE appointments a SET status = ?, version = a.version + 1 FROM c WHERE a.id = c.id " +
+            "RETURNING a.id, a.doctor_id, a.appointment_date, a.duration_minutes";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final String targetStatus;
+    private final long graceMinutes;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong lastRunUpdated = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final AtomicReference<LocalDateTime> lastRunAt = new AtomicReference<>();
+
+    public AppointmentAutoCompletionJob(JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        ApplicationEventPublisher eventPublisher,
+                                        @Value("${appointments.auto-complete.enabled:true}") boolean enabled,
+                                        @Value("${appointments.auto-complete.target-status:COMPLETED}") String targetStatus,
+                                        @Value("${appointments.auto-complete.grace-minutes:120}") long graceMinutes,
+                                        @Value("${appointments.auto-complete.chunk-size:500}") int chunkSize,
+                                        @Value("${appointments.auto-complete.max-chunks-per-run:100}") int maxChunksPerRun) {
+        String target = targetStatus.trim().toUpperCase(Locale.ROOT);
+        if (!TARGET_STATUSES.contains(target)) {
+            throw new IllegalArgumentException(
+                    "appointments.auto-complete.target-status must be COMPLETED or NO_SHOW, was " + targetStatus);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.targetStatus = target;
+        this.graceMinutes = graceMinutes;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxChunksPerRun = Math.max(1, maxChunksPerRun);
+    }
+
+    @Scheduled(fixedDelayString = "${appointments.auto-complete.interval-ms:300000}",
+            initialDelayString = "${appointments.auto-complete.initial-delay-ms:60000}")
+    public void scheduledRun() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * One sweep: chunks until the backlog is drained or the per-run cap is reached
+     *
+     * @return number of appointments moved in this run, or -1 if a run was already in progress
+     */
+    public int run() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        long started = System.nanoTime();
+        int moved = 0;
+        try {
+            // Fixed per run so rows that become stale mid-run wait for the next one
+            LocalDateTime cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                int count = sweepChunk(cutoff);
+                chunks.increment();
+                moved += count;
+                if (count < chunkSize) {
+                    break;
+                }
+            }
+            if (moved > 0) {
+                log.info("Moved {} past appointments from BOOKED to {}", moved, targetStatus);
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Appointment auto-completion run failed after {} updates: {}", moved, e.getMessage());
+        } finally {
+            runs.increment();
+            updated.add(moved);
+            lastRunUpdated.set(moved);
+            lastRunMillis.set((System.nanoTime() - started) / 1_000_000);
+            lastRunAt.set(LocalDateTime.now());
+            running.set(false);
+        }
+        return moved;
+    }
+
+    public JobStats getStats() {
+        return new JobStats(enabled, targetStatus, graceMinutes, runs.sum(), chunks.sum(), updated.sum(),
+                failures.sum(), lastRunUpdated.get(), lastRunMillis.get(), lastRunAt.get());
+    }
+
+    public record JobStats(boolean enabled, String targetStatus, long graceMinutes, long runs, long chunks,
+                           long updated, long failures, long lastRunUpdated, long lastRunMillis,
+                           LocalDateTime lastRunAt) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private int sweepChunk(LocalDateTime cutoff) {
+        Integer count = transactionTemplate.execute(tx -> {
+            List<AppointmentChangedEvent> changes = jdbcTemplate.query(SWEEP_SQL, (rs, rowNum) -> {
+                LocalDateTime date = rs.getTimestamp("appointment_date").toLocalDateTime();
+                return new AppointmentChangedEvent(rs.getLong("id"), rs.getLong("doctor_id"), date, date, targetStatus,
+                        rs.getInt("duration_minutes"));
+            }, Timestamp.valueOf(cutoff), Timestamp.valueOf(cutoff), chunkSize, targetStatus);
+            changes.forEach(eventPublisher::publishEvent);
+            return changes.size();
+        });
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,25 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.model.Appointment;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published whenever an appointment is booked, rescheduled, changes status or is deleted
+ * previousDate is null for new bookings; newDate is null for deletions
+ */
+public record AppointmentChangedEvent(Long appointmentId,
+                                      Long doctorId,
+                                      LocalDateTime previousDate,
+                                      LocalDateTime newDate,
+                                      String status,
+                                      int durationMinutes) {
+
+    /**
+     * Change of an appointment of the default length
+     */
+    public AppointmentChangedEvent(Long appointmentId, Long doctorId, LocalDateTime previousDate,
+                                   LocalDateTime newDate, String status) {
+        this(appointmentId, doctorId, previousDate, newDate, status, Appointment.DEFAULT_DURATION_MINUTES);
+    }
+}
@@ -0,0 +1,387 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.SeriesChangeResponse;
+import com.mhoms.mhomsservices.dto.SeriesRequest;
+import com.mhoms.mhomsservices.dto.SeriesResponse;
+import com.mhoms.mhomsservices.dto.SeriesResponse.Occurrence;
+import com.mhoms.mhomsservices.dto.SeriesResponse.OccurrenceStatus;
+import com.mhoms.mhomsservices.exception.BookingRejectedException;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
+import com.mhoms.mhomsservices.exception.SlotConflictException;
+import com.mhoms.mhomsservices.model.Appointment;
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+import com.mhoms.mhomsservices.repository.AppointmentSeriesRepository;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import com.mhoms.mhomsservices.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Recurring appointment series
+ * Occurrences are expanded from the rule and checked against the doctor's existing
+ * appointments with one range query. Booking inserts the series row and all its
+ * occurrences with one JDBC batch in one transaction; cancelling or moving the rest
+ * of a series is a single UPDATE over series_id.
+ */
+@Service
+public class AppointmentSeriesService {
+
+    private static final String INSERT_SERIES_SQL =
+            "INSERT INTO appointment_series (id, patient_id, doctor_id, frequency, interval_days, first_date, " +
+            "occurrences, created_at) VALUES (nextval('appointment_series_seq'), ?, ?, ?, ?, ?, ?, ?) RETURNING id";
+
+    // Occurrences have the default length; one overlapping a live appointment of the doctor or
+    // patient is skipped like a taken slot
+    private static final String INSERT_OCCURRENCE_SQL =
+            "INSERT INTO appointments (id, patient_id, doctor_id, appointment_date, duration_minutes, status, series_id) " +
+            "SELECT nextval('appointments_seq'), t.patient_id, t.doctor_id, t.start_at, " +
+            Appointment.DEFAULT_DURATION_MINUTES + ", 'BOOKED', t.series_id " +
+            "FROM (SELECT CAST(? AS bigint) AS patient_id, CAST(? AS bigint) AS doctor_id, " +
+            "CAST(? AS timestamp(6)) AS start_at, CAST(? AS bigint) AS series_id) t " +
+            "WHERE NOT EXISTS (" + OverlapSql.liveOverlapping("doctor_id", Appointment.DEFAULT_DURATION_MINUTES) + ") " +
+            "AND NOT EXISTS (" + OverlapSql.liveOverlapping("patient_id", Appointment.DEFAULT_DURATION_MINUTES) + ") " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final String CANCEL_REMAINING_SQL =
+            "UPDATE appointments SET status = 'CANCELLED', version = version + 1 " +
+            "WHERE series_id = ? AND status = 'BOOKED' AND appointment_date >= ? " +
+            "RETURNING id, doctor_id, appointment_date, appointment_date AS previous_date, duration_minutes";
+
+    private static final String MOVE_REMAINING_SQL =
+            "WITH old AS (SELECT id, appointment_date FROM appointments " +
+            "WHERE series_id = ? AND status = 'BOOKED' AND appointment_date >= ? FOR UPDATE) " +
+            "UPDATE appointments a SET appointment_date = CAST(old.appointment_date AS date) + CAST(? AS time), " +
+            "version = a.version + 1 FROM old WHERE a.id = old.id " +
+            "RETURNING a.id, a.doctor_id, a.appointment_date, old.appointment_date AS previous_date, a.duration_minutes";
+
+    // Other appointments the remaining occurrences would collide with at their new time: a live
+    // one of the doctor or patient overlapping it
+    private static final String MOVE_CONFLICTS_SQL =
+            "WITH m AS (SELECT id, doctor_id, patient_id, duration_minutes, " +
+            "CAST(appointment_date AS date) + CAST(? AS time) AS start_at FROM appointments " +
+            "WHERE series_id = ? AND status = 'BOOKED' AND appointment_date >= ?) " +
+            "SELECT o.appointment_date FROM m JOIN appointments o " +
+            "ON (o.doctor_id = m.doctor_id OR o.patient_id = m.patient_id) AND o.id <> m.id " +
+            "AND o.appointment_date > m.start_at - interval '" + Appointment.MAX_DURATION_MINUTES + " minutes' " +
+            "AND o.appointment_date < m.start_at + m.duration_minutes * interval '1 minute' " +
+            "AND o.status <> 'CANCELLED' AND o.appointment_date + o.duration_minutes * interval '1 minute' > m.start_at " +
+            "ORDER BY o.appointment_date";
+
+    private static final Map<String, Integer> FIXED_INTERVALS = Map.of("WEEKLY", 7, "BIWEEKLY", 14);
+    private static final int MAX_INTERVAL_DAYS = 365;
+
+    private final AppointmentRepository appointmentRepository;
+    private final AppointmentSeriesRepository seriesRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxOccurrences;
+
+    public AppointmentSeriesService(AppointmentRepository appointmentRepository,
+                                    AppointmentSeriesRepository seriesRepository,
+                                    PatientRepository patientRepository,
+                                    DoctorRepository doctorRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${appointments.series.max-occurrences:104}") int maxOccurrences) {
+        this.appointmentRepository = appointmentRepository;
+        this.seriesRepository = seriesRepository;
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxOccurrences = maxOccurrences;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // PREVIEW AND BOOKING
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Expand the series and report which occurrences are free, without booking anything
+     */
+    @Transactional(readOnly = true)
+    public SeriesResponse preview(SeriesRequest request) {
+        Rule rule = rule(request);
+        List<LocalDateTime> dates = expand(request.firstDate(), rule.intervalDays(), request.count(),
+                request.until(), maxOccurrences);
+        Set<LocalDateTime> taken = takenSlots(request.patientId(), request.doctorId(), dates);
+
+        List<Occurrence> occurrences = new ArrayList<>(dates.size());
+        for (LocalDateTime date : dates) {
+            occurrences.add(new Occurrence(date,
+                    taken.contains(date) ? OccurrenceStatus.SLOT_TAKEN : OccurrenceStatus.FREE, null));
+        }
+        int free = (int) occurrences.stream().filter(o -> o.status() == OccurrenceStatus.FREE).count();
+        return new SeriesResponse(null, request.patientId(), request.doctorId(), dates.size(), free, 0, occurrences);
+    }
+
+    /**
+     * Book the whole series in one transaction
+     * A taken slot fails the request unless skipConflicts is set, in which case only
+     * the free occurrences are booked
+     */
+    @Transactional
+    public SeriesResponse book(SeriesRequest request, boolean skipConflicts) {
+        Rule rule = rule(request);
+        List<LocalDateTime> dates = expand(request.firstDate(), rule.intervalDays(), request.count(),
+                request.until(), maxOccurrences);
+        requireBookable(request.patientId(), request.doctorId());
+
+        Set<LocalDateTime> taken = takenSlots(request.patientId(), request.doctorId(), dates);
+        if (!taken.isEmpty() && !skipConflicts) {
+            throw new SlotConflictException("Doctor or patient already has appointments at " + describe(taken)
+                    + " - preview the series or book with skipConflicts");
+        }
+        List<LocalDateTime> free = dates.stream().filter(d -> !taken.contains(d)).toList();
+        if (free.isEmpty()) {
+            throw new SlotConflictException("Every occurrence of the series is already taken");
+        }
+
+        Long seriesId = jdbcTemplate.queryForObject(INSERT_SERIES_SQL, Long.class,
+                request.patientId(), request.doctorId(), rule.frequency(), rule.intervalDays(),
+                Timestamp.valueOf(dates.get(0)), dates.size(), Timestamp.valueOf(LocalDateTime.now()));
+
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_OCCURRENCE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, request.patientId());
+                ps.setLong(2, request.doctorId());
+                ps.setTimestamp(3, Timestamp.valueOf(free.get(i)));
+                ps.setLong(4, seriesId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return free.size();
+            }
+        });
+
+        // A slot booked concurrently since the range query was skipped by ON CONFLICT
+        Map<LocalDateTime, Long> bookedIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, appointment_date FROM appointments WHERE series_id = ?",
+                rs -> {
+                    bookedIds.put(rs.getTimestamp("appointment_date").toLocalDateTime(), rs.getLong("id"));
+                }, seriesId);
+        if (bookedIds.size() < free.size() && !skipConflicts) {
+            throw new SlotConflictException("Some occurrences were booked by someone else meanwhile - please retry");
+        }
+        if (bookedIds.isEmpty()) {
+            throw new SlotConflictException("Every occurrence of the series is already taken");
+        }
+
+        List<Occurrence> occurrences = new ArrayList<>(dates.size());
+        for (LocalDateTime date : dates) {
+            Long id = bookedIds.get(date);
+            if (id != null) {
+                occurrences.add(new Occurrence(date, OccurrenceStatus.BOOKED, id));
+                eventPublisher.publishEvent(new AppointmentChangedEvent(id, request.doctorId(), null, date, "BOOKED"));
+            } else {
+                occurrences.add(new Occurrence(date, OccurrenceStatus.SLOT_TAKEN, null));
+            }
+        }
+        return new SeriesResponse(seriesId, request.patientId(), request.doctorId(), dates.size(),
+                dates.size() - taken.size(), bookedIds.size(), occurrences);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // CHANGES TO THE REST OF A SERIES
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Cancel every still-booked occurrence from the given time on
+     */
+    @Transactional
+    public SeriesChangeResponse cancelRemaining(Long seriesId, LocalDateTime from) {
+        requireSeries(seriesId);
+        return apply(seriesId, CANCEL_REMAINING_SQL, "CANCELLED",
+                seriesId, Timestamp.valueOf(from != null ? from : LocalDateTime.now()));
+    }
+
+    /**
+     * Move every still-booked occurrence from the given time on to a new time of day,
+     * keeping its date; fails as a whole if any new slot is taken
+     */
+    @Transactional
+    public SeriesChangeResponse moveRemaining(Long seriesId, LocalDateTime from, LocalTime newTime) {
+        if (newTime == null) {
+            throw new InvalidRequestException("newTime is required");
+        }
+        if (!Appointment.endsSameDay(LocalDate.now().atTime(newTime), Appointment.DEFAULT_DURATION_MINUTES)) {
+            throw new InvalidRequestException("An appointment cannot extend past midnight");
+        }
+        requireSeries(seriesId);
+        Timestamp since = Timestamp.valueOf(from != null ? from : LocalDateTime.now());
+        String time = newTime.withNano(0).toString();
+
+        List<LocalDateTime> conflicts = jdbcTemplate.query(MOVE_CONFLICTS_SQL,
+                (rs, rowNum) -> rs.getTimestamp("appointment_date").toLocalDateTime(), time, seriesId, since);
+        if (!conflicts.isEmpty()) {
+            throw new SlotConflictException("Doctor or patient already has appointments at " + describe(conflicts));
+        }
+        try {
+            return apply(seriesId, MOVE_REMAINING_SQL, "BOOKED", seriesId, since, time);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a booking made after the conflict check
+            throw new SlotConflictException("A new time was booked by someone else meanwhile - please retry");
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Occurrence start times: every intervalDays from first, up to count or through until
+     */
+    static List<LocalDateTime> expand(LocalDateTime first, int intervalDays, Integer count,
+                                      LocalDate until, int maxOccurrences) {
+        if (first == null) {
+            throw new InvalidRequestException("firstDate is required");
+        }
+        if ((count == null) == (until == null)) {
+            throw new InvalidRequestException("Give exactly one of count and until");
+        }
+        if (count != null && count < 1) {
+            throw new InvalidRequestException("count must be at least 1");
+        }
+        if (until != null && until.isBefore(first.toLocalDate())) {
+            throw new InvalidRequestException("until must not be before firstDate");
+        }
+
+        List<LocalDateTime> dates = new ArrayList<>();
+        for (LocalDateTime date = first;
+             count != null ? dates.size() < count : !date.toLocalDate().isAfter(until);
+             date = date.plusDays(intervalDays)) {
+            if (dates.size() == maxOccurrences) {
+                throw new InvalidRequestException("A series can have at most " + maxOccurrences + " occurrences");
+            }
+            dates.add(date);
+        }
+        return dates;
+    }
+
+    private Rule rule(SeriesRequest request) {
+        if (request.patientId() == null || request.doctorId() == null) {
+            throw new InvalidRequestException("patientId and doctorId are required");
+        }
+        if (request.firstDate() != null && !request.firstDate().isAfter(LocalDateTime.now())) {
+            throw new InvalidRequestException("firstDate must be in the future");
+        }
+        if (request.firstDate() != null
+                && !Appointment.endsSameDay(request.firstDate(), Appointment.DEFAULT_DURATION_MINUTES)) {
+            throw new InvalidRequestException("An appointment cannot extend past midnight");
+        }
+        String frequency = request.frequency() == null ? "" : request.frequency().trim().toUpperCase(Locale.ROOT);
+        if (FIXED_INTERVALS.containsKey(frequency)) {
+            return new Rule(frequency, FIXED_INTERVALS.get(frequency));
+        }
+        if (!frequency.equals("CUSTOM")) {
+            throw new InvalidRequestException("Invalid frequency: " + request.frequency()
+                    + ". Valid values are: WEEKLY, BIWEEKLY, CUSTOM");
+        }
+        Integer interval = request.intervalDays();
+        if (interval == null || interval < 1 || interval > MAX_INTERVAL_DAYS) {
+            throw new InvalidRequestException("CUSTOM frequency needs intervalDays between 1 and " + MAX_INTERVAL_DAYS);
+        }
+        return new Rule(frequency, interval);
+    }
+
+    /**
+     * Occurrences overlapping the doctor's or patient's appointments within the series span - one
+     * range query, then a binary search per occurrence
+     */
+    private Set<LocalDateTime> takenSlots(Long patientId, Long doctorId, List<LocalDateTime> dates) {
+        List<long[]> intervals = new ArrayList<>();
+        for (AppointmentRepository.SpanView span : appointmentRepository.findBlockingSpansBetween(
+                doctorId, patientId, dates.get(0).minusMinutes(Appointment.MAX_DURATION_MINUTES),
+                dates.get(dates.size() - 1).plusMinutes(Appointment.DEFAULT_DURATION_MINUTES))) {
+            long start = epochMinute(span.getAppointmentDate());
+            intervals.add(new long[]{start, start + span.getDurationMinutes()});
+        }
+        IntervalSet blocking = IntervalSet.of(intervals);
+        Set<LocalDateTime> taken = new HashSet<>();
+        for (LocalDateTime date : dates) {
+            long start = epochMinute(date);
+            if (blocking.overlaps(start, start + Appointment.DEFAULT_DURATION_MINUTES)) {
+                taken.add(date);
+            }
+        }
+        return taken;
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private void requireBookable(Long patientId, Long doctorId) {
+        if (!patientRepository.existsById(patientId)) {
+            throw new BookingRejectedException("PATIENT_NOT_FOUND", HttpStatus.NOT_FOUND,
+                    "Patient not found with id: " + patientId);
+        }
+        List<DoctorRepository.DoctorStatusView> doctor = doctorRepository.findStatusByIdIn(List.of(doctorId));
+        if (doctor.isEmpty()) {
+            throw new BookingRejectedException("DOCTOR_NOT_FOUND", HttpStatus.NOT_FOUND,
+                    "Doctor not found with id: " + doctorId);
+        }
+        if (!Boolean.TRUE.equals(doctor.get(0).getActive())) {
+            throw new BookingRejectedException("DOCTOR_INACTIVE", HttpStatus.CONFLICT,
+                    "Doctor with id " + doctorId + " is not currently available for appointments");
+        }
+    }
+
+    private void requireSeries(Long seriesId) {
+        if (!seriesRepository.existsById(seriesId)) {
+            throw new ResourceNotFoundException("Appointment series not found with id: " + seriesId);
+        }
+    }
+
+    /**
+     * Run a set-based change returning (id, doctor_id, appointment_date, previous_date) and publish its events
+     */
+    private SeriesChangeResponse apply(Long seriesId, String sql, String status, Object... args) {
+        List<AppointmentChangedEvent> changes = jdbcTemplate.query(sql, (rs, rowNum) -> new AppointmentChangedEvent(
+                rs.getLong("id"),
+                rs.getLong("doctor_id"),
+                rs.getTimestamp("previous_date").toLocalDateTime(),
+                rs.getTimestamp("appointment_date").toLocalDateTime(),
+                status,
+                rs.getInt("duration_minutes")), args);
+        changes.forEach(eventPublisher::publishEvent);
+        return new SeriesChangeResponse(seriesId, changes.size(),
+                changes.stream().map(AppointmentChangedEvent::appointmentId).toList());
+    }
+
+    private static String describe(Collection<LocalDateTime> dates) {
+        return dates.stream().sorted().limit(5).map(LocalDateTime::toString).collect(Collectors.joining(", "))
+                + (dates.size() > 5 ? " and " + (dates.size() - 5) + " more" : "");
+    }
+
+    private record Rule(String frequency, int intervalDays) {
+    }
+}
@@ -1,34 +1,64 @@
 package com.mhoms.mhomsservices.service;
 
+import com.mhoms.mhomsservices.exception.BookingRejectedException;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.PreconditionFailedException;
 import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
+import com.mhoms.mhomsservices.exception.SlotConflictException;
 import com.mhoms.mhomsservices.model.Appointment;
-import com.mhoms.mhomsservices.model.Doctor;
-import com.mhoms.mhomsservices.model.Patient;
 import com.mhoms.mhomsservices.repository.AppointmentRepository;
-import com.mhoms.mhomsservices.repository.DoctorRepository;
-import com.mhoms.mhomsservices.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 @Service
 @Transactional
 public class AppointmentService {
 
+    // PostgreSQL SQLSTATEs for unique_violation and exclusion_violation (overlapping appointments)
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
     private final AppointmentRepository appointmentRepository;
-    private final PatientRepository patientRepository;
-    private final DoctorRepository doctorRepository;
+    private final SlotOccupancyIndex slotOccupancyIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final GroupCommitBookingPipeline bookingPipeline;
+    private final int maxUpdateAttempts;
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder versionConflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesExhausted = new LongAdder();
+    private final LongAdder preconditionFailures = new LongAdder();
 
     public AppointmentService(AppointmentRepository appointmentRepository,
-                              PatientRepository patientRepository,
-                              DoctorRepository doctorRepository) {
+                              SlotOccupancyIndex slotOccupancyIndex,
+                              ApplicationEventPublisher eventPublisher,
+                              TransactionTemplate transactionTemplate,
+                              GroupCommitBookingPipeline bookingPipeline,
+                              @Value("${appointments.optimistic-lock.max-attempts:3}") int maxUpdateAttempts) {
         this.appointmentRepository = appointmentRepository;
-        this.patientRepository = patientRepository;
-        this.doctorRepository = doctorRepository;
+        this.slotOccupancyIndex = slotOccupancyIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.bookingPipeline = bookingPipeline;
+        this.maxUpdateAttempts = Math.max(1, maxUpdateAttempts);
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -37,43 +67,76 @@ public class AppointmentService {
 
     /**
      * Book a new appointment
-     * Validates patient, doctor existence and prevents double booking
+     * Validates patient, active doctor and the slot and inserts in a single statement,
+     * then loads the booked appointment for the response. Booking methods run outside a
+     * surrounding transaction, so a request waiting in the group-commit queue holds no connection.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Appointment bookAppointment(Long patientId, Long doctorId, LocalDateTime appointmentDate) {
-        // Validate patient exists
-        Patient patient = patientRepository.findById(patientId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Patient not found with id: " + patientId
-                ));
+        return bookAppointment(patientId, doctorId, appointmentDate, null);
+    }
 
-        // Validate doctor exists
-        Doctor doctor = doctorRepository.findById(doctorId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Doctor not found with id: " + doctorId
-                ));
+    /**
+     * Book a new appointment of the given length (default length when null)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Appointment bookAppointment(Long patientId, Long doctorId, LocalDateTime appointmentDate,
+                                       Integer durationMinutes) {
+        return getAppointmentById(book(patientId, doctorId, appointmentDate, durationMinutes));
+    }
 
-        // Check if doctor is active
-        if (!doctor.getActive()) {
-            throw new IllegalStateException(
-                    "Doctor '" + doctor.getName() + "' is not currently available for appointments"
-            );
-        }
+    /**
+     * Book without loading the result - one database round trip
+     *
+     * @return id of the new appointment
+     * @throws BookingRejectedException with a code telling why nothing was inserted
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Long book(Long patientId, Long doctorId, LocalDateTime appointmentDate) {
+        return book(patientId, doctorId, appointmentDate, null);
+    }
 
-        // Prevent double booking - check if doctor already has appointment at this time
-        if (appointmentRepository.existsByDoctorAndAppointmentDate(doctor, appointmentDate)) {
-            throw new IllegalStateException(
-                    "Doctor already has an appointment at this time - Please choose a different time slot"
-            );
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Long book(Long patientId, Long doctorId, LocalDateTime appointmentDate, Integer durationMinutes) {
+        BookingOutcome outcome = tryBook(patientId, doctorId, appointmentDate, durationMinutes);
+        if (!outcome.isBooked()) {
+            throw rejection(outcome.status(), patientId, doctorId);
         }
+        return outcome.appointmentId();
+    }
 
-        // Create and save appointment
-        Appointment appointment = new Appointment();
-        appointment.setPatient(patient);
-        appointment.setDoctor(doctor);
-        appointment.setAppointmentDate(appointmentDate);
-        appointment.setStatus("BOOKED");
+    /**
+     * Single conflict-aware statement using ids only; never throws for business outcomes
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookingOutcome tryBook(Long patientId, Long doctorId, LocalDateTime appointmentDate) {
+        return tryBook(patientId, doctorId, appointmentDate, null);
+    }
 
-        return appointmentRepository.save(appointment);
+    /**
+     * Same, for an appointment of the given length; an overlap with another live appointment
+     * of the doctor or the patient is reported like a taken slot. With group commit enabled
+     * the booking is queued and committed in a batch with concurrent ones.
+     *
+     * @throws com.mhoms.mhomsservices.exception.TooManyRequestsException when the group-commit queue is saturated
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BookingOutcome tryBook(Long patientId, Long doctorId, LocalDateTime appointmentDate,
+                                  Integer durationMinutes) {
+        int duration = requireValidSpan(appointmentDate, durationMinutes);
+        if (bookingPipeline.isEnabled()) {
+            // The pipeline publishes the change itself, inside the batch transaction
+            return bookingPipeline.submit(patientId, doctorId, appointmentDate, duration);
+        }
+        return transactionTemplate.execute(tx -> {
+            BookingOutcome outcome = BookingOutcome.from(
+                    appointmentRepository.insertIfBookable(patientId, doctorId, appointmentDate, duration));
+            if (outcome.isBooked()) {
+                eventPublisher.publishEvent(new AppointmentChangedEvent(
+                        outcome.appointmentId(), doctorId, null, appointmentDate, "BOOKED", duration));
+            }
+            return outcome;
+        });
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -216,39 +279,93 @@ public class AppointmentService {
 
     /**
      * Update appointment status
-     * Valid statuses: BOOKED, COMPLETED, CANCELLED
+     * Valid statuses: BOOKED, COMPLETED, CANCELLED, NO_SHOW
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Appointment updateAppointmentStatus(Long id, String status) {
-        Appointment appointment = getAppointmentById(id);
+        return updateAppointmentStatus(id, status, null);
+    }
 
+    /**
+     * Update appointment status, optionally only if the appointment is still at expectedVersion
+     * Setting a status is idempotent, so without an expected version a concurrent edit is
+     * retried against the fresh row; with one, the client has to re-read (412)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Appointment updateAppointmentStatus(Long id, String status, Long expectedVersion) {
         // Validate status
         String normalizedStatus = status.toUpperCase();
         if (!isValidStatus(normalizedStatus)) {
             throw new IllegalArgumentException(
-                    "Invalid status: " + status + ". Valid values are: BOOKED, COMPLETED, CANCELLED"
+                    "Invalid status: " + status + ". Valid values are: BOOKED, COMPLETED, CANCELLED, NO_SHOW"
             );
         }
 
-        appointment.setStatus(normalizedStatus);
-        return appointmentRepository.save(appointment);
+        return withVersionCheck(id, expectedVersion, () -> {
+            Appointment appointment = getAppointmentById(id);
+            checkVersion(appointment, expectedVersion);
+
+            appointment.setStatus(normalizedStatus);
+            Appointment saved = appointmentRepository.save(appointment);
+            appointmentRepository.flush();
+            publishChange(saved, saved.getAppointmentDate());
+            return saved;
+        });
     }
 
     /**
      * Reschedule appointment
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Appointment rescheduleAppointment(Long id, LocalDateTime newDate) {
-        Appointment appointment = getAppointmentById(id);
+        return rescheduleAppointment(id, newDate, null);
+    }
 
-        // Check if new time is available for the doctor
-        if (appointmentRepository.existsByDoctorAndAppointmentDate(
-                appointment.getDoctor(), newDate)) {
-            throw new IllegalStateException(
-                    "Doctor already has an appointment at this time"
-            );
-        }
+    /**
+     * Reschedule appointment, optionally only if it is still at expectedVersion
+     * The appointment keeps its length. The overlap checks are repeated on every attempt;
+     * the unique and exclusion constraints settle races with new bookings.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Appointment rescheduleAppointment(Long id, LocalDateTime newDate, Long expectedVersion) {
+        return withVersionCheck(id, expectedVersion, () -> {
+            Appointment appointment = getAppointmentById(id);
+            checkVersion(appointment, expectedVersion);
+
+            // Check if the new time is free for both the doctor and the patient
+            requireValidSpan(newDate, appointment.getDurationMinutes());
+            if (overlapsDoctorAppointment(appointment, newDate)) {
+                throw new SlotConflictException(
+                        "Doctor already has an appointment at this time"
+                );
+            }
+            if (appointmentRepository.existsPatientOverlap(appointment.getPatient().getId(), newDate,
+                    newDate.plusMinutes(appointment.getDurationMinutes()), appointment.getId())) {
+                throw new SlotConflictException(
+                        "Patient already has an appointment overlapping this time"
+                );
+            }
+
+            LocalDateTime previousDate = appointment.getAppointmentDate();
+            appointment.setAppointmentDate(newDate);
+            Appointment saved = saveSlot(appointment, "Doctor already has an appointment at this time");
+            publishChange(saved, previousDate);
+            return saved;
+        });
+    }
 
-        appointment.setAppointmentDate(newDate);
-        return appointmentRepository.save(appointment);
+    /**
+     * Optimistic-lock contention on appointment updates
+     */
+    public ContentionStats getContentionStats() {
+        long total = updates.sum();
+        long conflicts = versionConflicts.sum();
+        return new ContentionStats(total, conflicts, retries.sum(), retriesExhausted.sum(),
+                preconditionFailures.sum(), total == 0 ? 0.0 : (double) conflicts / total);
+    }
+
+    public record ContentionStats(long updates, long versionConflicts, long retries,
+                                  long retriesExhausted, long preconditionFailures, double conflictRate) {
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -258,8 +375,14 @@ public class AppointmentService {
     /**
      * Cancel appointment (soft delete - just changes status)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Appointment cancelAppointment(Long id) {
-        return updateAppointmentStatus(id, "CANCELLED");
+        return cancelAppointment(id, null);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Appointment cancelAppointment(Long id, Long expectedVersion) {
+        return updateAppointmentStatus(id, "CANCELLED", expectedVersion);
     }
 
     /**
@@ -268,6 +391,9 @@ public class AppointmentService {
     public void deleteAppointment(Long id) {
         Appointment appointment = getAppointmentById(id);
         appointmentRepository.delete(appointment);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(
+                appointment.getId(), appointment.getDoctor().getId(),
+                appointment.getAppointmentDate(), null, appointment.getStatus(), appointment.getDurationMinutes()));
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -318,9 +444,115 @@ public class AppointmentService {
     // HELPER METHODS
     // ═══════════════════════════════════════════════════════════════
 
+    /**
+     * In-memory interval check first; a reported overlap may be stale or the appointment
+     * itself, so confirm it against the database
+     */
+    private boolean overlapsDoctorAppointment(Appointment appointment, LocalDateTime newDate) {
+        Long doctorId = appointment.getDoctor().getId();
+        int duration = appointment.getDurationMinutes();
+        return slotOccupancyIndex.mightOverlap(doctorId, newDate, duration)
+                && appointmentRepository.existsDoctorOverlap(doctorId, newDate, newDate.plusMinutes(duration),
+                appointment.getId());
+    }
+
+    /**
+     * Length in minutes (the default when null); an appointment must end by midnight of its day
+     */
+    private static int requireValidSpan(LocalDateTime appointmentDate, Integer durationMinutes) {
+        int duration = durationMinutes == null ? Appointment.DEFAULT_DURATION_MINUTES : durationMinutes;
+        if (duration < 1 || duration > Appointment.MAX_DURATION_MINUTES) {
+            throw new InvalidRequestException(
+                    "Duration must be between 1 and " + Appointment.MAX_DURATION_MINUTES + " minutes");
+        }
+        if (!Appointment.endsSameDay(appointmentDate, duration)) {
+            throw new InvalidRequestException("An appointment cannot extend past midnight");
+        }
+        return duration;
+    }
+
+    /**
+     * Save and flush so a booking that lost the race on the unique or overlap constraints becomes a 409
+     */
+    private Appointment saveSlot(Appointment appointment, String conflictMessage) {
+        try {
+            Appointment saved = appointmentRepository.save(appointment);
+            appointmentRepository.flush();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (isSlotViolation(e)) {
+                throw new SlotConflictException(conflictMessage);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Run one update per transaction; a version conflict rolls that transaction back and,
+     * unless the client pinned a version, the update is retried on the current row
+     */
+    private Appointment withVersionCheck(Long id, Long expectedVersion, Supplier<Appointment> update) {
+        updates.increment();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> update.get());
+            } catch (OptimisticLockingFailureException e) {
+                versionConflicts.increment();
+                if (expectedVersion != null) {
+                    preconditionFailures.increment();
+                    throw new PreconditionFailedException(
+                            "Appointment " + id + " was modified by another request", null);
+                }
+                if (attempt >= maxUpdateAttempts) {
+                    retriesExhausted.increment();
+                    throw new IllegalStateException(
+                            "Appointment " + id + " is being modified concurrently - please retry");
+                }
+                retries.increment();
+            }
+        }
+    }
+
+    private void checkVersion(Appointment appointment, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(appointment.getVersion())) {
+            preconditionFailures.increment();
+            throw new PreconditionFailedException(
+                    "Appointment " + appointment.getId() + " has changed since version " + expectedVersion,
+                    appointment.getVersion());
+        }
+    }
+
+    private static boolean isSlotViolation(DataIntegrityViolationException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLException sql
+                && (UNIQUE_VIOLATION.equals(sql.getSQLState()) || EXCLUSION_VIOLATION.equals(sql.getSQLState()));
+    }
+
+    private void publishChange(Appointment appointment, LocalDateTime previousDate) {
+        eventPublisher.publishEvent(new AppointmentChangedEvent(
+                appointment.getId(), appointment.getDoctor().getId(),
+                previousDate, appointment.getAppointmentDate(), appointment.getStatus(),
+                appointment.getDurationMinutes()));
+    }
+
+    private static BookingRejectedException rejection(BookingOutcome.Status status, Long patientId, Long doctorId) {
+        return switch (status) {
+            case PATIENT_NOT_FOUND -> new BookingRejectedException(status.name(), HttpStatus.NOT_FOUND,
+                    "Patient not found with id: " + patientId);
+            case DOCTOR_NOT_FOUND -> new BookingRejectedException(status.name(), HttpStatus.NOT_FOUND,
+                    "Doctor not found with id: " + doctorId);
+            case DOCTOR_INACTIVE -> new BookingRejectedException(status.name(), HttpStatus.CONFLICT,
+                    "Doctor with id " + doctorId + " is not currently available for appointments");
+            case PATIENT_BUSY -> new BookingRejectedException(status.name(), HttpStatus.CONFLICT,
+                    "Patient with id " + patientId + " already has an appointment overlapping this time");
+            default -> new BookingRejectedException(status.name(), HttpStatus.CONFLICT,
+                    "Doctor already has an appointment at this time - Please choose a different time slot");
+        };
+    }
+
     private boolean isValidStatus(String status) {
         return status.equals("BOOKED") ||
                 status.equals("COMPLETED") ||
-                status.equals("CANCELLED");
+                status.equals("CANCELLED") ||
+                status.equals("NO_SHOW");
     }
 }
\ No newline at end of file
@@ -3,9 +3,14 @@ package com.mhoms.mhomsservices.service;
 import com.mhoms.mhomsservices.dto.AuthResponse;
 import com.mhoms.mhomsservices.dto.LoginRequest;
 import com.mhoms.mhomsservices.dto.RegisterRequest;
+import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
 import com.mhoms.mhomsservices.model.User;
 import com.mhoms.mhomsservices.repository.UserRepository;
 import com.mhoms.mhomsservices.security.JwtUtil;
+import com.mhoms.mhomsservices.security.ParsedToken;
+import com.mhoms.mhomsservices.security.RefreshTokenReuseException;
+import com.mhoms.mhomsservices.security.RefreshTokenStore;
+import io.jsonwebtoken.JwtException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -24,15 +29,18 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenStore refreshTokenStore;
 
     public AuthService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
                        JwtUtil jwtUtil,
-                       AuthenticationManager authenticationManager) {
+                       AuthenticationManager authenticationManager,
+                       RefreshTokenStore refreshTokenStore) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
         this.authenticationManager = authenticationManager;
+        this.refreshTokenStore = refreshTokenStore;
     }
 
     /**
@@ -64,6 +72,7 @@ public class AuthService {
         // Generate tokens
         String accessToken = jwtUtil.generateToken(savedUser);
         String refreshToken = jwtUtil.generateRefreshToken(savedUser);
+        refreshTokenStore.record(refreshToken, savedUser);
 
         // Return response
         return new AuthResponse(
@@ -97,6 +106,7 @@ public class AuthService {
         // Generate tokens
         String accessToken = jwtUtil.generateToken(user);
         String refreshToken = jwtUtil.generateRefreshToken(user);
+        refreshTokenStore.record(refreshToken, user);
 
         // Return response
         return new AuthResponse(
@@ -111,29 +121,38 @@ public class AuthService {
     }
 
     /**
-     * Refresh access token using refresh token
+     * Exchange a refresh token for a new access token and a rotated refresh token
+     * Presenting an already-rotated token revokes every session of the user
      */
+    @Transactional(noRollbackFor = RefreshTokenReuseException.class)
     public AuthResponse refreshToken(String refreshToken) {
 
-        // Extract username from refresh token
-        String username = jwtUtil.extractUsername(refreshToken);
-
-        // Load user
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("User not found"));
+        // Verify signature and expiry once
+        ParsedToken token;
+        try {
+            token = jwtUtil.parseToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid refresh token");
+        }
 
-        // Validate refresh token
-        if (!jwtUtil.validateToken(refreshToken, user)) {
+        // Only rotatable refresh tokens are accepted
+        if (!token.isRefreshToken() || token.tokenId() == null || token.isExpired()) {
             throw new IllegalStateException("Invalid refresh token");
         }
 
-        // Generate new access token
+        // Load user
+        User user = userRepository.findByUsername(token.subject())
+                .orElseThrow(() -> new IllegalStateException("User not found"));
+
+        // Issue replacement tokens and retire the presented one
         String newAccessToken = jwtUtil.generateToken(user);
+        String newRefreshToken = jwtUtil.generateRefreshToken(user);
+        refreshTokenStore.rotate(token, newRefreshToken, user);
 
-        // Return response with new access token
+        // Return response with rotated refresh token
         return new AuthResponse(
                 newAccessToken,
-                refreshToken, // Keep the same refresh token
+                newRefreshToken,
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
@@ -141,4 +160,14 @@ public class AuthService {
                 user.getRole()
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Revoke every refresh token of a user
+     */
+    public int revokeAllSessions(String username) {
+        if (!userRepository.existsByUsername(username)) {
+            throw new ResourceNotFoundException("User not found: " + username);
+        }
+        return refreshTokenStore.revokeAllForUser(username);
+    }
+}
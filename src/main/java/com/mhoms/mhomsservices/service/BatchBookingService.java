@@ -0,0 +1,289 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.BatchBookingResponse;
+import com.mhoms.mhomsservices.dto.BatchBookingResponse.ItemResult;
+import com.mhoms.mhomsservices.dto.BatchBookingResponse.ItemStatus;
+import com.mhoms.mhomsservices.dto.BookingRequest;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.model.Appointment;
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import com.mhoms.mhomsservices.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Batch appointment booking for front-desk bulk scheduling and integrations
+ * Items are processed in chunks: validate, dedupe within the batch, resolve patients,
+ * doctors and taken slots with one query each, then insert with one JDBC batch.
+ * Each insert re-checks patient, active doctor and slot in SQL, so a row changed by
+ * a concurrent request only fails its own item.
+ */
+@Service
+public class BatchBookingService {
+
+    // Items are booked with the default length; an overlap with a live appointment of the
+    // doctor or patient skips the row like a taken slot
+    private static final String INSERT_APPOINTMENT_SQL =
+            "INSERT INTO appointments (id, patient_id, doctor_id, appointment_date, duration_minutes, status) " +
+            "SELECT nextval('appointments_seq'), p.id, d.id, t.start_at, " + Appointment.DEFAULT_DURATION_MINUTES + ", 'BOOKED' " +
+            "FROM (SELECT CAST(? AS bigint) AS patient_id, CAST(? AS bigint) AS doctor_id, " +
+            "CAST(? AS timestamp(6)) AS start_at) t " +
+            "JOIN doctors d ON d.id = t.doctor_id AND d.active JOIN patients p ON p.id = t.patient_id " +
+            "WHERE NOT EXISTS (" + OverlapSql.liveOverlapping("doctor_id", Appointment.DEFAULT_DURATION_MINUTES) + ") " +
+            "AND NOT EXISTS (" + OverlapSql.liveOverlapping("patient_id", Appointment.DEFAULT_DURATION_MINUTES) + ") " +
+            "ON CONFLICT DO NOTHING";
+
+    private final AppointmentRepository appointmentRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public BatchBookingService(AppointmentRepository appointmentRepository,
+                               PatientRepository patientRepository,
+                               DoctorRepository doctorRepository,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${appointments.batch.chunk-size:500}") int chunkSize,
+                               @Value("${appointments.batch.max-items:5000}") int maxItems) {
+        this.appointmentRepository = appointmentRepository;
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxItems = maxItems;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // BATCH BOOKING
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Book every item that can be booked
+     * Independent mode commits chunk by chunk; all-or-nothing mode runs the whole batch
+     * in one transaction and rolls it back when any item fails.
+     */
+    public BatchBookingResponse bookAll(List<BookingRequest> requests, boolean allOrNothing) {
+        if (requests.size() > maxItems) {
+            throw new InvalidRequestException("Batch exceeds the limit of " + maxItems + " items");
+        }
+
+        ItemResult[] results = new ItemResult[requests.size()];
+        Set<SlotKey> seenSlots = new HashSet<>();
+        boolean committed;
+
+        if (allOrNothing) {
+            committed = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+                List<Integer> candidates = new ArrayList<>(requests.size());
+                for (int from = 0; from < requests.size(); from += chunkSize) {
+                    candidates.addAll(resolve(requests, from, Math.min(requests.size(), from + chunkSize), results, seenSlots));
+                }
+                // Nothing is inserted unless every item passed the checks
+                boolean ok = candidates.size() == requests.size();
+                for (int from = 0; ok && from < candidates.size(); from += chunkSize) {
+                    ok = insert(requests, candidates.subList(from, Math.min(candidates.size(), from + chunkSize)), results);
+                }
+                if (!ok) {
+                    tx.setRollbackOnly();
+                    markRolledBack(results);
+                }
+                return ok;
+            }));
+        } else {
+            for (int from = 0; from < requests.size(); from += chunkSize) {
+                int start = from;
+                int end = Math.min(requests.size(), from + chunkSize);
+                transactionTemplate.execute(tx -> {
+                    List<Integer> candidates = resolve(requests, start, end, results, seenSlots);
+                    return candidates.isEmpty() || insert(requests, candidates, results);
+                });
+            }
+            committed = true;
+        }
+        return toResponse(results, allOrNothing, committed);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Set-wise checks for items [start, end); fills results for failed items and returns the rest
+     */
+    private List<Integer> resolve(List<BookingRequest> requests, int start, int end,
+                                  ItemResult[] results, Set<SlotKey> seenSlots) {
+        List<Integer> candidates = new ArrayList<>(end - start);
+        Set<Long> patientIds = new HashSet<>();
+        Set<Long> doctorIds = new HashSet<>();
+        Set<LocalDateTime> dates = new HashSet<>();
+
+        // 1. Validate and dedupe within the batch
+        for (int i = start; i < end; i++) {
+            BookingRequest request = requests.get(i);
+            String violation = firstViolation(request);
+            if (violation != null) {
+                results[i] = new ItemResult(i + 1, null, ItemStatus.INVALID, violation);
+            } else if (!seenSlots.add(new SlotKey(request.doctorId(), request.appointmentDate()))) {
+                results[i] = new ItemResult(i + 1, null, ItemStatus.DUPLICATE_IN_BATCH, "Slot repeated in batch");
+            } else {
+                patientIds.add(request.patientId());
+                doctorIds.add(request.doctorId());
+                dates.add(request.appointmentDate());
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        // 2. One query each for patients, doctors and taken slots
+        Set<Long> existingPatients = new HashSet<>(patientRepository.findExistingIds(patientIds));
+        Map<Long, Boolean> doctorActive = new HashMap<>();
+        for (DoctorRepository.DoctorStatusView doctor : doctorRepository.findStatusByIdIn(doctorIds)) {
+            doctorActive.put(doctor.getId(), Boolean.TRUE.equals(doctor.getActive()));
+        }
+        Set<SlotKey> takenSlots = new HashSet<>();
+        for (AppointmentRepository.SlotView slot : appointmentRepository.findSlotsByDoctorsAndDates(doctorIds, dates)) {
+            takenSlots.add(new SlotKey(slot.getDoctorId(), slot.getAppointmentDate()));
+        }
+
+        candidates.removeIf(i -> {
+            BookingRequest request = requests.get(i);
+            ItemStatus status = null;
+            String message = null;
+            if (!existingPatients.contains(request.patientId())) {
+                status = ItemStatus.PATIENT_NOT_FOUND;
+                message = "Patient not found with id: " + request.patientId();
+            } else if (!doctorActive.containsKey(request.doctorId())) {
+                status = ItemStatus.DOCTOR_NOT_FOUND;
+                message = "Doctor not found with id: " + request.doctorId();
+            } else if (!doctorActive.get(request.doctorId())) {
+                status = ItemStatus.DOCTOR_INACTIVE;
+                message = "Doctor with id " + request.doctorId() + " is not currently available for appointments";
+            } else if (takenSlots.contains(new SlotKey(request.doctorId(), request.appointmentDate()))) {
+                status = ItemStatus.SLOT_TAKEN;
+                message = "Doctor already has an appointment at this time";
+            }
+            if (status == null) {
+                return false;
+            }
+            results[i] = new ItemResult(i + 1, null, status, message);
+            return true;
+        });
+        return candidates;
+    }
+
+    /**
+     * Insert the candidates with one JDBC batch; returns true when every one was inserted
+     */
+    private boolean insert(List<BookingRequest> requests, List<Integer> candidates, ItemResult[] results) {
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_APPOINTMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int c) throws SQLException {
+                BookingRequest request = requests.get(candidates.get(c));
+                ps.setLong(1, request.patientId());
+                ps.setLong(2, request.doctorId());
+                ps.setTimestamp(3, Timestamp.valueOf(request.appointmentDate()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return candidates.size();
+            }
+        });
+
+        // Ids are read back with one query; the unique slot maps each row to its item
+        Set<Long> doctorIds = new HashSet<>();
+        Set<LocalDateTime> dates = new HashSet<>();
+        for (int i : candidates) {
+            doctorIds.add(requests.get(i).doctorId());
+            dates.add(requests.get(i).appointmentDate());
+        }
+        Map<SlotKey, AppointmentRepository.SlotView> inserted = new HashMap<>();
+        for (AppointmentRepository.SlotView slot : appointmentRepository.findSlotsByDoctorsAndDates(doctorIds, dates)) {
+            inserted.put(new SlotKey(slot.getDoctorId(), slot.getAppointmentDate()), slot);
+        }
+
+        boolean allBooked = true;
+        for (int c = 0; c < candidates.size(); c++) {
+            int i = candidates.get(c);
+            BookingRequest request = requests.get(i);
+            AppointmentRepository.SlotView slot = inserted.get(new SlotKey(request.doctorId(), request.appointmentDate()));
+            // 0 = the slot overlaps another appointment of the doctor or patient, or a concurrent
+            // request took it or changed the patient/doctor; negative = driver gave no count
+            if (counts[c] != 0 && slot != null && request.patientId().equals(slot.getPatientId())) {
+                results[i] = new ItemResult(i + 1, slot.getId(), ItemStatus.BOOKED, null);
+                eventPublisher.publishEvent(new AppointmentChangedEvent(
+                        slot.getId(), request.doctorId(), null, request.appointmentDate(), "BOOKED"));
+            } else {
+                results[i] = new ItemResult(i + 1, null, ItemStatus.SLOT_TAKEN,
+                        "Slot overlaps another appointment, or the patient or doctor changed concurrently");
+                allBooked = false;
+            }
+        }
+        return allBooked;
+    }
+
+    private static String firstViolation(BookingRequest request) {
+        if (request == null) {
+            return "Item is empty";
+        }
+        if (request.patientId() == null) {
+            return "Patient id is required";
+        }
+        if (request.doctorId() == null) {
+            return "Doctor id is required";
+        }
+        if (request.appointmentDate() == null) {
+            return "Appointment date is required";
+        }
+        if (!Appointment.endsSameDay(request.appointmentDate(), Appointment.DEFAULT_DURATION_MINUTES)) {
+            return "An appointment cannot extend past midnight";
+        }
+        return null;
+    }
+
+    private static void markRolledBack(ItemResult[] results) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null || results[i].status() == ItemStatus.BOOKED) {
+                results[i] = new ItemResult(i + 1, null, ItemStatus.ROLLED_BACK, "Batch rolled back: another item failed");
+            }
+        }
+    }
+
+    private static BatchBookingResponse toResponse(ItemResult[] results, boolean allOrNothing, boolean committed) {
+        int booked = 0;
+        for (ItemResult result : results) {
+            if (result.status() == ItemStatus.BOOKED) {
+                booked++;
+            }
+        }
+        return new BatchBookingResponse(results.length, booked, results.length - booked,
+                allOrNothing, committed, List.of(results));
+    }
+
+    private record SlotKey(Long doctorId, LocalDateTime appointmentDate) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+
+/**
+ * Result of a single-statement booking attempt
+ * appointmentId is only set when the appointment was inserted
+ */
+public record BookingOutcome(Status status, Long appointmentId) {
+
+    public enum Status {
+        BOOKED,
+        PATIENT_NOT_FOUND,
+        DOCTOR_NOT_FOUND,
+        DOCTOR_INACTIVE,
+        PATIENT_BUSY,
+        SLOT_TAKEN
+    }
+
+    public static BookingOutcome from(AppointmentRepository.BookingResultView result) {
+        return of(result.getPatientFound(), result.getDoctorFound(), result.getDoctorActive(),
+                result.getPatientBusy(), result.getAppointmentId());
+    }
+
+    /**
+     * Outcome from the flags of a conflict-aware insert; anything that blocked an otherwise valid row is a taken slot
+     */
+    public static BookingOutcome of(boolean patientFound, boolean doctorFound, boolean doctorActive,
+                                    boolean patientBusy, Long appointmentId) {
+        if (appointmentId != null) {
+            return new BookingOutcome(Status.BOOKED, appointmentId);
+        }
+        if (!patientFound) {
+            return new BookingOutcome(Status.PATIENT_NOT_FOUND, null);
+        }
+        if (!doctorFound) {
+            return new BookingOutcome(Status.DOCTOR_NOT_FOUND, null);
+        }
+        if (!doctorActive) {
+            return new BookingOutcome(Status.DOCTOR_INACTIVE, null);
+        }
+        if (patientBusy) {
+            return new BookingOutcome(Status.PATIENT_BUSY, null);
+        }
+        return new BookingOutcome(Status.SLOT_TAKEN, null);
+    }
+
+    public boolean isBooked() {
+        return status == Status.BOOKED;
+    }
+}
@@ -0,0 +1,174 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.BulkStatusRequest;
+import com.mhoms.mhomsservices.dto.BulkStatusResponse;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based status transitions, e.g. completing a clinic day in one request
+ * The selected rows are locked, and those in an allowed source status are updated,
+ * all in a single statement that also reports every selected row. Versions are
+ * bumped like an entity update so concurrent If-Match edits see the change, and
+ * one change event per updated row keeps the caches in step.
+ */
+@Service
+public class BulkStatusService {
+
+    // Statuses an appointment may move from, per target status
+    private static final Map<String, Set<String>> ALLOWED_SOURCES = Map.of(
+            "COMPLETED", Set.of("BOOKED", "NO_SHOW"),
+            "CANCELLED", Set.of("BOOKED"),
+            "NO_SHOW", Set.of("BOOKED"),
+            "BOOKED", Set.of("CANCELLED", "COMPLETED", "NO_SHOW")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxIds;
+    private final int maxRangeDays;
+
+    public BulkStatusService(JdbcTemplate jdbcTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${appointments.bulk-status.max-ids:5000}") int maxIds,
+                             @Value("${appointments.bulk-status.max-range-days:31}") int maxRangeDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxIds = maxIds;
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    /**
+     * Move every selected appointment that can make the transition to the target status
+     */
+    @Transactional
+    public BulkStatusResponse transition(BulkStatusRequest request) {
+        String target = normalize(request.targetStatus());
+        if (target == null || !ALLOWED_SOURCES.containsKey(target)) {
+            throw new InvalidRequestException("Invalid targetStatus: " + request.targetStatus()
+                    + ". Valid values are: BOOKED, COMPLETED, CANCELLED, NO_SHOW");
+        }
+        List<String> sources = sources(target, normalize(request.currentStatus()));
+
+        List<Object> args = new ArrayList<>();
+        String where = selection(request, args);
+        args.add(target);
+        args.addAll(sources);
+
+        String sql = "WITH m AS (SELECT id, doctor_id, appointment_date, UPPER(status) AS status " +
+                "FROM appointments WHERE " + where + " FOR UPDATE), " +
+                "u AS (UPDATE appointments a SET status = ?, version = a.version + 1 FROM m " +
+                "WHERE a.id = m.id AND m.status IN (" + placeholders(sources.size()) + ") RETURNING a.id) " +
+                "SELECT m.id, m.doctor_id, m.appointment_date, m.status, u.id IS NOT NULL AS updated " +
+                "FROM m LEFT JOIN u ON u.id = m.id";
+
+        List<MatchedRow> rows = jdbcTemplate.query(sql, (rs, rowNum) -> new MatchedRow(
+                rs.getLong("id"),
+                rs.getLong("doctor_id"),
+                rs.getTimestamp("appointment_date").toLocalDateTime(),
+                rs.getString("status"),
+                rs.getBoolean("updated")), args.toArray());
+
+        Map<String, Integer> updatedFrom = new TreeMap<>();
+        int updated = 0;
+        for (MatchedRow row : rows) {
+            if (row.updated()) {
+                updated++;
+                updatedFrom.merge(row.previousStatus(), 1, Integer::sum);
+                // Published in the transaction; listeners run after commit
+                eventPublisher.publishEvent(new AppointmentChangedEvent(
+                        row.id(), row.doctorId(), row.appointmentDate(), row.appointmentDate(), target));
+            }
+        }
+        return new BulkStatusResponse(target, rows.size(), updated, rows.size() - updated, updatedFrom);
+    }
+
+    record MatchedRow(long id, long doctorId, LocalDateTime appointmentDate, String previousStatus, boolean updated) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * WHERE clause for the selection; refuses anything that is not bounded by ids or a date range
+     */
+    private String selection(BulkStatusRequest request, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        List<Long> ids = request.ids() == null ? List.of() : request.ids();
+        boolean hasRange = request.startDate() != null && request.endDate() != null;
+
+        if (ids.isEmpty() && !hasRange) {
+            throw new InvalidRequestException("Select appointments by ids or by startDate and endDate");
+        }
+        if (!ids.isEmpty()) {
+            if (ids.size() > maxIds) {
+                throw new InvalidRequestException("At most " + maxIds + " ids can be updated at once");
+            }
+            if (ids.contains(null)) {
+                throw new InvalidRequestException("ids must not contain null");
+            }
+            List<Long> distinct = ids.stream().distinct().toList();
+            conditions.add("id IN (" + placeholders(distinct.size()) + ")");
+            args.addAll(distinct);
+        }
+        if (request.startDate() != null || request.endDate() != null) {
+            if (!hasRange) {
+                throw new InvalidRequestException("startDate and endDate must be given together");
+            }
+            if (request.endDate().isBefore(request.startDate())) {
+                throw new InvalidRequestException("endDate must not be before startDate");
+            }
+            if (Duration.between(request.startDate(), request.endDate()).toDays() >= maxRangeDays) {
+                throw new InvalidRequestException("Date range must be shorter than " + maxRangeDays + " days");
+            }
+            conditions.add("appointment_date >= ? AND appointment_date <= ?");
+            args.add(Timestamp.valueOf(request.startDate()));
+            args.add(Timestamp.valueOf(request.endDate()));
+        }
+        if (request.doctorId() != null) {
+            conditions.add("doctor_id = ?");
+            args.add(request.doctorId());
+        }
+        return String.join(" AND ", conditions);
+    }
+
+    /**
+     * Source statuses to update: the allowed ones, narrowed to currentStatus when given
+     */
+    private static List<String> sources(String target, String current) {
+        Set<String> allowed = ALLOWED_SOURCES.get(target);
+        if (current == null) {
+            return allowed.stream().sorted().toList();
+        }
+        if (!allowed.contains(current)) {
+            throw new InvalidRequestException("Cannot move appointments from " + current + " to " + target
+                    + "; allowed from: " + allowed.stream().sorted().collect(Collectors.joining(", ")));
+        }
+        return List.of(current);
+    }
+
+    private static String normalize(String status) {
+        return status == null || status.isBlank() ? null : status.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
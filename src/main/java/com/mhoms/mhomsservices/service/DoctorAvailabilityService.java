@@ -0,0 +1,319 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.cache.CacheStats;
+import com.mhoms.mhomsservices.cache.ExpiringCache;
+import com.mhoms.mhomsservices.dto.DoctorAvailabilityResponse;
+import com.mhoms.mhomsservices.dto.EarliestAvailabilityResponse;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
+import com.mhoms.mhomsservices.model.Doctor;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Free-slot schedules per doctor per day
+ * Each day's schedule is derived once from the working hours and the slot occupancy
+ * index, cached, and dropped after a committed book, cancel or reschedule touches
+ * that day. Responses carry one hex bitmask per day instead of a list of times.
+ */
+@Service
+public class DoctorAvailabilityService {
+
+    public static final int MIN_SLOT_MINUTES = 5;
+    public static final int DEFAULT_EARLIEST_LIMIT = 10;
+    public static final int MAX_EARLIEST_LIMIT = 100;
+
+    private final DoctorRepository doctorRepository;
+    private final SlotOccupancyIndex slotOccupancyIndex;
+    private final LocalTime workdayStart;
+    private final LocalTime workdayEnd;
+    private final Set<DayOfWeek> workingDays;
+    private final int defaultSlotMinutes;
+    private final int maxRangeDays;
+    private final long ttlMillis;
+    private final ExpiringCache<DayKey, Map<Integer, BitSet>> schedules;
+
+    public DoctorAvailabilityService(DoctorRepository doctorRepository,
+                                     SlotOccupancyIndex slotOccupancyIndex,
+                                     @Value("${appointments.working-hours.start:09:00}") String workdayStart,
+                                     @Value("${appointments.working-hours.end:17:00}") String workdayEnd,
+                                     @Value("${appointments.working-hours.days:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}")
+                                     DayOfWeek[] workingDays,
+                                     @Value("${appointments.availability.default-slot-minutes:30}") int defaultSlotMinutes,
+                                     @Value("${appointments.availability.max-range-days:31}") int maxRangeDays,
+                                     @Value("${appointments.availability.ttl-seconds:300}") long ttlSeconds,
+                                     @Value("${appointments.availability.max-days:20000}") int maxDays) {
+        this.doctorRepository = doctorRepository;
+        this.slotOccupancyIndex = slotOccupancyIndex;
+        this.workdayStart = LocalTime.parse(workdayStart);
+        this.workdayEnd = LocalTime.parse(workdayEnd);
+        if (!this.workdayStart.isBefore(this.workdayEnd)) {
+            throw new IllegalArgumentException("Working hours must start before they end");
+        }
+        this.workingDays = workingDays.length == 0 ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.of(workingDays[0], workingDays);
+        this.defaultSlotMinutes = defaultSlotMinutes;
+        this.maxRangeDays = maxRangeDays;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.schedules = new ExpiringCache<>(maxDays);
+    }
+
+    /**
+     * Free slots of a doctor on the working days in [from, to]
+     * Null arguments default to today, a one-week range and the configured slot length.
+     */
+    public DoctorAvailabilityResponse getAvailability(Long doctorId, LocalDate from, LocalDate to, Integer slot) {
+        LocalDate first = from != null ? from : LocalDate.now();
+        LocalDate last = to != null ? to : first.plusDays(6);
+        int slotMinutes = slot != null ? slot : defaultSlotMinutes;
+        validate(first, last, slotMinutes);
+
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found with id: " + doctorId));
+        boolean active = Boolean.TRUE.equals(doctor.getActive());
+
+        int slots = slotsPerDay(slotMinutes);
+        List<DoctorAvailabilityResponse.Day> days = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            if (!workingDays.contains(date.getDayOfWeek())) {
+                continue;
+            }
+            // Inactive doctors and past days keep their shape but offer nothing
+            BitSet free = active && !date.isBefore(now.toLocalDate())
+                    ? withoutPastSlots(schedule(doctorId, date, slotMinutes), date, slotMinutes, now)
+                    : new BitSet();
+            days.add(new DoctorAvailabilityResponse.Day(date, workdayStart, slots, free.cardinality(), toHex(free, slots)));
+        }
+        return new DoctorAvailabilityResponse(doctorId, active, first, last, slotMinutes, days);
+    }
+
+    /**
+     * Earliest free slots from a time on across the active doctors of a specialization
+     * Each doctor's free slots form a sorted stream over the cached day schedules; the
+     * streams are merged through a heap, so only the days the answer needs are read.
+     * The first time the merge reaches a day, it is loaded for every doctor in one query.
+     */
+    public EarliestAvailabilityResponse findEarliest(String specialization, LocalDateTime from,
+                                                     Integer limit, Integer slot) {
+        if (specialization == null || specialization.isBlank()) {
+            throw new InvalidRequestException("specialization is required");
+        }
+        int count = limit != null ? limit : DEFAULT_EARLIEST_LIMIT;
+        if (count < 1 || count > MAX_EARLIEST_LIMIT) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_EARLIEST_LIMIT);
+        }
+        int slotMinutes = slot != null ? slot : defaultSlotMinutes;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime notBefore = from == null || from.isBefore(now) ? now : from;
+        LocalDate lastDay = notBefore.toLocalDate().plusDays(maxRangeDays - 1L);
+        validate(notBefore.toLocalDate(), lastDay, slotMinutes);
+
+        Map<Long, String> names = new LinkedHashMap<>();
+        for (DoctorRepository.DoctorNameView doctor : doctorRepository.findActiveBySpecialization(specialization.trim())) {
+            names.put(doctor.getId(), doctor.getName());
+        }
+        Set<LocalDate> loadedDays = new HashSet<>();
+        Consumer<LocalDate> dayLoader = date -> {
+            if (loadedDays.add(date)) {
+                slotOccupancyIndex.preload(names.keySet(), date);
+            }
+        };
+
+        PriorityQueue<SlotCursor> heads = new PriorityQueue<>(
+                Comparator.comparing(SlotCursor::current).thenComparing(SlotCursor::doctorId));
+        for (Long doctorId : names.keySet()) {
+            SlotCursor cursor = new SlotCursor(doctorId, notBefore, lastDay, slotMinutes, dayLoader);
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        List<EarliestAvailabilityResponse.Opening> openings = new ArrayList<>(count);
+        while (openings.size() < count && !heads.isEmpty()) {
+            SlotCursor next = heads.poll();
+            openings.add(new EarliestAvailabilityResponse.Opening(
+                    next.current(), next.doctorId(), names.get(next.doctorId())));
+            if (next.advance()) {
+                heads.add(next);
+            }
+        }
+        return new EarliestAvailabilityResponse(specialization.trim(), notBefore, lastDay.atTime(workdayEnd),
+                slotMinutes, names.size(), openings);
+    }
+
+    /**
+     * Drop cached schedules of the days a committed change touched
+     * Ordered after the occupancy index listener, so a recompute sees the updated day.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        invalidate(event.doctorId(), event.previousDate());
+        invalidate(event.doctorId(), event.newDate());
+    }
+
+    /**
+     * Drop every cached schedule of a doctor, e.g. after a bulk change made outside the entity path
+     */
+    public void invalidateDoctor(Long doctorId) {
+        schedules.invalidateIf(key -> key.doctorId().equals(doctorId));
+    }
+
+    public CacheStats getCacheStats() {
+        return schedules.stats();
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void validate(LocalDate from, LocalDate to, int slotMinutes) {
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new InvalidRequestException("Availability range is limited to " + maxRangeDays + " days");
+        }
+        long workdayMinutes = Duration.between(workdayStart, workdayEnd).toMinutes();
+        if (slotMinutes < MIN_SLOT_MINUTES || slotMinutes > workdayMinutes) {
+            throw new InvalidRequestException(
+                    "Slot length must be between " + MIN_SLOT_MINUTES + " and " + workdayMinutes + " minutes");
+        }
+    }
+
+    private BitSet schedule(Long doctorId, LocalDate date, int slotMinutes) {
+        DayKey key = new DayKey(doctorId, date);
+        Map<Integer, BitSet> bySlotLength = schedules.get(key);
+        if (bySlotLength == null) {
+            bySlotLength = new ConcurrentHashMap<>();
+            schedules.putWithTtl(key, bySlotLength, ttlMillis);
+        }
+        // An invalidation meanwhile detaches the map, so a stale compute is never served again
+        return bySlotLength.computeIfAbsent(slotMinutes, length ->
+                slotOccupancyIndex.freeSlotMask(doctorId, date, workdayStart, workdayEnd, length));
+    }
+
+    private void invalidate(Long doctorId, LocalDateTime time) {
+        if (time != null) {
+            schedules.invalidate(new DayKey(doctorId, time.toLocalDate()));
+        }
+    }
+
+    private BitSet withoutPastSlots(BitSet cached, LocalDate date, int slotMinutes, LocalDateTime now) {
+        if (!date.equals(now.toLocalDate()) || now.toLocalTime().isBefore(workdayStart)) {
+            return cached;
+        }
+        // Cached sets are shared, so clear the elapsed slots on a copy
+        long elapsed = Duration.between(workdayStart, now.toLocalTime()).toMinutes();
+        BitSet free = (BitSet) cached.clone();
+        free.clear(0, (int) Math.min(Integer.MAX_VALUE, elapsed / slotMinutes + 1));
+        return free;
+    }
+
+    private int slotsPerDay(int slotMinutes) {
+        return (int) (Duration.between(workdayStart, workdayEnd).toMinutes() / slotMinutes);
+    }
+
+    /**
+     * Hex digits, most significant first; bit i (counted from the last digit) is slot i
+     */
+    static String toHex(BitSet bits, int slots) {
+        int digits = Math.max(1, (slots + 3) / 4);
+        char[] hex = new char[digits];
+        for (int d = 0; d < digits; d++) {
+            int nibble = 0;
+            for (int b = 0; b < 4; b++) {
+                if (bits.get(d * 4 + b)) {
+                    nibble |= 1 << b;
+                }
+            }
+            hex[digits - 1 - d] = Character.forDigit(nibble, 16);
+        }
+        return new String(hex);
+    }
+
+    private record DayKey(Long doctorId, LocalDate date) {
+    }
+
+    /**
+     * A doctor's free slot starts in time order, walking working days through the schedule cache
+     */
+    private final class SlotCursor {
+
+        private final Long doctorId;
+        private final LocalDateTime notBefore;
+        private final LocalDate lastDay;
+        private final int slotMinutes;
+        private final Consumer<LocalDate> dayLoader;
+
+        private LocalDate date;
+        private BitSet mask;
+        private int slot;
+        private LocalDateTime current;
+
+        SlotCursor(Long doctorId, LocalDateTime notBefore, LocalDate lastDay, int slotMinutes,
+                   Consumer<LocalDate> dayLoader) {
+            this.doctorId = doctorId;
+            this.notBefore = notBefore;
+            this.lastDay = lastDay;
+            this.slotMinutes = slotMinutes;
+            this.dayLoader = dayLoader;
+        }
+
+        Long doctorId() {
+            return doctorId;
+        }
+
+        LocalDateTime current() {
+            return current;
+        }
+
+        /**
+         * Move to the next free slot; false once the horizon is passed
+         */
+        boolean advance() {
+            while (true) {
+                if (mask != null) {
+                    slot = mask.nextSetBit(slot + 1);
+                    if (slot >= 0) {
+                        current = date.atTime(workdayStart).plusMinutes((long) slot * slotMinutes);
+                        if (!current.isBefore(notBefore)) {
+                            return true;
+                        }
+                        continue;
+                    }
+                }
+                date = date == null ? notBefore.toLocalDate() : date.plusDays(1);
+                if (date.isAfter(lastDay)) {
+                    return false;
+                }
+                mask = null;
+                if (workingDays.contains(date.getDayOfWeek())) {
+                    dayLoader.accept(date);
+                    mask = schedule(doctorId, date, slotMinutes);
+                    slot = -1;
+                }
+            }
+        }
+    }
+}
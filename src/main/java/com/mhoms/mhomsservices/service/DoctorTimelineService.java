@@ -0,0 +1,110 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.DoctorTimelineResponse;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact per-day appointment timelines for calendar views
+ * Rows come from a scalar projection, so no appointment, patient or doctor entity is
+ * loaded; each appointment is sent as four numbers instead of a nested object.
+ */
+@Service
+public class DoctorTimelineService {
+
+    // Status codes are indexes into this list; statuses outside it are appended per response
+    public static final List<String> STATUSES = List.of("BOOKED", "COMPLETED", "CANCELLED", "NO_SHOW");
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+    private final int maxRangeDays;
+
+    public DoctorTimelineService(AppointmentRepository appointmentRepository,
+                                 DoctorRepository doctorRepository,
+                                 @Value("${appointments.timeline.max-range-days:62}") int maxRangeDays) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    /**
+     * Appointments of a doctor on the days [from, to], grouped by day
+     * Null arguments default to today and a one-week range.
+     */
+    public DoctorTimelineResponse getTimeline(Long doctorId, LocalDate from, LocalDate to) {
+        LocalDate first = from != null ? from : LocalDate.now();
+        LocalDate last = to != null ? to : first.plusDays(6);
+        if (last.isBefore(first)) {
+            throw new InvalidRequestException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(first, last) >= maxRangeDays) {
+            throw new InvalidRequestException("Timeline range is limited to " + maxRangeDays + " days");
+        }
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new ResourceNotFoundException("Doctor not found with id: " + doctorId);
+        }
+
+        Map<String, Integer> codes = new LinkedHashMap<>();
+        STATUSES.forEach(status -> codes.put(status, codes.size()));
+        List<DoctorTimelineResponse.Day> days = new ArrayList<>();
+        List<long[]> entries = null;
+        LocalDate current = null;
+        for (AppointmentRepository.TimelineView row : appointmentRepository.findTimelineByDoctorBetween(
+                doctorId, first.atStartOfDay(), last.plusDays(1).atStartOfDay())) {
+            LocalDateTime start = row.getAppointmentDate();
+            if (!start.toLocalDate().equals(current)) {
+                current = start.toLocalDate();
+                entries = new ArrayList<>();
+                days.add(new DoctorTimelineResponse.Day(current, entries));
+            }
+            int code = codes.computeIfAbsent(String.valueOf(row.getStatus()), status -> codes.size());
+            entries.add(new long[]{start.getHour() * 60L + start.getMinute(), row.getDurationMinutes(), code, row.getId()});
+        }
+        return new DoctorTimelineResponse(doctorId, first, last, List.copyOf(codes.keySet()), days);
+    }
+
+    /**
+     * Fingerprint of everything a timeline response carries, used as its ETag
+     * Computed from the already small encoded form, so a revalidation costs the query but not the transfer.
+     */
+    public static String fingerprint(DoctorTimelineResponse timeline) {
+        long hash = mix(FNV_OFFSET, timeline.doctorId());
+        hash = mix(hash, timeline.from().toEpochDay());
+        hash = mix(hash, timeline.to().toEpochDay());
+        for (String status : timeline.statuses()) {
+            hash = mix(hash, status.hashCode());
+        }
+        for (DoctorTimelineResponse.Day day : timeline.days()) {
+            hash = mix(hash, day.date().toEpochDay());
+            for (long[] entry : day.entries()) {
+                for (long value : entry) {
+                    hash = mix(hash, value);
+                }
+            }
+        }
+        return Long.toHexString(hash);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+}
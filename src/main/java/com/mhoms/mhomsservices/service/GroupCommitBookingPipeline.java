@@ -0,0 +1,418 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.exception.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in group commit for single bookings under peak load
+ * Request threads enqueue their booking and wait; one drainer thread takes up to
+ * max-batch-size of them, waiting at most max-linger-ms for more, and books the batch
+ * with one conflict-aware statement in one transaction, so a surge costs one commit per
+ * batch instead of one per booking. Bookings overlapping an earlier one of the same batch
+ * (same doctor or patient) go to the next batch instead, so every caller gets the result
+ * it would have got booking alone.
+ */
+@Component
+public class GroupCommitBookingPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitBookingPipeline.class);
+
+    private static final long[] LATENCY_BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+    private static final long[] BATCH_SIZE_BOUNDS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512};
+
+    // Per row: ord, patient_id, doctor_id, start_at, duration_minutes
+    private static final String ROW =
+            "(CAST(? AS integer), CAST(? AS bigint), CAST(? AS bigint), CAST(? AS timestamp(6)), CAST(? AS integer))";
+
+    // Same checks and flags as the single-statement insert, for a whole batch
+    private static final String BOOK_BATCH_SQL_HEAD =
+            "WITH t (ord, patient_id, doctor_id, start_at, duration_minutes) AS (VALUES ";
+    private static final String BOOK_BATCH_SQL_TAIL = "), " +
+            "c AS (SELECT t.*, EXISTS (SELECT 1 FROM patients p WHERE p.id = t.patient_id) AS patient_found, " +
+            "  d.id IS NOT NULL AS doctor_found, COALESCE(d.active, false) AS doctor_active, " +
+            "  EXISTS (" + OverlapSql.liveOverlappingOwnLength("doctor_id") + ") AS doctor_busy, " +
+            "  EXISTS (" + OverlapSql.liveOverlappingOwnLength("patient_id") + ") AS patient_busy " +
+            "  FROM t LEFT JOIN doctors d ON d.id = t.doctor_id), " +
+            "ins AS (INSERT INTO appointments (id, patient_id, doctor_id, appointment_date, duration_minutes, status) " +
+            "  SELECT nextval('appointments_seq'), patient_id, doctor_id, start_at, duration_minutes, 'BOOKED' FROM c " +
+            "  WHERE patient_found AND doctor_active AND NOT doctor_busy AND NOT patient_busy " +
+            "  ON CONFLICT DO NOTHING RETURNING id, doctor_id, appointment_date) " +
+            "SELECT c.ord, c.patient_found, c.doctor_found, c.doctor_active, c.patient_busy, ins.id AS appointment_id " +
+            "FROM c LEFT JOIN ins ON ins.doctor_id = c.doctor_id AND ins.appointment_date = c.start_at ORDER BY c.ord";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final long maxWaitMillis;
+    private final long retryAfterSeconds;
+    private final BlockingQueue<PendingBooking> queue;
+
+    private volatile boolean running;
+    private Thread drainer;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final Histogram batchSizes = new Histogram(BATCH_SIZE_BOUNDS);
+    private final Histogram latencyMillis = new Histogram(LATENCY_BOUNDS_MS);
+
+    public GroupCommitBookingPipeline(JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${appointments.group-commit.enabled:false}") boolean enabled,
+                                      @Value("${appointments.group-commit.max-batch-size:64}") int maxBatchSize,
+                                      @Value("${appointments.group-commit.max-linger-ms:2}") long maxLingerMillis,
+                                      @Value("${appointments.group-commit.queue-capacity:4096}") int queueCapacity,
+                                      @Value("${appointments.group-commit.max-wait-ms:5000}") long maxWaitMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxLingerMillis));
+        this.maxWaitMillis = maxWaitMillis;
+        this.retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxWaitMillis));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::drain, "booking-pipeline");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Stop the drainer and wait, up to the maximum wait time, for it to fail what is still queued
+     */
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (drainer == null) {
+            return;
+        }
+        drainer.interrupt();
+        try {
+            drainer.join(maxWaitMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (drainer.isAlive()) {
+            log.warn("Booking pipeline did not stop within {} ms", maxWaitMillis);
+        }
+    }
+
+    /**
+     * Whether bookings should be submitted here rather than inserted one by one
+     */
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Queue a validated booking and wait for the batch that carries it to commit
+     *
+     * @throws TooManyRequestsException when the queue is full, or the booking waited too long
+     *                                  to be picked up (it is then never booked)
+     */
+    public BookingOutcome submit(Long patientId, Long doctorId, LocalDateTime appointmentDate, int durationMinutes) {
+        PendingBooking booking = new PendingBooking(patientId, doctorId, appointmentDate, durationMinutes);
+        if (!running || !queue.offer(booking)) {
+            rejected.increment();
+            throw busy();
+        }
+        submitted.increment();
+        try {
+            return booking.result.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (booking.abandon()) {
+                timedOut.increment();
+                throw busy();
+            }
+            // Already part of a batch, whose commit decides - wait for it
+            return await(booking);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (booking.abandon()) {
+                throw busy();
+            }
+            return await(booking);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    public PipelineStats getStats() {
+        return new PipelineStats(
+                running,
+                maxBatchSize,
+                TimeUnit.NANOSECONDS.toMillis(lingerNanos),
+                queue.size(),
+                submitted.sum(),
+                rejected.sum(),
+                timedOut.sum(),
+                deferred.sum(),
+                batches.sum(),
+                failedBatches.sum(),
+                batchSizes.snapshot(),
+                latencyMillis.snapshot()
+        );
+    }
+
+    public record PipelineStats(
+            boolean enabled,
+            int maxBatchSize,
+            long maxLingerMs,
+            int queued,
+            long submitted,
+            long rejected,
+            long timedOut,
+            long deferred,
+            long batches,
+            long failedBatches,
+            Histogram.Snapshot batchSize,
+            Histogram.Snapshot latencyMs
+    ) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // BATCH PROCESSING
+    // ═══════════════════════════════════════════════════════════════
+
+    private void drain() {
+        List<PendingBooking> carried = new ArrayList<>();
+        while (running) {
+            List<PendingBooking> batch = new ArrayList<>(maxBatchSize);
+            try {
+                fill(batch, carried);
+            } catch (InterruptedException e) {
+                // Bookings already taken off the queue are failed with the rest below
+                carried = batch;
+                break;
+            }
+            try {
+                carried = process(batch);
+            } catch (RuntimeException e) {
+                // Claimed bookings can no longer time out, so none may be left without an outcome
+                log.error("Booking pipeline iteration failed", e);
+                batch.forEach(booking -> booking.result.completeExceptionally(e));
+                carried = new ArrayList<>();
+            }
+        }
+        TooManyRequestsException stopped = new TooManyRequestsException(
+                "Booking pipeline is shutting down - please retry", retryAfterSeconds);
+        carried.forEach(booking -> booking.result.completeExceptionally(stopped));
+        for (PendingBooking booking; (booking = queue.poll()) != null; ) {
+            booking.result.completeExceptionally(stopped);
+        }
+    }
+
+    /**
+     * Fill the batch with carried-over bookings plus whatever arrives within the linger time, up to the batch size
+     * On interrupt the batch keeps what was taken so far, so the caller can still complete it.
+     */
+    private void fill(List<PendingBooking> batch, List<PendingBooking> carried) throws InterruptedException {
+        batch.addAll(carried);
+        if (batch.isEmpty()) {
+            batch.add(queue.take());
+        }
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingBooking next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Book the batch in one transaction and complete each booking with its outcome
+     *
+     * @return bookings overlapping an earlier one of the batch, to go into the next batch
+     */
+    List<PendingBooking> process(List<PendingBooking> batch) {
+        List<PendingBooking> ready = new ArrayList<>(batch.size());
+        List<PendingBooking> later = new ArrayList<>();
+        Map<Long, IntervalSet> doctorSpans = new HashMap<>();
+        Map<Long, IntervalSet> patientSpans = new HashMap<>();
+        for (PendingBooking booking : batch) {
+            if (!booking.claim()) {
+                continue;
+            }
+            long from = booking.startMinute();
+            long to = from + booking.durationMinutes;
+            IntervalSet doctor = doctorSpans.getOrDefault(booking.doctorId, IntervalSet.EMPTY);
+            IntervalSet patient = patientSpans.getOrDefault(booking.patientId, IntervalSet.EMPTY);
+            if (doctor.overlaps(from, to) || patient.overlaps(from, to)) {
+                later.add(booking);
+                continue;
+            }
+            doctorSpans.put(booking.doctorId, doctor.with(from, to));
+            patientSpans.put(booking.patientId, patient.with(from, to));
+            ready.add(booking);
+        }
+        deferred.add(later.size());
+        if (!ready.isEmpty()) {
+            book(ready);
+        }
+        return later;
+    }
+
+    private void book(List<PendingBooking> ready) {
+        List<BookingOutcome> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(tx -> {
+                List<BookingOutcome> result = insert(ready);
+                for (int i = 0; i < ready.size(); i++) {
+                    PendingBooking booking = ready.get(i);
+                    if (result.get(i).isBooked()) {
+                        eventPublisher.publishEvent(new AppointmentChangedEvent(result.get(i).appointmentId(),
+                                booking.doctorId, null, booking.appointmentDate, "BOOKED", booking.durationMinutes));
+                    }
+                }
+                return result;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Booking batch of {} failed: {}", ready.size(), e.getMessage());
+            failedBatches.increment();
+            ready.forEach(booking -> booking.result.completeExceptionally(e));
+            return;
+        }
+        batches.increment();
+        batchSizes.record(ready.size());
+        long now = System.nanoTime();
+        for (int i = 0; i < ready.size(); i++) {
+            PendingBooking booking = ready.get(i);
+            latencyMillis.record(TimeUnit.NANOSECONDS.toMillis(now - booking.enqueuedAt));
+            booking.result.complete(outcomes.get(i));
+        }
+    }
+
+    /**
+     * One statement for the batch; outcomes in batch order
+     */
+    private List<BookingOutcome> insert(List<PendingBooking> ready) {
+        StringBuilder sql = new StringBuilder(BOOK_BATCH_SQL_HEAD);
+        Object[] args = new Object[ready.size() * 5];
+        for (int i = 0; i < ready.size(); i++) {
+            PendingBooking booking = ready.get(i);
+            sql.append(i == 0 ? ROW : ", " + ROW);
+            args[i * 5] = i;
+            args[i * 5 + 1] = booking.patientId;
+            args[i * 5 + 2] = booking.doctorId;
+            args[i * 5 + 3] = Timestamp.valueOf(booking.appointmentDate);
+            args[i * 5 + 4] = booking.durationMinutes;
+        }
+        sql.append(BOOK_BATCH_SQL_TAIL);
+
+        // Rows come back ordered by ord, i.e. in batch order
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> BookingOutcome.of(rs.getBoolean("patient_found"),
+                rs.getBoolean("doctor_found"), rs.getBoolean("doctor_active"),
+                rs.getBoolean("patient_busy"), rs.getObject("appointment_id", Long.class)), args);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static BookingOutcome await(PendingBooking booking) {
+        try {
+            return booking.result.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        return cause instanceof RuntimeException runtime
+                ? runtime
+                : new IllegalStateException("Booking batch failed", cause);
+    }
+
+    private TooManyRequestsException busy() {
+        return new TooManyRequestsException("Booking queue is full - please retry shortly", retryAfterSeconds);
+    }
+
+    static final class PendingBooking {
+
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1;
+        private static final int ABANDONED = 2;
+
+        final Long patientId;
+        final Long doctorId;
+        final LocalDateTime appointmentDate;
+        final int durationMinutes;
+        final long enqueuedAt = System.nanoTime();
+        final CompletableFuture<BookingOutcome> result = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        PendingBooking(Long patientId, Long doctorId, LocalDateTime appointmentDate, int durationMinutes) {
+            this.patientId = patientId;
+            this.doctorId = doctorId;
+            this.appointmentDate = appointmentDate;
+            this.durationMinutes = durationMinutes;
+        }
+
+        /**
+         * Taken by the drainer; from here on the caller waits for the outcome. Carried-over bookings stay claimed.
+         */
+        boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED) || state.get() == CLAIMED;
+        }
+
+        /**
+         * Given up by a caller that stopped waiting; only possible before the drainer claims it
+         */
+        boolean abandon() {
+            return state.compareAndSet(QUEUED, ABANDONED);
+        }
+
+        long startMinute() {
+            return appointmentDate.toEpochSecond(ZoneOffset.UTC) / 60;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.mhoms.mhomsservices.service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket histogram for concurrent recording
+ * A value is counted in the first bucket whose upper bound is at least the value, or in
+ * the overflow bucket past the last bound. Percentiles are the upper bound of the bucket
+ * the rank falls in (the maximum for the overflow bucket), so they never under-report.
+ */
+public final class Histogram {
+
+    private final long[] upperBounds;
+    private final LongAdder[] counts;
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram(long... upperBounds) {
+        for (int i = 1; i < upperBounds.length; i++) {
+            if (upperBounds[i] <= upperBounds[i - 1]) {
+                throw new IllegalArgumentException("Bucket bounds must be strictly increasing");
+            }
+        }
+        this.upperBounds = upperBounds.clone();
+        this.counts = new LongAdder[upperBounds.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long value) {
+        int bucket = Arrays.binarySearch(upperBounds, value);
+        counts[bucket >= 0 ? bucket : -bucket - 1].increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public Snapshot snapshot() {
+        long[] bucketCounts = new long[counts.length];
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            bucketCounts[i] = counts[i].sum();
+            count += bucketCounts[i];
+        }
+        long maxValue = max.get();
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < bucketCounts.length; i++) {
+            buckets.put(i < upperBounds.length ? "<=" + upperBounds[i] : ">" + upperBounds[upperBounds.length - 1],
+                    bucketCounts[i]);
+        }
+        return new Snapshot(
+                count,
+                count == 0 ? 0.0 : (double) sum.sum() / count,
+                maxValue,
+                percentile(bucketCounts, count, 0.50, maxValue),
+                percentile(bucketCounts, count, 0.95, maxValue),
+                percentile(bucketCounts, count, 0.99, maxValue),
+                buckets
+        );
+    }
+
+    public record Snapshot(
+            long count,
+            double mean,
+            long max,
+            long p50,
+            long p95,
+            long p99,
+            Map<String, Long> buckets
+    ) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private long percentile(long[] bucketCounts, long count, double quantile, long maxValue) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < upperBounds.length; i++) {
+            seen += bucketCounts[i];
+            if (seen >= rank) {
+                return Math.min(upperBounds[i], maxValue);
+            }
+        }
+        return maxValue;
+    }
+}
@@ -0,0 +1,105 @@
+package com.mhoms.mhomsservices.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Immutable set of half-open [start, end) intervals sorted by start
+ * Intervals may overlap one another (rows that predate the overlap rule). Next to the
+ * ends a running maximum is kept, so an overlap query is one binary search: find the
+ * last interval starting before the query ends; the query overlaps something exactly
+ * when the largest end up to that interval lies past the query start.
+ */
+final class IntervalSet {
+
+    static final IntervalSet EMPTY = new IntervalSet(new long[0], new long[0], new long[0]);
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private IntervalSet(long[] starts, long[] ends, long[] maxEnds) {
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = maxEnds;
+    }
+
+    /**
+     * Build from {start, end} pairs in any order
+     */
+    static IntervalSet of(Collection<long[]> intervals) {
+        long[][] sorted = intervals.toArray(new long[0][]);
+        Arrays.sort(sorted, Comparator.comparingLong(interval -> interval[0]));
+        long[] starts = new long[sorted.length];
+        long[] ends = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            starts[i] = sorted[i][0];
+            ends[i] = sorted[i][1];
+        }
+        return new IntervalSet(starts, ends, runningMax(ends, new long[ends.length], 0));
+    }
+
+    /**
+     * Copy with one more interval; O(n), the set itself is never modified
+     */
+    IntervalSet with(long start, long end) {
+        int at = firstStartAfter(start);
+        int n = starts.length;
+        long[] newStarts = new long[n + 1];
+        long[] newEnds = new long[n + 1];
+        System.arraycopy(starts, 0, newStarts, 0, at);
+        System.arraycopy(ends, 0, newEnds, 0, at);
+        newStarts[at] = start;
+        newEnds[at] = end;
+        System.arraycopy(starts, at, newStarts, at + 1, n - at);
+        System.arraycopy(ends, at, newEnds, at + 1, n - at);
+
+        long[] newMaxEnds = new long[n + 1];
+        System.arraycopy(maxEnds, 0, newMaxEnds, 0, at);
+        return new IntervalSet(newStarts, newEnds, runningMax(newEnds, newMaxEnds, at));
+    }
+
+    /**
+     * Whether any interval overlaps [from, to); O(log n)
+     */
+    boolean overlaps(long from, long to) {
+        if (from >= to) {
+            return false;
+        }
+        int last = firstStartAfter(to - 1) - 1;
+        return last >= 0 && maxEnds[last] > from;
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Index of the first interval starting after value, i.e. the number starting at or before it
+     */
+    private int firstStartAfter(long value) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long[] runningMax(long[] ends, long[] maxEnds, int from) {
+        for (int i = from; i < ends.length; i++) {
+            maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+        return maxEnds;
+    }
+}
@@ -0,0 +1,23 @@
+package com.mhoms.mhomsservices.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default notifier: writes holds to the log
+ * Set waitlist.notifier to anything but "log" and provide another WaitlistNotifier bean to replace it.
+ */
+@Component
+@ConditionalOnProperty(name = "waitlist.notifier", havingValue = "log", matchIfMissing = true)
+public class LoggingWaitlistNotifier implements WaitlistNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingWaitlistNotifier.class);
+
+    @Override
+    public void slotHeld(SlotHold hold) {
+        log.info("Waitlist entry {}: slot {} with doctor {} held for patient {} until {}",
+                hold.entryId(), hold.slot(), hold.doctorId(), hold.patientId(), hold.expiresAt());
+    }
+}
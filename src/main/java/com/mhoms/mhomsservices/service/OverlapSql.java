@@ -0,0 +1,37 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.model.Appointment;
+
+/**
+ * SQL fragments for the overlap rule in raw-SQL booking paths
+ * Two appointments overlap when each starts before the other ends; cancelled ones never
+ * do. Only rows starting up to the maximum duration before the new start can reach into
+ * it, which keeps the probe a short range scan on (doctor_id | patient_id, appointment_date).
+ */
+final class OverlapSql {
+
+    private OverlapSql() {
+    }
+
+    /**
+     * Subquery selecting live appointments with the same value of column (doctor_id or patient_id)
+     * as row alias t that overlap [t.start_at, t.start_at + durationMinutes)
+     */
+    static String liveOverlapping(String column, int durationMinutes) {
+        return overlapping(column, "interval '" + durationMinutes + " minutes'");
+    }
+
+    /**
+     * Same, for rows of t that carry their own length in t.duration_minutes
+     */
+    static String liveOverlappingOwnLength(String column) {
+        return overlapping(column, "t.duration_minutes * interval '1 minute'");
+    }
+
+    private static String overlapping(String column, String length) {
+        return "SELECT 1 FROM appointments a WHERE a." + column + " = t." + column + " AND a.status <> 'CANCELLED' " +
+                "AND a.appointment_date > t.start_at - interval '" + Appointment.MAX_DURATION_MINUTES + " minutes' " +
+                "AND a.appointment_date < t.start_at + " + length + " " +
+                "AND a.appointment_date + a.duration_minutes * interval '1 minute' > t.start_at";
+    }
+}
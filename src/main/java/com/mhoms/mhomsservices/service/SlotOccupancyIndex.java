@@ -0,0 +1,249 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.cache.ExpiringCache;
+import com.mhoms.mhomsservices.model.Appointment;
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory occupancy index: the appointments of each doctor-day as a sorted interval set
+ * Days are loaded lazily with a single range query and updated after each commit.
+ * Intervals cover [start, start + duration) in minutes of the day of the live appointments;
+ * cancelled ones hold no slot. "No overlap" is definitive for this node and an overlap check
+ * is a binary search; a reported overlap is confirmed against the database. The unique and overlap exclusion
+ * constraints remain the final arbiter for bookings made on other nodes before this one
+ * sees them.
+ */
+@Component
+public class SlotOccupancyIndex {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final AppointmentRepository appointmentRepository;
+    private final long ttlMillis;
+    private final ExpiringCache<DayKey, DayIntervals> days;
+
+    private final LongAdder dayLoads = new LongAdder();
+    private final LongAdder freeAnswers = new LongAdder();
+    private final LongAdder occupiedAnswers = new LongAdder();
+
+    public SlotOccupancyIndex(AppointmentRepository appointmentRepository,
+                              @Value("${appointments.occupancy.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${appointments.occupancy.max-days:20000}") int maxDays) {
+        this.appointmentRepository = appointmentRepository;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.days = new ExpiringCache<>(maxDays);
+    }
+
+    /**
+     * Whether an appointment may overlap [start, start + durationMinutes); false is definitive for this node
+     */
+    public boolean mightOverlap(Long doctorId, LocalDateTime start, int durationMinutes) {
+        int from = minuteOfDay(start);
+        boolean occupied = day(doctorId, start.toLocalDate()).overlaps(from, from + durationMinutes);
+        if (occupied) {
+            occupiedAnswers.increment();
+        } else {
+            freeAnswers.increment();
+        }
+        return occupied;
+    }
+
+    /**
+     * Whether no appointment overlaps [from, to) on the given day
+     */
+    public boolean isRangeFree(Long doctorId, LocalDate date, LocalTime from, LocalTime to) {
+        return !day(doctorId, date).overlaps(minuteOfDay(from), minuteOfDay(to));
+    }
+
+    /**
+     * Start times of back-to-back slots of the given length in [open, close) that no appointment overlaps
+     */
+    public List<LocalDateTime> findFreeSlots(Long doctorId, LocalDate date,
+                                             LocalTime open, LocalTime close, int slotMinutes) {
+        BitSet mask = freeSlotMask(doctorId, date, open, close, slotMinutes);
+        List<LocalDateTime> free = new ArrayList<>(mask.cardinality());
+        LocalDateTime first = date.atTime(open);
+        for (int slot = mask.nextSetBit(0); slot >= 0; slot = mask.nextSetBit(slot + 1)) {
+            free.add(first.plusMinutes((long) slot * slotMinutes));
+        }
+        return free;
+    }
+
+    /**
+     * Same slots as findFreeSlots, as a bit set where bit i is slot i counted from open
+     */
+    public BitSet freeSlotMask(Long doctorId, LocalDate date,
+                               LocalTime open, LocalTime close, int slotMinutes) {
+        if (slotMinutes <= 0) {
+            throw new IllegalArgumentException("Slot length must be positive");
+        }
+        IntervalSet intervals = day(doctorId, date).intervals();
+        BitSet mask = new BitSet();
+        int begin = minuteOfDay(open);
+        int end = minuteOfDay(close);
+        for (int slot = 0, start = begin; start + slotMinutes <= end; slot++, start += slotMinutes) {
+            if (!intervals.overlaps(start, start + slotMinutes)) {
+                mask.set(slot);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Load the given doctors' day into the index with one query for all doctors not yet cached
+     *
+     * @return number of doctor-days loaded
+     */
+    public int preload(Collection<Long> doctorIds, LocalDate date) {
+        Map<Long, List<long[]>> missing = new HashMap<>();
+        for (Long doctorId : doctorIds) {
+            if (days.get(new DayKey(doctorId, date)) == null) {
+                missing.put(doctorId, new ArrayList<>());
+            }
+        }
+        if (missing.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime start = date.atStartOfDay();
+        for (AppointmentRepository.DoctorDateView row : appointmentRepository.findAppointmentDatesByDoctorsBetween(
+                missing.keySet(), start, start.plusDays(1))) {
+            List<long[]> intervals = missing.get(row.getDoctorId());
+            if (intervals != null) {
+                intervals.add(interval(row.getAppointmentDate(), row.getDurationMinutes()));
+            }
+        }
+        missing.forEach((doctorId, intervals) -> days.putWithTtl(new DayKey(doctorId, date),
+                new DayIntervals(IntervalSet.of(intervals)), ttlMillis));
+        dayLoads.add(missing.size());
+        return missing.size();
+    }
+
+    /**
+     * Apply a committed change: new intervals are added in place, other days are reloaded lazily
+     * A status change (same date before and after) may cancel or revive the appointment and the
+     * event does not say which, so its day is reloaded; so are the days of a cancelled one. Runs
+     * first so listeners caching results derived from the index never re-read stale days.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        LocalDateTime previous = event.previousDate();
+        LocalDateTime current = event.newDate();
+        boolean statusChange = previous != null && previous.equals(current);
+        if (statusChange || "CANCELLED".equals(event.status())) {
+            if (previous != null) {
+                days.invalidate(new DayKey(event.doctorId(), previous.toLocalDate()));
+            }
+            if (current != null) {
+                days.invalidate(new DayKey(event.doctorId(), current.toLocalDate()));
+            }
+            return;
+        }
+        if (previous != null) {
+            // Intervals are only ever added; the day is rebuilt rather than searched for the vacated one
+            days.invalidate(new DayKey(event.doctorId(), previous.toLocalDate()));
+        }
+        if (current != null) {
+            DayIntervals day = days.get(new DayKey(event.doctorId(), current.toLocalDate()));
+            if (day != null) {
+                day.add(interval(current, event.durationMinutes()));
+            }
+        }
+    }
+
+    /**
+     * Drop every cached day of a doctor, e.g. after a bulk change made outside the entity path
+     */
+    public void invalidateDoctor(Long doctorId) {
+        days.invalidateIf(key -> key.doctorId().equals(doctorId));
+    }
+
+    public OccupancyStats getStats() {
+        return new OccupancyStats(days.size(), dayLoads.sum(), freeAnswers.sum(), occupiedAnswers.sum());
+    }
+
+    public record OccupancyStats(int cachedDays, long dayLoads, long freeAnswers, long occupiedAnswers) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private DayIntervals day(Long doctorId, LocalDate date) {
+        DayKey key = new DayKey(doctorId, date);
+        DayIntervals day = days.get(key);
+        if (day != null) {
+            return day;
+        }
+
+        List<long[]> intervals = new ArrayList<>();
+        LocalDateTime start = date.atStartOfDay();
+        for (AppointmentRepository.SpanView span : appointmentRepository.findAppointmentSpansByDoctorBetween(
+                doctorId, start, start.plusDays(1))) {
+            intervals.add(interval(span.getAppointmentDate(), span.getDurationMinutes()));
+        }
+        day = new DayIntervals(IntervalSet.of(intervals));
+        dayLoads.increment();
+        days.putWithTtl(key, day, ttlMillis);
+        return day;
+    }
+
+    private static long[] interval(LocalDateTime start, Integer durationMinutes) {
+        int from = minuteOfDay(start);
+        int length = durationMinutes == null ? Appointment.DEFAULT_DURATION_MINUTES : durationMinutes;
+        return new long[]{from, from + length};
+    }
+
+    private static int minuteOfDay(LocalDateTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        // LocalTime.MAX stands for end of day
+        return time.equals(LocalTime.MAX) ? MINUTES_PER_DAY : time.getHour() * 60 + time.getMinute();
+    }
+
+    private record DayKey(Long doctorId, LocalDate date) {
+    }
+
+    /**
+     * One doctor-day; readers see an immutable snapshot, writers swap in a copy with the new interval
+     */
+    static final class DayIntervals {
+
+        private volatile IntervalSet intervals;
+
+        DayIntervals(IntervalSet intervals) {
+            this.intervals = intervals;
+        }
+
+        IntervalSet intervals() {
+            return intervals;
+        }
+
+        boolean overlaps(long from, long to) {
+            return intervals.overlaps(from, to);
+        }
+
+        synchronized void add(long[] interval) {
+            intervals = intervals.with(interval[0], interval[1]);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.BulkProvisioningResponse;
+import com.mhoms.mhomsservices.dto.BulkProvisioningResponse.RowResult;
+import com.mhoms.mhomsservices.dto.BulkProvisioningResponse.RowStatus;
+import com.mhoms.mhomsservices.dto.RegisterRequest;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.model.Role;
+import com.mhoms.mhomsservices.repository.UserRepository;
+import com.mhoms.mhomsservices.security.BoundedPasswordEncoder;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user provisioning for clinic onboarding
+ * Rows are processed in chunks: validate, dedupe against the batch and the users
+ * table with one query, hash passwords in parallel, then insert with one JDBC batch.
+ */
+@Service
+public class UserProvisioningService {
+
+    private static final String INSERT_USER_SQL =
+            "INSERT INTO users (id, username, email, password, full_name, role, enabled, account_non_expired, " +
+            "account_non_locked, credentials_non_expired, account_version, created_at, updated_at) " +
+            "VALUES (nextval('users_seq'), ?, ?, ?, ?, ?, true, true, true, true, 0, ?, ?) " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final List<String> CSV_COLUMNS = List.of("username", "email", "password", "fullname", "role");
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder hashingEncoder;
+    private final Validator validator;
+    private final ForkJoinPool hashingPool;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public UserProvisioningService(UserRepository userRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   BoundedPasswordEncoder passwordEncoder,
+                                   Validator validator,
+                                   @Value("${admin.bulk-provisioning.parallelism:0}") int parallelism,
+                                   @Value("${admin.bulk-provisioning.chunk-size:500}") int chunkSize,
+                                   @Value("${admin.bulk-provisioning.max-rows:10000}") int maxRows) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Bulk jobs hash on their own pool, so they never take slots from interactive logins
+        this.hashingEncoder = passwordEncoder.getDelegate();
+        this.validator = validator;
+        this.hashingPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRows = maxRows;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // PROVISIONING
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Provision a JSON batch of registration requests
+     */
+    public BulkProvisioningResponse provision(List<RegisterRequest> requests) {
+        if (requests.size() > maxRows) {
+            throw new InvalidRequestException("Batch exceeds the limit of " + maxRows + " rows");
+        }
+
+        Accumulator acc = new Accumulator();
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<RegisterRequest> chunk = requests.subList(from, Math.min(requests.size(), from + chunkSize));
+            processChunk(chunk, from + 1, acc);
+        }
+        return acc.toResponse();
+    }
+
+    /**
+     * Provision users from CSV with header username,email,password,fullName,role
+     * The body is read line by line and processed chunk by chunk
+     */
+    public BulkProvisioningResponse provisionCsv(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new InvalidRequestException("CSV body is empty");
+        }
+        int[] columns = mapColumns(parseCsvLine(header));
+
+        Accumulator acc = new Accumulator();
+        List<RegisterRequest> chunk = new ArrayList<>(chunkSize);
+        List<String> parseErrors = new ArrayList<>(chunkSize);
+        int firstRow = 1;
+        int rows = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (++rows > maxRows) {
+                throw new InvalidRequestException("CSV exceeds the limit of " + maxRows + " rows");
+            }
+            try {
+                chunk.add(toRequest(parseCsvLine(line), columns));
+                parseErrors.add(null);
+            } catch (IllegalArgumentException e) {
+                chunk.add(null);
+                parseErrors.add(e.getMessage());
+            }
+
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, firstRow, acc, parseErrors);
+                firstRow += chunk.size();
+                chunk.clear();
+                parseErrors.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, firstRow, acc, parseErrors);
+        }
+        return acc.toResponse();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void processChunk(List<RegisterRequest> chunk, int firstRow, Accumulator acc) {
+        processChunk(chunk, firstRow, acc, null);
+    }
+
+    private void processChunk(List<RegisterRequest> chunk, int firstRow, Accumulator acc, List<String> parseErrors) {
+        RowResult[] results = new RowResult[chunk.size()];
+        List<Integer> candidates = new ArrayList<>(chunk.size());
+        Set<String> batchUsernames = new HashSet<>();
+        Set<String> batchEmails = new HashSet<>();
+
+        // 1. Validate and dedupe within the chunk and against earlier chunks
+        for (int i = 0; i < chunk.size(); i++) {
+            RegisterRequest request = chunk.get(i);
+            int row = firstRow + i;
+            if (request == null) {
+                // A null JSON item carries no parse error; a CSV row that failed to parse does
+                String message = parseErrors == null ? "Item is empty" : parseErrors.get(i);
+                results[i] = new RowResult(row, null, RowStatus.INVALID, message);
+                continue;
+            }
+            String violation = firstViolation(request);
+            if (violation != null) {
+                results[i] = new RowResult(row, request.getUsername(), RowStatus.INVALID, violation);
+            } else if (acc.seenUsernames.contains(request.getUsername())) {
+                results[i] = new RowResult(row, request.getUsername(), RowStatus.DUPLICATE, "Username repeated in batch");
+            } else if (acc.seenEmails.contains(request.getEmail())) {
+                results[i] = new RowResult(row, request.getUsername(), RowStatus.DUPLICATE, "Email repeated in batch");
+            } else {
+                acc.seenUsernames.add(request.getUsername());
+                acc.seenEmails.add(request.getEmail());
+                batchUsernames.add(request.getUsername());
+                batchEmails.add(request.getEmail());
+                candidates.add(i);
+            }
+        }
+
+        // 2. One set-based query for usernames/emails that already exist
+        if (!candidates.isEmpty()) {
+            Set<String> takenUsernames = new HashSet<>();
+            Set<String> takenEmails = new HashSet<>();
+            for (UserRepository.UsernameEmailView taken :
+                    userRepository.findTakenUsernamesOrEmails(batchUsernames, batchEmails)) {
+                takenUsernames.add(taken.getUsername());
+                takenEmails.add(taken.getEmail());
+            }
+            candidates.removeIf(i -> {
+                RegisterRequest request = chunk.get(i);
+                if (takenUsernames.contains(request.getUsername())) {
+                    results[i] = new RowResult(firstRow + i, request.getUsername(), RowStatus.DUPLICATE, "Username already exists");
+                    return true;
+                }
+                if (takenEmails.contains(request.getEmail())) {
+                    results[i] = new RowResult(firstRow + i, request.getUsername(), RowStatus.DUPLICATE, "Email already exists");
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        // 3. Hash in parallel across cores, 4. insert with one JDBC batch
+        if (!candidates.isEmpty()) {
+            List<String> hashes = hashingPool.submit(() -> candidates.parallelStream()
+                    .map(i -> hashingEncoder.encode(chunk.get(i).getPassword()))
+                    .toList()).join();
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> batch = new ArrayList<>(candidates.size());
+            for (int c = 0; c < candidates.size(); c++) {
+                RegisterRequest request = chunk.get(candidates.get(c));
+                batch.add(new Object[]{request.getUsername(), request.getEmail(), hashes.get(c),
+                        request.getFullName(), request.getRole().name(), now, now});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(INSERT_USER_SQL, batch);
+
+            for (int c = 0; c < candidates.size(); c++) {
+                int i = candidates.get(c);
+                // 0 = lost a race with a concurrent insert; negative = driver reported no count
+                results[i] = counts[c] == 0
+                        ? new RowResult(firstRow + i, chunk.get(i).getUsername(), RowStatus.DUPLICATE, "Username or email already exists")
+                        : new RowResult(firstRow + i, chunk.get(i).getUsername(), RowStatus.CREATED, null);
+            }
+        }
+
+        for (RowResult result : results) {
+            acc.add(result);
+        }
+    }
+
+    private String firstViolation(RegisterRequest request) {
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static int[] mapColumns(List<String> header) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            index.put(header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int c = 0; c < CSV_COLUMNS.size(); c++) {
+            Integer position = index.get(CSV_COLUMNS.get(c));
+            if (position == null) {
+                throw new InvalidRequestException("CSV header is missing column: " + CSV_COLUMNS.get(c));
+            }
+            columns[c] = position;
+        }
+        return columns;
+    }
+
+    private static RegisterRequest toRequest(List<String> fields, int[] columns) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(field(fields, columns[0]));
+        request.setEmail(field(fields, columns[1]));
+        request.setPassword(field(fields, columns[2]));
+        request.setFullName(field(fields, columns[3]));
+        String role = field(fields, columns[4]);
+        if (role != null) {
+            try {
+                request.setRole(Role.valueOf(role.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown role: " + role);
+            }
+        }
+        return request;
+    }
+
+    private static String field(List<String> fields, int position) {
+        if (position >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(position);
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Split one CSV line; supports quoted fields with "" escapes (no embedded newlines)
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private static final class Accumulator {
+        private final List<RowResult> results = new ArrayList<>();
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private int created;
+        private int skipped;
+        private int invalid;
+
+        void add(RowResult result) {
+            results.add(result);
+            switch (result.status()) {
+                case CREATED -> created++;
+                case DUPLICATE -> skipped++;
+                case INVALID -> invalid++;
+            }
+        }
+
+        BulkProvisioningResponse toResponse() {
+            return new BulkProvisioningResponse(results.size(), created, skipped, invalid, results);
+        }
+    }
+}
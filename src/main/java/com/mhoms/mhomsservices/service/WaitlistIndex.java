@@ -0,0 +1,121 @@
+package com.mhoms.mhomsservices.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Open waitlist criteria bucketed by doctor-day and specialization-day
+ * A freed slot only looks at the two buckets of its day, so matching cost follows
+ * the number of entries wanting that day rather than the whole waitlist. Buckets
+ * are ordered by entry id, so the first acceptable entry is the longest waiting one.
+ */
+final class WaitlistIndex {
+
+    private final Map<Long, Criteria> entries = new ConcurrentHashMap<>();
+    private final Map<BucketKey, NavigableSet<Long>> buckets = new ConcurrentHashMap<>();
+
+    void add(Criteria criteria) {
+        remove(criteria.entryId());
+        entries.put(criteria.entryId(), criteria);
+        Target target = criteria.target();
+        for (LocalDate date = criteria.fromDate(); !date.isAfter(criteria.toDate()); date = date.plusDays(1)) {
+            buckets.computeIfAbsent(new BucketKey(target, date), key -> new ConcurrentSkipListSet<>())
+                    .add(criteria.entryId());
+        }
+    }
+
+    void remove(long entryId) {
+        Criteria criteria = entries.remove(entryId);
+        if (criteria == null) {
+            return;
+        }
+        Target target = criteria.target();
+        for (LocalDate date = criteria.fromDate(); !date.isAfter(criteria.toDate()); date = date.plusDays(1)) {
+            buckets.computeIfPresent(new BucketKey(target, date), (key, ids) -> {
+                ids.remove(entryId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Longest-waiting entry that would take the slot, skipping the excluded ones
+     */
+    Optional<Criteria> bestMatch(Long doctorId, String specialization, LocalDateTime slot, Set<Long> excluded) {
+        LocalDate date = slot.toLocalDate();
+        LocalTime time = slot.toLocalTime();
+        Criteria byDoctor = first(buckets.get(new BucketKey(Target.doctor(doctorId), date)), time, excluded);
+        Criteria bySpecialization = specialization == null ? null
+                : first(buckets.get(new BucketKey(Target.specialization(specialization), date)), time, excluded);
+        if (byDoctor == null || bySpecialization == null) {
+            return Optional.ofNullable(byDoctor != null ? byDoctor : bySpecialization);
+        }
+        return Optional.of(byDoctor.entryId() < bySpecialization.entryId() ? byDoctor : bySpecialization);
+    }
+
+    /**
+     * Drop buckets of days before the given one; their entries stay indexed for later days
+     */
+    void dropDaysBefore(LocalDate date) {
+        buckets.keySet().removeIf(key -> key.date().isBefore(date));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private Criteria first(NavigableSet<Long> ids, LocalTime time, Set<Long> excluded) {
+        if (ids == null) {
+            return null;
+        }
+        for (Long id : ids) {
+            Criteria criteria = entries.get(id);
+            if (criteria != null && !excluded.contains(criteria.entryId()) && criteria.acceptsTime(time)) {
+                return criteria;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * What an open entry is waiting for; exactly one of doctorId and specialization is set
+     */
+    record Criteria(long entryId, Long patientId, Long doctorId, String specialization,
+                    LocalDate fromDate, LocalDate toDate, LocalTime earliestTime, LocalTime latestTime) {
+
+        boolean acceptsTime(LocalTime time) {
+            return (earliestTime == null || !time.isBefore(earliestTime))
+                    && (latestTime == null || !time.isAfter(latestTime));
+        }
+
+        private Target target() {
+            return doctorId != null ? Target.doctor(doctorId) : Target.specialization(specialization);
+        }
+    }
+
+    private record Target(Long doctorId, String specialization) {
+
+        static Target doctor(Long doctorId) {
+            return new Target(doctorId, null);
+        }
+
+        static Target specialization(String specialization) {
+            return new Target(null, specialization.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private record BucketKey(Target target, LocalDate date) {
+    }
+}
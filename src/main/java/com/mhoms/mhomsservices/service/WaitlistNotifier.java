@@ -0,0 +1,16 @@
+package com.mhoms.mhomsservices.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tells a waitlisted patient about a slot held for them
+ * Implementations deliver over whatever channel the deployment has (e-mail, SMS, push);
+ * they are called after the hold is committed and must not throw for delivery failures.
+ */
+public interface WaitlistNotifier {
+
+    void slotHeld(SlotHold hold);
+
+    record SlotHold(Long entryId, Long patientId, Long doctorId, LocalDateTime slot, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,466 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.WaitlistRequest;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
+import com.mhoms.mhomsservices.exception.SlotConflictException;
+import com.mhoms.mhomsservices.model.Appointment;
+import com.mhoms.mhomsservices.model.Doctor;
+import com.mhoms.mhomsservices.model.WaitlistEntry;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import com.mhoms.mhomsservices.repository.PatientRepository;
+import com.mhoms.mhomsservices.repository.WaitlistEntryRepository;
+import com.mhoms.mhomsservices.service.WaitlistIndex.Criteria;
+import com.mhoms.mhomsservices.service.WaitlistNotifier.SlotHold;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Waitlist: patients register criteria, freed slots are offered to the longest-waiting match
+ * Cancellations and reschedules are matched after commit through an in-memory index
+ * keyed by doctor-day and specialization-day. The match gets a time-limited hold,
+ * claimed with a conditional update so two nodes never hold the same entry, and is
+ * told through the configured WaitlistNotifier. Lapsed holds go back to the queue
+ * and their slot is offered to the next match.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistService.class);
+
+    private static final Set<String> ACTIVE_STATUSES = Set.of("OPEN", "HELD");
+
+    private static final String HOLD_SQL =
+            "UPDATE waitlist_entries SET status = 'HELD', held_doctor_id = ?, held_slot = ?, hold_expires_at = ? " +
+            "WHERE id = ? AND status = 'OPEN'";
+
+    private static final String WITHDRAW_SQL =
+            "WITH h AS (SELECT id, held_doctor_id, held_slot FROM waitlist_entries " +
+            "WHERE id = ? AND status IN ('OPEN', 'HELD') FOR UPDATE) " +
+            "UPDATE waitlist_entries w SET status = 'WITHDRAWN', held_doctor_id = NULL, held_slot = NULL, " +
+            "hold_expires_at = NULL FROM h WHERE w.id = h.id RETURNING h.held_doctor_id, h.held_slot";
+
+    private static final String RELEASE_EXPIRED_SQL =
+            "WITH h AS (SELECT id, held_doctor_id, held_slot FROM waitlist_entries " +
+            "WHERE status = 'HELD' AND hold_expires_at < ? FOR UPDATE SKIP LOCKED) " +
+            "UPDATE waitlist_entries w SET status = 'OPEN', held_doctor_id = NULL, held_slot = NULL, " +
+            "hold_expires_at = NULL FROM h WHERE w.id = h.id " +
+            "RETURNING w.id, w.patient_id, w.doctor_id, w.specialization, w.from_date, w.to_date, " +
+            "w.earliest_time, w.latest_time, h.held_doctor_id, h.held_slot";
+
+    private static final String CLOSE_PAST_SQL =
+            "UPDATE waitlist_entries SET status = 'EXPIRED' WHERE status = 'OPEN' AND to_date < ? RETURNING id";
+
+    private static final String LOAD_HOLD_SQL =
+            "SELECT patient_id, status, held_doctor_id, held_slot, hold_expires_at FROM waitlist_entries WHERE id = ?";
+
+    // (patient_id, doctor_id, start_at) of the held slot, for the overlap checks
+    private static final String HELD_SLOT =
+            "(SELECT CAST(? AS bigint) AS patient_id, CAST(? AS bigint) AS doctor_id, CAST(? AS timestamp(6)) AS start_at) t ";
+
+    // A waitlist booking has the default length and must not overlap the doctor's or patient's live appointments
+    private static final String FREE_FOR_BOTH =
+            "NOT EXISTS (" + OverlapSql.liveOverlapping("doctor_id", Appointment.DEFAULT_DURATION_MINUTES) + ") " +
+            "AND NOT EXISTS (" + OverlapSql.liveOverlapping("patient_id", Appointment.DEFAULT_DURATION_MINUTES) + ") ";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO appointments (id, patient_id, doctor_id, appointment_date, duration_minutes, status) " +
+            "SELECT nextval('appointments_seq'), t.patient_id, t.doctor_id, t.start_at, " +
+            Appointment.DEFAULT_DURATION_MINUTES + ", 'BOOKED' FROM " + HELD_SLOT +
+            "WHERE " + FREE_FOR_BOTH + "ON CONFLICT DO NOTHING RETURNING id";
+
+    private static final String CONFIRM_SQL =
+            "UPDATE waitlist_entries SET status = 'BOOKED', appointment_id = ?, hold_expires_at = NULL " +
+            "WHERE id = ? AND status = 'HELD' AND hold_expires_at > ?";
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate requiresNew;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WaitlistNotifier notifier;
+    private final long holdMinutes;
+    private final int maxWindowDays;
+    private final int maxActivePerPatient;
+
+    private volatile WaitlistIndex index = new WaitlistIndex();
+
+    private final LongAdder registered = new LongAdder();
+    private final LongAdder freedSlots = new LongAdder();
+    private final LongAdder holds = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+    private final LongAdder lapsedHolds = new LongAdder();
+    private final LongAdder accepted = new LongAdder();
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository,
+                           PatientRepository patientRepository,
+                           DoctorRepository doctorRepository,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           WaitlistNotifier notifier,
+                           @Value("${waitlist.hold-minutes:15}") long holdMinutes,
+                           @Value("${waitlist.max-window-days:31}") int maxWindowDays,
+                           @Value("${waitlist.max-active-per-patient:5}") int maxActivePerPatient) {
+        this.waitlistRepository = waitlistRepository;
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Holds are claimed from commit listeners, after the surrounding transaction is done
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.notifier = notifier;
+        this.holdMinutes = holdMinutes;
+        this.maxWindowDays = maxWindowDays;
+        this.maxActivePerPatient = maxActivePerPatient;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // PATIENT OPERATIONS
+    // ═══════════════════════════════════════════════════════════════
+
+    @Transactional
+    public WaitlistEntry register(WaitlistRequest request) {
+        if (request.patientId() == null) {
+            throw new InvalidRequestException("patientId is required");
+        }
+        boolean bySpecialization = request.specialization() != null && !request.specialization().isBlank();
+        if ((request.doctorId() == null) == !bySpecialization) {
+            throw new InvalidRequestException("Give exactly one of doctorId and specialization");
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate from = request.fromDate() == null || request.fromDate().isBefore(today) ? today : request.fromDate();
+        LocalDate to = request.toDate() != null ? request.toDate() : from.plusDays(6);
+        if (to.isBefore(from)) {
+            throw new InvalidRequestException("toDate must not be before fromDate or today");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxWindowDays) {
+            throw new InvalidRequestException("A waitlist window is limited to " + maxWindowDays + " days");
+        }
+        if (request.earliestTime() != null && request.latestTime() != null
+                && request.earliestTime().isAfter(request.latestTime())) {
+            throw new InvalidRequestException("earliestTime must not be after latestTime");
+        }
+
+        if (!patientRepository.existsById(request.patientId())) {
+            throw new ResourceNotFoundException("Patient not found with id: " + request.patientId());
+        }
+        if (request.doctorId() != null && !doctorRepository.existsById(request.doctorId())) {
+            throw new ResourceNotFoundException("Doctor not found with id: " + request.doctorId());
+        }
+        if (waitlistRepository.countByPatientIdAndStatusIn(request.patientId(), ACTIVE_STATUSES) >= maxActivePerPatient) {
+            throw new IllegalStateException("Patient already has " + maxActivePerPatient + " active waitlist entries");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setPatientId(request.patientId());
+        entry.setDoctorId(request.doctorId());
+        entry.setSpecialization(bySpecialization ? request.specialization().trim() : null);
+        entry.setFromDate(from);
+        entry.setToDate(to);
+        entry.setEarliestTime(request.earliestTime());
+        entry.setLatestTime(request.latestTime());
+        entry.setStatus("OPEN");
+        entry.setCreatedAt(LocalDateTime.now());
+        WaitlistEntry saved = waitlistRepository.save(entry);
+
+        registered.increment();
+        Criteria criteria = criteria(saved);
+        afterCommit(() -> index.add(criteria));
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistEntry> getEntriesByPatient(Long patientId) {
+        return waitlistRepository.findByPatientIdOrderByIdDesc(patientId);
+    }
+
+    /**
+     * Take an entry off the waitlist; a slot it was holding is offered to the next match
+     */
+    @Transactional
+    public void withdraw(Long entryId) {
+        List<HeldSlot> released = jdbcTemplate.query(WITHDRAW_SQL, (rs, rowNum) -> heldSlot(rs), entryId);
+        if (released.isEmpty()) {
+            if (!waitlistRepository.existsById(entryId)) {
+                throw new ResourceNotFoundException("Waitlist entry not found with id: " + entryId);
+            }
+            throw new IllegalStateException("Waitlist entry " + entryId + " is no longer active");
+        }
+        HeldSlot held = released.get(0);
+        afterCommit(() -> {
+            index.remove(entryId);
+            if (held.slot() != null && held.slot().isAfter(LocalDateTime.now())) {
+                offer(held.doctorId(), held.slot(), Set.of(entryId));
+            }
+        });
+    }
+
+    /**
+     * Book the slot held for an entry as a new appointment
+     * The cancelled appointment that freed the slot stays as it is, a record of the cancellation.
+     */
+    @Transactional
+    public Acceptance accept(Long entryId) {
+        List<Hold> found = jdbcTemplate.query(LOAD_HOLD_SQL, (rs, rowNum) -> new Hold(
+                rs.getLong("patient_id"),
+                rs.getString("status"),
+                rs.getLong("held_doctor_id"),
+                toLocalDateTime(rs.getTimestamp("held_slot")),
+                toLocalDateTime(rs.getTimestamp("hold_expires_at"))), entryId);
+        if (found.isEmpty()) {
+            throw new ResourceNotFoundException("Waitlist entry not found with id: " + entryId);
+        }
+        Hold hold = found.get(0);
+        LocalDateTime now = LocalDateTime.now();
+        if (!"HELD".equals(hold.status()) || hold.expiresAt() == null || !hold.expiresAt().isAfter(now)) {
+            throw new IllegalStateException("No slot is currently held for waitlist entry " + entryId);
+        }
+
+        Timestamp slot = Timestamp.valueOf(hold.slot());
+        List<Long> ids;
+        try {
+            ids = jdbcTemplate.query(INSERT_SQL, (rs, rowNum) -> rs.getLong("id"),
+                    hold.patientId(), hold.doctorId(), slot);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent booking overlapping the slot, caught by an exclusion constraint
+            ids = List.of();
+        }
+        if (ids.isEmpty()) {
+            throw new SlotConflictException(
+                    "The held slot was booked meanwhile, or the patient has an appointment overlapping it");
+        }
+        Long appointmentId = ids.get(0);
+        if (jdbcTemplate.update(CONFIRM_SQL, appointmentId, entryId, Timestamp.valueOf(now)) == 0) {
+            // Rolls the booking back
+            throw new IllegalStateException("The hold on waitlist entry " + entryId + " has expired");
+        }
+        eventPublisher.publishEvent(new AppointmentChangedEvent(appointmentId, hold.doctorId(), null, hold.slot(), "BOOKED"));
+        accepted.increment();
+        return new Acceptance(entryId, appointmentId, hold.doctorId(), hold.slot());
+    }
+
+    public record Acceptance(Long entryId, Long appointmentId, Long doctorId, LocalDateTime appointmentDate) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // MATCHING
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Offer the slot a committed cancellation or reschedule vacated
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        LocalDateTime freed = freedSlot(event);
+        if (freed == null || !freed.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        freedSlots.increment();
+        try {
+            offer(event.doctorId(), freed, Set.of());
+        } catch (RuntimeException e) {
+            // The change itself is committed; the slot simply is not offered
+            log.warn("Could not offer freed slot {} of doctor {}: {}", freed, event.doctorId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Release lapsed holds back to the queue, offering their slots onwards, and close past windows
+     */
+    @Scheduled(fixedDelayString = "${waitlist.expiry-interval-ms:60000}",
+            initialDelayString = "${waitlist.expiry-interval-ms:60000}")
+    public void expireHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<ReleasedHold> released = jdbcTemplate.query(RELEASE_EXPIRED_SQL, (rs, rowNum) ->
+                    new ReleasedHold(criteria(rs), heldSlot(rs)), Timestamp.valueOf(now));
+            for (ReleasedHold hold : released) {
+                lapsedHolds.increment();
+                index.add(hold.criteria());
+                if (hold.slot().slot() != null && hold.slot().slot().isAfter(now)) {
+                    offer(hold.slot().doctorId(), hold.slot().slot(), Set.of(hold.criteria().entryId()));
+                }
+            }
+            LocalDate today = now.toLocalDate();
+            jdbcTemplate.query(CLOSE_PAST_SQL, (rs, rowNum) -> rs.getLong("id"), Date.valueOf(today))
+                    .forEach(index::remove);
+            index.dropDaysBefore(today);
+        } catch (RuntimeException e) {
+            log.warn("Waitlist hold expiry failed: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Rebuild the index from the database, picking up entries registered or withdrawn on other nodes
+     */
+    @Scheduled(fixedDelayString = "${waitlist.reload-interval-ms:300000}",
+            initialDelayString = "${waitlist.reload-interval-ms:300000}")
+    public void reload() {
+        WaitlistIndex fresh = new WaitlistIndex();
+        LocalDate today = LocalDate.now();
+        for (WaitlistEntry entry : waitlistRepository.findByStatus("OPEN")) {
+            if (!entry.getToDate().isBefore(today)) {
+                fresh.add(criteria(entry));
+            }
+        }
+        index = fresh;
+    }
+
+    public WaitlistStats getStats() {
+        WaitlistIndex current = index;
+        return new WaitlistStats(current.size(), current.bucketCount(), registered.sum(), freedSlots.sum(),
+                holds.sum(), unmatched.sum(), lapsedHolds.sum(), accepted.sum());
+    }
+
+    public record WaitlistStats(int openEntries, int indexedDays, long registered, long freedSlots,
+                                long holds, long unmatchedSlots, long lapsedHolds, long accepted) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * The slot a change left free: the old time of a reschedule, or the time of a cancellation
+     */
+    static LocalDateTime freedSlot(AppointmentChangedEvent event) {
+        if (event.previousDate() != null && event.newDate() != null && !event.previousDate().equals(event.newDate())) {
+            return event.previousDate();
+        }
+        return "CANCELLED".equals(event.status()) ? event.newDate() : null;
+    }
+
+    /**
+     * Hold the slot for the best open match; entries that turn out to be taken already are skipped
+     */
+    void offer(Long doctorId, LocalDateTime slot, Set<Long> excluded) {
+        WaitlistIndex current = index;
+        if (current.size() == 0) {
+            unmatched.increment();
+            return;
+        }
+        Optional<Doctor> doctor = doctorRepository.findById(doctorId);
+        if (doctor.isEmpty() || !Boolean.TRUE.equals(doctor.get().getActive())) {
+            return;
+        }
+        String specialization = doctor.get().getSpecialization();
+        Set<Long> skipped = new HashSet<>(excluded);
+        while (true) {
+            Optional<Criteria> match = current.bestMatch(doctorId, specialization, slot, skipped);
+            if (match.isEmpty()) {
+                unmatched.increment();
+                return;
+            }
+            Criteria criteria = match.get();
+            LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(holdMinutes);
+            Integer claimed = requiresNew.execute(tx -> jdbcTemplate.update(HOLD_SQL,
+                    doctorId, Timestamp.valueOf(slot), Timestamp.valueOf(expiresAt), criteria.entryId()));
+            current.remove(criteria.entryId());
+            if (claimed != null && claimed == 1) {
+                holds.increment();
+                notify(new SlotHold(criteria.entryId(), criteria.patientId(), doctorId, slot, expiresAt));
+                return;
+            }
+            skipped.add(criteria.entryId());
+        }
+    }
+
+    private void notify(SlotHold hold) {
+        try {
+            notifier.slotHeld(hold);
+        } catch (RuntimeException e) {
+            log.warn("Waitlist notification for entry {} failed: {}", hold.entryId(), e.getMessage());
+        }
+    }
+
+    private static Criteria criteria(WaitlistEntry entry) {
+        LocalDate today = LocalDate.now();
+        return new Criteria(entry.getId(), entry.getPatientId(), entry.getDoctorId(), entry.getSpecialization(),
+                entry.getFromDate().isBefore(today) ? today : entry.getFromDate(), entry.getToDate(),
+                entry.getEarliestTime(), entry.getLatestTime());
+    }
+
+    private static Criteria criteria(ResultSet rs) throws SQLException {
+        LocalDate today = LocalDate.now();
+        LocalDate from = rs.getDate("from_date").toLocalDate();
+        long doctorId = rs.getLong("doctor_id");
+        return new Criteria(rs.getLong("id"), rs.getLong("patient_id"), rs.wasNull() ? null : doctorId,
+                rs.getString("specialization"), from.isBefore(today) ? today : from,
+                rs.getDate("to_date").toLocalDate(), toLocalTime(rs.getTime("earliest_time")),
+                toLocalTime(rs.getTime("latest_time")));
+    }
+
+    private static HeldSlot heldSlot(ResultSet rs) throws SQLException {
+        long doctorId = rs.getLong("held_doctor_id");
+        return new HeldSlot(rs.wasNull() ? null : doctorId, toLocalDateTime(rs.getTimestamp("held_slot")));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    private static LocalTime toLocalTime(Time time) {
+        return time == null ? null : time.toLocalTime();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record HeldSlot(Long doctorId, LocalDateTime slot) {
+    }
+
+    private record ReleasedHold(Criteria criteria, HeldSlot slot) {
+    }
+
+    record Hold(Long patientId, String status, Long doctorId, LocalDateTime slot, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.mhoms.mhomsservices.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ExpiringCache
+ * Tests expiry, bounding and statistics
+ */
+@DisplayName("Expiring Cache Tests")
+class ExpiringCacheTest {
+
+    private AtomicLong now;
+    private ExpiringCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000L);
+        cache = new ExpiringCache<>(4, now::get);
+    }
+
+    @Test
+    @DisplayName("Should return live entry and count a hit")
+    void testGet_LiveEntry_Hit() {
+        // Arrange
+        cache.putWithTtl("a", "value", 1000);
+
+        // Act & Assert
+        assertThat(cache.get("a")).isEqualTo("value");
+        assertThat(cache.get("missing")).isNull();
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should never return an expired entry")
+    void testGet_ExpiredEntry_ReturnsNull() {
+        // Arrange
+        cache.putWithTtl("a", "value", 1000);
+
+        // Act
+        now.addAndGet(1000);
+
+        // Assert
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stay within bound when full")
+    void testPut_Full_EvictsToStayBounded() {
+        // Act
+        for (int i = 0; i < 20; i++) {
+            cache.putWithTtl("key" + i, "value", 1000);
+        }
+
+        // Assert
+        assertThat(cache.size()).isLessThanOrEqualTo(4);
+        assertThat(cache.stats().evictions()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should drop invalidated entries")
+    void testInvalidate_RemovesEntry() {
+        // Arrange
+        cache.putWithTtl("a", "value", 1000);
+
+        // Act
+        cache.invalidate("a");
+
+        // Assert
+        assertThat(cache.get("a")).isNull();
+    }
+}
@@ -23,6 +23,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -79,7 +80,7 @@ class AppointmentControllerTest {
     @DisplayName("ADMIN should book appointment successfully")
     void testBookAppointment_AsAdmin_Success() throws Exception {
         // Arrange
-        when(appointmentService.bookAppointment(eq(1L), eq(1L), any(LocalDateTime.class)))
+        when(appointmentService.bookAppointment(eq(1L), eq(1L), any(LocalDateTime.class), isNull()))
                 .thenReturn(testAppointment);
 
         // Act & Assert
@@ -99,7 +100,7 @@ class AppointmentControllerTest {
     @DisplayName("PATIENT should book appointment successfully")
     void testBookAppointment_AsPatient_Success() throws Exception {
         // Arrange
-        when(appointmentService.bookAppointment(eq(1L), eq(1L), any(LocalDateTime.class)))
+        when(appointmentService.bookAppointment(eq(1L), eq(1L), any(LocalDateTime.class), isNull()))
                 .thenReturn(testAppointment);
 
         // Act & Assert
@@ -191,7 +192,7 @@ class AppointmentControllerTest {
         AppointmentStatusRequest request = new AppointmentStatusRequest();
         request.setStatus("COMPLETED");
 
-        when(appointmentService.updateAppointmentStatus(1L, "COMPLETED"))
+        when(appointmentService.updateAppointmentStatus(1L, "COMPLETED", null))
                 .thenReturn(testAppointment);
 
         // Act & Assert
@@ -212,7 +213,7 @@ class AppointmentControllerTest {
         AppointmentStatusRequest request = new AppointmentStatusRequest();
         request.setStatus("COMPLETED");
 
-        when(appointmentService.updateAppointmentStatus(1L, "COMPLETED"))
+        when(appointmentService.updateAppointmentStatus(1L, "COMPLETED", null))
                 .thenReturn(testAppointment);
 
         // Act & Assert
@@ -248,7 +249,7 @@ class AppointmentControllerTest {
         AppointmentStatusRequest request = new AppointmentStatusRequest();
         request.setStatus("CANCELLED");
 
-        when(appointmentService.updateAppointmentStatus(1L, "CANCELLED"))
+        when(appointmentService.updateAppointmentStatus(1L, "CANCELLED", null))
                 .thenReturn(testAppointment);
 
         // Act & Assert
@@ -259,6 +260,29 @@ class AppointmentControllerTest {
                 .andExpect(jsonPath("$.status").value("CANCELLED"));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("If-Match version should be passed to the service and the new version returned as ETag")
+    void testUpdateAppointmentStatus_IfMatch() throws Exception {
+        // Arrange
+        testAppointment.setStatus("COMPLETED");
+        testAppointment.setVersion(4L);
+        AppointmentStatusRequest request = new AppointmentStatusRequest();
+        request.setStatus("COMPLETED");
+
+        when(appointmentService.updateAppointmentStatus(1L, "COMPLETED", 3L))
+                .thenReturn(testAppointment);
+
+        // Act & Assert
+        mockMvc.perform(put("/appointments/1/status")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     @DisplayName("Should handle empty appointment list")
@@ -1,8 +1,10 @@
 package com.mhoms.mhomsservices.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mhoms.mhomsservices.dto.DoctorTimelineResponse;
 import com.mhoms.mhomsservices.model.Doctor;
 import com.mhoms.mhomsservices.service.DoctorService;
+import com.mhoms.mhomsservices.service.DoctorTimelineService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,10 +16,15 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,6 +48,9 @@ class DoctorControllerTest {
     @MockBean
     private DoctorService doctorService;
 
+    @MockBean
+    private DoctorTimelineService doctorTimelineService;
+
     private Doctor testDoctor;
 
     @BeforeEach
@@ -213,4 +223,37 @@ class DoctorControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.active").value(false));
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "PATIENT")
+    @DisplayName("Timeline should be compact and answer a matching If-None-Match with 304")
+    void testGetTimeline_ConditionalGet() throws Exception {
+        // Arrange
+        LocalDate day = LocalDate.of(2099, 6, 1);
+        DoctorTimelineResponse timeline = new DoctorTimelineResponse(1L, day, day, DoctorTimelineService.STATUSES,
+                List.of(new DoctorTimelineResponse.Day(day, List.<long[]>of(new long[]{540, 30, 0, 10}))));
+        when(doctorTimelineService.getTimeline(eq(1L), eq(day), eq(day))).thenReturn(timeline);
+        String etag = "\"" + DoctorTimelineService.fingerprint(timeline) + "\"";
+
+        // Act & Assert
+        mockMvc.perform(get("/doctors/1/timeline").param("from", "2099-06-01").param("to", "2099-06-01"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(jsonPath("$.statuses[0]").value("BOOKED"))
+                .andExpect(jsonPath("$.days[0].entries[0]", contains(540, 30, 0, 10)));
+        mockMvc.perform(get("/doctors/1/timeline").param("from", "2099-06-01").param("to", "2099-06-01")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(roles = "PATIENT")
+    @DisplayName("PATIENT should not delete a doctor through a percent-encoded path - 403")
+    void testDeleteDoctor_EncodedPath_AsPatient_Forbidden() throws Exception {
+        // Act & Assert (/d%6fctors/7 routes to DELETE /doctors/{id} once decoded)
+        mockMvc.perform(delete(URI.create("/d%6fctors/7")))
+                .andExpect(status().isForbidden());
+        verify(doctorService, never()).deleteDoctor(any());
+    }
+}
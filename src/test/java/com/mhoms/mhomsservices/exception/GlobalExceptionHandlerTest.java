@@ -0,0 +1,52 @@
+package com.mhoms.mhomsservices.exception;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for GlobalExceptionHandler
+ * Tests how wrapped authentication failures are mapped
+ */
+@DisplayName("Global Exception Handler Tests")
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    @DisplayName("A saturated hashing pool wrapped by the authentication provider should stay a 429")
+    void testHandleAuthenticationException_WrappedTooManyRequests() {
+        // Arrange
+        InternalAuthenticationServiceException ex = new InternalAuthenticationServiceException(
+                "Server busy", new TooManyRequestsException("Server busy", 3));
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = handler.handleAuthenticationException(ex);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+    }
+
+    @Test
+    @DisplayName("Other internal authentication failures should stay a 401")
+    void testHandleAuthenticationException_Other() {
+        // Arrange
+        InternalAuthenticationServiceException ex = new InternalAuthenticationServiceException(
+                "Lookup failed", new IllegalStateException("connection refused"));
+
+        // Act
+        ResponseEntity<Map<String, Object>> response = handler.handleAuthenticationException(ex);
+
+        // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.RETRY_AFTER)).isFalse();
+    }
+}
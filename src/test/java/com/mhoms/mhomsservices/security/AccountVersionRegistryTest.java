@@ -0,0 +1,109 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AccountVersionRegistry
+ * Tests version comparison, event handling and full reload
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Account Version Registry Tests")
+class AccountVersionRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AccountVersionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new AccountVersionRegistry(userRepository, true);
+    }
+
+    @Test
+    @DisplayName("Token with the current version should be accepted")
+    void testCheck_CurrentVersion() {
+        // Arrange
+        registry.record(1L, 3L);
+
+        // Act & Assert
+        assertThat(registry.check(1L, 3L)).isEqualTo(AccountVersionRegistry.Check.CURRENT);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("Token issued before a role change should be stale")
+    void testCheck_AfterUserChanged_Stale() {
+        // Arrange
+        registry.record(1L, 3L);
+
+        // Act
+        registry.onUserChanged(new UserChangedEvent(1L, "testuser", 4L, false));
+
+        // Assert
+        assertThat(registry.check(1L, 3L)).isEqualTo(AccountVersionRegistry.Check.STALE);
+        assertThat(registry.check(1L, 4L)).isEqualTo(AccountVersionRegistry.Check.CURRENT);
+    }
+
+    @Test
+    @DisplayName("Unknown or deleted users should fall back to the database")
+    void testCheck_Unknown() {
+        // Arrange
+        registry.record(1L, 3L);
+
+        // Act
+        registry.onUserChanged(new UserChangedEvent(1L, "testuser", 3L, true));
+
+        // Assert
+        assertThat(registry.check(1L, 3L)).isEqualTo(AccountVersionRegistry.Check.UNKNOWN);
+        assertThat(registry.check(2L, 0L)).isEqualTo(AccountVersionRegistry.Check.UNKNOWN);
+    }
+
+    @Test
+    @DisplayName("Full reload should drop users missing from the database")
+    void testReloadAll_DropsDeletedUsers() {
+        // Arrange
+        registry.record(1L, 1L);
+        registry.record(2L, 5L);
+        UserRepository.AccountVersionView view = mock(UserRepository.AccountVersionView.class);
+        when(view.getId()).thenReturn(2L);
+        when(view.getAccountVersion()).thenReturn(6L);
+        when(userRepository.findAllAccountVersions()).thenReturn(List.of(view));
+
+        // Act
+        registry.reloadAll();
+
+        // Assert
+        assertThat(registry.check(1L, 1L)).isEqualTo(AccountVersionRegistry.Check.UNKNOWN);
+        assertThat(registry.check(2L, 6L)).isEqualTo(AccountVersionRegistry.Check.CURRENT);
+        assertThat(registry.getStats().trackedUsers()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Full reload should take the database version even when the registry is ahead of it")
+    void testReloadAll_ReplacesVersionsAheadOfDatabase() {
+        // Arrange (version 5 was recorded for a write that never committed)
+        registry.record(1L, 5L);
+        UserRepository.AccountVersionView view = mock(UserRepository.AccountVersionView.class);
+        when(view.getId()).thenReturn(1L);
+        when(view.getAccountVersion()).thenReturn(4L);
+        when(userRepository.findAllAccountVersions()).thenReturn(List.of(view));
+
+        // Act
+        registry.reloadAll();
+
+        // Assert
+        assertThat(registry.check(1L, 4L)).isEqualTo(AccountVersionRegistry.Check.CURRENT);
+    }
+}
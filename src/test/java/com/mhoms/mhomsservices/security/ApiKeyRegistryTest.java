@@ -0,0 +1,175 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.model.Role;
+import com.mhoms.mhomsservices.repository.ApiKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ApiKeyRegistry
+ * Tests key lookup, expiry, revocation and reloads
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("API Key Registry Tests")
+class ApiKeyRegistryTest {
+
+    @Mock
+    private ApiKeyRepository apiKeyRepository;
+
+    private AtomicLong now;
+    private ApiKeyRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(System.currentTimeMillis());
+        registry = new ApiKeyRegistry(apiKeyRepository, now::get);
+    }
+
+    @Test
+    @DisplayName("Registered key should authenticate without touching the database")
+    void testAuthenticate_RegisteredKey() {
+        // Arrange
+        String rawKey = ApiKeyRegistry.generateKey();
+        registry.register(ApiKeyRegistry.digest(rawKey), 7L, "etl-job", "DOCTOR", null);
+
+        // Act
+        ClaimsPrincipal principal = registry.authenticate(rawKey);
+
+        // Assert
+        assertThat(principal).isEqualTo(new ClaimsPrincipal(7L, "etl-job", "DOCTOR"));
+        assertThat(registry.authenticate(ApiKeyRegistry.generateKey())).isNull();
+        assertThat(registry.getStats().hits()).isEqualTo(1);
+        assertThat(registry.getStats().misses()).isEqualTo(1);
+        verifyNoInteractions(apiKeyRepository);
+    }
+
+    @Test
+    @DisplayName("Expired key should be rejected and dropped")
+    void testAuthenticate_ExpiredKey() {
+        // Arrange
+        String rawKey = ApiKeyRegistry.generateKey();
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(1);
+        registry.register(ApiKeyRegistry.digest(rawKey), 7L, "etl-job", "DOCTOR", expiresAt);
+
+        // Act
+        now.set(expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+
+        // Assert
+        assertThat(registry.authenticate(rawKey)).isNull();
+        assertThat(registry.getStats().activeKeys()).isZero();
+    }
+
+    @Test
+    @DisplayName("Revoked key should stop authenticating")
+    void testUnregister_RevokedKey() {
+        // Arrange
+        String rawKey = ApiKeyRegistry.generateKey();
+        String digest = ApiKeyRegistry.digest(rawKey);
+        registry.register(digest, 7L, "etl-job", "DOCTOR", null);
+
+        // Act
+        registry.unregister(digest);
+
+        // Assert
+        assertThat(registry.authenticate(rawKey)).isNull();
+    }
+
+    @Test
+    @DisplayName("Full reload should load active keys and drop keys revoked elsewhere")
+    void testReloadAll() {
+        // Arrange
+        String kept = ApiKeyRegistry.generateKey();
+        String revokedElsewhere = ApiKeyRegistry.generateKey();
+        registry.register(ApiKeyRegistry.digest(revokedElsewhere), 7L, "etl-job", "DOCTOR", null);
+        when(apiKeyRepository.findActiveKeys(any()))
+                .thenReturn(List.of(view(ApiKeyRegistry.digest(kept), 8L, "billing", Role.ADMIN)));
+
+        // Act
+        registry.reloadAll();
+
+        // Assert
+        assertThat(registry.authenticate(kept)).isEqualTo(new ClaimsPrincipal(8L, "billing", "ADMIN"));
+        assertThat(registry.authenticate(revokedElsewhere)).isNull();
+    }
+
+    @Test
+    @DisplayName("Full reload should not bring back a key revoked while its query ran")
+    void testReloadAll_RevokedDuringReload() {
+        // Arrange
+        String rawKey = ApiKeyRegistry.generateKey();
+        String digest = ApiKeyRegistry.digest(rawKey);
+        registry.register(digest, 7L, "etl-job", "DOCTOR", null);
+        when(apiKeyRepository.findActiveKeys(any())).thenAnswer(invocation -> {
+            // Snapshot taken before the revoke committed
+            registry.unregister(digest);
+            return List.of(view(digest, 7L, "etl-job", Role.DOCTOR));
+        });
+
+        // Act
+        registry.reloadAll();
+
+        // Assert
+        assertThat(registry.authenticate(rawKey)).isNull();
+        assertThat(registry.getStats().activeKeys()).isZero();
+    }
+
+    @Test
+    @DisplayName("User change should reload only that user's keys with the new role")
+    void testOnUserChanged_ReloadsUserKeys() {
+        // Arrange
+        String rawKey = ApiKeyRegistry.generateKey();
+        String digest = ApiKeyRegistry.digest(rawKey);
+        registry.register(digest, 7L, "etl-job", "ADMIN", null);
+        when(apiKeyRepository.findActiveKeysByUserId(eq(7L), any()))
+                .thenReturn(List.of(view(digest, 7L, "etl-job", Role.DOCTOR)));
+
+        // Act
+        registry.onUserChanged(new UserChangedEvent(7L, "etl-job", 2L, false));
+
+        // Assert
+        assertThat(registry.authenticate(rawKey).role()).isEqualTo("DOCTOR");
+    }
+
+    @Test
+    @DisplayName("Disabling a user should drop all of their keys")
+    void testOnUserChanged_DisabledUser() {
+        // Arrange
+        String rawKey = ApiKeyRegistry.generateKey();
+        registry.register(ApiKeyRegistry.digest(rawKey), 7L, "etl-job", "ADMIN", null);
+        when(apiKeyRepository.findActiveKeysByUserId(eq(7L), any())).thenReturn(List.of());
+
+        // Act
+        registry.onUserChanged(new UserChangedEvent(7L, "etl-job", 2L, false));
+
+        // Assert
+        assertThat(registry.authenticate(rawKey)).isNull();
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static ApiKeyRepository.ActiveKeyView view(String digest, Long userId, String username, Role role) {
+        return new ApiKeyRepository.ActiveKeyView() {
+            public String getKeyDigest() { return digest; }
+            public Long getUserId() { return userId; }
+            public String getUsername() { return username; }
+            public Role getRole() { return role; }
+            public LocalDateTime getExpiresAt() { return null; }
+        };
+    }
+}
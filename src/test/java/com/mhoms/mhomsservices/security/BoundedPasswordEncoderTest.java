@@ -0,0 +1,125 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.exception.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for BoundedPasswordEncoder
+ * Tests hashing on the bounded pool, backpressure and hash upgrades
+ */
+@DisplayName("Bounded Password Encoder Tests")
+class BoundedPasswordEncoderTest {
+
+    private PasswordHashingExecutor hashingExecutor;
+    private ExecutorService callers;
+
+    @AfterEach
+    void tearDown() {
+        if (hashingExecutor != null) {
+            hashingExecutor.shutdown();
+        }
+        if (callers != null) {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should encode and match on the hashing pool and record timings")
+    void testEncodeAndMatch() {
+        // Arrange
+        hashingExecutor = new PasswordHashingExecutor(2, 4, 5000);
+        BoundedPasswordEncoder encoder =
+                new BoundedPasswordEncoder(BoundedPasswordEncoder.bcryptDelegate(4), hashingExecutor);
+
+        // Act
+        String hash = encoder.encode("Password123");
+
+        // Assert
+        assertThat(hash).startsWith("{bcrypt}");
+        assertThat(encoder.matches("Password123", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(hashingExecutor.getStats().completed()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Legacy unprefixed and weaker hashes should match and request an upgrade")
+    void testLegacyHash_MatchesAndUpgrades() {
+        // Arrange
+        hashingExecutor = new PasswordHashingExecutor(1, 4, 5000);
+        BoundedPasswordEncoder encoder =
+                new BoundedPasswordEncoder(BoundedPasswordEncoder.bcryptDelegate(5), hashingExecutor);
+        String legacy = new BCryptPasswordEncoder(4).encode("Password123");
+
+        // Act & Assert
+        assertThat(encoder.matches("Password123", legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("Password123"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject with 429 when the hashing queue is full")
+    void testSaturatedPool_Rejects() throws Exception {
+        // Arrange
+        hashingExecutor = new PasswordHashingExecutor(1, 1, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new BlockingEncoder(started, release);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, hashingExecutor);
+        callers = Executors.newFixedThreadPool(2);
+
+        callers.submit(() -> encoder.encode("running"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        callers.submit(() -> encoder.encode("queued"));
+        waitForQueued(1);
+
+        // Act & Assert
+        assertThatThrownBy(() -> encoder.encode("rejected"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThat(hashingExecutor.getStats().rejected()).isEqualTo(1);
+
+        release.countDown();
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void waitForQueued(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (hashingExecutor.getStats().queued() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private record BlockingEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.model.Role;
+import com.mhoms.mhomsservices.model.User;
+import com.mhoms.mhomsservices.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CustomUserDetailsService
+ * Tests principal caching and write invalidation
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Details Service Tests")
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private CustomUserDetailsService userDetailsService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = new CustomUserDetailsService(userRepository, true, 300, 100);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        testUser.setPassword("encodedPassword");
+        testUser.setRole(Role.DOCTOR);
+    }
+
+    @Test
+    @DisplayName("Repeat lookups should be served from cache")
+    void testLoadUser_RepeatLookup_SingleQuery() {
+        // Arrange
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // Act
+        UserDetails first = userDetailsService.loadUserByUsername("testuser");
+        UserDetails second = userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(userDetailsService.getCacheStats().hits()).isEqualTo(1);
+        verify(userRepository, times(1)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("User write should invalidate cached principal")
+    void testOnUserChanged_EvictsCachedPrincipal() {
+        // Arrange
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Act
+        userDetailsService.onUserChanged(new UserChangedEvent(1L, "testuser", 1L, false));
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("Renaming a user should invalidate the principal cached under the old name")
+    void testOnUserChanged_RenameEvictsPreviousUsername() {
+        // Arrange
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Act
+        userDetailsService.onUserChanged(new UserChangedEvent(1L, "renamed", 1L, false, "testuser"));
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("Disabled cache should always query the repository")
+    void testLoadUser_CacheDisabled_AlwaysQueries() {
+        // Arrange
+        userDetailsService = new CustomUserDetailsService(userRepository, false, 300, 100);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // Act
+        userDetailsService.loadUserByUsername("testuser");
+        userDetailsService.loadUserByUsername("testuser");
+
+        // Assert
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+
+    @Test
+    @DisplayName("Unknown user should not be cached")
+    void testLoadUser_UnknownUser_Throws() {
+        // Arrange
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("ghost"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThat(userDetailsService.getCacheStats().size()).isZero();
+    }
+}
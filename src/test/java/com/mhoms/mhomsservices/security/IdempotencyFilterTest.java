@@ -0,0 +1,79 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.repository.IdempotencyRecordRepository;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IdempotencyFilter
+ * Tests which responses are stored for replay
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Idempotency Filter Tests")
+class IdempotencyFilterTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new IdempotencyFilter(new IdempotencyStore(recordRepository, 24, 100),
+                true, Set.of("/appointments"), 1024, 1000);
+    }
+
+    @Test
+    @DisplayName("A 429 should not be stored, so a retry with the same key executes again")
+    void testFilter_TooManyRequestsNotStored() throws Exception {
+        // Arrange
+        when(recordRepository.findLive(anyString(), any())).thenReturn(Optional.empty());
+        AtomicInteger executions = new AtomicInteger();
+        int[] statuses = {429, HttpServletResponse.SC_CREATED};
+
+        // Act
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(request(), first, (req, res) ->
+                ((HttpServletResponse) res).setStatus(statuses[executions.getAndIncrement()]));
+        MockHttpServletResponse retry = new MockHttpServletResponse();
+        filter.doFilter(request(), retry, (req, res) ->
+                ((HttpServletResponse) res).setStatus(statuses[executions.getAndIncrement()]));
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo(429);
+        assertThat(retry.getStatus()).isEqualTo(HttpServletResponse.SC_CREATED);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(executions).hasValue(2);
+        verify(recordRepository, times(1)).insertIfAbsent(anyString(), anyString(), anyInt(), anyString(),
+                anyString(), any(), any(), any());
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/appointments");
+        request.setServletPath("/appointments");
+        request.addHeader(IdempotencyFilter.HEADER, "key-1");
+        request.setContent("{\"patientId\":1}".getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,155 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.model.IdempotencyRecord;
+import com.mhoms.mhomsservices.repository.IdempotencyRecordRepository;
+import com.mhoms.mhomsservices.security.IdempotencyStore.Claim;
+import com.mhoms.mhomsservices.security.IdempotencyStore.StoredResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IdempotencyStore
+ * Tests ownership, replay, waiting on in-flight keys and the database fallback
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Idempotency Store Tests")
+class IdempotencyStoreTest {
+
+    private static final String KEY = "a".repeat(64);
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyStore(recordRepository, 24, 100);
+    }
+
+    @Test
+    @DisplayName("First claim should own the key, and the completed response should be replayed")
+    void testClaim_OwnThenReplay() {
+        // Arrange
+        when(recordRepository.findLive(eq(KEY), any())).thenReturn(Optional.empty());
+        StoredResponse response = response("fp-1", 201);
+
+        // Act
+        Claim first = store.claim(KEY);
+        store.complete(KEY, response);
+        Claim second = store.claim(KEY);
+
+        // Assert
+        assertThat(first.isOwner()).isTrue();
+        assertThat(second.replay()).isSameAs(response);
+        assertThat(store.inFlight()).isZero();
+        verify(recordRepository, times(1)).findLive(eq(KEY), any());
+        verify(recordRepository).insertIfAbsent(eq(KEY), eq("fp-1"), eq(201), eq("application/json"), eq(""),
+                any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Duplicate claim while the key is in flight should receive the owner's response")
+    void testClaim_WaitsForInFlight() throws Exception {
+        // Arrange
+        when(recordRepository.findLive(eq(KEY), any())).thenReturn(Optional.empty());
+        store.claim(KEY);
+
+        // Act
+        Claim duplicate = store.claim(KEY);
+        StoredResponse response = response("fp-1", 201);
+        store.complete(KEY, response);
+
+        // Assert
+        assertThat(duplicate.isOwner()).isFalse();
+        assertThat(duplicate.running().get()).isSameAs(response);
+    }
+
+    @Test
+    @DisplayName("Abandoned key should release waiters with no response and be claimable again")
+    void testAbandon_ReleasesKey() throws Exception {
+        // Arrange
+        when(recordRepository.findLive(eq(KEY), any())).thenReturn(Optional.empty());
+        store.claim(KEY);
+        Claim duplicate = store.claim(KEY);
+
+        // Act
+        store.abandon(KEY);
+        Claim retry = store.claim(KEY);
+
+        // Assert
+        assertThat(duplicate.running().get()).isNull();
+        assertThat(retry.isOwner()).isTrue();
+        verify(recordRepository, never()).insertIfAbsent(anyString(), anyString(), anyInt(),
+                anyString(), anyString(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Response stored by another node should be replayed from the database")
+    void testClaim_ReplaysPersistedRecord() {
+        // Arrange
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(KEY);
+        record.setFingerprint("fp-1");
+        record.setStatusCode(201);
+        record.setContentType("application/json");
+        record.setLocation("");
+        record.setBody("{\"id\":5}".getBytes(StandardCharsets.UTF_8));
+        when(recordRepository.findLive(eq(KEY), any())).thenReturn(Optional.of(record));
+
+        // Act
+        Claim claim = store.claim(KEY);
+
+        // Assert
+        assertThat(claim.replay()).isNotNull();
+        assertThat(claim.replay().status()).isEqualTo(201);
+        assertThat(claim.replay().location()).isNull();
+        assertThat(store.inFlight()).isZero();
+        assertThat(store.cachedResponses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Database failures should neither block the owner nor lose the in-memory response")
+    void testComplete_DatabaseDown() {
+        // Arrange
+        when(recordRepository.findLive(eq(KEY), any()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        when(recordRepository.insertIfAbsent(anyString(), anyString(), anyInt(), anyString(), anyString(),
+                any(), any(), any())).thenThrow(new DataAccessResourceFailureException("down"));
+        StoredResponse response = response("fp-1", 201);
+
+        // Act
+        Claim first = store.claim(KEY);
+        store.complete(KEY, response);
+        Claim second = store.claim(KEY);
+
+        // Assert
+        assertThat(first.isOwner()).isTrue();
+        assertThat(second.replay()).isSameAs(response);
+        assertThat(store.inFlight()).isZero();
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static StoredResponse response(String fingerprint, int status) {
+        return new StoredResponse(fingerprint, status, "application/json", null,
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.util.Date;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Unit tests for JwtUtil
@@ -65,6 +66,20 @@ class JwtUtilTest {
         assertThat(refreshToken.split("\\.")).hasSize(3);
     }
 
+    @Test
+    @DisplayName("Refresh tokens should carry a unique jti and refresh type")
+    void testGenerateRefreshToken_HasJtiAndType() {
+        // Act
+        ParsedToken first = jwtUtil.parseToken(jwtUtil.generateRefreshToken(testUser));
+        ParsedToken second = jwtUtil.parseToken(jwtUtil.generateRefreshToken(testUser));
+        ParsedToken access = jwtUtil.parseToken(jwtUtil.generateToken(testUser));
+
+        // Assert
+        assertThat(first.isRefreshToken()).isTrue();
+        assertThat(first.tokenId()).isNotBlank().isNotEqualTo(second.tokenId());
+        assertThat(access.isRefreshToken()).isFalse();
+    }
+
     @Test
     @DisplayName("Should extract username from token")
     void testExtractUsername_Success() {
@@ -195,4 +210,50 @@ class JwtUtilTest {
         assertThat(isValid1).isTrue();
         assertThat(isValid2).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should parse token once into subject, expiry and claims")
+    void testParseToken_ReturnsSubjectAndExpiry() {
+        // Arrange
+        String token = jwtUtil.generateToken(testUser);
+
+        // Act
+        ParsedToken parsed = jwtUtil.parseToken(token);
+
+        // Assert
+        assertThat(parsed.subject()).isEqualTo("testuser");
+        assertThat(parsed.expiration()).isAfter(new Date());
+        assertThat(parsed.claims()).isNotNull();
+        assertThat(jwtUtil.isTokenValid(parsed, testUser)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Repeat token should be served from verified-token cache")
+    void testParseToken_RepeatToken_CacheHit() {
+        // Arrange
+        String token = jwtUtil.generateToken(testUser);
+
+        // Act
+        ParsedToken first = jwtUtil.parseToken(token);
+        ParsedToken second = jwtUtil.parseToken(token);
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtil.getTokenCacheStats().hits()).isEqualTo(1);
+        assertThat(jwtUtil.getTokenCacheStats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Tampered token should be rejected and not cached")
+    void testParseToken_TamperedSignature_Throws() {
+        // Arrange
+        String token = jwtUtil.generateToken(testUser);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        // Act & Assert
+        assertThatThrownBy(() -> jwtUtil.parseToken(tampered))
+                .isInstanceOf(io.jsonwebtoken.JwtException.class);
+        assertThat(jwtUtil.getTokenCacheStats().size()).isZero();
+    }
+}
@@ -0,0 +1,151 @@
+package com.mhoms.mhomsservices.security;
+
+import com.mhoms.mhomsservices.config.SecurityConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for RouteAuthorizationManager
+ * Tests first-match ordering, wildcards and parity with Ant-style matching
+ */
+@DisplayName("Route Authorization Manager Tests")
+class RouteAuthorizationManagerTest {
+
+    private RouteAuthorizationManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = SecurityConfig.routeAuthorization();
+    }
+
+    @Test
+    @DisplayName("Should apply the first declared rule when several match")
+    void testResolve_FirstMatchWins() {
+        // Arrange
+        RouteAuthorizationManager ordered = RouteAuthorizationManager.builder()
+                .route(HttpMethod.PUT, "/appointments/*/cancel").hasRole("PATIENT")
+                .route(HttpMethod.PUT, "/appointments/**").hasRole("ADMIN")
+                .anyRequestAuthenticated();
+
+        // Act & Assert
+        assertThat(ordered.resolve("PUT", "/appointments/5/cancel").authorities())
+                .containsExactly("ROLE_PATIENT");
+        assertThat(ordered.resolve("PUT", "/appointments/5/status").authorities())
+                .containsExactly("ROLE_ADMIN");
+        assertThat(ordered.resolve("GET", "/appointments/5").kind())
+                .isEqualTo(RouteAuthorizationManager.Access.Kind.AUTHENTICATED);
+    }
+
+    @Test
+    @DisplayName("Should match '**' against zero or more trailing segments")
+    void testResolve_DoubleWildcard() {
+        // Act & Assert
+        assertThat(manager.resolve("GET", "/patients").authorities())
+                .containsExactlyInAnyOrder("ROLE_ADMIN", "ROLE_DOCTOR");
+        assertThat(manager.resolve("GET", "/patients/3/appointments").authorities())
+                .containsExactlyInAnyOrder("ROLE_ADMIN", "ROLE_DOCTOR");
+        assertThat(manager.resolve("POST", "/auth/login").kind())
+                .isEqualTo(RouteAuthorizationManager.Access.Kind.PERMIT_ALL);
+    }
+
+    @Test
+    @DisplayName("Should resolve the same rule as in-order Ant matching for every route")
+    void testResolve_ParityWithAntMatchers() {
+        // Arrange
+        List<String> methods = List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "PROPFIND");
+        List<String> paths = List.of("/health", "/auth/login", "/auth/refresh", "/swagger-ui/index.html",
+                "/patients", "/patients/1", "/doctors/2/status", "/appointments/3/cancel",
+                "/appointments/3/status", "/appointments/3/reschedule", "/appointments/doctor/4",
+                "/dashboard/metrics/rate-limit", "/admin/users/bulk", "/unknown", "/");
+
+        for (String method : methods) {
+            for (String path : paths) {
+                MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+                request.setServletPath(path);
+
+                // Act
+                RouteAuthorizationManager.Access expected = manager.getDefaultAccess();
+                for (RouteAuthorizationManager.Rule rule : manager.getRules()) {
+                    AntPathRequestMatcher matcher = new AntPathRequestMatcher(rule.pattern(),
+                            rule.method() == null ? null : rule.method().name());
+                    if (matcher.matches(request)) {
+                        expected = rule.access();
+                        break;
+                    }
+                }
+
+                // Assert
+                assertThat(manager.resolve(method, path)).as(method + " " + path).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should deny anonymous users and users without a required role")
+    void testDecide_Roles() {
+        // Arrange
+        MockHttpServletRequest delete = new MockHttpServletRequest("DELETE", "/appointments/9");
+        Authentication admin = UsernamePasswordAuthenticationToken.authenticated(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+        Authentication patient = UsernamePasswordAuthenticationToken.authenticated(
+                "patient", null, AuthorityUtils.createAuthorityList("ROLE_PATIENT"));
+        Authentication anonymous = new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        // Act & Assert
+        assertThat(manager.decide(() -> admin, delete).isGranted()).isTrue();
+        assertThat(manager.decide(() -> patient, delete).isGranted()).isFalse();
+        assertThat(manager.decide(() -> anonymous, new MockHttpServletRequest("GET", "/unknown")).isGranted())
+                .isFalse();
+    }
+
+    @Test
+    @DisplayName("Should match percent-encoded and ';'-parameter paths by their decoded form")
+    void testDecide_EncodedPath() {
+        // Arrange
+        Authentication patient = UsernamePasswordAuthenticationToken.authenticated(
+                "patient", null, AuthorityUtils.createAuthorityList("ROLE_PATIENT"));
+        MockHttpServletRequest encoded = new MockHttpServletRequest("DELETE", "/appointm%65nts/5");
+        MockHttpServletRequest withContext = new MockHttpServletRequest("DELETE", "/api/d%6fctors/7");
+        withContext.setContextPath("/api");
+        MockHttpServletRequest withParameter = new MockHttpServletRequest("DELETE", "/doctors;x=1/7");
+
+        // Act & Assert
+        assertThat(manager.decide(() -> patient, encoded).isGranted()).isFalse();
+        assertThat(manager.decide(() -> patient, withContext).isGranted()).isFalse();
+        assertThat(manager.decide(() -> patient, withParameter).isGranted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should not resolve the Authentication for permit-all routes")
+    void testDecide_PermitAllIsLazy() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+
+        // Act & Assert
+        assertThat(manager.decide(() -> {
+            throw new AssertionError("Authentication should not be resolved");
+        }, request).isGranted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject '**' anywhere but the last segment")
+    void testBuilder_RejectsInnerDoubleWildcard() {
+        // Act & Assert
+        assertThatThrownBy(() -> RouteAuthorizationManager.builder().route("/a/**/b").permitAll())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.mhoms.mhomsservices.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TokenBucketLimiter
+ * Tests burst capacity, refill, Retry-After hints and bounded memory
+ */
+@DisplayName("Token Bucket Limiter Tests")
+class TokenBucketLimiterTest {
+
+    private AtomicLong now;
+    private TokenBucketLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        now = new AtomicLong(1_000_000L);
+        limiter = new TokenBucketLimiter(new RateLimitPolicy(3, 60), 8, 2, now::get);
+    }
+
+    @Test
+    @DisplayName("Should allow a burst up to capacity, then report the wait")
+    void testTryAcquire_BurstThenReject() {
+        // Act & Assert
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("10.0.0.1")).isEqualTo(1000);
+        assertThat(limiter.tryAcquire("10.0.0.2")).isZero();
+        assertThat(limiter.stats().rejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should refill at the configured rate")
+    void testTryAcquire_Refill() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("user");
+        }
+
+        // Act
+        now.addAndGet(500);
+        long halfway = limiter.tryAcquire("user");
+        now.addAndGet(500);
+        long refilled = limiter.tryAcquire("user");
+
+        // Assert
+        assertThat(halfway).isEqualTo(500);
+        assertThat(refilled).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stay bounded by evicting idle keys")
+    void testTryAcquire_BoundedKeys() {
+        // Act
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire("key-" + i);
+            now.incrementAndGet();
+        }
+
+        // Assert
+        assertThat(limiter.size()).isLessThanOrEqualTo(10);
+        assertThat(limiter.stats().evictions()).isGreaterThan(0);
+    }
+}
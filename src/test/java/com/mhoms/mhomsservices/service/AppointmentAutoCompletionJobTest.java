@@ -0,0 +1,147 @@
+package com.mhoms.mhomsservices.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AppointmentAutoCompletionJob
+ * Tests chunking, change events, failure handling and configuration checks
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Appointment Auto-Completion Job Tests")
+class AppointmentAutoCompletionJobTest {
+
+    private static final LocalDateTime PAST = LocalDateTime.of(2020, 3, 2, 9, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+    }
+
+    @Test
+    @DisplayName("Run should keep claiming chunks until one comes back short")
+    void testRun_DrainsInChunks() {
+        // Arrange
+        AppointmentAutoCompletionJob job = job("NO_SHOW", 2, 10);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(change(1L), change(2L)))
+                .thenReturn(List.of(change(3L)));
+
+        // Act
+        int moved = job.run();
+
+        // Assert
+        assertThat(moved).isEqualTo(3);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(eventPublisher, times(3)).publishEvent(any(AppointmentChangedEvent.class));
+        AppointmentAutoCompletionJob.JobStats stats = job.getStats();
+        assertThat(stats.runs()).isEqualTo(1);
+        assertThat(stats.chunks()).isEqualTo(2);
+        assertThat(stats.lastRunUpdated()).isEqualTo(3);
+        assertThat(stats.targetStatus()).isEqualTo("NO_SHOW");
+    }
+
+    @Test
+    @DisplayName("Run should stop at the per-run chunk cap")
+    void testRun_StopsAtChunkCap() {
+        // Arrange
+        AppointmentAutoCompletionJob job = job("COMPLETED", 1, 2);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(change(1L)));
+
+        // Act
+        int moved = job.run();
+
+        // Assert
+        assertThat(moved).isEqualTo(2);
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    @DisplayName("The sweep should select appointments whose end, not start, is past the cutoff")
+    void testRun_SelectsByEndTime() {
+        // Arrange
+        AppointmentAutoCompletionJob job = job("COMPLETED", 2, 10);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+
+        // Act
+        job.run();
+
+        // Assert
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), any(Object[].class));
+        assertThat(sql.getValue())
+                .contains("appointment_date + duration_minutes * interval '1 minute' < ?")
+                .contains("RETURNING a.id, a.doctor_id, a.appointment_date, a.duration_minutes");
+    }
+
+    @Test
+    @DisplayName("A failing chunk should end the run and be counted without propagating")
+    void testRun_FailureCounted() {
+        // Arrange
+        AppointmentAutoCompletionJob job = job("COMPLETED", 2, 10);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        // Act
+        int moved = job.run();
+
+        // Assert
+        assertThat(moved).isZero();
+        assertThat(job.getStats().failures()).isEqualTo(1);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should refuse target statuses other than COMPLETED and NO_SHOW")
+    void testConstructor_InvalidTarget() {
+        // Act & Assert
+        assertThatThrownBy(() -> job("CANCELLED", 2, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("COMPLETED or NO_SHOW");
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private AppointmentAutoCompletionJob job(String target, int chunkSize, int maxChunks) {
+        return new AppointmentAutoCompletionJob(jdbcTemplate, transactionTemplate, eventPublisher,
+                true, target, 120, chunkSize, maxChunks);
+    }
+
+    private static AppointmentChangedEvent change(Long id) {
+        return new AppointmentChangedEvent(id, 7L, PAST, PAST, "COMPLETED");
+    }
+}
@@ -0,0 +1,241 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.SeriesChangeResponse;
+import com.mhoms.mhomsservices.dto.SeriesRequest;
+import com.mhoms.mhomsservices.dto.SeriesResponse;
+import com.mhoms.mhomsservices.dto.SeriesResponse.OccurrenceStatus;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
+import com.mhoms.mhomsservices.exception.SlotConflictException;
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+import com.mhoms.mhomsservices.repository.AppointmentSeriesRepository;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import com.mhoms.mhomsservices.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AppointmentSeriesService
+ * Tests recurrence expansion, conflict preview, booking rules and series-wide changes
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Appointment Series Service Tests")
+class AppointmentSeriesServiceTest {
+
+    private static final LocalDateTime FIRST = LocalDateTime.of(2099, 6, 1, 9, 0);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AppointmentSeriesService seriesService;
+
+    @BeforeEach
+    void setUp() {
+        seriesService = new AppointmentSeriesService(appointmentRepository, seriesRepository, patientRepository,
+                doctorRepository, jdbcTemplate, eventPublisher, 10);
+    }
+
+    @Test
+    @DisplayName("Expansion should step by the interval and stop at count or until")
+    void testExpand() {
+        // Act
+        List<LocalDateTime> byCount = AppointmentSeriesService.expand(FIRST, 14, 3, null, 10);
+        List<LocalDateTime> byUntil = AppointmentSeriesService.expand(FIRST, 7, null, LocalDate.of(2099, 6, 22), 10);
+
+        // Assert
+        assertThat(byCount).containsExactly(FIRST, FIRST.plusDays(14), FIRST.plusDays(28));
+        assertThat(byUntil).containsExactly(FIRST, FIRST.plusDays(7), FIRST.plusDays(14), FIRST.plusDays(21));
+        assertThatThrownBy(() -> AppointmentSeriesService.expand(FIRST, 7, 11, null, 10))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("at most 10");
+        assertThatThrownBy(() -> AppointmentSeriesService.expand(FIRST, 7, 3, LocalDate.of(2099, 7, 1), 10))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("exactly one of count and until");
+    }
+
+    @Test
+    @DisplayName("Preview should mark occurrences overlapping existing appointments using one range query")
+    void testPreview_MarksTakenSlots() {
+        // Arrange
+        when(appointmentRepository.findBlockingSpansBetween(eq(7L), eq(3L), eq(FIRST.minusMinutes(480)), any()))
+                .thenReturn(List.of(span(FIRST.plusDays(7).minusMinutes(15), 30), span(FIRST.plusDays(14).plusMinutes(30), 60)));
+
+        // Act
+        SeriesResponse response = seriesService.preview(weekly(3));
+
+        // Assert
+        assertThat(response.total()).isEqualTo(3);
+        assertThat(response.free()).isEqualTo(2);
+        assertThat(response.occurrences()).extracting(SeriesResponse.Occurrence::status)
+                .containsExactly(OccurrenceStatus.FREE, OccurrenceStatus.SLOT_TAKEN, OccurrenceStatus.FREE);
+        verify(appointmentRepository, times(1)).findBlockingSpansBetween(any(), any(), any(), any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Booking should refuse a series with taken occurrences unless conflicts are skipped")
+    void testBook_ConflictWithoutSkip() {
+        // Arrange
+        when(patientRepository.existsById(3L)).thenReturn(true);
+        when(doctorRepository.findStatusByIdIn(List.of(7L))).thenReturn(List.of(activeDoctor()));
+        when(appointmentRepository.findBlockingSpansBetween(eq(7L), eq(3L), eq(FIRST.minusMinutes(480)), any()))
+                .thenReturn(List.of(span(FIRST.plusDays(7), 30)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> seriesService.book(weekly(3), false))
+                .isInstanceOf(SlotConflictException.class)
+                .hasMessageContaining(FIRST.plusDays(7).toString());
+        verifyNoInteractions(jdbcTemplate, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Booking with skipConflicts should batch-insert only the free occurrences")
+    void testBook_SkipConflicts() {
+        // Arrange
+        when(patientRepository.existsById(3L)).thenReturn(true);
+        when(doctorRepository.findStatusByIdIn(List.of(7L))).thenReturn(List.of(activeDoctor()));
+        when(appointmentRepository.findBlockingSpansBetween(eq(7L), eq(3L), eq(FIRST.minusMinutes(480)), any()))
+                .thenReturn(List.of(span(FIRST.plusDays(7), 30)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(40L);
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    assertThat(invocation.<BatchPreparedStatementSetter>getArgument(1)
+                            .getBatchSize()).isEqualTo(2);
+                    return new int[]{1, 1};
+                });
+        doAnswer(invocation -> {
+            // Rows read back for the new series
+            RowCallbackHandler handler = invocation.getArgument(1);
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getTimestamp("appointment_date")).thenReturn(
+                    Timestamp.valueOf(FIRST), Timestamp.valueOf(FIRST.plusDays(14)));
+            when(rs.getLong("id")).thenReturn(100L, 101L);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(40L));
+
+        // Act
+        SeriesResponse response = seriesService.book(weekly(3), true);
+
+        // Assert
+        assertThat(response.seriesId()).isEqualTo(40L);
+        assertThat(response.booked()).isEqualTo(2);
+        assertThat(response.occurrences()).extracting(SeriesResponse.Occurrence::appointmentId)
+                .containsExactly(100L, null, 101L);
+        verify(eventPublisher).publishEvent(new AppointmentChangedEvent(101L, 7L, null, FIRST.plusDays(14), "BOOKED"));
+        verify(eventPublisher, times(2)).publishEvent(any(AppointmentChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Cancelling the rest of a series should publish one event per cancelled occurrence")
+    void testCancelRemaining() {
+        // Arrange
+        when(seriesRepository.existsById(40L)).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of(
+                new AppointmentChangedEvent(100L, 7L, FIRST, FIRST, "CANCELLED"),
+                new AppointmentChangedEvent(101L, 7L, FIRST.plusDays(7), FIRST.plusDays(7), "CANCELLED")));
+
+        // Act
+        SeriesChangeResponse response = seriesService.cancelRemaining(40L, FIRST);
+
+        // Assert
+        assertThat(response.updated()).isEqualTo(2);
+        assertThat(response.appointmentIds()).containsExactly(100L, 101L);
+        verify(eventPublisher, times(2)).publishEvent(any(AppointmentChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Moving the rest of a series should fail as a whole when a new slot is taken")
+    void testMoveRemaining_Conflict() {
+        // Arrange
+        when(seriesRepository.existsById(40L)).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("14:30"), eq(40L), any()))
+                .thenReturn(List.of(FIRST.withHour(14).withMinute(30)));
+
+        // Act & Assert
+        assertThatThrownBy(() -> seriesService.moveRemaining(40L, FIRST, LocalTime.of(14, 30)))
+                .isInstanceOf(SlotConflictException.class);
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), any(Object[].class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should return 404 for an unknown series")
+    void testCancelRemaining_UnknownSeries() {
+        // Arrange
+        when(seriesRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> seriesService.cancelRemaining(99L, null))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static AppointmentRepository.SpanView span(LocalDateTime start, int durationMinutes) {
+        return new AppointmentRepository.SpanView() {
+            public LocalDateTime getAppointmentDate() { return start; }
+            public Integer getDurationMinutes() { return durationMinutes; }
+        };
+    }
+
+    private static SeriesRequest weekly(int count) {
+        return new SeriesRequest(3L, 7L, FIRST, "weekly", null, count, null);
+    }
+
+    private static DoctorRepository.DoctorStatusView activeDoctor() {
+        return new DoctorRepository.DoctorStatusView() {
+            @Override
+            public Long getId() {
+                return 7L;
+            }
+
+            @Override
+            public Boolean getActive() {
+                return true;
+            }
+        };
+    }
+}
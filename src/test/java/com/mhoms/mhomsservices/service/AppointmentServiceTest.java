@@ -1,20 +1,29 @@
 package com.mhoms.mhomsservices.service;
 
+import com.mhoms.mhomsservices.exception.BookingRejectedException;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.PreconditionFailedException;
 import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
+import com.mhoms.mhomsservices.exception.SlotConflictException;
 import com.mhoms.mhomsservices.model.Appointment;
 import com.mhoms.mhomsservices.model.Doctor;
 import com.mhoms.mhomsservices.model.Patient;
 import com.mhoms.mhomsservices.repository.AppointmentRepository;
-import com.mhoms.mhomsservices.repository.DoctorRepository;
-import com.mhoms.mhomsservices.repository.PatientRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -37,12 +46,17 @@ class AppointmentServiceTest {
     private AppointmentRepository appointmentRepository;
 
     @Mock
-    private PatientRepository patientRepository;
+    private SlotOccupancyIndex slotOccupancyIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
 
     @Mock
-    private DoctorRepository doctorRepository;
+    private GroupCommitBookingPipeline bookingPipeline;
 
-    @InjectMocks
     private AppointmentService appointmentService;
 
     private Patient testPatient;
@@ -52,6 +66,11 @@ class AppointmentServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        appointmentService = new AppointmentService(appointmentRepository, slotOccupancyIndex,
+                eventPublisher, transactionTemplate, bookingPipeline, 3);
+
         // Setup test patient
         testPatient = new Patient();
         testPatient.setId(1L);
@@ -78,11 +97,9 @@ class AppointmentServiceTest {
     @DisplayName("Should book appointment successfully")
     void testBookAppointment_Success() {
         // Arrange
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
-        when(doctorRepository.findById(1L)).thenReturn(Optional.of(testDoctor));
-        when(appointmentRepository.existsByDoctorAndAppointmentDate(testDoctor, appointmentDate))
-                .thenReturn(false);
-        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+        when(appointmentRepository.insertIfBookable(1L, 1L, appointmentDate, 30))
+                .thenReturn(bookingResult(true, true, true, 1L));
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
 
         // Act
         Appointment bookedAppointment = appointmentService.bookAppointment(1L, 1L, appointmentDate);
@@ -93,55 +110,215 @@ class AppointmentServiceTest {
         assertThat(bookedAppointment.getPatient().getName()).isEqualTo("Emma Thompson");
         assertThat(bookedAppointment.getDoctor().getName()).isEqualTo("Dr. Michael Chen");
 
-        verify(appointmentRepository, times(1)).save(any(Appointment.class));
+        verify(appointmentRepository, never()).existsDoctorOverlap(any(), any(), any(), any());
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(eventPublisher).publishEvent(new AppointmentChangedEvent(1L, 1L, null, appointmentDate, "BOOKED"));
+    }
+
+    @Test
+    @DisplayName("Minimal booking should return the new id without loading the appointment")
+    void testBook_ReturnsIdOnly() {
+        // Arrange
+        when(appointmentRepository.insertIfBookable(1L, 1L, appointmentDate, 30))
+                .thenReturn(bookingResult(true, true, true, 42L));
+
+        // Act
+        Long id = appointmentService.book(1L, 1L, appointmentDate);
+
+        // Assert
+        assertThat(id).isEqualTo(42L);
+        verify(appointmentRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("With group commit enabled, booking should go through the pipeline")
+    void testBook_GroupCommit() {
+        // Arrange
+        when(bookingPipeline.isEnabled()).thenReturn(true);
+        when(bookingPipeline.submit(1L, 1L, appointmentDate, 30))
+                .thenReturn(new BookingOutcome(BookingOutcome.Status.BOOKED, 42L));
+
+        // Act
+        Long id = appointmentService.book(1L, 1L, appointmentDate);
+
+        // Assert (the pipeline publishes the change with its batch)
+        assertThat(id).isEqualTo(42L);
+        verify(appointmentRepository, never()).insertIfBookable(any(), any(), any(), anyInt());
+        verifyNoInteractions(eventPublisher, transactionTemplate);
     }
 
     @Test
     @DisplayName("Should throw exception when patient not found")
     void testBookAppointment_PatientNotFound() {
         // Arrange
-        when(patientRepository.findById(999L)).thenReturn(Optional.empty());
+        when(appointmentRepository.insertIfBookable(999L, 1L, appointmentDate, 30))
+                .thenReturn(bookingResult(false, true, true, null));
 
         // Act & Assert
         assertThatThrownBy(() -> appointmentService.bookAppointment(999L, 1L, appointmentDate))
-                .isInstanceOf(ResourceNotFoundException.class)
-                .hasMessageContaining("Patient not found");
+                .isInstanceOf(BookingRejectedException.class)
+                .hasMessageContaining("Patient not found")
+                .extracting("code").isEqualTo("PATIENT_NOT_FOUND");
 
-        verify(appointmentRepository, never()).save(any(Appointment.class));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     @DisplayName("Should throw exception when doctor not found")
     void testBookAppointment_DoctorNotFound() {
         // Arrange
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
-        when(doctorRepository.findById(999L)).thenReturn(Optional.empty());
+        when(appointmentRepository.insertIfBookable(1L, 999L, appointmentDate, 30))
+                .thenReturn(bookingResult(true, false, false, null));
 
         // Act & Assert
         assertThatThrownBy(() -> appointmentService.bookAppointment(1L, 999L, appointmentDate))
-                .isInstanceOf(ResourceNotFoundException.class)
-                .hasMessageContaining("Doctor not found");
+                .isInstanceOf(BookingRejectedException.class)
+                .hasMessageContaining("Doctor not found")
+                .extracting("code").isEqualTo("DOCTOR_NOT_FOUND");
+    }
 
-        verify(appointmentRepository, never()).save(any(Appointment.class));
+    @Test
+    @DisplayName("Should reject booking with an inactive doctor")
+    void testBookAppointment_DoctorInactive() {
+        // Arrange
+        when(appointmentRepository.insertIfBookable(1L, 1L, appointmentDate, 30))
+                .thenReturn(bookingResult(true, true, false, null));
+
+        // Act & Assert
+        assertThatThrownBy(() -> appointmentService.bookAppointment(1L, 1L, appointmentDate))
+                .isInstanceOf(BookingRejectedException.class)
+                .hasMessageContaining("not currently available")
+                .extracting("status").isEqualTo(HttpStatus.CONFLICT);
     }
 
     @Test
     @DisplayName("Should prevent duplicate booking for same doctor and time")
     void testBookAppointment_DuplicatePrevention() {
         // Arrange
-        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
-        when(doctorRepository.findById(1L)).thenReturn(Optional.of(testDoctor));
-        when(appointmentRepository.existsByDoctorAndAppointmentDate(testDoctor, appointmentDate))
-                .thenReturn(true); // Appointment already exists!
+        when(appointmentRepository.insertIfBookable(1L, 1L, appointmentDate, 30))
+                .thenReturn(bookingResult(true, true, true, null)); // Appointment already exists!
 
         // Act & Assert
         assertThatThrownBy(() -> appointmentService.bookAppointment(1L, 1L, appointmentDate))
+                .isInstanceOf(BookingRejectedException.class)
+                .hasMessageContaining("Doctor already has an appointment at this time")
+                .extracting("code").isEqualTo("SLOT_TAKEN");
+
+        verify(appointmentRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should reject booking when the patient has an overlapping appointment")
+    void testBookAppointment_PatientBusy() {
+        // Arrange
+        when(appointmentRepository.insertIfBookable(1L, 1L, appointmentDate, 45))
+                .thenReturn(bookingResult(true, true, true, true, null));
+
+        // Act & Assert
+        assertThatThrownBy(() -> appointmentService.bookAppointment(1L, 1L, appointmentDate, 45))
+                .isInstanceOf(BookingRejectedException.class)
+                .hasMessageContaining("overlapping")
+                .extracting("code").isEqualTo("PATIENT_BUSY");
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid duration or one running past midnight before touching the database")
+    void testBookAppointment_InvalidSpan() {
+        // Act & Assert
+        assertThatThrownBy(() -> appointmentService.book(1L, 1L, appointmentDate, 0))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> appointmentService.book(1L, 1L, appointmentDate.withHour(23).withMinute(45), null))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("midnight");
+        verifyNoInteractions(appointmentRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Reschedule should skip the doctor probe when the occupancy index reports no overlap")
+    void testRescheduleAppointment_FreeSlotSkipsDatabaseProbe() {
+        // Arrange
+        LocalDateTime newDate = appointmentDate.plusHours(2);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(slotOccupancyIndex.mightOverlap(1L, newDate, 30)).thenReturn(false);
+        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+
+        // Act
+        appointmentService.rescheduleAppointment(1L, newDate);
+
+        // Assert
+        verify(appointmentRepository, never()).existsDoctorOverlap(any(), any(), any(), any());
+        verify(eventPublisher).publishEvent(new AppointmentChangedEvent(1L, 1L, appointmentDate, newDate, "BOOKED"));
+    }
+
+    @Test
+    @DisplayName("Reschedule should map a unique-constraint violation from a concurrent booking to a slot conflict")
+    void testRescheduleAppointment_UniqueViolationIsConflict() {
+        // Arrange
+        LocalDateTime newDate = appointmentDate.plusHours(2);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(slotOccupancyIndex.mightOverlap(1L, newDate, 30)).thenReturn(false);
+        when(appointmentRepository.save(any(Appointment.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate key", new SQLException("duplicate key value violates unique constraint", "23505")));
+
+        // Act & Assert
+        assertThatThrownBy(() -> appointmentService.rescheduleAppointment(1L, newDate))
+                .isInstanceOf(SlotConflictException.class)
+                .hasMessageContaining("Doctor already has an appointment at this time");
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Reschedule should confirm an indexed overlap against the database")
+    void testRescheduleAppointment_OccupiedSlot() {
+        // Arrange
+        LocalDateTime newDate = appointmentDate.plusHours(2);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(slotOccupancyIndex.mightOverlap(1L, newDate, 30)).thenReturn(true);
+        when(appointmentRepository.existsDoctorOverlap(1L, newDate, newDate.plusMinutes(30), 1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> appointmentService.rescheduleAppointment(1L, newDate))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Doctor already has an appointment at this time");
 
         verify(appointmentRepository, never()).save(any(Appointment.class));
     }
 
+    @Test
+    @DisplayName("Reschedule should refuse a time overlapping another appointment of the patient")
+    void testRescheduleAppointment_PatientBusy() {
+        // Arrange
+        LocalDateTime newDate = appointmentDate.plusMinutes(15);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(slotOccupancyIndex.mightOverlap(1L, newDate, 30)).thenReturn(false);
+        when(appointmentRepository.existsPatientOverlap(1L, newDate, newDate.plusMinutes(30), 1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> appointmentService.rescheduleAppointment(1L, newDate))
+                .isInstanceOf(SlotConflictException.class)
+                .hasMessageContaining("Patient already has an appointment");
+
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    @Test
+    @DisplayName("Reschedule should map an exclusion-constraint violation from a concurrent overlap to a slot conflict")
+    void testRescheduleAppointment_ExclusionViolationIsConflict() {
+        // Arrange
+        LocalDateTime newDate = appointmentDate.plusHours(2);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(slotOccupancyIndex.mightOverlap(1L, newDate, 30)).thenReturn(false);
+        when(appointmentRepository.save(any(Appointment.class))).thenThrow(new DataIntegrityViolationException(
+                "conflicting key", new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        // Act & Assert
+        assertThatThrownBy(() -> appointmentService.rescheduleAppointment(1L, newDate))
+                .isInstanceOf(SlotConflictException.class);
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     @DisplayName("Should retrieve all appointments")
     void testGetAllAppointments_Success() {
@@ -209,4 +386,99 @@ class AppointmentServiceTest {
         // Assert
         assertThat(testAppointment.getStatus()).isEqualTo("COMPLETED");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Status update with a stale If-Match version should fail without saving")
+    void testUpdateAppointmentStatus_StaleVersion() {
+        // Arrange
+        testAppointment.setVersion(4L);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+
+        // Act & Assert
+        assertThatThrownBy(() -> appointmentService.updateAppointmentStatus(1L, "COMPLETED", 3L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .extracting("currentVersion").isEqualTo(4L);
+
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+        assertThat(appointmentService.getContentionStats().preconditionFailures()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Status update without If-Match should retry a concurrent version conflict on the fresh row")
+    void testUpdateAppointmentStatus_RetriesVersionConflict() {
+        // Arrange
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+        doThrow(new ObjectOptimisticLockingFailureException(Appointment.class, 1L))
+                .doNothing()
+                .when(appointmentRepository).flush();
+
+        // Act
+        Appointment updated = appointmentService.updateAppointmentStatus(1L, "COMPLETED");
+
+        // Assert
+        assertThat(updated.getStatus()).isEqualTo("COMPLETED");
+        verify(appointmentRepository, times(2)).findById(1L);
+        AppointmentService.ContentionStats stats = appointmentService.getContentionStats();
+        assertThat(stats.versionConflicts()).isEqualTo(1);
+        assertThat(stats.retries()).isEqualTo(1);
+        assertThat(stats.retriesExhausted()).isZero();
+    }
+
+    @Test
+    @DisplayName("Version conflict on an If-Match update should not be retried")
+    void testRescheduleAppointment_PinnedVersionConflict() {
+        // Arrange
+        testAppointment.setVersion(2L);
+        LocalDateTime newDate = appointmentDate.plusHours(2);
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(slotOccupancyIndex.mightOverlap(1L, newDate, 30)).thenReturn(false);
+        when(appointmentRepository.save(any(Appointment.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Appointment.class, 1L));
+
+        // Act & Assert
+        assertThatThrownBy(() -> appointmentService.rescheduleAppointment(1L, newDate, 2L))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        verify(appointmentRepository, times(1)).save(any(Appointment.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("Persistent version conflicts should give up after the configured attempts")
+    void testUpdateAppointmentStatus_RetriesExhausted() {
+        // Arrange
+        when(appointmentRepository.findById(1L)).thenReturn(Optional.of(testAppointment));
+        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+        doThrow(new ObjectOptimisticLockingFailureException(Appointment.class, 1L))
+                .when(appointmentRepository).flush();
+
+        // Act & Assert
+        assertThatThrownBy(() -> appointmentService.updateAppointmentStatus(1L, "COMPLETED"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("modified concurrently");
+
+        verify(appointmentRepository, times(3)).save(any(Appointment.class));
+        assertThat(appointmentService.getContentionStats().retriesExhausted()).isEqualTo(1);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static AppointmentRepository.BookingResultView bookingResult(
+            boolean patientFound, boolean doctorFound, boolean doctorActive, Long appointmentId) {
+        return bookingResult(patientFound, doctorFound, doctorActive, false, appointmentId);
+    }
+
+    private static AppointmentRepository.BookingResultView bookingResult(
+            boolean patientFound, boolean doctorFound, boolean doctorActive, boolean patientBusy, Long appointmentId) {
+        return new AppointmentRepository.BookingResultView() {
+            public boolean getPatientFound() { return patientFound; }
+            public boolean getDoctorFound() { return doctorFound; }
+            public boolean getDoctorActive() { return doctorActive; }
+            public boolean getPatientBusy() { return patientBusy; }
+            public Long getAppointmentId() { return appointmentId; }
+        };
+    }
+}
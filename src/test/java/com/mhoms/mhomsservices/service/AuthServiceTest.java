@@ -7,6 +7,11 @@ import com.mhoms.mhomsservices.model.Role;
 import com.mhoms.mhomsservices.model.User;
 import com.mhoms.mhomsservices.repository.UserRepository;
 import com.mhoms.mhomsservices.security.JwtUtil;
+import com.mhoms.mhomsservices.security.ParsedToken;
+import com.mhoms.mhomsservices.security.RefreshTokenReuseException;
+import com.mhoms.mhomsservices.security.RefreshTokenStore;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,6 +23,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Date;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -45,6 +51,9 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
     @InjectMocks
     private AuthService authService;
 
@@ -166,14 +175,15 @@ class AuthServiceTest {
     }
 
     @Test
-    @DisplayName("Should refresh token successfully")
+    @DisplayName("Should refresh token successfully and rotate it")
     void testRefreshToken_Success() {
         // Arrange
         String refreshToken = "validRefreshToken";
-        when(jwtUtil.extractUsername(refreshToken)).thenReturn("testuser");
+        ParsedToken parsed = refreshToken("jti-1");
+        when(jwtUtil.parseToken(refreshToken)).thenReturn(parsed);
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(jwtUtil.validateToken(refreshToken, testUser)).thenReturn(true);
         when(jwtUtil.generateToken(testUser)).thenReturn("newAccessToken123");
+        when(jwtUtil.generateRefreshToken(testUser)).thenReturn("newRefreshToken123");
 
         // Act
         AuthResponse response = authService.refreshToken(refreshToken);
@@ -181,8 +191,9 @@ class AuthServiceTest {
         // Assert
         assertThat(response).isNotNull();
         assertThat(response.getAccessToken()).isEqualTo("newAccessToken123");
-        assertThat(response.getRefreshToken()).isEqualTo(refreshToken);
+        assertThat(response.getRefreshToken()).isEqualTo("newRefreshToken123");
         assertThat(response.getUsername()).isEqualTo("testuser");
+        verify(refreshTokenStore, times(1)).rotate(parsed, "newRefreshToken123", testUser);
     }
 
     @Test
@@ -190,13 +201,58 @@ class AuthServiceTest {
     void testRefreshToken_InvalidToken() {
         // Arrange
         String refreshToken = "invalidRefreshToken";
-        when(jwtUtil.extractUsername(refreshToken)).thenReturn("testuser");
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
-        when(jwtUtil.validateToken(refreshToken, testUser)).thenReturn(false);
+        when(jwtUtil.parseToken(refreshToken)).thenThrow(new io.jsonwebtoken.MalformedJwtException("bad"));
 
         // Act & Assert
         assertThatThrownBy(() -> authService.refreshToken(refreshToken))
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessageContaining("Invalid refresh token");
+        verifyNoInteractions(refreshTokenStore);
+    }
+
+    @Test
+    @DisplayName("Should reject an access token presented as refresh token")
+    void testRefreshToken_AccessToken_Rejected() {
+        // Arrange
+        Claims claims = Jwts.claims().subject("testuser")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)).build();
+        when(jwtUtil.parseToken("accessToken")).thenReturn(ParsedToken.from(claims));
+
+        // Act & Assert
+        assertThatThrownBy(() -> authService.refreshToken("accessToken"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Invalid refresh token");
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    @DisplayName("Should propagate reuse detection from the token store")
+    void testRefreshToken_Reuse_Rejected() {
+        // Arrange
+        ParsedToken parsed = refreshToken("jti-1");
+        when(jwtUtil.parseToken("rotatedToken")).thenReturn(parsed);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(jwtUtil.generateToken(testUser)).thenReturn("newAccessToken123");
+        when(jwtUtil.generateRefreshToken(testUser)).thenReturn("newRefreshToken123");
+        doThrow(new RefreshTokenReuseException("Refresh token reuse detected"))
+                .when(refreshTokenStore).rotate(parsed, "newRefreshToken123", testUser);
+
+        // Act & Assert
+        assertThatThrownBy(() -> authService.refreshToken("rotatedToken"))
+                .isInstanceOf(RefreshTokenReuseException.class);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private ParsedToken refreshToken(String jti) {
+        Claims claims = Jwts.claims()
+                .subject("testuser")
+                .id(jti)
+                .add(JwtUtil.CLAIM_TYPE, JwtUtil.TYPE_REFRESH)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .build();
+        return ParsedToken.from(claims);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,225 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.BatchBookingResponse;
+import com.mhoms.mhomsservices.dto.BatchBookingResponse.ItemStatus;
+import com.mhoms.mhomsservices.dto.BookingRequest;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import com.mhoms.mhomsservices.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BatchBookingService
+ * Tests per-item outcomes, set-wise lookups and all-or-nothing rollback
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Batch Booking Service Tests")
+class BatchBookingServiceTest {
+
+    private static final LocalDateTime TEN = LocalDateTime.of(2099, 6, 1, 10, 0);
+    private static final LocalDateTime ELEVEN = TEN.plusHours(1);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleTransactionStatus transactionStatus;
+    private BatchBookingService batchBookingService;
+
+    @BeforeEach
+    void setUp() {
+        transactionStatus = new SimpleTransactionStatus();
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(transactionStatus));
+        batchBookingService = new BatchBookingService(appointmentRepository, patientRepository, doctorRepository,
+                jdbcTemplate, transactionTemplate, eventPublisher, 500, 3);
+    }
+
+    @Test
+    @DisplayName("Independent mode should report every item and book only the valid ones")
+    void testBookAll_IndependentItems() {
+        // Arrange
+        List<BookingRequest> requests = List.of(
+                new BookingRequest(1L, 10L, TEN),
+                new BookingRequest(2L, 10L, ELEVEN),
+                new BookingRequest(1L, 10L, TEN));
+        when(patientRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(doctorRepository.findStatusByIdIn(any())).thenReturn(List.of(doctor(10L, true)));
+        when(appointmentRepository.findSlotsByDoctorsAndDates(any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(slot(100L, 1L, 10L, TEN)));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenReturn(new int[]{1});
+
+        // Act
+        BatchBookingResponse response = batchBookingService.bookAll(requests, false);
+
+        // Assert
+        assertThat(response.committed()).isTrue();
+        assertThat(response.booked()).isEqualTo(1);
+        assertThat(response.results()).extracting(BatchBookingResponse.ItemResult::status)
+                .containsExactly(ItemStatus.BOOKED, ItemStatus.PATIENT_NOT_FOUND, ItemStatus.DUPLICATE_IN_BATCH);
+        assertThat(response.results().get(0).appointmentId()).isEqualTo(100L);
+        verify(patientRepository, times(1)).findExistingIds(any());
+        verify(eventPublisher, times(1)).publishEvent(any(AppointmentChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Taken slots, inactive doctors and invalid items should be rejected before inserting")
+    void testBookAll_RejectedBeforeInsert() {
+        // Arrange
+        List<BookingRequest> requests = List.of(
+                new BookingRequest(1L, 10L, TEN),
+                new BookingRequest(1L, 20L, TEN),
+                new BookingRequest(1L, null, TEN));
+        when(patientRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(doctorRepository.findStatusByIdIn(any())).thenReturn(List.of(doctor(10L, true), doctor(20L, false)));
+        when(appointmentRepository.findSlotsByDoctorsAndDates(any(), any()))
+                .thenReturn(List.of(slot(7L, 3L, 10L, TEN)));
+
+        // Act
+        BatchBookingResponse response = batchBookingService.bookAll(requests, false);
+
+        // Assert
+        assertThat(response.results()).extracting(BatchBookingResponse.ItemResult::status)
+                .containsExactly(ItemStatus.SLOT_TAKEN, ItemStatus.DOCTOR_INACTIVE, ItemStatus.INVALID);
+        verifyNoInteractions(jdbcTemplate, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Insert skipped by a concurrent booking should fail only its own item")
+    void testBookAll_LostRace() {
+        // Arrange
+        List<BookingRequest> requests = List.of(
+                new BookingRequest(1L, 10L, TEN),
+                new BookingRequest(1L, 10L, ELEVEN));
+        when(patientRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(doctorRepository.findStatusByIdIn(any())).thenReturn(List.of(doctor(10L, true)));
+        when(appointmentRepository.findSlotsByDoctorsAndDates(any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(slot(100L, 1L, 10L, TEN), slot(101L, 9L, 10L, ELEVEN)));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenReturn(new int[]{1, 0});
+
+        // Act
+        BatchBookingResponse response = batchBookingService.bookAll(requests, false);
+
+        // Assert
+        assertThat(response.results()).extracting(BatchBookingResponse.ItemResult::status)
+                .containsExactly(ItemStatus.BOOKED, ItemStatus.SLOT_TAKEN);
+        assertThat(transactionStatus.isRollbackOnly()).isFalse();
+    }
+
+    @Test
+    @DisplayName("All-or-nothing mode should insert nothing and roll back when any item fails")
+    void testBookAll_AllOrNothingRollsBack() {
+        // Arrange
+        List<BookingRequest> requests = List.of(
+                new BookingRequest(1L, 10L, TEN),
+                new BookingRequest(2L, 10L, ELEVEN));
+        when(patientRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(doctorRepository.findStatusByIdIn(any())).thenReturn(List.of(doctor(10L, true)));
+        when(appointmentRepository.findSlotsByDoctorsAndDates(any(), any())).thenReturn(List.of());
+
+        // Act
+        BatchBookingResponse response = batchBookingService.bookAll(requests, true);
+
+        // Assert
+        assertThat(response.committed()).isFalse();
+        assertThat(response.booked()).isZero();
+        assertThat(response.results()).extracting(BatchBookingResponse.ItemResult::status)
+                .containsExactly(ItemStatus.ROLLED_BACK, ItemStatus.PATIENT_NOT_FOUND);
+        assertThat(transactionStatus.isRollbackOnly()).isTrue();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("All-or-nothing mode should commit when every item is booked")
+    void testBookAll_AllOrNothingCommits() {
+        // Arrange
+        List<BookingRequest> requests = List.of(
+                new BookingRequest(1L, 10L, TEN),
+                new BookingRequest(1L, 10L, ELEVEN));
+        when(patientRepository.findExistingIds(any())).thenReturn(List.of(1L));
+        when(doctorRepository.findStatusByIdIn(any())).thenReturn(List.of(doctor(10L, true)));
+        when(appointmentRepository.findSlotsByDoctorsAndDates(any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(slot(100L, 1L, 10L, TEN), slot(101L, 1L, 10L, ELEVEN)));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenReturn(new int[]{1, 1});
+
+        // Act
+        BatchBookingResponse response = batchBookingService.bookAll(requests, true);
+
+        // Assert
+        assertThat(response.committed()).isTrue();
+        assertThat(response.booked()).isEqualTo(2);
+        assertThat(transactionStatus.isRollbackOnly()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject batches over the item limit")
+    void testBookAll_TooManyItems() {
+        // Arrange
+        List<BookingRequest> requests = Collections.nCopies(4, new BookingRequest(1L, 10L, TEN));
+
+        // Act & Assert
+        assertThatThrownBy(() -> batchBookingService.bookAll(requests, false))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("limit of 3");
+        verifyNoInteractions(patientRepository, jdbcTemplate);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static DoctorRepository.DoctorStatusView doctor(Long id, boolean active) {
+        return new DoctorRepository.DoctorStatusView() {
+            public Long getId() { return id; }
+            public Boolean getActive() { return active; }
+        };
+    }
+
+    private static AppointmentRepository.SlotView slot(Long id, Long patientId, Long doctorId, LocalDateTime date) {
+        return new AppointmentRepository.SlotView() {
+            public Long getId() { return id; }
+            public Long getPatientId() { return patientId; }
+            public Long getDoctorId() { return doctorId; }
+            public LocalDateTime getAppointmentDate() { return date; }
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.BulkStatusRequest;
+import com.mhoms.mhomsservices.dto.BulkStatusResponse;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.service.BulkStatusService.MatchedRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BulkStatusService
+ * Tests selection validation, transition rules, counts and change events
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Bulk Status Service Tests")
+class BulkStatusServiceTest {
+
+    private static final LocalDateTime DAY_START = LocalDateTime.of(2099, 6, 1, 0, 0);
+    private static final LocalDateTime DAY_END = DAY_START.plusDays(1).minusSeconds(1);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BulkStatusService bulkStatusService;
+
+    @BeforeEach
+    void setUp() {
+        bulkStatusService = new BulkStatusService(jdbcTemplate, eventPublisher, 3, 31);
+    }
+
+    @Test
+    @DisplayName("Closing a clinic day should update booked rows, skip the rest and publish one event per update")
+    void testTransition_ClinicDay() {
+        // Arrange
+        LocalDateTime ten = DAY_START.plusHours(10);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of(
+                new MatchedRow(1L, 7L, ten, "BOOKED", true),
+                new MatchedRow(2L, 7L, ten.plusHours(1), "BOOKED", true),
+                new MatchedRow(3L, 7L, ten.plusHours(2), "CANCELLED", false)));
+
+        // Act
+        BulkStatusResponse response = bulkStatusService.transition(
+                new BulkStatusRequest(null, 7L, DAY_START, DAY_END, null, "completed"));
+
+        // Assert
+        assertThat(response.targetStatus()).isEqualTo("COMPLETED");
+        assertThat(response.matched()).isEqualTo(3);
+        assertThat(response.updated()).isEqualTo(2);
+        assertThat(response.skipped()).isEqualTo(1);
+        assertThat(response.updatedFrom()).isEqualTo(Map.of("BOOKED", 2));
+        verify(eventPublisher).publishEvent(new AppointmentChangedEvent(1L, 7L, ten, ten, "COMPLETED"));
+        verify(eventPublisher, times(2)).publishEvent(any(AppointmentChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Selection parameters should be bound in statement order: filters, target, sources")
+    void testTransition_BindsParameters() {
+        // Arrange
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), args.capture())).thenReturn(List.of());
+
+        // Act
+        BulkStatusResponse response = bulkStatusService.transition(
+                new BulkStatusRequest(List.of(5L, 6L, 5L), null, null, null, null, "BOOKED"));
+
+        // Assert
+        assertThat(args.getValue()).containsExactly(5L, 6L, "BOOKED", "CANCELLED", "COMPLETED", "NO_SHOW");
+        assertThat(response.matched()).isZero();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should reject unbounded selections, oversized id lists and long ranges")
+    void testTransition_RejectsUnboundedSelection() {
+        // Act & Assert
+        assertThatThrownBy(() -> bulkStatusService.transition(
+                new BulkStatusRequest(null, 7L, null, null, null, "CANCELLED")))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("ids or by startDate and endDate");
+        assertThatThrownBy(() -> bulkStatusService.transition(
+                new BulkStatusRequest(List.of(1L, 2L, 3L, 4L), null, null, null, null, "CANCELLED")))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("At most 3");
+        assertThatThrownBy(() -> bulkStatusService.transition(
+                new BulkStatusRequest(null, null, DAY_START, DAY_START.plusDays(40), null, "CANCELLED")))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("shorter than 31 days");
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown statuses and transitions that are not allowed")
+    void testTransition_RejectsInvalidTransition() {
+        // Act & Assert
+        assertThatThrownBy(() -> bulkStatusService.transition(
+                new BulkStatusRequest(List.of(1L), null, null, null, null, "ARCHIVED")))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("Invalid targetStatus");
+        assertThatThrownBy(() -> bulkStatusService.transition(
+                new BulkStatusRequest(List.of(1L), null, null, null, "COMPLETED", "CANCELLED")))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("Cannot move appointments from COMPLETED to CANCELLED");
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,275 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.DoctorAvailabilityResponse;
+import com.mhoms.mhomsservices.dto.EarliestAvailabilityResponse;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
+import com.mhoms.mhomsservices.model.Doctor;
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DoctorAvailabilityService
+ * Tests working-day masks, schedule caching and commit invalidation
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Doctor Availability Service Tests")
+class DoctorAvailabilityServiceTest {
+
+    // A Monday far enough ahead that no slot is in the past
+    private static final LocalDate MONDAY = LocalDate.of(2099, 6, 1);
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private Doctor doctor;
+    private SlotOccupancyIndex index;
+    private DoctorAvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        index = new SlotOccupancyIndex(appointmentRepository, 300, 100);
+        availabilityService = new DoctorAvailabilityService(doctorRepository, index, "09:00", "11:00",
+                new DayOfWeek[]{DayOfWeek.MONDAY, DayOfWeek.TUESDAY}, 30, 31, 300, 100);
+
+        doctor = new Doctor();
+        doctor.setId(1L);
+        doctor.setActive(true);
+    }
+
+    @Test
+    @DisplayName("Should return one hex mask per working day with booked slots cleared")
+    void testGetAvailability_WorkingDayMasks() {
+        // Arrange
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any()))
+                .thenReturn(List.of(span(MONDAY.atTime(9, 30)), span(MONDAY.atTime(10, 45))))
+                .thenReturn(List.of());
+
+        // Act (Monday to Wednesday; Wednesday is not a working day)
+        DoctorAvailabilityResponse response = availabilityService.getAvailability(1L, MONDAY, MONDAY.plusDays(2), null);
+
+        // Assert (slots 09:00, 09:30, 10:00, 10:30; 10:30 overlaps the 10:45 appointment -> free mask 0b0101)
+        assertThat(response.slotMinutes()).isEqualTo(30);
+        assertThat(response.days()).containsExactly(
+                new DoctorAvailabilityResponse.Day(MONDAY, LocalTime.of(9, 0), 4, 2, "5"),
+                new DoctorAvailabilityResponse.Day(MONDAY.plusDays(1), LocalTime.of(9, 0), 4, 4, "f"));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated requests from cached schedules")
+    void testGetAvailability_CachesSchedules() {
+        // Arrange
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any())).thenReturn(List.of());
+
+        // Act
+        availabilityService.getAvailability(1L, MONDAY, MONDAY, 30);
+        availabilityService.getAvailability(1L, MONDAY, MONDAY, 30);
+
+        // Assert
+        verify(appointmentRepository, times(1)).findAppointmentSpansByDoctorBetween(eq(1L), any(), any());
+        assertThat(availabilityService.getCacheStats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Committed booking should drop the cached schedule of its day")
+    void testOnAppointmentChanged_InvalidatesDay() {
+        // Arrange
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any())).thenReturn(List.of());
+        assertThat(availabilityService.getAvailability(1L, MONDAY, MONDAY, 30).days().get(0).mask()).isEqualTo("f");
+
+        // Act (same order as the commit listeners: index first)
+        AppointmentChangedEvent event = new AppointmentChangedEvent(9L, 1L, null, MONDAY.atTime(10, 0), "BOOKED");
+        index.onAppointmentChanged(event);
+        availabilityService.onAppointmentChanged(event);
+
+        // Assert
+        assertThat(availabilityService.getAvailability(1L, MONDAY, MONDAY, 30).days().get(0).mask()).isEqualTo("b");
+    }
+
+    @Test
+    @DisplayName("Inactive doctor should have no free slots")
+    void testGetAvailability_InactiveDoctor() {
+        // Arrange
+        doctor.setActive(false);
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+
+        // Act
+        DoctorAvailabilityResponse response = availabilityService.getAvailability(1L, MONDAY, MONDAY, 30);
+
+        // Assert
+        assertThat(response.active()).isFalse();
+        assertThat(response.days().get(0).mask()).isEqualTo("0");
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject bad ranges and slot lengths before touching the database")
+    void testGetAvailability_InvalidArguments() {
+        // Act & Assert
+        assertThatThrownBy(() -> availabilityService.getAvailability(1L, MONDAY, MONDAY.minusDays(1), 30))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> availabilityService.getAvailability(1L, MONDAY, MONDAY.plusDays(31), 30))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> availabilityService.getAvailability(1L, MONDAY, MONDAY, 1))
+                .isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(doctorRepository);
+    }
+
+    @Test
+    @DisplayName("Should throw when the doctor does not exist")
+    void testGetAvailability_DoctorNotFound() {
+        // Arrange
+        when(doctorRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThatThrownBy(() -> availabilityService.getAvailability(99L, MONDAY, MONDAY, 30))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Earliest openings should merge doctors in start order, loading each day once for all doctors")
+    void testFindEarliest_MergesDoctors() {
+        // Arrange
+        when(doctorRepository.findActiveBySpecialization("Cardiology"))
+                .thenReturn(List.of(doctorName(1L, "Dr. A"), doctorName(2L, "Dr. B")));
+        when(appointmentRepository.findAppointmentDatesByDoctorsBetween(any(), eq(MONDAY.atStartOfDay()), any()))
+                .thenReturn(List.of(booked(1L, MONDAY.atTime(9, 0)), booked(1L, MONDAY.atTime(9, 30)),
+                        booked(2L, MONDAY.atTime(9, 0))));
+
+        // Act
+        EarliestAvailabilityResponse response =
+                availabilityService.findEarliest(" Cardiology ", MONDAY.atTime(8, 0), 4, 30);
+
+        // Assert
+        assertThat(response.doctors()).isEqualTo(2);
+        assertThat(response.openings()).containsExactly(
+                new EarliestAvailabilityResponse.Opening(MONDAY.atTime(9, 30), 2L, "Dr. B"),
+                new EarliestAvailabilityResponse.Opening(MONDAY.atTime(10, 0), 1L, "Dr. A"),
+                new EarliestAvailabilityResponse.Opening(MONDAY.atTime(10, 0), 2L, "Dr. B"),
+                new EarliestAvailabilityResponse.Opening(MONDAY.atTime(10, 30), 1L, "Dr. A"));
+        verify(appointmentRepository, times(1)).findAppointmentDatesByDoctorsBetween(any(), any(), any());
+        verify(appointmentRepository, never()).findAppointmentSpansByDoctorBetween(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Earliest openings should skip non-working days and stop at the search horizon")
+    void testFindEarliest_SkipsDaysAndStopsAtHorizon() {
+        // Arrange (Tuesday 10:15: two Tuesday slots left, then only Mondays and Tuesdays within 31 days)
+        when(doctorRepository.findActiveBySpecialization("Cardiology")).thenReturn(List.of(doctorName(1L, "Dr. A")));
+        when(appointmentRepository.findAppointmentDatesByDoctorsBetween(any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        EarliestAvailabilityResponse response =
+                availabilityService.findEarliest("cardiology", MONDAY.plusDays(1).atTime(10, 15), 100, 30);
+
+        // Assert (Tuesday 10:30, then 4 slots on each of the 8 following Mondays and Tuesdays)
+        assertThat(response.openings()).hasSize(1 + 8 * 4);
+        assertThat(response.openings().get(0).start()).isEqualTo(MONDAY.plusDays(1).atTime(10, 30));
+        assertThat(response.openings().get(1).start()).isEqualTo(MONDAY.plusDays(7).atTime(9, 0));
+        verify(appointmentRepository, times(9)).findAppointmentDatesByDoctorsBetween(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Earliest openings should validate specialization and limit")
+    void testFindEarliest_InvalidArguments() {
+        // Act & Assert
+        assertThatThrownBy(() -> availabilityService.findEarliest(" ", null, null, null))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> availabilityService.findEarliest("Cardiology", null, 0, null))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> availabilityService.findEarliest("Cardiology", null, 101, null))
+                .isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(doctorRepository);
+    }
+
+    @Test
+    @DisplayName("Hex mask should put slot 0 in the lowest bit of the last digit")
+    void testToHex() {
+        // Arrange
+        BitSet bits = new BitSet();
+        bits.set(0);
+        bits.set(5);
+        bits.set(8);
+
+        // Act & Assert
+        assertThat(DoctorAvailabilityService.toHex(bits, 9)).isEqualTo("121");
+        assertThat(DoctorAvailabilityService.toHex(new BitSet(), 16)).isEqualTo("0000");
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static DoctorRepository.DoctorNameView doctorName(Long id, String name) {
+        return new DoctorRepository.DoctorNameView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private static AppointmentRepository.DoctorDateView booked(Long doctorId, LocalDateTime time) {
+        return new AppointmentRepository.DoctorDateView() {
+            @Override
+            public Long getDoctorId() {
+                return doctorId;
+            }
+
+            @Override
+            public LocalDateTime getAppointmentDate() {
+                return time;
+            }
+
+            @Override
+            public Integer getDurationMinutes() {
+                return 30;
+            }
+        };
+    }
+
+    private static AppointmentRepository.SpanView span(LocalDateTime time) {
+        return new AppointmentRepository.SpanView() {
+            @Override
+            public LocalDateTime getAppointmentDate() {
+                return time;
+            }
+
+            @Override
+            public Integer getDurationMinutes() {
+                return 30;
+            }
+        };
+    }
+}
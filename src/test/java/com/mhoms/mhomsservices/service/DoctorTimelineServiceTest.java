@@ -0,0 +1,132 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.DoctorTimelineResponse;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.ResourceNotFoundException;
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DoctorTimelineService
+ * Tests the per-day entry encoding, range validation and the ETag fingerprint
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Doctor Timeline Service Tests")
+class DoctorTimelineServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2099, 6, 1);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    private DoctorTimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        timelineService = new DoctorTimelineService(appointmentRepository, doctorRepository, 62);
+    }
+
+    @Test
+    @DisplayName("Should group appointments by day as [minute, duration, status code, id]")
+    void testGetTimeline_EncodesEntries() {
+        // Arrange
+        when(doctorRepository.existsById(1L)).thenReturn(true);
+        when(appointmentRepository.findTimelineByDoctorBetween(1L, DAY.atStartOfDay(), DAY.plusDays(7).atStartOfDay()))
+                .thenReturn(List.of(
+                        row(10L, DAY.atTime(9, 0), 30, "BOOKED"),
+                        row(11L, DAY.atTime(13, 15), 45, "CANCELLED"),
+                        row(12L, DAY.plusDays(2).atTime(8, 0), 60, "RESCHEDULED")));
+
+        // Act
+        DoctorTimelineResponse timeline = timelineService.getTimeline(1L, DAY, null);
+
+        // Assert (days without appointments are left out; unknown statuses extend the legend)
+        assertThat(timeline.to()).isEqualTo(DAY.plusDays(6));
+        assertThat(timeline.statuses()).containsExactly("BOOKED", "COMPLETED", "CANCELLED", "NO_SHOW", "RESCHEDULED");
+        assertThat(timeline.days()).extracting(DoctorTimelineResponse.Day::date).containsExactly(DAY, DAY.plusDays(2));
+        assertThat(timeline.days().get(0).entries())
+                .containsExactly(new long[]{540, 30, 0, 10}, new long[]{795, 45, 2, 11});
+        assertThat(timeline.days().get(1).entries()).containsExactly(new long[]{480, 60, 4, 12});
+    }
+
+    @Test
+    @DisplayName("Should reject an inverted or too long range and an unknown doctor")
+    void testGetTimeline_Invalid() {
+        // Act & Assert
+        assertThatThrownBy(() -> timelineService.getTimeline(1L, DAY, DAY.minusDays(1)))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> timelineService.getTimeline(1L, DAY, DAY.plusDays(62)))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("62 days");
+        when(doctorRepository.existsById(1L)).thenReturn(false);
+        assertThatThrownBy(() -> timelineService.getTimeline(1L, DAY, DAY))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(appointmentRepository);
+    }
+
+    @Test
+    @DisplayName("The fingerprint should change with any entry and stay equal for equal content")
+    void testFingerprint() {
+        // Arrange
+        DoctorTimelineResponse timeline = timeline(new long[]{540, 30, 0, 10});
+
+        // Act & Assert
+        assertThat(DoctorTimelineService.fingerprint(timeline))
+                .isEqualTo(DoctorTimelineService.fingerprint(timeline(new long[]{540, 30, 0, 10})))
+                .isNotEqualTo(DoctorTimelineService.fingerprint(timeline(new long[]{540, 30, 2, 10})))
+                .isNotEqualTo(DoctorTimelineService.fingerprint(timeline(new long[]{570, 30, 0, 10})))
+                .isNotEqualTo(DoctorTimelineService.fingerprint(
+                        new DoctorTimelineResponse(1L, DAY.minusDays(1), DAY, DoctorTimelineService.STATUSES,
+                                timeline.days())));
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static DoctorTimelineResponse timeline(long[] entry) {
+        return new DoctorTimelineResponse(1L, DAY, DAY, DoctorTimelineService.STATUSES,
+                List.of(new DoctorTimelineResponse.Day(DAY, List.<long[]>of(entry))));
+    }
+
+    private static AppointmentRepository.TimelineView row(Long id, LocalDateTime time, int duration, String status) {
+        return new AppointmentRepository.TimelineView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getAppointmentDate() {
+                return time;
+            }
+
+            @Override
+            public Integer getDurationMinutes() {
+                return duration;
+            }
+
+            @Override
+            public String getStatus() {
+                return status;
+            }
+        };
+    }
+}
@@ -0,0 +1,199 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GroupCommitBookingPipeline
+ * Tests in-batch conflict deferral, per-booking outcomes, batch failures and the queue hand-off
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Group Commit Booking Pipeline Tests")
+class GroupCommitBookingPipelineTest {
+
+    private static final LocalDateTime SLOT = LocalDate.of(2099, 6, 1).atTime(10, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private GroupCommitBookingPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        pipeline = pipeline(false);
+    }
+
+    @Test
+    @DisplayName("Should book a batch with one statement and defer a booking overlapping an earlier one")
+    void testProcess_DefersInBatchConflict() {
+        // Arrange (the second booking overlaps the first for doctor 7; the third is another doctor and patient)
+        GroupCommitBookingPipeline.PendingBooking first = booking(1L, 7L, SLOT, 30);
+        GroupCommitBookingPipeline.PendingBooking overlapping = booking(2L, 7L, SLOT.plusMinutes(15), 30);
+        GroupCommitBookingPipeline.PendingBooking other = booking(3L, 8L, SLOT, 30);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of(
+                new BookingOutcome(BookingOutcome.Status.BOOKED, 100L),
+                new BookingOutcome(BookingOutcome.Status.PATIENT_BUSY, null)));
+
+        // Act
+        List<GroupCommitBookingPipeline.PendingBooking> deferred = pipeline.process(List.of(first, overlapping, other));
+
+        // Assert
+        assertThat(deferred).containsExactly(overlapping);
+        assertThat(first.result.join().appointmentId()).isEqualTo(100L);
+        assertThat(other.result.join().status()).isEqualTo(BookingOutcome.Status.PATIENT_BUSY);
+        assertThat(overlapping.result).isNotDone();
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), args.capture());
+        assertThat(args.getValue()).hasSize(10);
+        verify(eventPublisher).publishEvent(new AppointmentChangedEvent(100L, 7L, null, SLOT, "BOOKED", 30));
+        verifyNoMoreInteractions(eventPublisher);
+
+        GroupCommitBookingPipeline.PipelineStats stats = pipeline.getStats();
+        assertThat(stats.batches()).isEqualTo(1);
+        assertThat(stats.deferred()).isEqualTo(1);
+        assertThat(stats.batchSize().count()).isEqualTo(1);
+        assertThat(stats.latencyMs().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Back-to-back bookings of the same doctor should share a batch")
+    void testProcess_AdjacentBookingsShareBatch() {
+        // Arrange
+        GroupCommitBookingPipeline.PendingBooking first = booking(1L, 7L, SLOT, 30);
+        GroupCommitBookingPipeline.PendingBooking next = booking(2L, 7L, SLOT.plusMinutes(30), 30);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of(
+                new BookingOutcome(BookingOutcome.Status.BOOKED, 100L),
+                new BookingOutcome(BookingOutcome.Status.BOOKED, 101L)));
+
+        // Act
+        List<GroupCommitBookingPipeline.PendingBooking> deferred = pipeline.process(List.of(first, next));
+
+        // Assert
+        assertThat(deferred).isEmpty();
+        assertThat(next.result.join().appointmentId()).isEqualTo(101L);
+    }
+
+    @Test
+    @DisplayName("A failed batch should fail every booking in it and skip abandoned ones")
+    void testProcess_BatchFailure() {
+        // Arrange
+        GroupCommitBookingPipeline.PendingBooking booking = booking(1L, 7L, SLOT, 30);
+        GroupCommitBookingPipeline.PendingBooking abandoned = booking(2L, 8L, SLOT, 30);
+        assertThat(abandoned.abandon()).isTrue();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        // Act
+        pipeline.process(List.of(booking, abandoned));
+
+        // Assert
+        assertThat(booking.result).isCompletedExceptionally();
+        assertThat(abandoned.result).isNotDone();
+        assertThat(booking.abandon()).isFalse();
+        assertThat(pipeline.getStats().failedBatches()).isEqualTo(1);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("A submitted booking should be committed by the drainer and returned to the caller")
+    void testSubmit_RunsThroughDrainer() {
+        // Arrange
+        GroupCommitBookingPipeline running = pipeline(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(new BookingOutcome(BookingOutcome.Status.BOOKED, 100L)));
+        running.start();
+        try {
+            // Act
+            BookingOutcome outcome = running.submit(1L, 7L, SLOT, 30);
+
+            // Assert
+            assertThat(outcome.appointmentId()).isEqualTo(100L);
+            assertThat(running.getStats().submitted()).isEqualTo(1);
+        } finally {
+            running.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Stopping should fail bookings already taken into a lingering batch instead of leaving them waiting")
+    void testStop_FailsDrainedBookings() throws Exception {
+        // Arrange (a long linger keeps the drained booking in the batch being filled)
+        GroupCommitBookingPipeline running = new GroupCommitBookingPipeline(jdbcTemplate, transactionTemplate,
+                eventPublisher, true, 16, 60_000, 64, 30_000);
+        running.start();
+        CompletableFuture<BookingOutcome> caller = CompletableFuture.supplyAsync(() -> running.submit(1L, 7L, SLOT, 30));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (running.getStats().submitted() == 0 || running.getStats().queued() > 0) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+
+        // Act
+        running.stop();
+
+        // Assert (well before the 30 s maximum wait)
+        assertThatThrownBy(() -> caller.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TooManyRequestsException.class)
+                .hasMessageContaining("shutting down");
+        assertThat(running.isEnabled()).isFalse();
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Submitting to a pipeline that is not running should be refused")
+    void testSubmit_NotRunning() {
+        // Act & Assert
+        assertThat(pipeline.isEnabled()).isFalse();
+        assertThatThrownBy(() -> pipeline.submit(1L, 7L, SLOT, 30)).isInstanceOf(TooManyRequestsException.class);
+        assertThat(pipeline.getStats().rejected()).isEqualTo(1);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private GroupCommitBookingPipeline pipeline(boolean enabled) {
+        return new GroupCommitBookingPipeline(jdbcTemplate, transactionTemplate, eventPublisher,
+                enabled, 16, 1, 64, 5000);
+    }
+
+    private static GroupCommitBookingPipeline.PendingBooking booking(Long patientId, Long doctorId,
+                                                                     LocalDateTime start, int duration) {
+        return new GroupCommitBookingPipeline.PendingBooking(patientId, doctorId, start, duration);
+    }
+}
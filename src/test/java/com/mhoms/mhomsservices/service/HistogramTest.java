@@ -0,0 +1,59 @@
+package com.mhoms.mhomsservices.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for Histogram
+ * Tests bucket boundaries, the overflow bucket and bucket-based percentiles
+ */
+@DisplayName("Histogram Tests")
+class HistogramTest {
+
+    @Test
+    @DisplayName("Values should land in the first bucket whose bound is at least the value")
+    void testRecord_Buckets() {
+        // Arrange
+        Histogram histogram = new Histogram(1, 5, 10);
+
+        // Act
+        for (long value : new long[]{0, 1, 2, 5, 6, 10, 11, 40}) {
+            histogram.record(value);
+        }
+
+        // Assert
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count()).isEqualTo(8);
+        assertThat(snapshot.max()).isEqualTo(40);
+        assertThat(snapshot.mean()).isEqualTo(75 / 8.0);
+        assertThat(snapshot.buckets()).containsExactly(
+                Map.entry("<=1", 2L), Map.entry("<=5", 2L), Map.entry("<=10", 2L), Map.entry(">10", 2L));
+    }
+
+    @Test
+    @DisplayName("Percentiles should report the bucket bound, or the maximum past the last bound")
+    void testSnapshot_Percentiles() {
+        // Arrange
+        Histogram histogram = new Histogram(1, 5, 10);
+        for (int i = 0; i < 98; i++) {
+            histogram.record(3);
+        }
+        histogram.record(8);
+        histogram.record(70);
+
+        // Act
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        // Assert
+        assertThat(snapshot.p50()).isEqualTo(5);
+        assertThat(snapshot.p95()).isEqualTo(5);
+        assertThat(snapshot.p99()).isEqualTo(10);
+        assertThat(new Histogram(1, 5).snapshot().p99()).isZero();
+        assertThatThrownBy(() -> new Histogram(5, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,61 @@
+package com.mhoms.mhomsservices.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for IntervalSet
+ * Tests half-open overlap checks, nested intervals and copy-on-write inserts
+ */
+@DisplayName("Interval Set Tests")
+class IntervalSetTest {
+
+    @Test
+    @DisplayName("Touching intervals should not overlap")
+    void testOverlaps_HalfOpen() {
+        // Arrange
+        IntervalSet set = IntervalSet.of(List.of(new long[]{600, 630}, new long[]{660, 720}));
+
+        // Act & Assert
+        assertThat(set.overlaps(570, 600)).isFalse();
+        assertThat(set.overlaps(630, 660)).isFalse();
+        assertThat(set.overlaps(629, 631)).isTrue();
+        assertThat(set.overlaps(700, 800)).isTrue();
+        assertThat(set.overlaps(720, 800)).isFalse();
+        assertThat(set.overlaps(615, 615)).isFalse();
+    }
+
+    @Test
+    @DisplayName("A long interval should be found behind later, shorter ones")
+    void testOverlaps_LongIntervalBehindShortOnes() {
+        // Arrange (09:00-13:00 overlapping legacy rows at 10:00 and 11:00)
+        IntervalSet set = IntervalSet.of(List.of(new long[]{660, 690}, new long[]{540, 780}, new long[]{600, 630}));
+
+        // Act & Assert
+        assertThat(set.overlaps(750, 760)).isTrue();
+        assertThat(set.overlaps(780, 800)).isFalse();
+        assertThat(set.overlaps(500, 540)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Adding an interval should return a new set and leave the original unchanged")
+    void testWith_CopyOnWrite() {
+        // Arrange
+        IntervalSet set = IntervalSet.of(List.of(new long[]{600, 630}, new long[]{720, 750}));
+
+        // Act
+        IntervalSet added = set.with(540, 700);
+
+        // Assert
+        assertThat(added.size()).isEqualTo(3);
+        assertThat(added.overlaps(650, 660)).isTrue();
+        assertThat(added.overlaps(700, 720)).isFalse();
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.overlaps(650, 660)).isFalse();
+        assertThat(IntervalSet.EMPTY.with(10, 20).overlaps(15, 16)).isTrue();
+    }
+}
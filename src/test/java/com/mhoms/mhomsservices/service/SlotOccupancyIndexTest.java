@@ -0,0 +1,211 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SlotOccupancyIndex
+ * Tests lazy day loading, commit updates and free-slot queries
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Slot Occupancy Index Tests")
+class SlotOccupancyIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 12, 27);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    private SlotOccupancyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SlotOccupancyIndex(appointmentRepository, 300, 100);
+    }
+
+    @Test
+    @DisplayName("Should load a doctor-day once and answer later checks in memory")
+    void testMightOverlap_LoadsDayOnce() {
+        // Arrange
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any()))
+                .thenReturn(List.of(span(DAY.atTime(10, 0), 30)));
+
+        // Act & Assert
+        assertThat(index.mightOverlap(1L, DAY.atTime(10, 0), 30)).isTrue();
+        assertThat(index.mightOverlap(1L, DAY.atTime(10, 30), 30)).isFalse();
+        assertThat(index.mightOverlap(1L, DAY.atTime(23, 59), 1)).isFalse();
+        verify(appointmentRepository, times(1)).findAppointmentSpansByDoctorBetween(
+                1L, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        assertThat(index.getStats().dayLoads()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Overlap checks should cover the whole duration on both sides")
+    void testMightOverlap_Durations() {
+        // Arrange (10:00-11:00)
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any()))
+                .thenReturn(List.of(span(DAY.atTime(10, 0), 60)));
+
+        // Act & Assert
+        assertThat(index.mightOverlap(1L, DAY.atTime(10, 5), 10)).isTrue();
+        assertThat(index.mightOverlap(1L, DAY.atTime(9, 45), 30)).isTrue();
+        assertThat(index.mightOverlap(1L, DAY.atTime(10, 59), 5)).isTrue();
+        assertThat(index.mightOverlap(1L, DAY.atTime(9, 30), 30)).isFalse();
+        assertThat(index.mightOverlap(1L, DAY.atTime(11, 0), 30)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Preload should fetch only uncached doctors, in one query")
+    void testPreload_LoadsMissingDoctorsOnce() {
+        // Arrange
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any())).thenReturn(List.of());
+        index.mightOverlap(1L, DAY.atTime(9, 0), 30);
+        AppointmentRepository.DoctorDateView row = mock(AppointmentRepository.DoctorDateView.class);
+        when(row.getDoctorId()).thenReturn(2L);
+        when(row.getAppointmentDate()).thenReturn(DAY.atTime(14, 0));
+        when(row.getDurationMinutes()).thenReturn(30);
+        when(appointmentRepository.findAppointmentDatesByDoctorsBetween(
+                Set.of(2L, 3L), DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay())).thenReturn(List.of(row));
+
+        // Act
+        int loaded = index.preload(List.of(1L, 2L, 3L), DAY);
+
+        // Assert
+        assertThat(loaded).isEqualTo(2);
+        assertThat(index.preload(List.of(1L, 2L, 3L), DAY)).isZero();
+        assertThat(index.mightOverlap(2L, DAY.atTime(14, 15), 30)).isTrue();
+        assertThat(index.mightOverlap(3L, DAY.atTime(14, 0), 30)).isFalse();
+        verify(appointmentRepository, times(1)).findAppointmentDatesByDoctorsBetween(any(), any(), any());
+        assertThat(index.getStats().dayLoads()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Committed booking should add its interval without reloading the day")
+    void testOnAppointmentChanged_Booked() {
+        // Arrange
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any())).thenReturn(List.of());
+        index.mightOverlap(1L, DAY.atTime(9, 0), 30);
+
+        // Act
+        index.onAppointmentChanged(new AppointmentChangedEvent(5L, 1L, null, DAY.atTime(11, 15), "BOOKED", 45));
+
+        // Assert
+        assertThat(index.mightOverlap(1L, DAY.atTime(11, 50), 30)).isTrue();
+        assertThat(index.mightOverlap(1L, DAY.atTime(12, 0), 30)).isFalse();
+        verify(appointmentRepository, times(1)).findAppointmentSpansByDoctorBetween(eq(1L), any(), any());
+    }
+
+    @Test
+    @DisplayName("Reschedule should reload the vacated day instead of removing the interval in place")
+    void testOnAppointmentChanged_Rescheduled() {
+        // Arrange
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any()))
+                .thenReturn(List.of(span(DAY.atTime(10, 0), 30)))
+                .thenReturn(List.of());
+        assertThat(index.mightOverlap(1L, DAY.atTime(10, 0), 30)).isTrue();
+
+        // Act
+        index.onAppointmentChanged(new AppointmentChangedEvent(
+                5L, 1L, DAY.atTime(10, 0), DAY.plusDays(1).atTime(10, 0), "BOOKED"));
+
+        // Assert
+        assertThat(index.mightOverlap(1L, DAY.atTime(10, 0), 30)).isFalse();
+        verify(appointmentRepository, times(2)).findAppointmentSpansByDoctorBetween(
+                1L, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    @DisplayName("Cancellation should reload the day so the whole cancelled span is free again")
+    void testOnAppointmentChanged_Cancelled() {
+        // Arrange (10:00-12:00 booked, then cancelled - the reload leaves it out)
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any()))
+                .thenReturn(List.of(span(DAY.atTime(10, 0), 120)))
+                .thenReturn(List.of());
+        assertThat(index.mightOverlap(1L, DAY.atTime(11, 0), 30)).isTrue();
+
+        // Act
+        index.onAppointmentChanged(new AppointmentChangedEvent(
+                5L, 1L, DAY.atTime(10, 0), DAY.atTime(10, 0), "CANCELLED", 120));
+
+        // Assert
+        assertThat(index.findFreeSlots(1L, DAY, LocalTime.of(10, 0), LocalTime.of(12, 0), 30))
+                .containsExactly(DAY.atTime(10, 0), DAY.atTime(10, 30), DAY.atTime(11, 0), DAY.atTime(11, 30));
+        verify(appointmentRepository, times(2)).findAppointmentSpansByDoctorBetween(
+                1L, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    @DisplayName("Un-cancelling should reload the day so the revived appointment blocks its span again")
+    void testOnAppointmentChanged_Uncancelled() {
+        // Arrange (10:00-11:00 cancelled and left out, then booked again)
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(span(DAY.atTime(10, 0), 60)));
+        assertThat(index.mightOverlap(1L, DAY.atTime(10, 30), 30)).isFalse();
+
+        // Act
+        index.onAppointmentChanged(new AppointmentChangedEvent(
+                5L, 1L, DAY.atTime(10, 0), DAY.atTime(10, 0), "BOOKED", 60));
+
+        // Assert
+        assertThat(index.mightOverlap(1L, DAY.atTime(10, 30), 30)).isTrue();
+        verify(appointmentRepository, times(2)).findAppointmentSpansByDoctorBetween(
+                1L, DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    @DisplayName("Should list back-to-back slots that no appointment overlaps")
+    void testFindFreeSlots() {
+        // Arrange (09:40-10:10 and 11:00-11:30)
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any()))
+                .thenReturn(List.of(span(DAY.atTime(9, 40), 30), span(DAY.atTime(11, 0), 30)));
+
+        // Act
+        List<LocalDateTime> free = index.findFreeSlots(1L, DAY, LocalTime.of(9, 0), LocalTime.of(12, 0), 30);
+
+        // Assert
+        assertThat(free).containsExactly(DAY.atTime(9, 0), DAY.atTime(10, 30), DAY.atTime(11, 30));
+    }
+
+    @Test
+    @DisplayName("Range checks should respect durations and the end of day")
+    void testIsRangeFree_Durations() {
+        // Arrange (01:04-02:04 and 23:59-24:00)
+        when(appointmentRepository.findAppointmentSpansByDoctorBetween(eq(1L), any(), any()))
+                .thenReturn(List.of(span(DAY.atTime(23, 59), 1), span(DAY.atTime(1, 4), 60)));
+
+        // Act & Assert
+        assertThat(index.isRangeFree(1L, DAY, LocalTime.of(0, 0), LocalTime.of(1, 4))).isTrue();
+        assertThat(index.isRangeFree(1L, DAY, LocalTime.of(0, 0), LocalTime.of(1, 5))).isFalse();
+        assertThat(index.isRangeFree(1L, DAY, LocalTime.of(1, 30), LocalTime.of(1, 45))).isFalse();
+        assertThat(index.isRangeFree(1L, DAY, LocalTime.of(2, 4), LocalTime.of(23, 59))).isTrue();
+        assertThat(index.isRangeFree(1L, DAY, LocalTime.of(23, 0), LocalTime.MAX)).isFalse();
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private static AppointmentRepository.SpanView span(LocalDateTime start, int durationMinutes) {
+        return new AppointmentRepository.SpanView() {
+            public LocalDateTime getAppointmentDate() { return start; }
+            public Integer getDurationMinutes() { return durationMinutes; }
+        };
+    }
+}
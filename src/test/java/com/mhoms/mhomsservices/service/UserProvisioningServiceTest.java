@@ -0,0 +1,181 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.BulkProvisioningResponse;
+import com.mhoms.mhomsservices.dto.BulkProvisioningResponse.RowStatus;
+import com.mhoms.mhomsservices.dto.RegisterRequest;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.model.Role;
+import com.mhoms.mhomsservices.repository.UserRepository;
+import com.mhoms.mhomsservices.security.BoundedPasswordEncoder;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UserProvisioningService
+ * Tests validation, set-based dedupe, batching and CSV parsing
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("User Provisioning Service Tests")
+class UserProvisioningServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BoundedPasswordEncoder boundedPasswordEncoder;
+
+    private UserProvisioningService provisioningService;
+
+    @BeforeEach
+    void setUp() {
+        PasswordEncoder fastEncoder = mock(PasswordEncoder.class);
+        lenient().when(fastEncoder.encode(anyString())).thenAnswer(inv -> "hash:" + inv.getArgument(0));
+        when(boundedPasswordEncoder.getDelegate()).thenReturn(fastEncoder);
+
+        provisioningService = new UserProvisioningService(userRepository, jdbcTemplate, boundedPasswordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), 2, 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        provisioningService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should create new users and skip existing or repeated ones")
+    void testProvision_MixedBatch() {
+        // Arrange
+        UserRepository.UsernameEmailView taken = mock(UserRepository.UsernameEmailView.class);
+        when(taken.getUsername()).thenReturn("existing");
+        when(taken.getEmail()).thenReturn("existing@example.com");
+        when(userRepository.findTakenUsernamesOrEmails(anyCollection(), anyCollection()))
+                .thenReturn(List.of(taken), List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1}, new int[]{1});
+
+        List<RegisterRequest> requests = List.of(
+                request("alice", "alice@example.com"),
+                request("existing", "other@example.com"),
+                request("alice", "alice2@example.com"),
+                request("x", "bad-email")
+        );
+
+        // Act
+        BulkProvisioningResponse response = provisioningService.provision(requests);
+
+        // Assert
+        assertThat(response.total()).isEqualTo(4);
+        assertThat(response.created()).isEqualTo(1);
+        assertThat(response.skipped()).isEqualTo(2);
+        assertThat(response.invalid()).isEqualTo(1);
+        assertThat(response.results()).extracting(BulkProvisioningResponse.RowResult::status)
+                .containsExactly(RowStatus.CREATED, RowStatus.DUPLICATE, RowStatus.DUPLICATE, RowStatus.INVALID);
+    }
+
+    @Test
+    @DisplayName("Should insert with one JDBC batch per chunk and hashed passwords")
+    @SuppressWarnings("unchecked")
+    void testProvision_BatchInsert() {
+        // Arrange
+        when(userRepository.findTakenUsernamesOrEmails(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0});
+
+        // Act
+        BulkProvisioningResponse response = provisioningService.provision(List.of(
+                request("alice", "alice@example.com"),
+                request("bob", "bob@example.com")
+        ));
+
+        // Assert
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertThat(batch.getValue()).hasSize(2);
+        assertThat(batch.getValue().get(0)[2]).isEqualTo("hash:Password123");
+        assertThat(response.created()).isEqualTo(1);
+        assertThat(response.results().get(1).status()).isEqualTo(RowStatus.DUPLICATE);
+    }
+
+    @Test
+    @DisplayName("Should parse CSV with quoted fields and report bad rows")
+    void testProvisionCsv() throws Exception {
+        // Arrange
+        when(userRepository.findTakenUsernamesOrEmails(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+        String csv = """
+                username,email,password,full_name,role
+                carol,carol@example.com,Password123,"Smith, Carol",doctor
+                dave,dave@example.com,Password123,Dave,SURGEON
+                """;
+
+        // Act
+        BulkProvisioningResponse response =
+                provisioningService.provisionCsv(new BufferedReader(new StringReader(csv)));
+
+        // Assert
+        assertThat(response.created()).isEqualTo(1);
+        assertThat(response.invalid()).isEqualTo(1);
+        assertThat(response.results().get(1).message()).contains("Unknown role");
+    }
+
+    @Test
+    @DisplayName("Should report a null JSON item as invalid without touching the database")
+    void testProvision_NullItem() {
+        // Act
+        BulkProvisioningResponse response = provisioningService.provision(Collections.singletonList(null));
+
+        // Assert
+        assertThat(response.invalid()).isEqualTo(1);
+        assertThat(response.results().get(0).status()).isEqualTo(RowStatus.INVALID);
+        assertThat(response.results().get(0).message()).isEqualTo("Item is empty");
+        verifyNoInteractions(jdbcTemplate, userRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject batches over the row limit")
+    void testProvision_TooManyRows() {
+        // Arrange
+        List<RegisterRequest> requests = Collections.nCopies(11, request("a", "a@example.com"));
+
+        // Act & Assert
+        assertThatThrownBy(() -> provisioningService.provision(requests))
+                .isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(jdbcTemplate, userRepository);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private RegisterRequest request(String username, String email) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setEmail(email);
+        request.setPassword("Password123");
+        request.setFullName("Test User");
+        request.setRole(Role.PATIENT);
+        return request;
+    }
+}
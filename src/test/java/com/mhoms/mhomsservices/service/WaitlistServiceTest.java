@@ -0,0 +1,228 @@
+package com.mhoms.mhomsservices.service;
+
+import com.mhoms.mhomsservices.dto.WaitlistRequest;
+import com.mhoms.mhomsservices.exception.InvalidRequestException;
+import com.mhoms.mhomsservices.exception.SlotConflictException;
+import com.mhoms.mhomsservices.model.Doctor;
+import com.mhoms.mhomsservices.model.WaitlistEntry;
+import com.mhoms.mhomsservices.repository.DoctorRepository;
+import com.mhoms.mhomsservices.repository.PatientRepository;
+import com.mhoms.mhomsservices.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WaitlistService
+ * Tests registration rules, matching freed slots to holds, and accepting a hold
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Waitlist Service Tests")
+class WaitlistServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(3);
+    private static final LocalDateTime SLOT = DAY.atTime(10, 0);
+
+    @Mock
+    private WaitlistEntryRepository waitlistRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private WaitlistNotifier notifier;
+
+    private WaitlistService waitlistService;
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        waitlistService = new WaitlistService(waitlistRepository, patientRepository, doctorRepository, jdbcTemplate,
+                transactionManager, eventPublisher, notifier, 15, 31, 5);
+    }
+
+    @Test
+    @DisplayName("Should require exactly one of doctor and specialization and a sane window")
+    void testRegister_InvalidCriteria() {
+        // Act & Assert
+        assertThatThrownBy(() -> waitlistService.register(
+                new WaitlistRequest(1L, 7L, "Cardiology", DAY, DAY, null, null)))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("exactly one");
+        assertThatThrownBy(() -> waitlistService.register(
+                new WaitlistRequest(1L, 7L, null, DAY, DAY.plusDays(40), null, null)))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("31 days");
+        assertThatThrownBy(() -> waitlistService.register(
+                new WaitlistRequest(1L, 7L, null, DAY, DAY, LocalTime.of(12, 0), LocalTime.of(9, 0))))
+                .isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(waitlistRepository, patientRepository);
+    }
+
+    @Test
+    @DisplayName("Should refuse a patient who already has the maximum of active entries")
+    void testRegister_TooManyActive() {
+        // Arrange
+        when(patientRepository.existsById(1L)).thenReturn(true);
+        when(waitlistRepository.countByPatientIdAndStatusIn(eq(1L), any())).thenReturn(5L);
+
+        // Act & Assert
+        assertThatThrownBy(() -> waitlistService.register(
+                new WaitlistRequest(1L, null, "Cardiology", DAY, DAY, null, null)))
+                .isInstanceOf(IllegalStateException.class);
+        verify(waitlistRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("A cancelled slot should be held for the longest-waiting matching entry")
+    void testOnAppointmentChanged_HoldsLongestWaiting() {
+        // Arrange (entry 1 wants afternoons only, entries 2 and 3 accept 10:00)
+        register(1L, 7L, null, LocalTime.of(13, 0), null);
+        register(2L, null, "cardiology", null, LocalTime.of(11, 0));
+        register(3L, 7L, null, null, null);
+        when(doctorRepository.findById(7L)).thenReturn(Optional.of(doctor()));
+        when(jdbcTemplate.update(anyString(), eq(7L), any(), any(), anyLong())).thenReturn(1);
+
+        // Act
+        waitlistService.onAppointmentChanged(new AppointmentChangedEvent(50L, 7L, SLOT, SLOT, "CANCELLED"));
+
+        // Assert
+        ArgumentCaptor<WaitlistNotifier.SlotHold> hold = ArgumentCaptor.forClass(WaitlistNotifier.SlotHold.class);
+        verify(notifier).slotHeld(hold.capture());
+        assertThat(hold.getValue().entryId()).isEqualTo(2L);
+        assertThat(hold.getValue().slot()).isEqualTo(SLOT);
+        assertThat(hold.getValue().expiresAt()).isAfter(LocalDateTime.now().plusMinutes(14));
+        assertThat(waitlistService.getStats().holds()).isEqualTo(1);
+        assertThat(waitlistService.getStats().openEntries()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("An entry already taken elsewhere should be skipped for the next match")
+    void testOnAppointmentChanged_SkipsStaleEntry() {
+        // Arrange
+        register(1L, 7L, null, null, null);
+        register(2L, 7L, null, null, null);
+        when(doctorRepository.findById(7L)).thenReturn(Optional.of(doctor()));
+        when(jdbcTemplate.update(anyString(), eq(7L), any(), any(), eq(1L))).thenReturn(0);
+        when(jdbcTemplate.update(anyString(), eq(7L), any(), any(), eq(2L))).thenReturn(1);
+
+        // Act (a reschedule frees its previous time)
+        waitlistService.onAppointmentChanged(
+                new AppointmentChangedEvent(50L, 7L, SLOT, SLOT.plusDays(1), "BOOKED"));
+
+        // Assert
+        verify(notifier).slotHeld(argThat(h -> h.entryId() == 2L && h.slot().equals(SLOT)));
+        assertThat(waitlistService.getStats().openEntries()).isZero();
+    }
+
+    @Test
+    @DisplayName("Status changes that free nothing should not be matched")
+    void testFreedSlot() {
+        // Act & Assert
+        assertThat(WaitlistService.freedSlot(new AppointmentChangedEvent(1L, 7L, SLOT, SLOT, "COMPLETED"))).isNull();
+        assertThat(WaitlistService.freedSlot(new AppointmentChangedEvent(1L, 7L, null, SLOT, "BOOKED"))).isNull();
+        assertThat(WaitlistService.freedSlot(new AppointmentChangedEvent(1L, 7L, SLOT, SLOT, "CANCELLED")))
+                .isEqualTo(SLOT);
+    }
+
+    @Test
+    @DisplayName("Accepting a hold should book a new appointment and leave the cancelled one untouched")
+    void testAccept_InsertsNewAppointment() {
+        // Arrange
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(hold(LocalDateTime.now().plusMinutes(10))))
+                .thenReturn(List.of(51L));
+        when(jdbcTemplate.update(anyString(), eq(51L), eq(9L), any())).thenReturn(1);
+
+        // Act
+        WaitlistService.Acceptance acceptance = waitlistService.accept(9L);
+
+        // Assert
+        assertThat(acceptance.appointmentId()).isEqualTo(51L);
+        assertThat(acceptance.appointmentDate()).isEqualTo(SLOT);
+        ArgumentCaptor<String> queries = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(2)).query(queries.capture(), any(RowMapper.class), any(Object[].class));
+        assertThat(queries.getAllValues().get(1)).startsWith("INSERT INTO appointments");
+        ArgumentCaptor<String> updates = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).update(updates.capture(), eq(51L), eq(9L), any());
+        assertThat(queries.getAllValues()).noneMatch(sql -> sql.startsWith("UPDATE appointments"));
+        assertThat(updates.getValue()).startsWith("UPDATE waitlist_entries");
+        verify(eventPublisher).publishEvent(new AppointmentChangedEvent(51L, 7L, null, SLOT, "BOOKED"));
+    }
+
+    @Test
+    @DisplayName("Accepting should fail with a conflict when the slot was booked meanwhile")
+    void testAccept_SlotTaken() {
+        // Arrange
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of(hold(LocalDateTime.now().plusMinutes(10))))
+                .thenReturn(List.of());
+
+        // Act & Assert
+        assertThatThrownBy(() -> waitlistService.accept(9L)).isInstanceOf(SlotConflictException.class);
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), any(Object[].class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // HELPER METHODS
+    // ═══════════════════════════════════════════════════════════════
+
+    private void register(Long patientId, Long doctorId, String specialization, LocalTime earliest, LocalTime latest) {
+        lenient().when(patientRepository.existsById(any())).thenReturn(true);
+        lenient().when(doctorRepository.existsById(any())).thenReturn(true);
+        lenient().when(waitlistRepository.save(any(WaitlistEntry.class))).thenAnswer(invocation -> {
+            WaitlistEntry entry = invocation.getArgument(0);
+            entry.setId(ids.incrementAndGet());
+            return entry;
+        });
+        waitlistService.register(new WaitlistRequest(patientId, doctorId, specialization, DAY, DAY, earliest, latest));
+    }
+
+    private static Doctor doctor() {
+        Doctor doctor = new Doctor();
+        doctor.setId(7L);
+        doctor.setActive(true);
+        doctor.setSpecialization("Cardiology");
+        return doctor;
+    }
+
+    private static WaitlistService.Hold hold(LocalDateTime expiresAt) {
+        return new WaitlistService.Hold(4L, "HELD", 7L, SLOT, expiresAt);
+    }
+}